@@ -0,0 +1,110 @@
+package com.mapbox.mapboxsdk.offline;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.test.InstrumentationTestCase;
+
+import java.util.Arrays;
+
+public class OfflineDatabaseHandlerTest extends InstrumentationTestCase {
+
+    private static final String DATABASE = "offline-database-handler-test";
+    private static final String TILE = "https://a.tiles.mapbox.com/v4/mapbox.streets/12/654/1430.png?access_token=old";
+    private static final String PENDING_TILE = "https://a.tiles.mapbox.com/v4/mapbox.streets/12/654/1431.png?access_token=old";
+    private static final String METADATA = "https://a.tiles.mapbox.com/v4/mapbox.streets.json?secure&access_token=old";
+    private static final byte[] TILE_DATA = {1, 2, 3};
+    private static final byte[] METADATA_DATA = {4, 5};
+
+    private Context context;
+
+    public void setUp() throws Exception {
+        super.setUp();
+        context = getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE);
+
+        // a database as version 2 wrote it, every resource keyed by its full url
+        SQLiteDatabase db = context.openOrCreateDatabase(DATABASE, Context.MODE_PRIVATE, null);
+        try {
+            db.execSQL("CREATE TABLE " + OfflineDatabaseHandler.TABLE_METADATA + " (" + OfflineDatabaseHandler.FIELD_METADATA_NAME + " TEXT UNIQUE, " + OfflineDatabaseHandler.FIELD_METADATA_VALUE + " TEXT);");
+            db.execSQL("CREATE TABLE " + OfflineDatabaseHandler.TABLE_RESOURCES + " (" + OfflineDatabaseHandler.FIELD_RESOURCES_URL + " TEXT UNIQUE, " + OfflineDatabaseHandler.FIELD_RESOURCES_DATA + " BLOB, " + OfflineDatabaseHandler.FIELD_RESOURCES_STATUS + " TEXT);");
+            insertVersion2Resource(db, TILE, TILE_DATA, "200");
+            insertVersion2Resource(db, PENDING_TILE, null, null);
+            insertVersion2Resource(db, METADATA, METADATA_DATA, "200");
+            ContentValues metadata = new ContentValues();
+            metadata.put(OfflineDatabaseHandler.FIELD_METADATA_NAME, "mapID");
+            metadata.put(OfflineDatabaseHandler.FIELD_METADATA_VALUE, "mapbox.streets");
+            db.insert(OfflineDatabaseHandler.TABLE_METADATA, null, metadata);
+            db.setVersion(2);
+        } finally {
+            db.close();
+        }
+    }
+
+    public void tearDown() throws Exception {
+        context.deleteDatabase(DATABASE);
+        super.tearDown();
+    }
+
+    public void testMigrationFromVersion2() throws Exception {
+        OfflineDatabaseHandler handler = new OfflineDatabaseHandler(context, DATABASE);
+        SQLiteDatabase db = handler.getReadableDatabase();
+        try {
+            assertEquals(OfflineDatabaseHandler.DATABASE_VERSION, db.getVersion());
+
+            Cursor tile = db.query(OfflineDatabaseHandler.TABLE_TILES,
+                    new String[] {OfflineDatabaseHandler.FIELD_RESOURCES_URL, OfflineDatabaseHandler.FIELD_RESOURCES_DATA, OfflineDatabaseHandler.FIELD_RESOURCES_STATUS},
+                    OfflineDatabaseHandler.FIELD_TILES_ID + "=?", new String[] {String.valueOf(OfflineResourceKeys.getTileId(12, 654, 1430))},
+                    null, null, null);
+            try {
+                assertTrue(tile.moveToFirst());
+                assertEquals(TILE, tile.getString(0));
+                assertTrue(Arrays.equals(TILE_DATA, tile.getBlob(1)));
+                assertEquals("200", tile.getString(2));
+            } finally {
+                tile.close();
+            }
+
+            Cursor pending = db.query(OfflineDatabaseHandler.TABLE_TILES,
+                    new String[] {OfflineDatabaseHandler.FIELD_RESOURCES_STATUS},
+                    OfflineDatabaseHandler.FIELD_TILES_ID + "=?", new String[] {String.valueOf(OfflineResourceKeys.getTileId(12, 654, 1431))},
+                    null, null, null);
+            try {
+                assertTrue(pending.moveToFirst());
+                assertTrue(pending.isNull(0));
+            } finally {
+                pending.close();
+            }
+
+            Cursor resource = db.query(OfflineDatabaseHandler.TABLE_RESOURCES,
+                    new String[] {OfflineDatabaseHandler.FIELD_RESOURCES_KEY, OfflineDatabaseHandler.FIELD_RESOURCES_DATA},
+                    null, null, null, null, null);
+            try {
+                assertEquals(1, resource.getCount());
+                assertTrue(resource.moveToFirst());
+                assertEquals(OfflineResourceKeys.getResourceKey(METADATA), resource.getString(0));
+                assertTrue(Arrays.equals(METADATA_DATA, resource.getBlob(1)));
+            } finally {
+                resource.close();
+            }
+
+            Cursor metadata = db.query(OfflineDatabaseHandler.TABLE_METADATA, null, null, null, null, null, null);
+            try {
+                assertEquals(1, metadata.getCount());
+            } finally {
+                metadata.close();
+            }
+        } finally {
+            handler.close();
+        }
+    }
+
+    private static void insertVersion2Resource(SQLiteDatabase db, String url, byte[] data, String status) {
+        ContentValues values = new ContentValues();
+        values.put(OfflineDatabaseHandler.FIELD_RESOURCES_URL, url);
+        values.put(OfflineDatabaseHandler.FIELD_RESOURCES_DATA, data);
+        values.put(OfflineDatabaseHandler.FIELD_RESOURCES_STATUS, status);
+        db.insert(OfflineDatabaseHandler.TABLE_RESOURCES, null, values);
+    }
+}
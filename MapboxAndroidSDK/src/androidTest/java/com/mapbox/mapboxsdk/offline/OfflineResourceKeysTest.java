@@ -0,0 +1,52 @@
+package com.mapbox.mapboxsdk.offline;
+
+import android.test.InstrumentationTestCase;
+
+public class OfflineResourceKeysTest extends InstrumentationTestCase {
+
+    private static final String TILE = "https://a.tiles.mapbox.com/v4/mapbox.streets/12/654/1430.png?access_token=old";
+    private static final String METADATA = "https://a.tiles.mapbox.com/v4/mapbox.streets.json?secure&access_token=old";
+
+    public void testTileId() throws Exception {
+        assertEquals(OfflineResourceKeys.getTileId(12, 654, 1430), OfflineResourceKeys.getTileId(TILE));
+        assertEquals(OfflineResourceKeys.getTileId(12, 654, 1430),
+                OfflineResourceKeys.getTileId("https://b.tiles.mapbox.com/v4/mapbox.streets/12/654/1430@2x.jpg80?access_token=new"));
+        assertFalse(OfflineResourceKeys.getTileId(12, 654, 1430) == OfflineResourceKeys.getTileId(12, 1430, 654));
+        assertEquals(0, OfflineResourceKeys.getTileId(0, 0, 0));
+    }
+
+    public void testTileIdOutOfRange() throws Exception {
+        assertEquals(-1, OfflineResourceKeys.getTileId(2, 4, 0));
+        assertEquals(-1, OfflineResourceKeys.getTileId(2, 0, -1));
+        assertEquals(-1, OfflineResourceKeys.getTileId(OfflineResourceKeys.MAX_ZOOM + 1, 0, 0));
+    }
+
+    public void testNotATile() throws Exception {
+        assertEquals(-1, OfflineResourceKeys.getTileId(METADATA));
+        assertEquals(-1, OfflineResourceKeys.getTileId("https://a.tiles.mapbox.com/v4/mapbox.streets/features.json?access_token=old"));
+    }
+
+    public void testResourceKey() throws Exception {
+        assertEquals("/v4/mapbox.streets.json?secure", OfflineResourceKeys.getResourceKey(METADATA));
+        assertEquals("/v4/mapbox.streets.json?secure",
+                OfflineResourceKeys.getResourceKey("http://b.tiles.mapbox.com/v4/mapbox.streets.json?access_token=new&secure"));
+        assertEquals("/v4/marker/pin-m+f00.png", OfflineResourceKeys.getResourceKey("https://a.tiles.mapbox.com/v4/marker/pin-m+f00.png"));
+        assertEquals("/v4/marker/pin-m+f00.png", OfflineResourceKeys.getResourceKey("https://a.tiles.mapbox.com/v4/marker/pin-m+f00.png?access_token"));
+    }
+
+    public void testReplaceAccessToken() throws Exception {
+        assertEquals("https://a.tiles.mapbox.com/v4/mapbox.streets/12/654/1430.png?access_token=new",
+                OfflineResourceKeys.replaceAccessToken(TILE, "new"));
+        assertEquals("https://a.tiles.mapbox.com/v4/mapbox.streets.json?secure&access_token=new",
+                OfflineResourceKeys.replaceAccessToken(METADATA, "new"));
+        assertEquals(OfflineResourceKeys.getResourceKey(METADATA),
+                OfflineResourceKeys.getResourceKey(OfflineResourceKeys.replaceAccessToken(METADATA, "new")));
+    }
+
+    public void testReplaceAccessTokenWithoutToken() throws Exception {
+        String url = "https://example.com/tiles/1/0/0.png";
+        assertEquals(url, OfflineResourceKeys.replaceAccessToken(url, "new"));
+        assertEquals(url + "?v=2", OfflineResourceKeys.replaceAccessToken(url + "?v=2", "new"));
+        assertEquals(TILE, OfflineResourceKeys.replaceAccessToken(TILE, null));
+    }
+}
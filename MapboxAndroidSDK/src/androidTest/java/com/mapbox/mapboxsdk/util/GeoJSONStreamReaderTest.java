@@ -0,0 +1,137 @@
+package com.mapbox.mapboxsdk.util;
+
+import android.content.Context;
+import android.test.InstrumentationTestCase;
+
+import com.mapbox.mapboxsdk.geometry.PackedCoordinates;
+import com.mapbox.mapboxsdk.overlay.Marker;
+import com.mapbox.mapboxsdk.overlay.PathOverlay;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class GeoJSONStreamReaderTest extends InstrumentationTestCase {
+
+    private static final String ASSET = "test/geojson/spatialdev_small.geojson";
+
+    private ArrayList<Object> expected;
+    private ArrayList<Object> streamed;
+    private int featureCount;
+
+    public void setUp() throws Exception {
+        super.setUp();
+        Context context = getInstrumentation().getTargetContext();
+
+        // createUIObjectsFromGeoJSONObjects() adds a polygon once per ring, the stream once
+        expected = new ArrayList<Object>();
+        for (Object obj : DataLoadingUtils.createUIObjectsFromGeoJSONObjects(
+                DataLoadingUtils.loadGeoJSONFromAssets(context, ASSET), null)) {
+            if (expected.isEmpty() || expected.get(expected.size() - 1) != obj) {
+                expected.add(obj);
+            }
+        }
+
+        streamed = new ArrayList<Object>();
+        featureCount = DataLoadingUtils.streamGeoJSONFromAssets(context, ASSET, null,
+                new GeoJSONStreamReader.FeatureHandler() {
+                    @Override
+                    public void onMarker(Marker marker) {
+                        streamed.add(marker);
+                    }
+
+                    @Override
+                    public void onPath(PathOverlay path) {
+                        streamed.add(path);
+                    }
+                });
+    }
+
+    public void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    // 11 features converted from spatialdev_small.osm, 7 for the edge cases
+    public void testNumberOfFeatures() throws Exception {
+        assertEquals(18, featureCount);
+    }
+
+    public void testNumberOfObjects() throws Exception {
+        assertEquals(expected.size(), streamed.size());
+    }
+
+    public void testMarkers() throws Exception {
+        int markers = 0;
+        for (int i = 0; i < expected.size(); i++) {
+            if (expected.get(i) instanceof Marker) {
+                Marker marker = (Marker) expected.get(i);
+                assertTrue(streamed.get(i) instanceof Marker);
+                Marker streamedMarker = (Marker) streamed.get(i);
+                assertEquals(marker.getTitle(), streamedMarker.getTitle());
+                assertEquals(marker.getDescription(), streamedMarker.getDescription());
+                assertEquals(marker.getPoint().getLatitude(), streamedMarker.getPoint().getLatitude());
+                assertEquals(marker.getPoint().getLongitude(), streamedMarker.getPoint().getLongitude());
+                markers++;
+            }
+        }
+        // the standalone node, the MultiPoint and the point written with exponents
+        assertEquals(4, markers);
+    }
+
+    public void testPaths() throws Exception {
+        int paths = 0;
+        for (int i = 0; i < expected.size(); i++) {
+            if (expected.get(i) instanceof PathOverlay) {
+                PathOverlay path = (PathOverlay) expected.get(i);
+                assertTrue(streamed.get(i) instanceof PathOverlay);
+                PathOverlay streamedPath = (PathOverlay) streamed.get(i);
+                assertEquals(path.getPaint().getStyle(), streamedPath.getPaint().getStyle());
+                assertPointsEqual(path.getPoints(), streamedPath.getPoints());
+                paths++;
+            }
+        }
+        // 10 ways, the polygon with a hole, the MultiPolygon, the 2 lines of the
+        // MultiLineString and the lines written with exponents and long digits
+        assertEquals(16, paths);
+    }
+
+    public void testPolygonWithHole() throws Exception {
+        PathOverlay path = getPath(11);
+        // both rings of the hole, winding rewritten, in a single path
+        assertEquals(10, path.getNumberOfPoints());
+    }
+
+    public void testMultiPolygon() throws Exception {
+        PathOverlay path = getPath(12);
+        // the outer ring and hole of the first polygon and the ring of the second
+        assertEquals(15, path.getNumberOfPoints());
+    }
+
+    public void testParseDouble() throws Exception {
+        String[] numbers = {
+                "0", "-0.0", "47.6690451", "-122.3849681", "1e3", "-1.223849681E2", "4.76690451e+1",
+                "-12238.41E-2", "476.693e-1", "-122.38496812345678901", "47.669045123456789012",
+                "0.000000000000000000000001", "123456789012345", "1234567890123456", "1e400"
+        };
+        for (String number : numbers) {
+            double fast = GeoJSONStreamReader.parseDouble(number);
+            if (!Double.isNaN(fast)) {
+                assertEquals(number, Double.parseDouble(number), fast, 0);
+            }
+        }
+        assertTrue(Double.isNaN(GeoJSONStreamReader.parseDouble("-122.38496812345678901")));
+        assertTrue(Double.isNaN(GeoJSONStreamReader.parseDouble("true")));
+    }
+
+    private PathOverlay getPath(int index) throws Exception {
+        Object obj = streamed.get(index);
+        assertTrue(obj instanceof PathOverlay);
+        return (PathOverlay) obj;
+    }
+
+    private static void assertPointsEqual(PackedCoordinates expected, PackedCoordinates actual) {
+        assertEquals(expected.size(), actual.size());
+        int length = expected.size() * expected.getDimension();
+        assertTrue(Arrays.equals(Arrays.copyOf(expected.getCoordinates(), length),
+                Arrays.copyOf(actual.getCoordinates(), length)));
+    }
+}
@@ -0,0 +1,42 @@
+package com.mapbox.mapboxsdk.views.util;
+
+import android.test.InstrumentationTestCase;
+
+import java.util.Random;
+
+/**
+ * Checks the bulk Mercator kernels against projecting point by point. Their speed is measured
+ * by ProjectionBenchmark in the benchmarks module.
+ */
+public class ProjectionTest extends InstrumentationTestCase {
+
+    // enough points for latLongToPixelXYParallel() to split the work
+    private static final int POINTS = Projection.PARALLEL_THRESHOLD * 2;
+
+    private double[] lngLats;
+
+    public void setUp() throws Exception {
+        super.setUp();
+        Random random = new Random(42);
+        lngLats = new double[POINTS * 2];
+        for (int i = 0; i < POINTS; i++) {
+            lngLats[i * 2] = random.nextDouble() * 360 - 180;
+            lngLats[i * 2 + 1] = random.nextDouble() * 170 - 85;
+        }
+    }
+
+    public void testBulkMatchesScalar() throws Exception {
+        double[] bulk = new double[POINTS * 2];
+        double[] parallel = new double[POINTS * 2];
+        Projection.latLongToPixelXY(lngLats, 2, 0, POINTS, bulk, 2, 0);
+        Projection.latLongToPixelXYParallel(lngLats, 2, 0, POINTS, parallel, 2, 0);
+        for (int i = 0; i < POINTS; i += 97) {
+            double[] scalar = Projection.latLongToPixelXY(lngLats[i * 2 + 1], lngLats[i * 2]);
+            assertEquals(scalar[0], bulk[i * 2], 1e-4);
+            assertEquals(scalar[1], bulk[i * 2 + 1], 1e-4);
+        }
+        for (int i = 0; i < POINTS * 2; i++) {
+            assertEquals(bulk[i], parallel[i]);
+        }
+    }
+}
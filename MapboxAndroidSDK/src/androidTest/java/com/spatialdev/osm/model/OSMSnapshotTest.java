@@ -0,0 +1,93 @@
+package com.spatialdev.osm.model;
+
+import android.test.InstrumentationTestCase;
+
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.vividsolutions.jts.geom.Envelope;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+public class OSMSnapshotTest extends InstrumentationTestCase {
+
+    private static final String ASSET = "test/osm/spatialdev_small.osm";
+
+    private OSMDataSet ds;
+    private byte[] hash;
+    private File snapshotFile;
+
+    public void setUp() throws Exception {
+        super.setUp();
+        InputStream in = getInstrumentation().getTargetContext().getResources().getAssets().open(ASSET);
+        ds = OSMXmlParser.parseFromInputStream(in);
+        in = getInstrumentation().getTargetContext().getResources().getAssets().open(ASSET);
+        try {
+            hash = OSMSnapshot.hash(in);
+        } finally {
+            in.close();
+        }
+        snapshotFile = new File(getInstrumentation().getTargetContext().getCacheDir(), "spatialdev_small.osms");
+        OSMSnapshot.write(ds, hash, snapshotFile);
+    }
+
+    public void tearDown() throws Exception {
+        snapshotFile.delete();
+        super.tearDown();
+    }
+
+    public void testCounts() throws Exception {
+        OSMDataSet restored = OSMSnapshot.load(snapshotFile, hash).getDataSet();
+        assertEquals(ds.getNodeCount(), restored.getNodeCount());
+        assertEquals(ds.getWayCount(), restored.getWayCount());
+        assertEquals(ds.getRelationCount(), restored.getRelationCount());
+        assertEquals(ds.getStandaloneNodesCount(), restored.getStandaloneNodesCount());
+        assertEquals(ds.getClosedWaysCount(), restored.getClosedWaysCount());
+        assertEquals(ds.getOpenWaysCount(), restored.getOpenWaysCount());
+    }
+
+    public void testWayNodesAndTags() throws Exception {
+        OSMDataSet restored = OSMSnapshot.load(snapshotFile, hash).getDataSet();
+        OSMWay w = ds.getWays().get(Long.valueOf(178540022));
+        OSMWay restoredWay = restored.getWays().get(Long.valueOf(178540022));
+        assertEquals(w.getLinkedNodesCount(), restoredWay.getLinkedNodesCount());
+        assertEquals(w.getTags(), restoredWay.getTags());
+        List<OSMNode> nodes = w.getNodes();
+        List<OSMNode> restoredNodes = restoredWay.getNodes();
+        for (int i = 0; i < nodes.size(); ++i) {
+            assertEquals(nodes.get(i).getId(), restoredNodes.get(i).getId());
+            assertEquals(nodes.get(i).getLat(), restoredNodes.get(i).getLat());
+            assertEquals(nodes.get(i).getLng(), restoredNodes.get(i).getLng());
+        }
+    }
+
+    public void testQueryMatchesJTSModel() throws Exception {
+        JTSModel parsed = new JTSModel(ds);
+        JTSModel restored = OSMSnapshot.load(snapshotFile, hash).getJTSModel();
+        Envelope everything = new Envelope(-180, 180, -90, 90);
+        assertEquals(parsed.queryFromEnvelope(everything).size(), restored.queryFromEnvelope(everything).size());
+
+        OSMNode n = ds.getStandaloneNodes().get(0);
+        OSMElement tapped = restored.queryFromTap(new LatLng(n.getLat(), n.getLng()), 18);
+        assertNotNull(tapped);
+        assertEquals(n.getId(), tapped.getId());
+    }
+
+    public void testStaleSnapshotIsRejected() throws Exception {
+        byte[] otherHash = hash.clone();
+        otherHash[0]++;
+        assertNull(OSMSnapshot.load(snapshotFile, otherHash));
+    }
+
+    public void testTruncatedSnapshotIsRejected() throws Exception {
+        RandomAccessFile file = new RandomAccessFile(snapshotFile, "rw");
+        try {
+            file.setLength(file.length() / 2);
+        } finally {
+            file.close();
+        }
+        assertNull(OSMSnapshot.load(snapshotFile, hash));
+    }
+
+}
@@ -1,6 +1,6 @@
 package com.cocoahero.android.geojson;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.List;
 
 import org.json.JSONArray;
@@ -10,6 +10,7 @@ import android.os.Parcel;
 import android.os.Parcelable;
 
 import com.cocoahero.android.geojson.util.ListUtils;
+import com.mapbox.mapboxsdk.geometry.PackedCoordinates;
 
 public class PositionList implements Parcelable {
 
@@ -17,7 +18,11 @@ public class PositionList implements Parcelable {
     // Instance Variables
     // ------------------------------------------------------------------------
 
-    private final List<Position> mPositions = new ArrayList<Position>();
+    // Longitude, latitude and, once a position with an altitude is added, altitude
+    // of every position, without an object per position.
+    private PackedCoordinates mCoordinates = new PackedCoordinates(2);
+
+    private final List<Position> mPositions = new PositionsView();
 
     // ------------------------------------------------------------------------
     // Constructors
@@ -32,6 +37,7 @@ public class PositionList implements Parcelable {
     }
 
     public PositionList(double[][] positions) {
+        this.mCoordinates.ensureCapacity(positions.length);
         for (int i = 0; i < positions.length; i++) {
             this.addPosition(new Position(positions[i]));
         }
@@ -71,20 +77,47 @@ public class PositionList implements Parcelable {
     // Public Methods
     // ------------------------------------------------------------------------
 
+    /**
+     * @return the positions as a list. The list can be changed, but each Position it returns
+     * is a copy, changing one does not change this list.
+     */
     public List<Position> getPositions() {
         return this.mPositions;
     }
 
+    /**
+     * @return the positions without copying them, longitude first. Do not keep it
+     * across changes of this list, which may replace it.
+     */
+    public PackedCoordinates getCoordinates() {
+        return this.mCoordinates;
+    }
+
+    public int size() {
+        return this.mCoordinates.size();
+    }
+
     public void addPosition(Position position) {
-        this.mPositions.add(position);
+        this.addPosition(position.getLongitude(), position.getLatitude(), position.getAltitude());
+    }
+
+    public void addPosition(double longitude, double latitude, double altitude) {
+        this.ensureAltitude(altitude);
+        this.mCoordinates.add(longitude, latitude, altitude);
     }
 
     public void addPositions(PositionList positions) {
-        this.mPositions.addAll(positions.mPositions);
+        if (positions.mCoordinates.getDimension() > this.mCoordinates.getDimension()) {
+            this.mCoordinates = this.mCoordinates.copy(positions.mCoordinates.getDimension());
+        }
+        this.mCoordinates.addAll(positions.mCoordinates);
     }
 
     public void addPositions(List<Position> positions) {
-        this.mPositions.addAll(positions);
+        this.mCoordinates.ensureCapacity(this.mCoordinates.size() + positions.size());
+        for (Position position : positions) {
+            this.addPosition(position);
+        }
     }
 
     public void removePosition(Position position) {
@@ -100,32 +133,33 @@ public class PositionList implements Parcelable {
     }
 
     public void clearPositions() {
-        this.mPositions.clear();
+        this.mCoordinates = new PackedCoordinates(2);
     }
 
     public void setPositions(JSONArray positions) {
-        this.mPositions.clear();
+        this.clearPositions();
         if (positions != null) {
+            this.mCoordinates.ensureCapacity(positions.length());
             for (int i = 0; i < positions.length(); i++) {
                 JSONArray position = positions.optJSONArray(i);
                 if (position != null) {
-                    this.mPositions.add(new Position(position));
+                    this.addPosition(position.optDouble(0, 0), position.optDouble(1, 0), position.optDouble(2, 0));
                 }
             }
         }
     }
 
     public void setPositions(PositionList positions) {
-        this.mPositions.clear();
+        this.clearPositions();
         if (positions != null) {
-            this.mPositions.addAll(positions.mPositions);
+            this.addPositions(positions);
         }
     }
 
     public void setPositions(List<Position> positions) {
-        this.mPositions.clear();
+        this.clearPositions();
         if (positions != null) {
-            this.mPositions.addAll(positions);
+            this.addPositions(positions);
         }
     }
 
@@ -138,14 +172,12 @@ public class PositionList implements Parcelable {
     }
 
     public boolean isLinearRing() {
-        if (this.mPositions.size() < 4) {
+        int size = this.mCoordinates.size();
+        if (size < 4) {
             return false;
         }
 
-        Position head = this.getHead();
-        Position tail = this.getTail();
-
-        return head.equals(tail);
+        return this.mCoordinates.pointEquals(0, this.mCoordinates, size - 1);
     }
 
     public JSONArray toJSON() throws JSONException {
@@ -158,4 +190,75 @@ public class PositionList implements Parcelable {
         return positions;
     }
 
+    // ------------------------------------------------------------------------
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private void ensureAltitude(double altitude) {
+        if (altitude != 0 && this.mCoordinates.getDimension() == 2) {
+            this.mCoordinates = this.mCoordinates.copy(3);
+        }
+    }
+
+    private Position toPosition(int index) {
+        return new Position(this.mCoordinates.getY(index), this.mCoordinates.getX(index), this.mCoordinates.getZ(index));
+    }
+
+    /**
+     * The positions as a List, creating a Position whenever one is read.
+     */
+    private class PositionsView extends AbstractList<Position> {
+
+        @Override
+        public Position get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return toPosition(index);
+        }
+
+        @Override
+        public int size() {
+            return mCoordinates.size();
+        }
+
+        @Override
+        public Position set(int index, Position position) {
+            Position previous = get(index);
+            ensureAltitude(position.getAltitude());
+            mCoordinates.set(index, position.getLongitude(), position.getLatitude(), position.getAltitude());
+            return previous;
+        }
+
+        @Override
+        public void add(int index, Position position) {
+            if (index < 0 || index > size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            ensureAltitude(position.getAltitude());
+            mCoordinates.insert(index, position.getLongitude(), position.getLatitude(), position.getAltitude());
+            modCount++;
+        }
+
+        @Override
+        public Position remove(int index) {
+            Position previous = get(index);
+            mCoordinates.removeRange(index, index + 1);
+            modCount++;
+            return previous;
+        }
+
+        @Override
+        protected void removeRange(int fromIndex, int toIndex) {
+            mCoordinates.removeRange(fromIndex, toIndex);
+            modCount++;
+        }
+
+        @Override
+        public void clear() {
+            clearPositions();
+            modCount++;
+        }
+    }
+
 }
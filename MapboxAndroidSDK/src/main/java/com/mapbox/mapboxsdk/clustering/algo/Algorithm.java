@@ -2,6 +2,7 @@ package com.mapbox.mapboxsdk.clustering.algo;
 
 import com.mapbox.mapboxsdk.clustering.Cluster;
 import com.mapbox.mapboxsdk.clustering.ClusterItem;
+import com.mapbox.mapboxsdk.geometry.BoundingBox;
 
 import java.util.Collection;
 import java.util.Set;
@@ -18,7 +19,18 @@ public interface Algorithm<T extends ClusterItem> {
 
     void removeItem(T item);
 
+    void removeItems(Collection<T> items);
+
     Set<? extends Cluster<T>> getClusters(double zoom);
 
+    /**
+     * Computes only the clusters around the items inside the given area. Items outside of it
+     * are part of the result only if they belong to a cluster of an item inside.
+     *
+     * @param zoom
+     * @param area the area to cluster, or null for all items
+     */
+    Set<? extends Cluster<T>> getClusters(double zoom, BoundingBox area);
+
     Collection<T> getItems();
 }
\ No newline at end of file
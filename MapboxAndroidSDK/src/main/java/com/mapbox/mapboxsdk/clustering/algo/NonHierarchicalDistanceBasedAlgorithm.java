@@ -7,13 +7,16 @@ import com.mapbox.mapboxsdk.clustering.geometry.Bounds;
 import com.mapbox.mapboxsdk.clustering.geometry.Point;
 import com.mapbox.mapboxsdk.clustering.projection.SphericalMercatorProjection;
 import com.mapbox.mapboxsdk.clustering.quadtree.PointQuadTree;
+import com.mapbox.mapboxsdk.geometry.BoundingBox;
 import com.mapbox.mapboxsdk.geometry.LatLng;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -35,31 +38,48 @@ public class NonHierarchicalDistanceBasedAlgorithm<T extends ClusterItem> implem
     public static final int MAX_DISTANCE_AT_ZOOM = 100; // essentially 100 dp.
 
     /**
+     * Items by their ClusterItem, in the order they were added.
      * Any modifications should be synchronized on mQuadTree.
      */
-    private final Collection<QuadItem<T>> mItems = new ArrayList<QuadItem<T>>();
+    private final Map<T, QuadItem<T>> mItems = new LinkedHashMap<T, QuadItem<T>>();
 
     /**
      * Any modifications should be synchronized on mQuadTree.
      */
     private final PointQuadTree<QuadItem<T>> mQuadTree = new PointQuadTree<QuadItem<T>>(0, 1, 0, 1);
 
+    /**
+     * The insertion order of the next item, so that candidates found in the quad tree can be
+     * visited in the same order as mItems. Guarded by mQuadTree.
+     */
+    private long mNextSequence;
+
     private static final SphericalMercatorProjection PROJECTION = new SphericalMercatorProjection(1);
 
     @Override
     public void addItem(T item) {
         final QuadItem<T> quadItem = new QuadItem<T>(item);
         synchronized (mQuadTree) {
-            mItems.add(quadItem);
-            mQuadTree.add(quadItem);
+            addItemLocked(quadItem);
         }
     }
 
     @Override
     public void addItems(Collection<T> items) {
-        for (T item : items) {
-            addItem(item);
+        synchronized (mQuadTree) {
+            for (T item : items) {
+                addItemLocked(new QuadItem<T>(item));
+            }
+        }
+    }
+
+    private void addItemLocked(QuadItem<T> quadItem) {
+        quadItem.mSequence = mNextSequence++;
+        final QuadItem<T> previous = mItems.put(quadItem.mClusterItem, quadItem);
+        if (previous != null) {
+            mQuadTree.remove(previous);
         }
+        mQuadTree.add(quadItem);
     }
 
     @Override
@@ -72,12 +92,36 @@ public class NonHierarchicalDistanceBasedAlgorithm<T extends ClusterItem> implem
 
     @Override
     public void removeItem(T item) {
-        // TODO: delegate QuadItem#hashCode and QuadItem#equals to its item.
-        throw new UnsupportedOperationException("NonHierarchicalDistanceBasedAlgorithm.remove not implemented");
+        synchronized (mQuadTree) {
+            removeItemLocked(item);
+        }
+    }
+
+    @Override
+    public void removeItems(Collection<T> items) {
+        synchronized (mQuadTree) {
+            for (T item : items) {
+                removeItemLocked(item);
+            }
+        }
+    }
+
+    private void removeItemLocked(T item) {
+        // The QuadItem keeps the point the item was added with, so it is found in the quad
+        // tree even if the item has moved since.
+        final QuadItem<T> quadItem = mItems.remove(item);
+        if (quadItem != null) {
+            mQuadTree.remove(quadItem);
+        }
     }
 
     @Override
     public Set<? extends Cluster<T>> getClusters(double zoom) {
+        return getClusters(zoom, null);
+    }
+
+    @Override
+    public Set<? extends Cluster<T>> getClusters(double zoom, BoundingBox area) {
         final int discreteZoom = (int) zoom;
 
         final double zoomSpecificSpan = MAX_DISTANCE_AT_ZOOM / Math.pow(2, discreteZoom) / 256;
@@ -88,7 +132,7 @@ public class NonHierarchicalDistanceBasedAlgorithm<T extends ClusterItem> implem
         final Map<QuadItem<T>, StaticCluster<T>> itemToCluster = new HashMap<QuadItem<T>, StaticCluster<T>>();
 
         synchronized (mQuadTree) {
-            for (QuadItem<T> candidate : mItems) {
+            for (QuadItem<T> candidate : getCandidates(area)) {
                 if (visitedCandidates.contains(candidate)) {
                     // Candidate is already part of another cluster.
                     continue;
@@ -128,13 +172,40 @@ public class NonHierarchicalDistanceBasedAlgorithm<T extends ClusterItem> implem
         return results;
     }
 
+    /**
+     * @return the items inside the area, in the order they were added
+     */
+    private Collection<QuadItem<T>> getCandidates(BoundingBox area) {
+        if (area == null) {
+            return mItems.values();
+        }
+        final Point northWest = PROJECTION.toPoint(new LatLng(area.getLatNorth(), area.getLonWest()));
+        final Point southEast = PROJECTION.toPoint(new LatLng(area.getLatSouth(), area.getLonEast()));
+        double minX = northWest.x;
+        double maxX = southEast.x;
+        if (minX > maxX) {
+            // the area crosses the antimeridian
+            minX = 0;
+            maxX = 1;
+        }
+        final List<QuadItem<T>> candidates = new ArrayList<QuadItem<T>>(
+                mQuadTree.search(new Bounds(minX, maxX, northWest.y, southEast.y)));
+        Collections.sort(candidates, SEQUENCE_ORDER);
+        return candidates;
+    }
+
+    private static final Comparator<QuadItem<?>> SEQUENCE_ORDER = new Comparator<QuadItem<?>>() {
+        @Override
+        public int compare(QuadItem<?> a, QuadItem<?> b) {
+            return a.mSequence < b.mSequence ? -1 : (a.mSequence == b.mSequence ? 0 : 1);
+        }
+    };
+
     @Override
     public Collection<T> getItems() {
         final List<T> items = new ArrayList<T>();
         synchronized (mQuadTree) {
-            for (QuadItem<T> quadItem : mItems) {
-                items.add(quadItem.mClusterItem);
-            }
+            items.addAll(mItems.keySet());
         }
         return items;
     }
@@ -157,6 +228,7 @@ public class NonHierarchicalDistanceBasedAlgorithm<T extends ClusterItem> implem
         private final Point mPoint;
         private final LatLng mPosition;
         private Set<T> singletonSet;
+        private long mSequence;
 
         private QuadItem(T item) {
             mClusterItem = item;
@@ -5,6 +5,7 @@ import android.util.Log;
 
 import com.mapbox.mapboxsdk.clustering.Cluster;
 import com.mapbox.mapboxsdk.clustering.ClusterItem;
+import com.mapbox.mapboxsdk.geometry.BoundingBox;
 
 import java.util.Collection;
 import java.util.Set;
@@ -47,6 +48,12 @@ public class PreCachingAlgorithmDecorator<T extends ClusterItem> implements Algo
         clearCache();
     }
 
+    @Override
+    public void removeItems(Collection<T> items) {
+        mAlgorithm.removeItems(items);
+        clearCache();
+    }
+
     private void clearCache() {
         mCache.evictAll();
     }
@@ -65,6 +72,22 @@ public class PreCachingAlgorithmDecorator<T extends ClusterItem> implements Algo
         return results;
     }
 
+    @Override
+    public Set<? extends Cluster<T>> getClusters(double zoom, BoundingBox area) {
+        if (area == null) {
+            return getClusters(zoom);
+        }
+        // the clusters of all items are a superset of the ones in the area, use them if we have them
+        Set<? extends Cluster<T>> results;
+        mCacheLock.readLock().lock();
+        results = mCache.get((int) zoom);
+        mCacheLock.readLock().unlock();
+        if (results == null) {
+            results = mAlgorithm.getClusters(zoom, area);
+        }
+        return results;
+    }
+
     @Override
     public Collection<T> getItems() {
         return mAlgorithm.getItems();
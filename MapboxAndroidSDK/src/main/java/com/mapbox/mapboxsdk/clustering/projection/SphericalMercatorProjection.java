@@ -28,7 +28,7 @@ public class SphericalMercatorProjection {
 
     @SuppressWarnings("deprecation")
     public Point toPoint(final LatLng latLng) {
-        final double x = latLng.getLatitude() / 360 + .5;
+        final double x = latLng.getLongitude() / 360 + .5;
         final double siny = Math.sin(Math.toRadians(latLng.getLatitude()));
         final double y = 0.5 * Math.log((1 + siny) / (1 - siny)) / -(2 * Math.PI) + .5;
 
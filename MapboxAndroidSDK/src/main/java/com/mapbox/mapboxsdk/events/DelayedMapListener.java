@@ -7,7 +7,10 @@ import android.util.Log;
  * A MapListener that aggregates multiple events called in quick succession.
  * After an event arrives, if another event arrives within <code>delay</code> milliseconds,
  * the original event is discarded.  Otherwise, the event is propagated to the wrapped
- * MapListener.  Note: This class is not thread-safe.]
+ * MapListener.  Note: This class is not thread-safe.
+ * <p/>
+ * The MapView hands out the same event objects again, so the last event is kept by reference
+ * and reflects the latest state of the map when it is propagated.
  */
 public class DelayedMapListener implements MapListener {
 
@@ -37,7 +40,7 @@ public class DelayedMapListener implements MapListener {
         this.wrappedListener = aWrappedListener;
         this.delay = aDelay;
         this.handler = new Handler();
-        this.callback = null;
+        this.callback = new CallbackTask();
     }
 
     /**
@@ -69,10 +72,8 @@ public class DelayedMapListener implements MapListener {
      */
     protected void dispatch(final MapEvent event) {
         // cancel any pending callback
-        if (callback != null) {
-            handler.removeCallbacks(callback);
-        }
-        callback = new CallbackTask(event);
+        handler.removeCallbacks(callback);
+        callback.event = event;
 
         // set timer
         handler.postDelayed(callback, delay);
@@ -80,11 +81,7 @@ public class DelayedMapListener implements MapListener {
 
     // Callback tasks
     private class CallbackTask implements Runnable {
-        private final MapEvent event;
-
-        public CallbackTask(final MapEvent event) {
-            this.event = event;
-        }
+        private MapEvent event;
 
         @Override
         public void run() {
@@ -99,6 +96,7 @@ public class DelayedMapListener implements MapListener {
                 // unknown event; discard
                 Log.i(TAG, "Unknown event received: " + event);
             }
+            event = null;
         }
     }
 
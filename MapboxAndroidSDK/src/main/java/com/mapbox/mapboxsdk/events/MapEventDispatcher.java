@@ -0,0 +1,273 @@
+package com.mapbox.mapboxsdk.events;
+
+import android.os.SystemClock;
+import android.support.v4.view.ViewCompat;
+
+import com.mapbox.mapboxsdk.geometry.BoundingBox;
+import com.mapbox.mapboxsdk.tileprovider.modules.ConfigurablePriorityThreadFactory;
+import com.mapbox.mapboxsdk.views.MapView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Delivers the scroll, zoom and rotate events of a MapView to its MapListeners.
+ * <p/>
+ * Changes are coalesced until the next animation frame, so a listener is called at most once
+ * per frame for every kind of event, with the latest state of the map. Every listener has its
+ * own event objects that are updated and handed out again, so a listener must not keep an
+ * event past the call. Listeners implementing {@link ThrottledMapListener} can ask for a
+ * longer interval between calls and to be called on a background thread. The events carry the
+ * bounding box and zoom level of the map, read on the UI thread before the call, since the
+ * MapView and its Projection must not be used from a background thread.
+ * <p/>
+ * Must only be used from the UI thread.
+ */
+public class MapEventDispatcher {
+
+    private static final int SCROLL = 1;
+    private static final int ZOOM = 2;
+    private static final int ROTATE = 4;
+
+    private static ExecutorService sBackgroundExecutor;
+
+    private final MapView mMapView;
+    private final List<Registration> mRegistrations = new ArrayList<>();
+    /**
+     * Copy of mRegistrations to iterate over, so that listeners can add or remove listeners
+     * while being called.
+     */
+    private Registration[] mSnapshot = new Registration[0];
+
+    private int mScrollX;
+    private int mScrollY;
+    private float mZoomLevel;
+    private float mAngle;
+
+    private boolean mFramePosted;
+    private long mDelayedDispatchTime = Long.MAX_VALUE;
+
+    private final Runnable mFrameRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mFramePosted = false;
+            dispatch();
+        }
+    };
+
+    private final Runnable mDelayedRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mDelayedDispatchTime = Long.MAX_VALUE;
+            dispatch();
+        }
+    };
+
+    public MapEventDispatcher(final MapView mapView) {
+        mMapView = mapView;
+    }
+
+    /**
+     * @return false if the listener was already added
+     */
+    public boolean addListener(final MapListener listener) {
+        if (indexOf(listener) >= 0) {
+            return false;
+        }
+        mRegistrations.add(new Registration(listener));
+        mSnapshot = mRegistrations.toArray(new Registration[mRegistrations.size()]);
+        return true;
+    }
+
+    /**
+     * @return false if the listener was not added
+     */
+    public boolean removeListener(final MapListener listener) {
+        final int index = indexOf(listener);
+        if (index < 0) {
+            return false;
+        }
+        mRegistrations.remove(index).mRemoved = true;
+        mSnapshot = mRegistrations.toArray(new Registration[mRegistrations.size()]);
+        return true;
+    }
+
+    private int indexOf(final MapListener listener) {
+        for (int i = 0; i < mRegistrations.size(); i++) {
+            if (mRegistrations.get(i).mListener == listener) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public void postScroll(final int x, final int y, final boolean userAction) {
+        mScrollX = x;
+        mScrollY = y;
+        post(SCROLL, userAction);
+    }
+
+    public void postZoom(final float zoomLevel, final boolean userAction) {
+        mZoomLevel = zoomLevel;
+        post(ZOOM, userAction);
+    }
+
+    public void postRotate(final float angle, final boolean userAction) {
+        mAngle = angle;
+        post(ROTATE, userAction);
+    }
+
+    private void post(final int kind, final boolean userAction) {
+        if (mSnapshot.length == 0) {
+            return;
+        }
+        for (Registration registration : mSnapshot) {
+            registration.mPending |= kind;
+            if (userAction) {
+                registration.mPendingUserActions |= kind;
+            }
+        }
+        postFrame();
+    }
+
+    private void postFrame() {
+        if (!mFramePosted) {
+            mFramePosted = true;
+            ViewCompat.postOnAnimation(mMapView, mFrameRunnable);
+        }
+    }
+
+    private void postDelayed(final long time) {
+        if (time >= mDelayedDispatchTime) {
+            return;
+        }
+        if (mDelayedDispatchTime != Long.MAX_VALUE) {
+            mMapView.removeCallbacks(mDelayedRunnable);
+        }
+        mDelayedDispatchTime = time;
+        mMapView.postDelayed(mDelayedRunnable, time - SystemClock.uptimeMillis());
+    }
+
+    private void dispatch() {
+        final long now = SystemClock.uptimeMillis();
+        long nextDue = Long.MAX_VALUE;
+        for (Registration registration : mSnapshot) {
+            if (registration.mPending == 0 || registration.mDelivering || registration.mRemoved) {
+                continue;
+            }
+            final long due = registration.mLastDelivery + registration.mThrottleInterval;
+            if (now < due) {
+                nextDue = Math.min(nextDue, due);
+                continue;
+            }
+            registration.prepare();
+            registration.mLastDelivery = now;
+            if (registration.mBackground) {
+                registration.mDelivering = true;
+                getBackgroundExecutor().execute(registration);
+            } else {
+                registration.deliver();
+            }
+        }
+        if (nextDue != Long.MAX_VALUE) {
+            postDelayed(nextDue);
+        }
+    }
+
+    private static synchronized ExecutorService getBackgroundExecutor() {
+        if (sBackgroundExecutor == null) {
+            sBackgroundExecutor = Executors.newSingleThreadExecutor(
+                    new ConfigurablePriorityThreadFactory(Thread.NORM_PRIORITY, "MapEventThread"));
+        }
+        return sBackgroundExecutor;
+    }
+
+    /**
+     * A listener with its settings, its pending events and the event objects handed to it.
+     * The event objects are only updated while no background call is running.
+     */
+    private class Registration implements Runnable {
+        final MapListener mListener;
+        final long mThrottleInterval;
+        final boolean mBackground;
+
+        final ScrollEvent mScrollEvent = new ScrollEvent(mMapView, 0, 0, false);
+        final ZoomEvent mZoomEvent = new ZoomEvent(mMapView, 0, false);
+        final RotateEvent mRotateEvent = new RotateEvent(mMapView, 0, false);
+
+        int mPending;
+        int mPendingUserActions;
+        int mDelivered;
+        long mLastDelivery = Long.MIN_VALUE / 2;
+        boolean mDelivering;
+        boolean mRemoved;
+
+        private final Runnable mDeliveredRunnable = new Runnable() {
+            @Override
+            public void run() {
+                mDelivering = false;
+                if (mPending != 0 && !mRemoved) {
+                    postFrame();
+                }
+            }
+        };
+
+        Registration(final MapListener listener) {
+            mListener = listener;
+            if (listener instanceof ThrottledMapListener) {
+                final ThrottledMapListener throttled = (ThrottledMapListener) listener;
+                mThrottleInterval = Math.max(0, throttled.getThrottleInterval());
+                mBackground = throttled.isBackgroundDelivery();
+            } else {
+                mThrottleInterval = 0;
+                mBackground = false;
+            }
+        }
+
+        /**
+         * Moves the pending events into the event objects, to be handed out by deliver(), along
+         * with the state of the map. Runs on the UI thread.
+         */
+        void prepare() {
+            final BoundingBox boundingBox = mMapView.getBoundingBox();
+            final float zoomLevel = mMapView.getZoomLevel();
+            if ((mPending & SCROLL) != 0) {
+                mScrollEvent.set(mScrollX, mScrollY, (mPendingUserActions & SCROLL) != 0,
+                        zoomLevel, boundingBox);
+            }
+            if ((mPending & ZOOM) != 0) {
+                mZoomEvent.set(mZoomLevel, (mPendingUserActions & ZOOM) != 0, boundingBox);
+            }
+            if ((mPending & ROTATE) != 0) {
+                mRotateEvent.set(mAngle, (mPendingUserActions & ROTATE) != 0, zoomLevel,
+                        boundingBox);
+            }
+            mDelivered = mPending;
+            mPending = 0;
+            mPendingUserActions = 0;
+        }
+
+        void deliver() {
+            if ((mDelivered & SCROLL) != 0) {
+                mListener.onScroll(mScrollEvent);
+            }
+            if ((mDelivered & ZOOM) != 0) {
+                mListener.onZoom(mZoomEvent);
+            }
+            if ((mDelivered & ROTATE) != 0) {
+                mListener.onRotate(mRotateEvent);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                deliver();
+            } finally {
+                mMapView.post(mDeliveredRunnable);
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.mapbox.mapboxsdk.events;
 
+import com.mapbox.mapboxsdk.geometry.BoundingBox;
 import com.mapbox.mapboxsdk.views.MapView;
 
 /**
@@ -10,6 +11,8 @@ public class RotateEvent implements MapEvent {
     protected MapView source;
     protected float angle;
     protected boolean userAction;
+    protected float zoomLevel;
+    protected BoundingBox boundingBox;
 
     public RotateEvent(final MapView aSource, final float aAngle, final boolean userAction) {
         this.source = aSource;
@@ -17,6 +20,17 @@ public class RotateEvent implements MapEvent {
         this.userAction = userAction;
     }
 
+    /**
+     * Updates this event for the next delivery by MapEventDispatcher.
+     */
+    void set(final float aAngle, final boolean aUserAction, final float aZoomLevel,
+             final BoundingBox aBoundingBox) {
+        this.angle = aAngle;
+        this.userAction = aUserAction;
+        this.zoomLevel = aZoomLevel;
+        this.boundingBox = aBoundingBox;
+    }
+
     /**
      * Return the map which generated this event.
      */
@@ -38,6 +52,22 @@ public class RotateEvent implements MapEvent {
         return userAction;
     }
 
+    /**
+     * @return the zoom level of the map when the event was delivered
+     */
+    public float getZoomLevel() {
+        return zoomLevel;
+    }
+
+    /**
+     * @return the bounding box of the map when the event was delivered, null if the map was not
+     * laid out yet. Unlike the MapView, it may be read by a listener called on a background
+     * thread.
+     */
+    public BoundingBox getBoundingBox() {
+        return boundingBox;
+    }
+
     @Override
     public String toString() {
         return "RotateEvent [source=" + source + ", angle=" + angle + ", userAction=" + userAction + "]";
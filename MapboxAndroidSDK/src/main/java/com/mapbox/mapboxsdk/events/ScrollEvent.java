@@ -1,5 +1,6 @@
 package com.mapbox.mapboxsdk.events;
 
+import com.mapbox.mapboxsdk.geometry.BoundingBox;
 import com.mapbox.mapboxsdk.views.MapView;
 
 /**
@@ -11,6 +12,8 @@ public class ScrollEvent implements MapEvent {
     protected int x;
     protected int y;
     protected boolean userAction;
+    protected float zoomLevel;
+    protected BoundingBox boundingBox;
 
     public ScrollEvent(final MapView aSource, final int ax, final int ay, final boolean userAction) {
         this.source = aSource;
@@ -19,6 +22,18 @@ public class ScrollEvent implements MapEvent {
         this.userAction = userAction;
     }
 
+    /**
+     * Updates this event for the next delivery by MapEventDispatcher.
+     */
+    void set(final int ax, final int ay, final boolean aUserAction, final float aZoomLevel,
+             final BoundingBox aBoundingBox) {
+        this.x = ax;
+        this.y = ay;
+        this.userAction = aUserAction;
+        this.zoomLevel = aZoomLevel;
+        this.boundingBox = aBoundingBox;
+    }
+
     /**
      * Return the map which generated this event.
      */
@@ -47,6 +62,22 @@ public class ScrollEvent implements MapEvent {
         return userAction;
     }
 
+    /**
+     * @return the zoom level of the map when the event was delivered
+     */
+    public float getZoomLevel() {
+        return zoomLevel;
+    }
+
+    /**
+     * @return the bounding box of the map when the event was delivered, null if the map was not
+     * laid out yet. Unlike the MapView, it may be read by a listener called on a background
+     * thread.
+     */
+    public BoundingBox getBoundingBox() {
+        return boundingBox;
+    }
+
     @Override
     public String toString() {
         return "ScrollEvent [source=" + source + ", x=" + x + ", y=" + y + "]";
@@ -0,0 +1,22 @@
+package com.mapbox.mapboxsdk.events;
+
+/**
+ * A MapListener that declares how often and on which thread it wants to be called. The MapView
+ * reads both settings once, when the listener is added.
+ */
+public interface ThrottledMapListener extends MapListener {
+
+    /**
+     * @return the minimum time between two calls, in milliseconds. Events arriving in between
+     * are coalesced into the next call. 0 for at most one call per frame.
+     */
+    public long getThrottleInterval();
+
+    /**
+     * @return true to be called on a background thread instead of the UI thread. A listener is
+     * never called again before its previous call returned. Such a listener must not call the
+     * MapView or its Projection, which are only safe on the UI thread, and reads the bounding
+     * box and zoom level of the map from the event instead.
+     */
+    public boolean isBackgroundDelivery();
+}
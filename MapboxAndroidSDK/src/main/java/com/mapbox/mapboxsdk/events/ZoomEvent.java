@@ -1,5 +1,6 @@
 package com.mapbox.mapboxsdk.events;
 
+import com.mapbox.mapboxsdk.geometry.BoundingBox;
 import com.mapbox.mapboxsdk.views.MapView;
 
 /**
@@ -10,6 +11,7 @@ public class ZoomEvent implements MapEvent {
     protected MapView source;
     protected float zoomLevel;
     protected boolean userAction;
+    protected BoundingBox boundingBox;
 
     public ZoomEvent(final MapView aSource, final float aZoomLevel, final boolean userAction) {
         this.source = aSource;
@@ -17,6 +19,15 @@ public class ZoomEvent implements MapEvent {
         this.userAction = userAction;
     }
 
+    /**
+     * Updates this event for the next delivery by MapEventDispatcher.
+     */
+    void set(final float aZoomLevel, final boolean aUserAction, final BoundingBox aBoundingBox) {
+        this.zoomLevel = aZoomLevel;
+        this.userAction = aUserAction;
+        this.boundingBox = aBoundingBox;
+    }
+
     /**
      * Return the map which generated this event.
      */
@@ -38,6 +49,15 @@ public class ZoomEvent implements MapEvent {
         return userAction;
     }
 
+    /**
+     * @return the bounding box of the map when the event was delivered, null if the map was not
+     * laid out yet. Unlike the MapView, it may be read by a listener called on a background
+     * thread.
+     */
+    public BoundingBox getBoundingBox() {
+        return boundingBox;
+    }
+
     @Override
     public String toString() {
         return "ZoomEvent [source=" + source + ", zoomLevel=" + zoomLevel + ", userAction=" + userAction + "]";
@@ -0,0 +1,252 @@
+package com.mapbox.mapboxsdk.geometry;
+
+import com.mapbox.mapboxsdk.views.util.Projection;
+
+import java.util.Arrays;
+
+/**
+ * A growable sequence of coordinates kept in one flat double array instead of an object per
+ * point. Every point takes dimension() values: x, y and, for a dimension of 3, z. For
+ * geographic coordinates x is the longitude, y the latitude and z the altitude, the order
+ * GeoJSON uses.
+ */
+public class PackedCoordinates {
+
+    private final int mDimension;
+    private double[] mCoordinates;
+    private int mSize;
+
+    /**
+     * @param dimension 2 for x and y, 3 to also keep z
+     */
+    public PackedCoordinates(final int dimension) {
+        this(dimension, 10);
+    }
+
+    /**
+     * @param dimension 2 for x and y, 3 to also keep z
+     * @param capacity  the number of points to allocate room for
+     */
+    public PackedCoordinates(final int dimension, final int capacity) {
+        if (dimension != 2 && dimension != 3) {
+            throw new IllegalArgumentException("Dimension must be 2 or 3, was " + dimension);
+        }
+        mDimension = dimension;
+        mCoordinates = new double[Math.max(capacity, 1) * dimension];
+    }
+
+    /**
+     * @return a copy of this sequence with a different dimension. Missing z values are 0.
+     */
+    public PackedCoordinates copy(final int dimension) {
+        final PackedCoordinates copy = new PackedCoordinates(dimension, mSize);
+        if (dimension == mDimension) {
+            System.arraycopy(mCoordinates, 0, copy.mCoordinates, 0, mSize * mDimension);
+            copy.mSize = mSize;
+        } else {
+            for (int i = 0; i < mSize; i++) {
+                copy.add(getX(i), getY(i), getZ(i));
+            }
+        }
+        return copy;
+    }
+
+    public int getDimension() {
+        return mDimension;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * @return the backing array. Point i starts at i * getDimension(), values after
+     * size() * getDimension() are undefined. The array is replaced when the sequence grows.
+     */
+    public double[] getCoordinates() {
+        return mCoordinates;
+    }
+
+    public double getX(final int index) {
+        return mCoordinates[index * mDimension];
+    }
+
+    public double getY(final int index) {
+        return mCoordinates[index * mDimension + 1];
+    }
+
+    /**
+     * @return the z value of the point, 0 if this sequence has a dimension of 2
+     */
+    public double getZ(final int index) {
+        return mDimension == 3 ? mCoordinates[index * 3 + 2] : 0;
+    }
+
+    public void set(final int index, final double x, final double y) {
+        mCoordinates[index * mDimension] = x;
+        mCoordinates[index * mDimension + 1] = y;
+    }
+
+    public void set(final int index, final double x, final double y, final double z) {
+        set(index, x, y);
+        if (mDimension == 3) {
+            mCoordinates[index * 3 + 2] = z;
+        }
+    }
+
+    public void add(final double x, final double y) {
+        ensureCapacity(mSize + 1);
+        mCoordinates[mSize * mDimension] = x;
+        mCoordinates[mSize * mDimension + 1] = y;
+        mSize++;
+    }
+
+    public void add(final double x, final double y, final double z) {
+        add(x, y);
+        if (mDimension == 3) {
+            mCoordinates[(mSize - 1) * 3 + 2] = z;
+        }
+    }
+
+    /**
+     * Inserts a point before the one at index.
+     */
+    public void insert(final int index, final double x, final double y, final double z) {
+        ensureCapacity(mSize + 1);
+        System.arraycopy(mCoordinates, index * mDimension, mCoordinates, (index + 1) * mDimension,
+                (mSize - index) * mDimension);
+        mSize++;
+        set(index, x, y, z);
+    }
+
+    /**
+     * Appends points from a flat array with the same dimension as this sequence.
+     *
+     * @param coordinates the points to add
+     * @param start       the index of the first point to add
+     * @param end         the index after the last point to add
+     */
+    public void addAll(final double[] coordinates, final int start, final int end) {
+        ensureCapacity(mSize + end - start);
+        System.arraycopy(coordinates, start * mDimension, mCoordinates, mSize * mDimension,
+                (end - start) * mDimension);
+        mSize += end - start;
+    }
+
+    public void addAll(final PackedCoordinates other) {
+        if (other.mDimension == mDimension) {
+            addAll(other.mCoordinates, 0, other.mSize);
+        } else {
+            ensureCapacity(mSize + other.mSize);
+            for (int i = 0; i < other.mSize; i++) {
+                add(other.getX(i), other.getY(i), other.getZ(i));
+            }
+        }
+    }
+
+    /**
+     * Removes the points from start up to, but not including, end.
+     */
+    public void removeRange(final int start, final int end) {
+        System.arraycopy(mCoordinates, end * mDimension, mCoordinates, start * mDimension,
+                (mSize - end) * mDimension);
+        mSize -= end - start;
+    }
+
+    public void clear() {
+        mSize = 0;
+    }
+
+    public void ensureCapacity(final int points) {
+        if (points * mDimension > mCoordinates.length) {
+            mCoordinates = Arrays.copyOf(mCoordinates,
+                    Math.max(points, mCoordinates.length / mDimension * 3 / 2 + 1) * mDimension);
+        }
+    }
+
+    public void trimToSize() {
+        if (mCoordinates.length > mSize * mDimension) {
+            mCoordinates = Arrays.copyOf(mCoordinates, Math.max(mSize, 1) * mDimension);
+        }
+    }
+
+    /**
+     * Projects longitude, latitude points to pixels of the whole map at the maximum zoom
+     * level, the intermediate coordinates that Projection.toMapPixelsTranslated() takes.
+     *
+     * @param start the first point to project
+     * @param out   receives the projected points, appended at its end
+     */
+    public void projectToPixels(final int start, final PackedCoordinates out) {
+        out.addProjected(mCoordinates, mDimension, start, mSize);
+    }
+
+    /**
+     * Appends longitude, latitude points projected like projectToPixels() does.
+     *
+     * @param lngLats the points to project
+     * @param stride  the number of values per point in lngLats
+     * @param start   the first point to project
+     * @param end     the point after the last one to project
+     */
+    public void addProjected(final double[] lngLats, final int stride, final int start, final int end) {
+        if (end <= start) {
+            return;
+        }
+        ensureCapacity(mSize + end - start);
+        Projection.latLongToPixelXYParallel(lngLats, stride, start, end, mCoordinates, mDimension, mSize);
+        mSize += end - start;
+    }
+
+    /**
+     * Sets x * scale + offsetX, y * scale + offsetY of every point in out, as floats so that
+     * the result can be handed to the canvas.
+     *
+     * @param out must have room for size() * 2 values
+     */
+    public void transform(final double scale, final double offsetX, final double offsetY, final float[] out) {
+        for (int i = 0, o = 0, end = mSize * mDimension; i < end; i += mDimension, o += 2) {
+            out[o] = (float) (mCoordinates[i] * scale + offsetX);
+            out[o + 1] = (float) (mCoordinates[i + 1] * scale + offsetY);
+        }
+    }
+
+    /**
+     * @param out receives minX, minY, maxX, maxY. All NaN if the sequence is empty.
+     */
+    public void getBounds(final double[] out) {
+        if (mSize == 0) {
+            Arrays.fill(out, 0, 4, Double.NaN);
+            return;
+        }
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0, end = mSize * mDimension; i < end; i += mDimension) {
+            final double x = mCoordinates[i];
+            final double y = mCoordinates[i + 1];
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+        out[0] = minX;
+        out[1] = minY;
+        out[2] = maxX;
+        out[3] = maxY;
+    }
+
+    /**
+     * @return true if the point at index is the same as the point at otherIndex in other,
+     * regardless of the dimension of the two sequences
+     */
+    public boolean pointEquals(final int index, final PackedCoordinates other, final int otherIndex) {
+        return getX(index) == other.getX(otherIndex) && getY(index) == other.getY(otherIndex)
+                && getZ(index) == other.getZ(otherIndex);
+    }
+}
@@ -0,0 +1,35 @@
+package com.mapbox.mapboxsdk.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A count of events, see {@link MapMetrics#counter(String)}. Counts nothing while metrics are
+ * disabled.
+ */
+public final class Counter {
+
+    private final AtomicLong mValue = new AtomicLong();
+
+    Counter() {
+    }
+
+    public void increment() {
+        if (MapMetrics.isEnabled()) {
+            mValue.incrementAndGet();
+        }
+    }
+
+    public void add(final long delta) {
+        if (MapMetrics.isEnabled()) {
+            mValue.addAndGet(delta);
+        }
+    }
+
+    public long get() {
+        return mValue.get();
+    }
+
+    void reset() {
+        mValue.set(0);
+    }
+}
@@ -0,0 +1,29 @@
+package com.mapbox.mapboxsdk.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The last value of a level, such as the length of a queue, see {@link MapMetrics#gauge(String)}.
+ * Keeps its value while metrics are disabled.
+ */
+public final class Gauge {
+
+    private final AtomicLong mValue = new AtomicLong();
+
+    Gauge() {
+    }
+
+    public void set(final long value) {
+        if (MapMetrics.isEnabled()) {
+            mValue.set(value);
+        }
+    }
+
+    public long get() {
+        return mValue.get();
+    }
+
+    void reset() {
+        mValue.set(0);
+    }
+}
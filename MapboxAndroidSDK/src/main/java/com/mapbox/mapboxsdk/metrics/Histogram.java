@@ -0,0 +1,137 @@
+package com.mapbox.mapboxsdk.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The distribution of durations, in microseconds, see {@link MapMetrics#histogram(String)}.
+ * Durations are counted in power of two buckets, so recording is a few atomic increments and
+ * percentiles are accurate within a factor of two.
+ */
+public final class Histogram {
+
+    /**
+     * Bucket 0 counts 0, bucket b counts [2^(b-1), 2^b), the last one everything above.
+     */
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong mCount = new AtomicLong();
+    private final AtomicLong mSum = new AtomicLong();
+    private final AtomicLong mMax = new AtomicLong();
+
+    Histogram() {
+    }
+
+    /**
+     * Records the time elapsed since a start.
+     *
+     * @param startNanos as returned by {@link MapMetrics#start()}, nothing is recorded for 0
+     */
+    public void recordSince(final long startNanos) {
+        if (startNanos != 0) {
+            record((System.nanoTime() - startNanos) / 1000);
+        }
+    }
+
+    /**
+     * @param micros a duration, in microseconds
+     */
+    public void record(long micros) {
+        if (micros < 0) {
+            micros = 0;
+        }
+        final int bucket = Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+        mBuckets.incrementAndGet(bucket);
+        mCount.incrementAndGet();
+        mSum.addAndGet(micros);
+        long max = mMax.get();
+        while (micros > max && !mMax.compareAndSet(max, micros)) {
+            max = mMax.get();
+        }
+    }
+
+    public Snapshot snapshot() {
+        final long[] buckets = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = mBuckets.get(i);
+        }
+        return new Snapshot(buckets, mCount.get(), mSum.get(), mMax.get());
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            mBuckets.set(i, 0);
+        }
+        mCount.set(0);
+        mSum.set(0);
+        mMax.set(0);
+    }
+
+    /**
+     * The state of a histogram at one point in time. Recordings made while the snapshot was
+     * taken may be partly included.
+     */
+    public static final class Snapshot {
+        private final long[] mBuckets;
+        private final long mCount;
+        private final long mSum;
+        private final long mMax;
+
+        Snapshot(final long[] buckets, final long count, final long sum, final long max) {
+            mBuckets = buckets;
+            mCount = count;
+            mSum = sum;
+            mMax = max;
+        }
+
+        public long getCount() {
+            return mCount;
+        }
+
+        /**
+         * @return the mean duration in microseconds, 0 if nothing was recorded
+         */
+        public double getMean() {
+            return mCount == 0 ? 0 : (double) mSum / mCount;
+        }
+
+        /**
+         * @return the longest duration in microseconds
+         */
+        public long getMax() {
+            return mMax;
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return an upper bound of the duration under which this percentage of the durations
+         * falls, in microseconds, 0 if nothing was recorded
+         */
+        public long getPercentile(final double percentile) {
+            long total = 0;
+            for (long count : mBuckets) {
+                total += count;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            final long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+            long seen = 0;
+            for (int bucket = 0; bucket < mBuckets.length; bucket++) {
+                seen += mBuckets[bucket];
+                if (seen >= rank) {
+                    return bucket == 0 ? 0 : Math.min((1L << bucket) - 1, mMax);
+                }
+            }
+            return mMax;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "count=%d mean=%.0fus p50=%dus p90=%dus p99=%dus max=%dus",
+                    mCount, getMean(), getPercentile(50), getPercentile(90), getPercentile(99), mMax);
+        }
+    }
+}
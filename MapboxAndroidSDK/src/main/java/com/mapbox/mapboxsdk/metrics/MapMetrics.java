@@ -0,0 +1,231 @@
+package com.mapbox.mapboxsdk.metrics;
+
+import com.mapbox.mapboxsdk.tileprovider.MapTile;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The registry of the metrics of the frame and tile pipelines: counters, gauges and duration
+ * histograms, by name. Metrics are shared by all the maps of the process and disabled by
+ * default. While disabled, recording a metric costs a volatile read and nothing is measured.
+ * <p/>
+ * Recorded durations are in microseconds. Code timing a section checks {@link #start()}, which
+ * does not read the clock while disabled:
+ * <pre>
+ * final long start = MapMetrics.start();
+ * ...
+ * histogram.recordSince(start);
+ * </pre>
+ */
+public final class MapMetrics {
+
+    /**
+     * Lookups of visible tiles in the memory cache.
+     */
+    public static final String TILES_MEMORY_HITS = "tiles.memory.hits";
+    public static final String TILES_MEMORY_MISSES = "tiles.memory.misses";
+    /**
+     * Lookups of tiles in the disk cache before downloading them.
+     */
+    public static final String TILES_DISK_HITS = "tiles.disk.hits";
+    public static final String TILES_DISK_MISSES = "tiles.disk.misses";
+    /**
+     * Downloading and decoding a tile.
+     */
+    public static final String TILES_DOWNLOAD_TIME = "tiles.download.time";
+    public static final String TILES_DOWNLOAD_FAILURES = "tiles.download.failures";
+    /**
+     * From the first frame a tile is missing from to the first frame it is drawn in.
+     */
+    public static final String TILES_TIME_TO_FIRST_PIXEL = "tiles.time_to_first_pixel";
+    /**
+     * The queues of every tile provider module, followed by the name of the module.
+     */
+    public static final String TILES_QUEUE_PENDING_PREFIX = "tiles.queue.pending.";
+    public static final String TILES_QUEUE_PREFETCH_PREFIX = "tiles.queue.prefetch.";
+    public static final String TILES_QUEUE_WORKING_PREFIX = "tiles.queue.working.";
+    /**
+     * Drawing all the overlays of a frame.
+     */
+    public static final String FRAME_DRAW_TIME = "frame.draw.time";
+    /**
+     * Drawing one overlay, followed by the name of its class.
+     */
+    public static final String OVERLAY_DRAW_TIME_PREFIX = "overlay.draw.time.";
+
+    /**
+     * Tiles missing for longer are not waited for anymore, they were likely scrolled away.
+     */
+    private static final long MAX_TILE_WAIT_NANOS = 60 * 1000000000L;
+    private static final int MAX_TRACKED_TILES = 1024;
+
+    private static volatile boolean sEnabled;
+
+    private static final ConcurrentHashMap<String, Counter> sCounters = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Gauge> sGauges = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Histogram> sHistograms = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Class<?>, Histogram> sOverlayDrawTimes = new ConcurrentHashMap<>();
+
+    /**
+     * When each tile still missing from the screen was first missing.
+     */
+    private static final ConcurrentHashMap<MapTile, Long> sMissingTiles = new ConcurrentHashMap<>();
+
+    public static final Counter MEMORY_HITS = counter(TILES_MEMORY_HITS);
+    public static final Counter MEMORY_MISSES = counter(TILES_MEMORY_MISSES);
+    public static final Counter DISK_HITS = counter(TILES_DISK_HITS);
+    public static final Counter DISK_MISSES = counter(TILES_DISK_MISSES);
+    public static final Histogram DOWNLOAD_TIME = histogram(TILES_DOWNLOAD_TIME);
+    public static final Counter DOWNLOAD_FAILURES = counter(TILES_DOWNLOAD_FAILURES);
+    public static final Histogram TIME_TO_FIRST_PIXEL = histogram(TILES_TIME_TO_FIRST_PIXEL);
+    public static final Histogram FRAME_DRAW = histogram(FRAME_DRAW_TIME);
+
+    private MapMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * Starts or stops recording. Values recorded so far are kept, see {@link #reset()}.
+     */
+    public static void setEnabled(final boolean enabled) {
+        sEnabled = enabled;
+        if (!enabled) {
+            sMissingTiles.clear();
+        }
+    }
+
+    /**
+     * @return the current time in nanoseconds to time a section from, or 0 if metrics are
+     * disabled
+     */
+    public static long start() {
+        return sEnabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * @return the counter with this name, created if there is none
+     */
+    public static Counter counter(final String name) {
+        Counter counter = sCounters.get(name);
+        if (counter == null) {
+            final Counter created = new Counter();
+            counter = sCounters.putIfAbsent(name, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * @return the gauge with this name, created if there is none
+     */
+    public static Gauge gauge(final String name) {
+        Gauge gauge = sGauges.get(name);
+        if (gauge == null) {
+            final Gauge created = new Gauge();
+            gauge = sGauges.putIfAbsent(name, created);
+            if (gauge == null) {
+                gauge = created;
+            }
+        }
+        return gauge;
+    }
+
+    /**
+     * @return the histogram with this name, created if there is none
+     */
+    public static Histogram histogram(final String name) {
+        Histogram histogram = sHistograms.get(name);
+        if (histogram == null) {
+            final Histogram created = new Histogram();
+            histogram = sHistograms.putIfAbsent(name, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * @return the histogram of the draw time of the overlays of this class
+     */
+    public static Histogram overlayDrawTime(final Object overlay) {
+        final Class<?> overlayClass = overlay.getClass();
+        Histogram histogram = sOverlayDrawTimes.get(overlayClass);
+        if (histogram == null) {
+            histogram = histogram(OVERLAY_DRAW_TIME_PREFIX + overlayClass.getName());
+            sOverlayDrawTimes.put(overlayClass, histogram);
+        }
+        return histogram;
+    }
+
+    /**
+     * A tile could not be drawn in this frame. Starts its time to first pixel if it is not
+     * running yet.
+     */
+    public static void tileMissing(final MapTile tile) {
+        if (sEnabled && sMissingTiles.size() < MAX_TRACKED_TILES && !sMissingTiles.containsKey(tile)) {
+            sMissingTiles.put(tile, System.nanoTime());
+        }
+    }
+
+    /**
+     * A tile was drawn in this frame. Records its time to first pixel if it was missing.
+     */
+    public static void tileDrawn(final MapTile tile) {
+        if (sEnabled && !sMissingTiles.isEmpty()) {
+            final Long missingSince = sMissingTiles.remove(tile);
+            if (missingSince != null) {
+                TIME_TO_FIRST_PIXEL.recordSince(missingSince);
+            }
+        }
+    }
+
+    /**
+     * @return the current value of every metric
+     */
+    public static MetricsSnapshot snapshot() {
+        final long now = System.nanoTime();
+        for (Iterator<Long> it = sMissingTiles.values().iterator(); it.hasNext();) {
+            if (now - it.next() > MAX_TILE_WAIT_NANOS) {
+                it.remove();
+            }
+        }
+        final Map<String, Long> counters = new HashMap<>();
+        for (Map.Entry<String, Counter> entry : sCounters.entrySet()) {
+            counters.put(entry.getKey(), entry.getValue().get());
+        }
+        final Map<String, Long> gauges = new HashMap<>();
+        for (Map.Entry<String, Gauge> entry : sGauges.entrySet()) {
+            gauges.put(entry.getKey(), entry.getValue().get());
+        }
+        final Map<String, Histogram.Snapshot> histograms = new HashMap<>();
+        for (Map.Entry<String, Histogram> entry : sHistograms.entrySet()) {
+            histograms.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return new MetricsSnapshot(System.currentTimeMillis(), counters, gauges, histograms);
+    }
+
+    /**
+     * Sets every counter, gauge and histogram back to 0.
+     */
+    public static void reset() {
+        for (Counter counter : sCounters.values()) {
+            counter.reset();
+        }
+        for (Gauge gauge : sGauges.values()) {
+            gauge.reset();
+        }
+        for (Histogram histogram : sHistograms.values()) {
+            histogram.reset();
+        }
+        sMissingTiles.clear();
+    }
+}
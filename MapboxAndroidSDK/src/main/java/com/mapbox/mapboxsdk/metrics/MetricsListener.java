@@ -0,0 +1,15 @@
+package com.mapbox.mapboxsdk.metrics;
+
+/**
+ * Receives the metrics of the map at a regular interval while metrics are enabled, see
+ * {@link com.mapbox.mapboxsdk.views.MapView#addMetricsListener(MetricsListener)}.
+ */
+public interface MetricsListener {
+
+    /**
+     * Called on the UI thread.
+     *
+     * @param snapshot the metrics recorded since they were enabled or last reset
+     */
+    void onMetrics(MetricsSnapshot snapshot);
+}
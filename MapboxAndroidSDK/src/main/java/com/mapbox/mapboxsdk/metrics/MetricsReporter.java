@@ -0,0 +1,71 @@
+package com.mapbox.mapboxsdk.metrics;
+
+import android.view.View;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Hands a snapshot of the metrics to listeners at a regular interval, on the UI thread of a
+ * view, while metrics are enabled and the view is attached.
+ */
+public class MetricsReporter implements Runnable {
+
+    public static final long DEFAULT_INTERVAL = 1000;
+
+    private final View mView;
+    private final CopyOnWriteArrayList<MetricsListener> mListeners = new CopyOnWriteArrayList<>();
+    private long mInterval = DEFAULT_INTERVAL;
+    private boolean mScheduled;
+
+    public MetricsReporter(final View view) {
+        mView = view;
+    }
+
+    public void addListener(final MetricsListener listener) {
+        if (mListeners.addIfAbsent(listener)) {
+            start();
+        }
+    }
+
+    public void removeListener(final MetricsListener listener) {
+        if (mListeners.remove(listener) && mListeners.isEmpty()) {
+            stop();
+        }
+    }
+
+    /**
+     * @param interval the time between two snapshots, in milliseconds
+     */
+    public void setInterval(final long interval) {
+        mInterval = Math.max(1, interval);
+    }
+
+    /**
+     * Schedules the next snapshot if there are listeners.
+     */
+    public void start() {
+        if (!mScheduled && !mListeners.isEmpty()) {
+            mScheduled = true;
+            mView.postDelayed(this, mInterval);
+        }
+    }
+
+    public void stop() {
+        if (mScheduled) {
+            mScheduled = false;
+            mView.removeCallbacks(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        mScheduled = false;
+        if (MapMetrics.isEnabled() && !mListeners.isEmpty()) {
+            final MetricsSnapshot snapshot = MapMetrics.snapshot();
+            for (MetricsListener listener : mListeners) {
+                listener.onMetrics(snapshot);
+            }
+        }
+        start();
+    }
+}
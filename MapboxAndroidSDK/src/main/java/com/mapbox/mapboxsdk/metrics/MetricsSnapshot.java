@@ -0,0 +1,121 @@
+package com.mapbox.mapboxsdk.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The values of all the metrics at one point in time, see {@link MapMetrics#snapshot()}.
+ */
+public final class MetricsSnapshot {
+
+    private final long mTime;
+    private final Map<String, Long> mCounters;
+    private final Map<String, Long> mGauges;
+    private final Map<String, Histogram.Snapshot> mHistograms;
+
+    MetricsSnapshot(final long time, final Map<String, Long> counters,
+                    final Map<String, Long> gauges, final Map<String, Histogram.Snapshot> histograms) {
+        mTime = time;
+        mCounters = Collections.unmodifiableMap(new TreeMap<>(counters));
+        mGauges = Collections.unmodifiableMap(new TreeMap<>(gauges));
+        mHistograms = Collections.unmodifiableMap(new TreeMap<>(histograms));
+    }
+
+    /**
+     * @return when the snapshot was taken, in milliseconds since the epoch
+     */
+    public long getTime() {
+        return mTime;
+    }
+
+    /**
+     * @return the value of the counter, 0 if there is none with that name
+     */
+    public long getCounter(final String name) {
+        final Long value = mCounters.get(name);
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * @return the value of the gauge, 0 if there is none with that name
+     */
+    public long getGauge(final String name) {
+        final Long value = mGauges.get(name);
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * @return the histogram, null if there is none with that name
+     */
+    public Histogram.Snapshot getHistogram(final String name) {
+        return mHistograms.get(name);
+    }
+
+    /**
+     * @return the counters by name, sorted
+     */
+    public Map<String, Long> getCounters() {
+        return mCounters;
+    }
+
+    /**
+     * @return the gauges by name, sorted
+     */
+    public Map<String, Long> getGauges() {
+        return mGauges;
+    }
+
+    /**
+     * @return the histograms by name, sorted
+     */
+    public Map<String, Histogram.Snapshot> getHistograms() {
+        return mHistograms;
+    }
+
+    /**
+     * @return the share of hits among the lookups of two counters, NaN if there was none
+     */
+    public double getHitRate(final String hitsName, final String missesName) {
+        final long hits = getCounter(hitsName);
+        final long lookups = hits + getCounter(missesName);
+        return lookups == 0 ? Double.NaN : (double) hits / lookups;
+    }
+
+    public double getMemoryCacheHitRate() {
+        return getHitRate(MapMetrics.TILES_MEMORY_HITS, MapMetrics.TILES_MEMORY_MISSES);
+    }
+
+    public double getDiskCacheHitRate() {
+        return getHitRate(MapMetrics.TILES_DISK_HITS, MapMetrics.TILES_DISK_MISSES);
+    }
+
+    /**
+     * @return the draw time of every overlay by the name of its class, sorted
+     */
+    public Map<String, Histogram.Snapshot> getOverlayDrawTimes() {
+        final Map<String, Histogram.Snapshot> drawTimes = new TreeMap<>();
+        for (Map.Entry<String, Histogram.Snapshot> entry : mHistograms.entrySet()) {
+            if (entry.getKey().startsWith(MapMetrics.OVERLAY_DRAW_TIME_PREFIX)) {
+                drawTimes.put(entry.getKey().substring(MapMetrics.OVERLAY_DRAW_TIME_PREFIX.length()),
+                        entry.getValue());
+            }
+        }
+        return drawTimes;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, Long> entry : mCounters.entrySet()) {
+            builder.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+        for (Map.Entry<String, Long> entry : mGauges.entrySet()) {
+            builder.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+        for (Map.Entry<String, Histogram.Snapshot> entry : mHistograms.entrySet()) {
+            builder.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+        return builder.toString();
+    }
+}
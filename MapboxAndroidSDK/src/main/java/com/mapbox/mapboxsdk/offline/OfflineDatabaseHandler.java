@@ -1,6 +1,8 @@
 package com.mapbox.mapboxsdk.offline;
 
+import android.content.ContentValues;
 import android.content.Context;
+import android.database.Cursor;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
@@ -13,20 +15,25 @@ public class OfflineDatabaseHandler extends SQLiteOpenHelper {
 
     // All Static variables
     // Database Version
-    public static final int DATABASE_VERSION = 2;
+    public static final int DATABASE_VERSION = 3;
 
     // Table name(s)
     public static final String TABLE_METADATA = "metadata";
     public static final String TABLE_RESOURCES = "resources";
+    public static final String TABLE_TILES = "tiles";
 
     // Table Fields
     public static final String FIELD_METADATA_NAME = "name";
     public static final String FIELD_METADATA_VALUE = "value";
 
+    public static final String FIELD_RESOURCES_KEY = "key";
     public static final String FIELD_RESOURCES_URL = "url";
     public static final String FIELD_RESOURCES_DATA = "data";
     public static final String FIELD_RESOURCES_STATUS = "status";
 
+    // The tiles table also has the url, data and status fields of the resources table
+    public static final String FIELD_TILES_ID = "id";
+
     /**
      * Constructor
      *
@@ -41,13 +48,12 @@ public class OfflineDatabaseHandler extends SQLiteOpenHelper {
         Log.i(TAG, "onCreate() called... Setting up application's database.");
         // Create The table(s)
         String metadata = "CREATE TABLE " + TABLE_METADATA + " (" + FIELD_METADATA_NAME + " TEXT UNIQUE, " + FIELD_METADATA_VALUE + " TEXT);";
-        String resources = "CREATE TABLE " + TABLE_RESOURCES + " (" + FIELD_RESOURCES_URL + " TEXT UNIQUE, " + FIELD_RESOURCES_DATA + " BLOB, " + FIELD_RESOURCES_STATUS + " TEXT);";
 
         db.beginTransaction();
 
         try {
             db.execSQL(metadata);
-            db.execSQL(resources);
+            createResourceTables(db);
             db.setTransactionSuccessful();
         } catch (SQLException e) {
             Log.e(TAG, "Error creating database: " + e.toString());
@@ -57,11 +63,75 @@ public class OfflineDatabaseHandler extends SQLiteOpenHelper {
         }
     }
 
+    /**
+     * Tiles are keyed by {@link OfflineResourceKeys#getTileId(int, int, int)} as the rowid of
+     * their table, the other resources by {@link OfflineResourceKeys#getResourceKey(String)}.
+     * The url is only kept to download the resource.
+     */
+    private static void createResourceTables(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_RESOURCES + " (" + FIELD_RESOURCES_KEY + " TEXT PRIMARY KEY, " + FIELD_RESOURCES_URL + " TEXT, " + FIELD_RESOURCES_DATA + " BLOB, " + FIELD_RESOURCES_STATUS + " TEXT);");
+        db.execSQL("CREATE TABLE " + TABLE_TILES + " (" + FIELD_TILES_ID + " INTEGER PRIMARY KEY, " + FIELD_RESOURCES_URL + " TEXT, " + FIELD_RESOURCES_DATA + " BLOB, " + FIELD_RESOURCES_STATUS + " TEXT);");
+    }
+
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion == 2) {
+            Log.i(TAG, "Upgrading database from version " + oldVersion + " to " + newVersion + ", rekeying resources");
+            migrateResourcesFromVersion2(db);
+            return;
+        }
         Log.w(TAG, "Upgrading database from version " + oldVersion + " to " + newVersion + ", which will destroy all old data");
         db.execSQL("drop table if exists " + TABLE_METADATA);
         db.execSQL("drop table if exists " + TABLE_RESOURCES);
+        db.execSQL("drop table if exists " + TABLE_TILES);
         onCreate(db);
     }
+
+    /**
+     * Version 2 kept every resource in a single table keyed by its full URL, access token
+     * included. Splits it into the tiles and resources tables, computing the keys from the URLs.
+     * Runs in the transaction of the upgrade.
+     */
+    private static void migrateResourcesFromVersion2(SQLiteDatabase db) {
+        final String oldTable = TABLE_RESOURCES + "_v2";
+        db.execSQL("ALTER TABLE " + TABLE_RESOURCES + " RENAME TO " + oldTable + ";");
+        createResourceTables(db);
+        Cursor cursor = db.query(oldTable, new String[] {FIELD_RESOURCES_URL, FIELD_RESOURCES_DATA, FIELD_RESOURCES_STATUS}, null, null, null, null, null);
+        try {
+            while (cursor.moveToNext()) {
+                String url = cursor.getString(0);
+                if (url != null) {
+                    putResource(db, url, cursor.isNull(1) ? null : cursor.getBlob(1), cursor.getString(2), false);
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        db.execSQL("DROP TABLE " + oldTable + ";");
+    }
+
+    /**
+     * Writes a resource into the tiles table if its URL is a tile's, into the resources table
+     * otherwise.
+     *
+     * @param url     the URL to download the resource from
+     * @param data    the resource, null if not downloaded yet
+     * @param status  the status of the download, null if not downloaded yet
+     * @param replace true to replace a resource with the same key, false to keep it
+     */
+    public static void putResource(SQLiteDatabase db, String url, byte[] data, String status, boolean replace) {
+        ContentValues values = new ContentValues();
+        values.put(FIELD_RESOURCES_URL, url);
+        values.put(FIELD_RESOURCES_DATA, data);
+        values.put(FIELD_RESOURCES_STATUS, status);
+        int conflictAlgorithm = replace ? SQLiteDatabase.CONFLICT_REPLACE : SQLiteDatabase.CONFLICT_IGNORE;
+        long tileId = OfflineResourceKeys.getTileId(url);
+        if (tileId >= 0) {
+            values.put(FIELD_TILES_ID, tileId);
+            db.insertWithOnConflict(TABLE_TILES, null, values, conflictAlgorithm);
+        } else {
+            values.put(FIELD_RESOURCES_KEY, OfflineResourceKeys.getResourceKey(url));
+            db.insertWithOnConflict(TABLE_RESOURCES, null, values, conflictAlgorithm);
+        }
+    }
 }
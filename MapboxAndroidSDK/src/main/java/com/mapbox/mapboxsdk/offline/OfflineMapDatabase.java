@@ -98,6 +98,13 @@ public class OfflineMapDatabase implements MapboxConstants {
         return initializedProperly;
     }
 
+    /**
+     * @return the tile, null if it is not in this offline map
+     */
+    public byte[] dataForTile(int z, int x, int y) throws OfflineDatabaseException {
+        return sqliteDataForTile(OfflineResourceKeys.getTileId(z, x, y));
+    }
+
     public byte[] dataForURL(String url) throws OfflineDatabaseException {
         byte[] data = sqliteDataForURL(url);
 /*
@@ -138,7 +145,27 @@ public class OfflineMapDatabase implements MapboxConstants {
         return res;
     }
 
+    /**
+     * Looks a resource up by the key of its URL, whatever the host and access token of the URL.
+     */
     public byte[] sqliteDataForURL(String url) {
+        long tileId = OfflineResourceKeys.getTileId(url);
+        if (tileId >= 0) {
+            return sqliteDataForTile(tileId);
+        }
+        String query = "SELECT " + OfflineDatabaseHandler.FIELD_RESOURCES_DATA + " FROM " + OfflineDatabaseHandler.TABLE_RESOURCES + " WHERE " + OfflineDatabaseHandler.FIELD_RESOURCES_KEY + "=?;";
+        return sqliteQueryData(query, OfflineResourceKeys.getResourceKey(url));
+    }
+
+    public byte[] sqliteDataForTile(long tileId) {
+        if (tileId < 0) {
+            return null;
+        }
+        String query = "SELECT " + OfflineDatabaseHandler.FIELD_RESOURCES_DATA + " FROM " + OfflineDatabaseHandler.TABLE_TILES + " WHERE " + OfflineDatabaseHandler.FIELD_TILES_ID + "=?;";
+        return sqliteQueryData(query, Long.toString(tileId));
+    }
+
+    private byte[] sqliteQueryData(String query, String key) {
         if (mapID == null) {
             return null;
         }
@@ -147,8 +174,7 @@ public class OfflineMapDatabase implements MapboxConstants {
             return null;
         }
 
-        String query = "SELECT " + OfflineDatabaseHandler.FIELD_RESOURCES_DATA + " FROM " + OfflineDatabaseHandler.TABLE_RESOURCES + " WHERE " + OfflineDatabaseHandler.FIELD_RESOURCES_URL + "=?;";
-        String[] selectionArgs = new String[] { url };
+        String[] selectionArgs = new String[] { key };
         Cursor cursor = db.rawQuery(query, selectionArgs);
         if (cursor == null) {
             return null;
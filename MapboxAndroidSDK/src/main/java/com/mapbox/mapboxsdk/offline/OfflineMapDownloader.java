@@ -383,11 +383,7 @@ public class OfflineMapDownloader implements MapboxConstants {
         db.beginTransaction();
 
 //      String query2 = "INSERT INTO data(value) VALUES(?);";
-        ContentValues values = new ContentValues();
-        values.put(OfflineDatabaseHandler.FIELD_RESOURCES_URL, url);
-        values.put(OfflineDatabaseHandler.FIELD_RESOURCES_DATA, data);
-        values.put(OfflineDatabaseHandler.FIELD_RESOURCES_STATUS, 200);
-        db.replace(OfflineDatabaseHandler.TABLE_RESOURCES, null, values);
+        OfflineDatabaseHandler.putResource(db, url, data, "200", true);
 
         db.setTransactionSuccessful();
         db.endTransaction();
@@ -457,12 +453,17 @@ public class OfflineMapDownloader implements MapboxConstants {
 
         // Read up to limit undownloaded urls from the offline map database
         //
-        String query = String.format(MAPBOX_LOCALE, "SELECT %s FROM %s WHERE %s IS NULL", OfflineDatabaseHandler.FIELD_RESOURCES_URL, OfflineDatabaseHandler.TABLE_RESOURCES, OfflineDatabaseHandler.FIELD_RESOURCES_STATUS);
+        String query = String.format(MAPBOX_LOCALE, "SELECT %s FROM %s WHERE %s IS NULL UNION ALL SELECT %s FROM %s WHERE %s IS NULL",
+                OfflineDatabaseHandler.FIELD_RESOURCES_URL, OfflineDatabaseHandler.TABLE_RESOURCES, OfflineDatabaseHandler.FIELD_RESOURCES_STATUS,
+                OfflineDatabaseHandler.FIELD_RESOURCES_URL, OfflineDatabaseHandler.TABLE_TILES, OfflineDatabaseHandler.FIELD_RESOURCES_STATUS);
         if (limit > 0) {
             query = query + String.format(MAPBOX_LOCALE, " LIMIT %d", limit);
         }
         query = query + ";";
 
+        // The urls keep the access token they were stored with, which may have changed since
+        final String accessToken = MapboxUtils.getAccessToken();
+
         // Open the database
         final SQLiteDatabase db = database();
         final Cursor cursor = db.rawQuery(query, null);
@@ -484,7 +485,7 @@ public class OfflineMapDownloader implements MapboxConstants {
                     throw new NoSuchElementException();
                 }
 
-                String result = cursor.getString(0);
+                String result = OfflineResourceKeys.replaceAccessToken(cursor.getString(0), accessToken);
                 hasNext = cursor.moveToNext();
                 if (!hasNext) {
                     cursor.close();
@@ -506,9 +507,9 @@ public class OfflineMapDownloader implements MapboxConstants {
         // Calculate how many files need to be written in total and how many of them have been written already
         //
         String query = String.format(MAPBOX_LOCALE,
-                "SELECT COUNT(%s) AS totalFilesExpectedToWrite, (SELECT COUNT(%s) FROM %s WHERE %s IS NOT NULL) AS totalFilesWritten FROM %s;",
-                OfflineDatabaseHandler.FIELD_RESOURCES_URL, OfflineDatabaseHandler.FIELD_RESOURCES_URL, OfflineDatabaseHandler.TABLE_RESOURCES,
-                OfflineDatabaseHandler.FIELD_RESOURCES_STATUS, OfflineDatabaseHandler.TABLE_RESOURCES);
+                "SELECT (SELECT COUNT(*) FROM %1$s) + (SELECT COUNT(*) FROM %2$s) AS totalFilesExpectedToWrite, "
+                        + "(SELECT COUNT(*) FROM %1$s WHERE %3$s IS NOT NULL) + (SELECT COUNT(*) FROM %2$s WHERE %3$s IS NOT NULL) AS totalFilesWritten;",
+                OfflineDatabaseHandler.TABLE_RESOURCES, OfflineDatabaseHandler.TABLE_TILES, OfflineDatabaseHandler.FIELD_RESOURCES_STATUS);
 
         boolean success = false;
         SQLiteDatabase db = database();
@@ -549,20 +550,16 @@ public class OfflineMapDownloader implements MapboxConstants {
             db.replace(OfflineDatabaseHandler.TABLE_METADATA, null, cv);
         }
         for (String url : urlStrings) {
-            ContentValues cv = new ContentValues();
-            cv.put(OfflineDatabaseHandler.FIELD_RESOURCES_URL, url);
-            db.insert(OfflineDatabaseHandler.TABLE_RESOURCES, null, cv);
+            OfflineDatabaseHandler.putResource(db, url, null, null, false);
         }
         for (int generatedIndex = 0; generatedIndex < generator.getURLCount(); generatedIndex++) {
-            ContentValues cv = new ContentValues();
             String url = generator.getURLForIndex(context, mapID, imageQuality, generatedIndex);
-            cv.put(OfflineDatabaseHandler.FIELD_RESOURCES_URL, url);
-            db.insert(OfflineDatabaseHandler.TABLE_RESOURCES, null, cv);
+            OfflineDatabaseHandler.putResource(db, url, null, null, false);
         }
         db.setTransactionSuccessful();
         db.endTransaction();
-        this.totalFilesExpectedToWrite = urlStrings.size() + generator.getURLCount();
-        this.totalFilesWritten = 0;
+        // URLs sharing a key, such as the same marker icon from two hosts, are stored once, so count the rows
+        sqliteQueryWrittenAndExpectedCountsWithError();
         success = true;
 /*
         // Open the database read-write and multi-threaded. The slightly obscure c-style variable names here and below are
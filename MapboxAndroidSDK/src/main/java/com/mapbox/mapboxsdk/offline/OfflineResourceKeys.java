@@ -0,0 +1,114 @@
+package com.mapbox.mapboxsdk.offline;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The keys resources are stored under in an offline map database. They don't depend on the
+ * host serving a resource or on the access token it was downloaded with, so a database stays
+ * readable when either changes.
+ * <p/>
+ * An offline map database holds a single map at a single image quality, so tiles are keyed by
+ * their zoom level and coordinates alone, packed in an integer. Other resources (metadata,
+ * markers, marker icons) are keyed by their URL without scheme, host and access token.
+ */
+public final class OfflineResourceKeys {
+
+    /**
+     * The deepest zoom level a tile id can hold, x and y get 24 bits each.
+     */
+    public static final int MAX_ZOOM = 24;
+
+    private static final String ACCESS_TOKEN = "access_token";
+    private static final Pattern TILE_PATH = Pattern.compile(".*/(\\d{1,2})/(\\d{1,8})/(\\d{1,8})(?:@2x)?\\.\\w+");
+
+    private OfflineResourceKeys() {
+    }
+
+    /**
+     * @return the id of the tile, or -1 if there is no such tile
+     */
+    public static long getTileId(final int z, final int x, final int y) {
+        if (z < 0 || z > MAX_ZOOM || x < 0 || y < 0 || x >= 1 << z || y >= 1 << z) {
+            return -1;
+        }
+        return ((long) z << 48) | ((long) x << 24) | y;
+    }
+
+    /**
+     * @param url a URL as built by {@link com.mapbox.mapboxsdk.util.MapboxUtils#getMapTileURL}
+     * @return the id of the tile at this URL, or -1 if it is not a tile URL
+     */
+    public static long getTileId(final String url) {
+        final Matcher matcher = TILE_PATH.matcher(getPath(url));
+        if (!matcher.matches()) {
+            return -1;
+        }
+        return getTileId(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+                Integer.parseInt(matcher.group(3)));
+    }
+
+    /**
+     * @return the key of a resource that is not a tile: the path and query of its URL, without
+     * the access token
+     */
+    public static String getResourceKey(final String url) {
+        final int pathStart = getPathStart(url);
+        final int queryStart = url.indexOf('?', pathStart);
+        if (queryStart < 0) {
+            return url.substring(pathStart);
+        }
+        final StringBuilder key = new StringBuilder(url.length() - pathStart);
+        key.append(url, pathStart, queryStart);
+        char separator = '?';
+        for (String parameter : url.substring(queryStart + 1).split("&")) {
+            if (parameter.length() == 0 || parameter.equals(ACCESS_TOKEN)
+                    || parameter.startsWith(ACCESS_TOKEN + "=")) {
+                continue;
+            }
+            key.append(separator).append(parameter);
+            separator = '&';
+        }
+        return key.toString();
+    }
+
+    /**
+     * @return the URL with the value of its access token replaced, the URL itself if it has no
+     * access token or the new token is null
+     */
+    public static String replaceAccessToken(final String url, final String accessToken) {
+        final int queryStart = url.indexOf('?', getPathStart(url));
+        if (queryStart < 0 || accessToken == null) {
+            return url;
+        }
+        final StringBuilder result = new StringBuilder(url.length());
+        result.append(url, 0, queryStart);
+        char separator = '?';
+        for (String parameter : url.substring(queryStart + 1).split("&")) {
+            if (parameter.equals(ACCESS_TOKEN) || parameter.startsWith(ACCESS_TOKEN + "=")) {
+                parameter = ACCESS_TOKEN + "=" + accessToken;
+            }
+            result.append(separator).append(parameter);
+            separator = '&';
+        }
+        return result.toString();
+    }
+
+    private static String getPath(final String url) {
+        final int pathStart = getPathStart(url);
+        final int queryStart = url.indexOf('?', pathStart);
+        return queryStart < 0 ? url.substring(pathStart) : url.substring(pathStart, queryStart);
+    }
+
+    /**
+     * @return the index of the '/' starting the path, after the scheme and host if any
+     */
+    private static int getPathStart(final String url) {
+        final int schemeEnd = url.indexOf("://");
+        if (schemeEnd < 0) {
+            return 0;
+        }
+        final int pathStart = url.indexOf('/', schemeEnd + 3);
+        return pathStart < 0 ? url.length() : pathStart;
+    }
+}
@@ -0,0 +1,183 @@
+package com.mapbox.mapboxsdk.overlay;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.support.v4.util.LruCache;
+
+import com.mapbox.mapboxsdk.R;
+import com.mapbox.mapboxsdk.util.BitmapUtils;
+import com.mapbox.mapboxsdk.views.NumberBitmapDrawable;
+
+/**
+ * The default cluster icons, shared by all ClusterMarkers.
+ *
+ * The cluster background is decoded once and rendered into one badge per size bucket
+ * (2-9, 10-99 and 100 or more markers). Counts are drawn from a strip of pre-rendered
+ * digits instead of laying out text for every cluster, and the drawable of each count is
+ * kept, so clusters of the same size share one drawable.
+ */
+public class ClusterIconAtlas {
+
+    private static final int[] BUCKET_LIMITS = {10, 100};
+    private static final float[] BUCKET_SCALES = {1f, 1.15f, 1.3f};
+    private static final int MAX_CACHED_COUNTS = 256;
+
+    private static ClusterIconAtlas sInstance;
+
+    private final Resources mResources;
+    private final int mDensityDpi;
+    private final Bitmap[] mBadges = new Bitmap[BUCKET_SCALES.length];
+    private final LruCache<Integer, Drawable> mDrawables = new LruCache<>(MAX_CACHED_COUNTS);
+
+    private final Paint mTextPaint;
+    private final Paint mGlyphPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Bitmap mGlyphs;
+    private final float[] mGlyphAdvances = new float[10];
+    private final int mGlyphWidth;
+    private final int mGlyphBaseline;
+
+    // scratch objects for drawCount(), which only runs on the UI thread
+    private final int[] mDigits = new int[10];
+    private final Rect mGlyphSource = new Rect();
+    private final RectF mGlyphTarget = new RectF();
+
+    /**
+     * @return the atlas for the display density of the given context
+     */
+    public static synchronized ClusterIconAtlas getInstance(final Context context) {
+        final Resources res = context.getResources();
+        if (sInstance == null || sInstance.mDensityDpi != res.getDisplayMetrics().densityDpi) {
+            sInstance = new ClusterIconAtlas(res);
+        }
+        return sInstance;
+    }
+
+    private ClusterIconAtlas(final Resources res) {
+        mResources = res;
+        mDensityDpi = res.getDisplayMetrics().densityDpi;
+
+        final Bitmap background = BitmapFactory.decodeResource(res, R.drawable.clusteri,
+                BitmapUtils.getBitmapOptions(res.getDisplayMetrics()));
+        for (int i = 0; i < BUCKET_SCALES.length; i++) {
+            mBadges[i] = BUCKET_SCALES[i] == 1f ? background : Bitmap.createScaledBitmap(background,
+                    Math.round(background.getWidth() * BUCKET_SCALES[i]),
+                    Math.round(background.getHeight() * BUCKET_SCALES[i]), true);
+        }
+
+        mTextPaint = NumberBitmapDrawable.createTextPaint(res);
+        final Paint.FontMetrics metrics = mTextPaint.getFontMetrics();
+        float widest = 0;
+        for (int digit = 0; digit < 10; digit++) {
+            mGlyphAdvances[digit] = mTextPaint.measureText(String.valueOf(digit));
+            widest = Math.max(widest, mGlyphAdvances[digit]);
+        }
+        mGlyphWidth = (int) Math.ceil(widest) + 2;
+        mGlyphBaseline = (int) Math.ceil(-metrics.ascent);
+        mGlyphs = Bitmap.createBitmap(mGlyphWidth * 10,
+                mGlyphBaseline + (int) Math.ceil(metrics.descent), Bitmap.Config.ARGB_8888);
+        final Canvas canvas = new Canvas(mGlyphs);
+        for (int digit = 0; digit < 10; digit++) {
+            canvas.drawText(String.valueOf(digit), digit * mGlyphWidth + mGlyphWidth / 2f, mGlyphBaseline, mTextPaint);
+        }
+    }
+
+    /**
+     * @param count the number of markers in the cluster
+     * @return the shared drawable for clusters of this size. It must not be modified,
+     * use {@link #createDrawable(int)} for a drawable of your own.
+     */
+    public synchronized Drawable getDrawable(final int count) {
+        Drawable drawable = mDrawables.get(count);
+        if (drawable == null) {
+            drawable = new BadgeDrawable(this, mBadges[getBucket(count)], count, true);
+            mDrawables.put(count, drawable);
+        }
+        return drawable;
+    }
+
+    /**
+     * @param count the number of markers in the cluster
+     * @return a new drawable for clusters of this size, sharing the atlas' bitmaps
+     */
+    public NumberBitmapDrawable createDrawable(final int count) {
+        return new BadgeDrawable(this, mBadges[getBucket(count)], count, false);
+    }
+
+    /**
+     * @return true if the drawable came from {@link #getDrawable(int)}, even once it is no
+     * longer cached, since clusters may still be drawing it
+     */
+    public static boolean isShared(final Drawable drawable) {
+        return drawable instanceof BadgeDrawable && ((BadgeDrawable) drawable).mShared;
+    }
+
+    /**
+     * @return the atlas a shared drawable came from, null if the drawable is not shared
+     */
+    static ClusterIconAtlas getAtlas(final Drawable drawable) {
+        return isShared(drawable) ? ((BadgeDrawable) drawable).mAtlas : null;
+    }
+
+    private static int getBucket(final int count) {
+        int bucket = 0;
+        while (bucket < BUCKET_LIMITS.length && count >= BUCKET_LIMITS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    /**
+     * Draws the count centered on x, with its baseline at y.
+     */
+    private void drawCount(final Canvas canvas, int count, final float x, final float y) {
+        int digitCount = 0;
+        float width = 0;
+        do {
+            final int digit = count % 10;
+            mDigits[digitCount++] = digit;
+            width += mGlyphAdvances[digit];
+            count /= 10;
+        } while (count > 0 && digitCount < mDigits.length);
+
+        float left = x - width / 2f;
+        for (int i = digitCount - 1; i >= 0; i--) {
+            final int digit = mDigits[i];
+            final float center = left + mGlyphAdvances[digit] / 2f;
+            mGlyphSource.set(digit * mGlyphWidth, 0, (digit + 1) * mGlyphWidth, mGlyphs.getHeight());
+            mGlyphTarget.set(center - mGlyphWidth / 2f, y - mGlyphBaseline,
+                    center + mGlyphWidth / 2f, y - mGlyphBaseline + mGlyphs.getHeight());
+            canvas.drawBitmap(mGlyphs, mGlyphSource, mGlyphTarget, mGlyphPaint);
+            left += mGlyphAdvances[digit];
+        }
+    }
+
+    private static class BadgeDrawable extends NumberBitmapDrawable {
+        private final ClusterIconAtlas mAtlas;
+        private final boolean mShared;
+
+        BadgeDrawable(final ClusterIconAtlas atlas, final Bitmap badge, final int count,
+                      final boolean shared) {
+            super(atlas.mResources, badge, count);
+            mAtlas = atlas;
+            mShared = shared;
+            setTextPaint(atlas.mTextPaint);
+        }
+
+        @Override
+        protected void drawText(final Canvas canvas) {
+            if (mPaint != mAtlas.mTextPaint || mCount < 0) {
+                // a custom paint, the glyphs do not match its style
+                super.drawText(canvas);
+                return;
+            }
+            mAtlas.drawCount(canvas, mCount, getBounds().exactCenterX(), getBounds().centerY() + mPaint.descent());
+        }
+    }
+}
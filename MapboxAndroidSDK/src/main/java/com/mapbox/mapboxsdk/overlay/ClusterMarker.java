@@ -1,18 +1,16 @@
 package com.mapbox.mapboxsdk.overlay;
 
 import android.content.Context;
-import android.graphics.BitmapFactory;
 import android.graphics.Paint;
 import android.graphics.drawable.Drawable;
 
-import com.mapbox.mapboxsdk.R;
 import com.mapbox.mapboxsdk.geometry.LatLng;
-import com.mapbox.mapboxsdk.util.BitmapUtils;
 import com.mapbox.mapboxsdk.views.NumberBitmapDrawable;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -40,9 +38,7 @@ public class ClusterMarker extends Marker {
     }
 
     public void setDefaultClusterMarker(Context context) {
-        BitmapFactory.Options opts = BitmapUtils.getBitmapOptions(context.getResources().getDisplayMetrics());
-        NumberBitmapDrawable numberBitmapDrawable = new NumberBitmapDrawable(context.getResources(), BitmapFactory.decodeResource(context.getResources(), R.drawable.clusteri, opts), mMarkerList.size());
-        setMarker(numberBitmapDrawable, true);
+        setMarker(ClusterIconAtlas.getInstance(context).getDrawable(mMarkerList.size()), true);
     }
 
     public void addMarkerToCluster(Marker marker) {
@@ -53,6 +49,13 @@ public class ClusterMarker extends Marker {
         mMarkerList.addAll(markers);
     }
 
+    /**
+     * @return true if this cluster holds exactly the given markers
+     */
+    boolean hasSameMarkers(Collection<Marker> markers) {
+        return markers.size() == mMarkerList.size() && new HashSet<>(mMarkerList).containsAll(markers);
+    }
+
     public void updatePosition() {
         double centroidX = 0, centroidY = 0;
         for (Marker marker1 : mMarkerList) {
@@ -75,17 +78,39 @@ public class ClusterMarker extends Marker {
         Drawable drawCluster(ClusterMarker cluster);
     }
 
+    /**
+     * An OnDrawClusterListener whose drawables only depend on the number of markers
+     * in a cluster and a style. The drawable returned for a count and style is reused
+     * for every cluster that has them, drawCluster() is only called the first time.
+     */
+    public interface OnDrawClusterStyleListener extends OnDrawClusterListener {
+        /**
+         * @param cluster
+         * @return the style of the cluster, clusters of the same size and style share a drawable
+         */
+        int getClusterStyle(ClusterMarker cluster);
+    }
+
     public List<Marker> getMarkersReadOnly() {
         return Collections.unmodifiableList(mMarkerList);
     }
 
     public void setClusterItemCount(int count) {
-        if (mMarker instanceof NumberBitmapDrawable) {
+        final ClusterIconAtlas atlas = ClusterIconAtlas.getAtlas(mMarker);
+        if (atlas != null) {
+            setMarker(atlas.getDrawable(count), true);
+        } else if (mMarker instanceof NumberBitmapDrawable) {
             ((NumberBitmapDrawable) mMarker).setCount(count);
         }
     }
 
     public void setTextPaint(Paint paint) {
+        final ClusterIconAtlas atlas = ClusterIconAtlas.getAtlas(mMarker);
+        if (atlas != null) {
+            // the icon is shared with other clusters, change a copy of it
+            final int count = ((NumberBitmapDrawable) mMarker).getCount();
+            setMarker(atlas.createDrawable(count), true);
+        }
         if (mMarker instanceof NumberBitmapDrawable) {
             ((NumberBitmapDrawable) mMarker).setTextPaint(paint);
         }
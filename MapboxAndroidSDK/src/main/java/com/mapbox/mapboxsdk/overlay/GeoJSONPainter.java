@@ -1,12 +1,12 @@
 package com.mapbox.mapboxsdk.overlay;
 
 import android.os.AsyncTask;
+import android.os.SystemClock;
 import android.text.TextUtils;
 import android.util.Log;
-import com.cocoahero.android.geojson.FeatureCollection;
 import com.mapbox.mapboxsdk.util.DataLoadingUtils;
+import com.mapbox.mapboxsdk.util.GeoJSONStreamReader;
 import com.mapbox.mapboxsdk.views.MapView;
-import java.io.InputStream;
 import java.util.ArrayList;
 
 public class GeoJSONPainter {
@@ -28,38 +28,72 @@ public class GeoJSONPainter {
     }
 
     /**
-     * Class that generates markers from formats such as GeoJSON
+     * Class that generates markers from formats such as GeoJSON. Features are read one at a
+     * time and handed to the map in batches while the rest of the file is still loading.
      */
-    private class LoadAndDisplay extends AsyncTask<String, Void, ArrayList<Object>> {
-        @Override
-        protected ArrayList<Object> doInBackground(String... params) {
-            InputStream is;
-            String jsonText;
-            ArrayList<Object> uiObjects = new ArrayList<Object>();
+    private class LoadAndDisplay extends AsyncTask<String, Object[], Void>
+            implements GeoJSONStreamReader.FeatureHandler {
+        private static final int BATCH_SIZE = 500;
+        private static final long BATCH_INTERVAL = 250;
+
+        private final ArrayList<Object> batch = new ArrayList<Object>();
+        private long lastPublished = SystemClock.uptimeMillis();
 
+        @Override
+        protected Void doInBackground(String... params) {
             try {
-                FeatureCollection parsed = DataLoadingUtils.loadGeoJSONFromUrl(params[0]);
-                uiObjects = DataLoadingUtils.createUIObjectsFromGeoJSONObjects(parsed, markerIcon);
+                DataLoadingUtils.streamGeoJSONFromUrl(params[0], markerIcon, this);
             } catch (Exception e) {
                 Log.e(TAG, "Error loading / parsing GeoJSON: " + e.toString());
                 e.printStackTrace();
             }
-            return uiObjects;
+            publishBatch();
+            return null;
         }
 
         @Override
-        protected void onPostExecute(ArrayList<Object> objects) {
+        public void onMarker(Marker marker) {
+            batch.add(marker);
+            onObjectAdded();
+        }
+
+        @Override
+        public void onPath(PathOverlay path) {
+            batch.add(path);
+            onObjectAdded();
+        }
+
+        private void onObjectAdded() {
+            if (batch.size() >= BATCH_SIZE || SystemClock.uptimeMillis() - lastPublished > BATCH_INTERVAL) {
+                publishBatch();
+            }
+        }
+
+        private void publishBatch() {
+            if (!batch.isEmpty()) {
+                publishProgress(batch.toArray());
+                batch.clear();
+            }
+            lastPublished = SystemClock.uptimeMillis();
+        }
+
+        @Override
+        protected void onProgressUpdate(Object[]... batches) {
             // Back on the Main Thread so add new UI Objects and refresh map
-            for (Object obj : objects) {
-                if (obj instanceof Marker) {
-                    mapView.addMarker((Marker) obj);
-                } else if (obj instanceof PathOverlay) {
-                    mapView.getOverlays().add((PathOverlay) obj);
+            for (Object[] objects : batches) {
+                ArrayList<Marker> markers = new ArrayList<Marker>();
+                for (Object obj : objects) {
+                    if (obj instanceof Marker) {
+                        markers.add((Marker) obj);
+                    } else if (obj instanceof PathOverlay) {
+                        mapView.getOverlays().add((PathOverlay) obj);
+                    }
+                }
+                if (!markers.isEmpty()) {
+                    mapView.addMarkers(markers);
                 }
             }
-            if (objects.size() > 0) {
-                mapView.invalidate();
-            }
+            mapView.invalidate();
         }
     }
 
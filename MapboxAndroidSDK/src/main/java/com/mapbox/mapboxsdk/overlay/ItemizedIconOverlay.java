@@ -2,6 +2,7 @@ package com.mapbox.mapboxsdk.overlay;
 
 import android.content.Context;
 import android.graphics.Point;
+import android.graphics.PointF;
 import android.util.DisplayMetrics;
 import android.view.MotionEvent;
 import android.view.WindowManager;
@@ -20,8 +21,10 @@ public class ItemizedIconOverlay extends ItemizedOverlay {
     protected final List<Marker> mItemList;
     protected OnItemGestureListener<Marker> mOnItemGestureListener;
     private int mDrawnItemsLimit = Integer.MAX_VALUE;
+    private final boolean mSortByLatitude;
     private MapView view;
     private Context context;
+    private final PointF mMapCoords = new PointF();
 
     public ItemizedIconOverlay(final Context pContext, final List<Marker> pList,
                                final com.mapbox.mapboxsdk.overlay.ItemizedIconOverlay.OnItemGestureListener<Marker> pOnItemGestureListener) {
@@ -36,6 +39,7 @@ public class ItemizedIconOverlay extends ItemizedOverlay {
         this.context = pContext;
         this.mItemList = pList;
         this.mOnItemGestureListener = pOnItemGestureListener;
+        this.mSortByLatitude = sortList;
         if (sortList) {
             sortListByLatitude();
         }
@@ -48,11 +52,48 @@ public class ItemizedIconOverlay extends ItemizedOverlay {
     private void sortListByLatitude() {
         Collections.sort(mItemList, new Comparator<Marker>() {
             public int compare(Marker a, Marker b) {
-                return Double.valueOf(a.getPoint().getLatitude()).compareTo(b.getPoint().getLatitude());
+                return Double.compare(a.getPoint().getLatitude(), b.getPoint().getLatitude());
             }
         });
     }
 
+    /**
+     * @return the position at which item keeps the list sorted by latitude, after any items
+     * with the same latitude
+     */
+    private int getSortedPosition(final Marker item) {
+        final double latitude = item.getPoint().getLatitude();
+        int low = 0;
+        int high = mItemList.size();
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (mItemList.get(mid).getPoint().getLatitude() <= latitude) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int indexOfItem(final Marker item) {
+        if (mSortByLatitude) {
+            // items with the same latitude end right before the sorted position
+            final double latitude = item.getPoint().getLatitude();
+            for (int i = getSortedPosition(item) - 1; i >= 0; i--) {
+                final Marker other = mItemList.get(i);
+                if (other == item) {
+                    return i;
+                }
+                if (other.getPoint().getLatitude() != latitude) {
+                    break;
+                }
+            }
+        }
+        // unsorted, or the item moved since it was added
+        return mItemList.indexOf(item);
+    }
+
     @Override
     public boolean onSnapToItem(final int pX, final int pY, final Point pSnapPoint,
                                 final MapView pMapView) {
@@ -72,9 +113,10 @@ public class ItemizedIconOverlay extends ItemizedOverlay {
 
     public boolean addItem(final Marker item) {
         item.setParentHolder(this);
-        final boolean result = mItemList.add(item);
-        populate();
-        return result;
+        final int position = mSortByLatitude ? getSortedPosition(item) : mItemList.size();
+        mItemList.add(position, item);
+        populateItemInserted(position);
+        return true;
     }
 
 //    public void addItem(final int location, final Marker item) {
@@ -95,27 +137,34 @@ public class ItemizedIconOverlay extends ItemizedOverlay {
         final Projection projection = mapView.getProjection();
         final float x = event.getX();
         final float y = event.getY();
-        for (int i = 0; i < this.mItemList.size(); ++i) {
-            final Marker item = getItem(i);
-            if (markerHitTest(item, projection, x, y)) {
-                if (task.run(i)) {
-                    this.setFocus(item);
-                    return true;
-                }
+        for (int i = getHitItemIndex(projection, x, y, 0); i >= 0; i = getHitItemIndex(projection, x, y, i + 1)) {
+            if (task.run(i)) {
+                this.setFocus(getItem(i));
+                return true;
             }
         }
         return false;
     }
 
     public boolean addItems(final List<Marker> items) {
-        for (Object item : items) {
-            if (item instanceof Marker) {
-                ((Marker) item).setParentHolder(this);
+        if (mSortByLatitude && items.size() > mItemList.size() / 8) {
+            // a bulk load, sorting once is cheaper than inserting one by one
+            for (Object item : items) {
+                if (item instanceof Marker) {
+                    ((Marker) item).setParentHolder(this);
+                }
             }
+            final boolean result = mItemList.addAll(items);
+            sortListByLatitude();
+            populate();
+            return result;
         }
-        final boolean result = mItemList.addAll(items);
-        populate();
-        return result;
+        beginBatchUpdate();
+        for (Marker item : items) {
+            addItem(item);
+        }
+        endBatchUpdate();
+        return !items.isEmpty();
     }
 
     public void removeAllItems() {
@@ -138,15 +187,17 @@ public class ItemizedIconOverlay extends ItemizedOverlay {
     }
 
     public boolean removeItem(final Marker item) {
-        final boolean result = mItemList.remove(item);
+        final int position = indexOfItem(item);
         if (getFocus() == item) {
             setFocus(null);
         }
-        if (result) {
-            onItemRemoved(item);
+        if (position < 0) {
+            return false;
         }
-        populate();
-        return result;
+        mItemList.remove(position);
+        onItemRemoved(item);
+        populateItemRemoved(position);
+        return true;
     }
 
     public void clearFocus() {
@@ -158,20 +209,18 @@ public class ItemizedIconOverlay extends ItemizedOverlay {
         if (item != null) {
             onItemRemoved(item);
         }
-        populate();
+        populateItemRemoved(position);
         return item;
     }
 
     public void removeItems(final List items) {
+        beginBatchUpdate();
         for (Object item : items) {
             if (item instanceof Marker) {
-                final boolean result = mItemList.remove(item);
-                if (result) {
-                    onItemRemoved((Marker) item);
-                }
+                removeItem((Marker) item);
             }
         }
-        populate();
+        endBatchUpdate();
     }
 
     /**
@@ -234,11 +283,11 @@ public class ItemizedIconOverlay extends ItemizedOverlay {
     }
 
     private float screenX(Marker item) {
-        return view.getProjection().toMapPixels(item.getPoint(), null).x;
+        return view.getProjection().toMapPixels(item.getPoint(), mMapCoords).x;
     }
 
     private float screenY(Marker item) {
-        return view.getProjection().toMapPixels(item.getPoint(), null).y;
+        return view.getProjection().toMapPixels(item.getPoint(), mMapCoords).y;
     }
 
     public int getDrawnItemsLimit() {
@@ -3,11 +3,11 @@ package com.mapbox.mapboxsdk.overlay;
 
 import android.graphics.Canvas;
 import android.graphics.Paint;
-import android.graphics.Point;
 import android.graphics.PointF;
+import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.drawable.Drawable;
-import android.os.AsyncTask;
+import android.os.SystemClock;
 import android.view.MotionEvent;
 
 import com.mapbox.mapboxsdk.clustering.Cluster;
@@ -17,6 +17,9 @@ import com.mapbox.mapboxsdk.events.MapListener;
 import com.mapbox.mapboxsdk.events.RotateEvent;
 import com.mapbox.mapboxsdk.events.ScrollEvent;
 import com.mapbox.mapboxsdk.events.ZoomEvent;
+import com.mapbox.mapboxsdk.geometry.BoundingBox;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.tileprovider.modules.ConfigurablePriorityThreadFactory;
 import com.mapbox.mapboxsdk.views.MapView;
 import com.mapbox.mapboxsdk.views.safecanvas.ISafeCanvas;
 import com.mapbox.mapboxsdk.views.safecanvas.ISafeCanvas.UnsafeCanvasHandler;
@@ -24,9 +27,13 @@ import com.mapbox.mapboxsdk.views.safecanvas.SafePaint;
 import com.mapbox.mapboxsdk.views.util.Projection;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Draws a list of {@link Marker} as markers to a map. The item with the lowest index is drawn
@@ -41,20 +48,99 @@ import java.util.Set;
 public abstract class ItemizedOverlay extends SafeDrawOverlay implements Overlay.Snappable, MapListener {
     private static final String TAG = ItemizedOverlay.class.getSimpleName();
     private final ArrayList<Marker> mInternalItemList;
-    private ArrayList<ClusterMarker> mInternalClusterList;
+    private volatile ArrayList<ClusterMarker> mInternalClusterList;
     protected boolean mDrawFocusedItem = true;
     private Marker mFocusedItem;
     private boolean mPendingFocusChangedEvent = false;
     private OnFocusChangeListener mOnFocusChangeListener;
     private boolean mIsClusteringEnabled;
     private ClusterMarker.OnDrawClusterListener mOnDrawClusterListener;
+    // drawables of an OnDrawClusterStyleListener, by style and count
+    private final HashMap<Long, Drawable> mClusterDrawables = new HashMap<>();
 
     private static SafePaint mClusterTextPaint;
-    private CalculateClusterTask mCalculateClusterTask;
     private float mMinZoomForClustering = 22;
 
+    // Clusters are computed one request at a time, away from the shared AsyncTask pool
+    private static final ExecutorService sClusterExecutor = Executors.newSingleThreadExecutor(
+            new ConfigurablePriorityThreadFactory(Thread.MIN_PRIORITY, "ClusterThread"));
+    // The part of the viewport's size that is clustered on every side of it
+    private static final double CLUSTER_MARGIN = 0.5;
+    // The latest cluster request, results of older ones are dropped
+    private volatile int mClusterGeneration;
+    // What the latest request covered, so that it is only repeated when that changes
+    private BoundingBox mClusteredArea;
+    private int mClusteredZoom = -1;
+    private int mClusteredItemsVersion = -1;
+    private int mClusterItemsVersion;
+
     private PreCachingAlgorithmDecorator<Marker> mAlgorithm;
 
+    private final MarkerIndex mMarkerIndex = new MarkerIndex();
+    private boolean mMarkerIndexDirty = true;
+
+    private final HashMap<String, Marker> mItemsByUid = new HashMap<>();
+    private boolean mItemsByUidDirty = true;
+    private final RectF mMovedRect = new RectF();
+
+    // Clustering deltas collected between beginBatchUpdate() and endBatchUpdate()
+    private int mBatchDepth;
+    private final ArrayList<Marker> mBatchAdded = new ArrayList<>();
+    private final ArrayList<Marker> mBatchRemoved = new ArrayList<>();
+
+    // Scratch objects, so that drawing does not allocate per item
+    private final RectF mDrawBounds = new RectF();
+    private final RectF mItemBounds = new RectF();
+    private final RectF mViewport = new RectF();
+    private final RectF mQueryRect = new RectF();
+    private final RectF mHitRect = new RectF();
+    private Drawable mPendingDrawable;
+    private int mPendingX;
+    private int mPendingY;
+    private int mPendingOffsetX;
+    private int mPendingOffsetY;
+    private float mPendingOrientation;
+    private float mPendingScale;
+
+    private boolean mCollisionDetectionEnabled;
+    private float mCollisionPadding;
+    private final MarkerCollider mCollider = new MarkerCollider();
+    /**
+     * One bit per item, set for the items kept by the last collision pass. The pass covers
+     * mCollisionArea, in map coordinates, and is reused while the viewport stays within it at
+     * the same zoom level, orientation and scale.
+     */
+    private long[] mCollisionKept = new long[0];
+    private long[] mCollisionOrder = new long[0];
+    private boolean mCollisionValid;
+    private final RectF mCollisionArea = new RectF();
+    private float mCollisionZoom;
+    private float mCollisionOrientation;
+    private float mCollisionScale;
+    private int mCollisionExtent;
+    private Marker mCollisionFocus;
+
+    /**
+     * True if a subclass overrides onDrawItem(), its items are then drawn one by one through it
+     * instead of in batches.
+     */
+    private final boolean mOverridesOnDrawItem = overridesOnDrawItem(getClass());
+
+    private final UnsafeCanvasHandler mUnsafeItemHandler = new UnsafeCanvasHandler() {
+        @Override
+        public void onUnsafeCanvas(Canvas canvas) {
+            drawMarker(canvas, mPendingDrawable, mPendingX, mPendingY, mPendingOffsetX, mPendingOffsetY,
+                    mPendingOrientation, mPendingScale);
+        }
+    };
+
+    private final UnsafeCanvasHandler mUnsafeBatchHandler = new UnsafeCanvasHandler() {
+        @Override
+        public void onUnsafeCanvas(Canvas canvas) {
+            drawCandidates(canvas, mPendingOrientation, mPendingScale);
+        }
+    };
+
 
     /**
      * Method by which subclasses create the actual Items. This will only be called from populate()
@@ -86,6 +172,11 @@ public abstract class ItemizedOverlay extends SafeDrawOverlay implements Overlay
         mInternalClusterList = new ArrayList<>();
     }
 
+    @Override
+    protected boolean drawsShadow() {
+        return false;
+    }
+
     /**
      * Draw a marker on each of our items. populate() must have been called first.<br/>
      * <br/>
@@ -121,22 +212,14 @@ public abstract class ItemizedOverlay extends SafeDrawOverlay implements Overlay
         mPendingFocusChangedEvent = false;
 
         final Projection pj = mapView.getProjection();
-        final int size = this.mInternalItemList.size() - 1;
 
-        final RectF bounds =
-                new RectF(0, 0, mapView.getMeasuredWidth(), mapView.getMeasuredHeight());
+        final RectF bounds = mDrawBounds;
+        bounds.set(0, 0, mapView.getMeasuredWidth(), mapView.getMeasuredHeight());
         pj.rotateRect(bounds);
         final float mapScale = 1 / mapView.getScale();
 
         if (!mIsClusteringEnabled || mapView.getZoomLevel() > mMinZoomForClustering) {
-            /* Draw in backward cycle, so the items with the least index are on the front. */
-            for (int i = size; i >= 0; i--) {
-                final Marker item = getItem(i);
-                if (item == mFocusedItem) {
-                    continue;
-                }
-                onDrawItem(canvas, item, pj, mapView.getMapOrientation(), bounds, mapScale);
-            }
+            drawVisibleItems(canvas, mapView, pj, mapView.getMapOrientation(), mapScale);
 
             if (mFocusedItem != null) {
                 onDrawItem(canvas, mFocusedItem, pj, mapView.getMapOrientation(), bounds, mapScale);
@@ -168,7 +251,13 @@ public abstract class ItemizedOverlay extends SafeDrawOverlay implements Overlay
      */
     protected void populate() {
         final int size = size();
+        mMarkerIndexDirty = true;
+        mItemsByUidDirty = true;
+        mCollisionValid = false;
+        mBatchAdded.clear();
+        mBatchRemoved.clear();
         mAlgorithm.clearItems();
+        mClusterItemsVersion++;
         mInternalItemList.clear();
         mInternalItemList.ensureCapacity(size);
         for (int a = 0; a < size; a++) {
@@ -178,6 +267,91 @@ public abstract class ItemizedOverlay extends SafeDrawOverlay implements Overlay
 
     }
 
+    /**
+     * Incremental version of populate() for a single item that the subclass inserted at the
+     * given position. Items after it keep their order, the clustering algorithm only receives
+     * the new item and an item appended at the end is added to the marker index directly.
+     */
+    protected void populateItemInserted(final int position) {
+        if (size() != mInternalItemList.size() + 1 || position > mInternalItemList.size()) {
+            // the drawn items limit is in effect, or the subclass is out of sync
+            populate();
+            return;
+        }
+        final Marker item = createItem(position);
+        mInternalItemList.add(position, item);
+        mItemsByUidDirty = true;
+        mCollisionValid = false;
+        if (mBatchDepth > 0) {
+            if (!mBatchRemoved.remove(item)) {
+                mBatchAdded.add(item);
+            }
+        } else {
+            mAlgorithm.addItem(item);
+            mClusterItemsVersion++;
+        }
+        if (!mMarkerIndexDirty && position == mInternalItemList.size() - 1) {
+            mMarkerIndex.append(item);
+            item.mIndexPosition = position;
+            mMarkerIndexDirty = mMarkerIndex.needsRebuild();
+        } else {
+            mMarkerIndexDirty = true;
+        }
+    }
+
+    /**
+     * Incremental version of populate() for a single item that the subclass removed from the
+     * given position.
+     */
+    protected void populateItemRemoved(final int position) {
+        if (size() != mInternalItemList.size() - 1 || position >= mInternalItemList.size()) {
+            populate();
+            return;
+        }
+        final Marker item = mInternalItemList.remove(position);
+        item.mIndexPosition = -1;
+        mItemsByUidDirty = true;
+        mCollisionValid = false;
+        if (mBatchDepth > 0) {
+            if (!mBatchAdded.remove(item)) {
+                mBatchRemoved.add(item);
+            }
+        } else {
+            mAlgorithm.removeItem(item);
+            mClusterItemsVersion++;
+        }
+        mMarkerIndexDirty = true;
+    }
+
+    /**
+     * Starts a batch of item changes. Until the matching endBatchUpdate(), added and removed
+     * items are collected and handed to the clustering algorithm at once, so that it
+     * invalidates its cached clusters only one time. Batches may be nested.
+     */
+    public void beginBatchUpdate() {
+        mBatchDepth++;
+    }
+
+    /**
+     * Ends a batch of item changes started with beginBatchUpdate().
+     */
+    public void endBatchUpdate() {
+        if (mBatchDepth == 0 || --mBatchDepth > 0) {
+            return;
+        }
+        if (!mBatchRemoved.isEmpty() || !mBatchAdded.isEmpty()) {
+            mClusterItemsVersion++;
+        }
+        if (!mBatchRemoved.isEmpty()) {
+            mAlgorithm.removeItems(mBatchRemoved);
+            mBatchRemoved.clear();
+        }
+        if (!mBatchAdded.isEmpty()) {
+            mAlgorithm.addItems(mBatchAdded);
+            mBatchAdded.clear();
+        }
+    }
+
     /**
      * Returns the Item at the given index.
      *
@@ -201,43 +375,337 @@ public abstract class ItemizedOverlay extends SafeDrawOverlay implements Overlay
     protected void onDrawItem(ISafeCanvas canvas, final Marker item, final Projection projection,
                               final float aMapOrientation, final RectF mapBounds, final float mapScale) {
         item.updateDrawingPosition();
-        final PointF position = item.getPositionOnMap();
-        final Point roundedCoords = new Point((int) position.x, (int) position.y);
-        if (!RectF.intersects(mapBounds, item.getDrawingBounds(projection, null))) {
+        if (!RectF.intersects(mapBounds, item.getDrawingBounds(projection, mItemBounds))) {
             //dont draw item if offscreen
             return;
         }
 
-        canvas.save();
-
-        canvas.scale(mapScale, mapScale, position.x, position.y);
         final int state =
                 (mDrawFocusedItem && (mFocusedItem == item) ? Marker.ITEM_STATE_FOCUSED_MASK : 0);
         final Drawable marker = item.getMarker(state);
         if (marker == null) {
             return;
         }
-        final Point point = item.getAnchor();
+        final PointF position = item.getPositionOnMap();
+        mPendingDrawable = marker;
+        mPendingX = (int) position.x;
+        mPendingY = (int) position.y;
+        mPendingOffsetX = item.getAnchorX();
+        mPendingOffsetY = item.getAnchorY();
+        mPendingOrientation = aMapOrientation;
+        mPendingScale = mapScale;
 
         // draw it
         if (this.isUsingSafeCanvas()) {
-            Overlay.drawAt(canvas.getSafeCanvas(), marker, roundedCoords, point, false,
-                    aMapOrientation);
+            mUnsafeItemHandler.onUnsafeCanvas(canvas.getSafeCanvas());
         } else {
-            canvas.getUnsafeCanvas(new UnsafeCanvasHandler() {
-                @Override
-                public void onUnsafeCanvas(Canvas canvas) {
-                    Overlay.drawAt(canvas, marker, roundedCoords, point, false, aMapOrientation);
+            canvas.getUnsafeCanvas(mUnsafeItemHandler);
+        }
+        mPendingDrawable = null;
+    }
+
+    /**
+     * Draws every item that is not focused and may be within the viewport. Items are found
+     * through the marker index instead of testing each of them, and their map coordinates come
+     * from the index's per zoom cache.
+     */
+    private void drawVisibleItems(final ISafeCanvas canvas, final MapView mapView, final Projection projection,
+                                  final float aMapOrientation, final float mapScale) {
+        ensureMarkerIndex(projection);
+        if (mMarkerIndex.advanceAnimations(SystemClock.uptimeMillis(), mMovedRect)) {
+            final float extent = mMarkerIndex.getMaxExtent() * mapScale * 1.5f;
+            mMovedRect.inset(-extent, -extent);
+            mapView.postInvalidateMapCoordinates(mMovedRect);
+            mCollisionValid = false;
+        }
+
+        // A marker rotated around its anchor stays within its diagonal of it.
+        final float margin = mMarkerIndex.getMaxExtent() * mapScale * 1.5f;
+        mViewport.set(projection.getTransformScreenRect());
+        mQueryRect.set(mViewport);
+        mQueryRect.inset(-margin, -margin);
+        if (mCollisionDetectionEnabled) {
+            updateCollisions(projection, aMapOrientation, mapScale);
+        }
+        mMarkerIndex.query(mQueryRect);
+
+        if (mOverridesOnDrawItem) {
+            final int last = mMarkerIndex.size() - 1;
+            for (int i = mMarkerIndex.previousCandidate(last); i >= 0; i = mMarkerIndex.previousCandidate(i - 1)) {
+                final Marker item = mInternalItemList.get(i);
+                if (item != mFocusedItem && !isHiddenByCollision(i)) {
+                    onDrawItem(canvas, item, projection, aMapOrientation, mDrawBounds, mapScale);
                 }
-            });
+            }
+            return;
+        }
+
+        mPendingOrientation = aMapOrientation;
+        mPendingScale = mapScale;
+        if (this.isUsingSafeCanvas()) {
+            drawCandidates(canvas.getSafeCanvas(), aMapOrientation, mapScale);
+        } else {
+            canvas.getUnsafeCanvas(mUnsafeBatchHandler);
+        }
+    }
+
+    /**
+     * Decides which of the items around mQueryRect are drawn. Items are placed from the highest
+     * {@link Marker#getCollisionPriority()} down, the focused item first and items of equal
+     * priority from the topmost, and an item is hidden when its marker would overlap one placed
+     * before. Markers are drawn upright and at a constant size, so their boxes are compared in
+     * map coordinates rotated by the map orientation and scaled by mapScale, as they appear on
+     * screen.
+     * <p/>
+     * The pass covers the query rectangle grown by half its size on every side. Overlaps do
+     * not depend on where the viewport is, so panning within that area reuses the result and
+     * markers do not appear or disappear until the viewport leaves it or the zoom level,
+     * orientation, scale or items change.
+     */
+    private void updateCollisions(final Projection projection, final float aMapOrientation,
+                                  final float mapScale) {
+        final float zoom = projection.getZoomLevel();
+        if (mCollisionValid && zoom == mCollisionZoom && aMapOrientation == mCollisionOrientation
+                && mapScale == mCollisionScale && mFocusedItem == mCollisionFocus
+                && mMarkerIndex.getMaxExtent() == mCollisionExtent
+                && mCollisionArea.contains(mQueryRect)) {
+            return;
         }
+        mCollisionValid = true;
+        mCollisionZoom = zoom;
+        mCollisionOrientation = aMapOrientation;
+        mCollisionScale = mapScale;
+        mCollisionFocus = mFocusedItem;
+        mCollisionExtent = mMarkerIndex.getMaxExtent();
+        mCollisionArea.set(mQueryRect);
+        mCollisionArea.inset(-mQueryRect.width() / 2, -mQueryRect.height() / 2);
 
+        final int words = (mInternalItemList.size() + 63) >> 6;
+        if (mCollisionKept.length < words) {
+            mCollisionKept = new long[words];
+        }
+        Arrays.fill(mCollisionKept, 0L);
+
+        // Sort keys: the negated priority in the high half, the item index in the low half.
+        int count = 0;
+        mMarkerIndex.query(mCollisionArea);
+        for (int i = mMarkerIndex.nextCandidate(0); i >= 0; i = mMarkerIndex.nextCandidate(i + 1)) {
+            final Marker item = mInternalItemList.get(i);
+            final int priority = item == mFocusedItem ? Integer.MAX_VALUE
+                    : Math.max(Integer.MIN_VALUE + 1, item.getCollisionPriority());
+            if (count == mCollisionOrder.length) {
+                mCollisionOrder = Arrays.copyOf(mCollisionOrder, Math.max(64, count * 2));
+            }
+            mCollisionOrder[count++] = ((long) -priority << 32) | i;
+        }
+        Arrays.sort(mCollisionOrder, 0, count);
+
+        final double radians = Math.toRadians(aMapOrientation);
+        final float cos = (float) Math.cos(radians);
+        final float sin = (float) Math.sin(radians);
+        final RectF area = mCollisionArea;
+        final float centerX = area.centerX() * cos - area.centerY() * sin;
+        final float centerY = area.centerX() * sin + area.centerY() * cos;
+        final float radius = (float) Math.hypot(area.width(), area.height()) / 2;
+        mCollider.reset(centerX - radius, centerY - radius, centerX + radius, centerY + radius,
+                Math.max(1, mCollisionExtent) * mapScale);
+
+        final float padding = mCollisionPadding * mapScale;
+        for (int k = 0; k < count; k++) {
+            final int i = (int) mCollisionOrder[k];
+            final Marker item = mInternalItemList.get(i);
+            final float mapX = mMarkerIndex.getMapX(i);
+            final float mapY = mMarkerIndex.getMapY(i);
+            final float x = mapX * cos - mapY * sin;
+            final float y = mapX * sin + mapY * cos;
+            final float left = x + item.getAnchorX() * mapScale;
+            final float top = y + item.getAnchorY() * mapScale;
+            if (mCollider.place(left - padding, top - padding,
+                    left + item.getWidth() * mapScale + padding,
+                    top + item.getRealHeight() * mapScale + padding)) {
+                mCollisionKept[i >> 6] |= 1L << i;
+            }
+        }
+    }
+
+    /**
+     * @return true if the item at this index is hidden by the last collision pass
+     */
+    private boolean isHiddenByCollision(final int index) {
+        return mCollisionDetectionEnabled && mCollisionValid
+                && (index >> 6 >= mCollisionKept.length
+                || (mCollisionKept[index >> 6] & (1L << index)) == 0);
+    }
+
+    /**
+     * Brings the marker index up to date with the item list and the zoom level of the
+     * projection.
+     */
+    private void ensureMarkerIndex(final Projection projection) {
+        if (mMarkerIndexDirty) {
+            mMarkerIndex.rebuild(mInternalItemList);
+            for (int i = 0; i < mInternalItemList.size(); i++) {
+                mInternalItemList.get(i).mIndexPosition = i;
+            }
+            mMarkerIndexDirty = false;
+        }
+        mMarkerIndex.setProjection(projection);
+    }
+
+    /**
+     * Moves many items at once, for example to follow a live feed of vehicle positions. Items
+     * are found by their {@link Marker#getUid()}, unknown ids are ignored. Positions are updated
+     * in place in the marker index and the areas that changed are merged into a single
+     * invalidate on the next frame.
+     *
+     * @param uids                  the ids of the items to move
+     * @param latitudes             the new latitudes, in the same order as uids
+     * @param longitudes            the new longitudes, in the same order as uids
+     * @param count                 the number of entries to read from the arrays
+     * @param interpolationDuration the time in milliseconds over which the items glide from
+     *                              their current to their new position, 0 to move them at once
+     */
+    public void setItemPositions(final String[] uids, final double[] latitudes,
+                                 final double[] longitudes, final int count,
+                                 final long interpolationDuration) {
+        if (mItemsByUidDirty) {
+            mItemsByUid.clear();
+            for (Marker item : mInternalItemList) {
+                if (item.getUid() != null) {
+                    mItemsByUid.put(item.getUid(), item);
+                }
+            }
+            mItemsByUidDirty = false;
+        }
+
+        final long now = SystemClock.uptimeMillis();
+        MapView mapView = null;
+        mMovedRect.setEmpty();
+        for (int i = 0; i < count; i++) {
+            final Marker item = mItemsByUid.get(uids[i]);
+            if (item == null) {
+                continue;
+            }
+            item.movePoint(latitudes[i], longitudes[i]);
+            final int position = item.mIndexPosition;
+            if (!mMarkerIndexDirty) {
+                if (position >= 0 && position < mMarkerIndex.size() && mInternalItemList.get(position) == item) {
+                    mMarkerIndex.move(position, latitudes[i], longitudes[i], now, interpolationDuration);
+                } else {
+                    mMarkerIndexDirty = true;
+                }
+            }
+            if (item.getMapView() != null) {
+                mapView = item.getMapView();
+                item.includeDrawingBounds(mMovedRect);
+            }
+        }
+        if (!mMarkerIndexDirty && mMarkerIndex.needsRebuild()) {
+            mMarkerIndexDirty = true;
+        }
+        mCollisionValid = false;
+        if (mapView != null) {
+            mapView.postInvalidateMapCoordinates(mMovedRect);
+        }
+    }
+
+    /**
+     * Shorthand for {@link #setItemPositions(String[], double[], double[], int, long)} that
+     * moves the items at once.
+     */
+    public void setItemPositions(final String[] uids, final double[] latitudes,
+                                 final double[] longitudes) {
+        setItemPositions(uids, latitudes, longitudes, uids.length, 0);
+    }
+
+    /**
+     * Draws the candidates of the last marker index query, in backward order so the items with
+     * the least index are on the front. Each item's drawable comes from Marker.getMarker(int)
+     * with the state onDrawItem() would give it. When the map is neither rotated nor scaled,
+     * the canvas is only translated from one item to the next within a single save/restore.
+     */
+    private void drawCandidates(final Canvas canvas, final float aMapOrientation, final float mapScale) {
+        final boolean translateOnly = aMapOrientation % 360 == 0 && mapScale == 1;
+        final RectF viewport = mViewport;
+        if (translateOnly) {
+            canvas.save();
+        }
+        int lastX = 0;
+        int lastY = 0;
+        final int last = mMarkerIndex.size() - 1;
+        for (int i = mMarkerIndex.previousCandidate(last); i >= 0; i = mMarkerIndex.previousCandidate(i - 1)) {
+            final Marker item = mInternalItemList.get(i);
+            if (item == mFocusedItem || isHiddenByCollision(i)) {
+                continue;
+            }
+            // the focused item is drawn on its own, the others are drawn in the default state
+            final Drawable marker = item.getMarker(0);
+            if (marker == null) {
+                continue;
+            }
+            final float x = mMarkerIndex.getMapX(i);
+            final float y = mMarkerIndex.getMapY(i);
+            item.setPositionOnMap(x, y);
+
+            final int width = item.getWidth();
+            final int height = item.getRealHeight();
+            mMarkerIndex.includeExtent(width, height);
+            final int offsetX = item.getAnchorX();
+            final int offsetY = item.getAnchorY();
+
+            if (translateOnly) {
+                final int left = (int) x + offsetX;
+                final int top = (int) y + offsetY;
+                if (left > viewport.right || top > viewport.bottom
+                        || left + width < viewport.left || top + height < viewport.top) {
+                    continue;
+                }
+                canvas.translate(left - lastX, top - lastY);
+                lastX = left;
+                lastY = top;
+                marker.draw(canvas);
+            } else {
+                drawMarker(canvas, marker, (int) x, (int) y, offsetX, offsetY, aMapOrientation, mapScale);
+            }
+        }
+        if (translateOnly) {
+            canvas.restore();
+        }
+    }
+
+    private static boolean overridesOnDrawItem(Class<?> cls) {
+        for (; cls != null && cls != ItemizedOverlay.class; cls = cls.getSuperclass()) {
+            try {
+                cls.getDeclaredMethod("onDrawItem", ISafeCanvas.class, Marker.class,
+                        Projection.class, float.class, RectF.class, float.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // not overridden at this level
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Draws a marker drawable anchored at (x, y), keeping it upright on a rotated map and at the
+     * same size while the map is being scaled.
+     */
+    private static void drawMarker(final Canvas canvas, final Drawable marker, final int x,
+                                   final int y, final int offsetX, final int offsetY,
+                                   final float aMapOrientation, final float mapScale) {
+        canvas.save();
+        canvas.scale(mapScale, mapScale, x, y);
+        canvas.rotate(-aMapOrientation, x, y);
+        canvas.translate(x + offsetX, y + offsetY);
+        marker.draw(canvas);
         canvas.restore();
     }
 
     protected boolean markerHitTest(final Marker pMarker, final Projection pProjection,
                                     final float pX, final float pY) {
-        RectF rect = pMarker.getHitBounds(pProjection, null);
+        // items outside of the viewport are not repositioned while drawing
+        pMarker.updateDrawingPosition();
+        RectF rect = pMarker.getHitBounds(pProjection, mHitRect);
 /*
         RectF rect = pMarker.getDrawingBounds(pProjection, null);
         if (pMarker.isUsingMakiIcon()) {
@@ -248,21 +716,51 @@ public abstract class ItemizedOverlay extends SafeDrawOverlay implements Overlay
         return rect.contains(pX, pY);
     }
 
+    /**
+     * Finds the first item, at or after fromIndex, that is hit by the given screen coordinates.
+     * Only the items the marker index places around the point are tested with
+     * {@link #markerHitTest(Marker, Projection, float, float)}.
+     *
+     * @param projection the projection to use
+     * @param x          the x in screen coordinates
+     * @param y          the y in screen coordinates
+     * @param fromIndex  the index to start searching from, 0 for the topmost item
+     * @return the index of the item, or -1 if no item is hit
+     */
+    protected int getHitItemIndex(final Projection projection, final float x, final float y,
+                                  final int fromIndex) {
+        ensureMarkerIndex(projection);
+
+        // Taps arrive unrotated, in the same coordinates the items are drawn in.
+        final Rect screenRect = projection.getIntrinsicScreenRect();
+        final float mapX = screenRect.left + x;
+        final float mapY = screenRect.top + y;
+        final float margin = mMarkerIndex.getMaxExtent() * 1.5f;
+        mQueryRect.set(mapX - margin, mapY - margin, mapX + margin, mapY + margin);
+        mMarkerIndex.query(mQueryRect);
+
+        int result = -1;
+        for (int i = mMarkerIndex.nextCandidate(fromIndex); i >= 0; i = mMarkerIndex.nextCandidate(i + 1)) {
+            if (!isHiddenByCollision(i) && markerHitTest(mInternalItemList.get(i), projection, x, y)) {
+                result = i;
+                break;
+            }
+        }
+        mMarkerIndex.clearCandidates();
+        return result;
+    }
+
     @Override
     public boolean onSingleTapConfirmed(MotionEvent e, MapView mapView) {
-        final int size = this.size();
         final Projection projection = mapView.getProjection();
         final float x = e.getX();
         final float y = e.getY();
 
-        for (int i = 0; i < size; i++) {
-            final Marker item = getItem(i);
-            if (markerHitTest(item, projection, x, y)) {
-                // We have a hit, do we get a response from onTap?
-                if (onTap(i)) {
-                    // We got a response so consume the event
-                    return true;
-                }
+        for (int i = getHitItemIndex(projection, x, y, 0); i >= 0; i = getHitItemIndex(projection, x, y, i + 1)) {
+            // We have a hit, do we get a response from onTap?
+            if (onTap(i)) {
+                // We got a response so consume the event
+                return true;
             }
         }
 
@@ -318,6 +816,53 @@ public abstract class ItemizedOverlay extends SafeDrawOverlay implements Overlay
         }
     }
 
+    /**
+     * an item was moved, its cached position has to be projected again
+     */
+    void onItemMoved(final Marker item) {
+        mMarkerIndexDirty = true;
+        mCollisionValid = false;
+    }
+
+    /**
+     * the collision priority of an item changed, the markers to draw have to be placed again
+     */
+    void onItemCollisionChanged(final Marker item) {
+        mCollisionValid = false;
+    }
+
+    /**
+     * Hides the markers that would overlap a marker of higher priority, see
+     * {@link Marker#setCollisionPriority(int)}, so that a dense overlay draws a readable and
+     * bounded number of markers at any zoom level. Hidden markers cannot be tapped. Collision
+     * detection does not apply while markers are clustered.
+     */
+    public void setCollisionDetectionEnabled(final boolean enabled) {
+        mCollisionDetectionEnabled = enabled;
+        mCollisionValid = false;
+    }
+
+    public boolean isCollisionDetectionEnabled() {
+        return mCollisionDetectionEnabled;
+    }
+
+    /**
+     * Sets the space, in pixels, that is kept free around every marker drawn when collision
+     * detection is enabled. The default is 0.
+     */
+    public void setCollisionPadding(final float padding) {
+        mCollisionPadding = padding;
+        mCollisionValid = false;
+    }
+
+    public float getCollisionPadding() {
+        return mCollisionPadding;
+    }
+
+    void onItemUidChanged(final Marker item) {
+        mItemsByUidDirty = true;
+    }
+
     //    /**
     //     * Adjusts a drawable's bounds so that (0,0) is a pixel in the location described by the anchor
     //     * parameter. Useful for "pin"-like graphics. For convenience, returns the same drawable that
@@ -356,10 +901,38 @@ public abstract class ItemizedOverlay extends SafeDrawOverlay implements Overlay
         mIsClusteringEnabled = enabled;
         mOnDrawClusterListener = onDrawClusterListener;
         mMinZoomForClustering = minZoom;
+        mClusterItemsVersion++;
+        synchronized (mClusterDrawables) {
+            mClusterDrawables.clear();
+        }
     }
 
-    public void onScroll(ScrollEvent event) {
+    private Drawable getClusterDrawable(final ClusterMarker clusterMarker) {
+        final ClusterMarker.OnDrawClusterListener listener = mOnDrawClusterListener;
+        if (!(listener instanceof ClusterMarker.OnDrawClusterStyleListener)) {
+            return listener.drawCluster(clusterMarker);
+        }
+        final int style = ((ClusterMarker.OnDrawClusterStyleListener) listener).getClusterStyle(clusterMarker);
+        final Long key = ((long) style << 32) | clusterMarker.getMarkersReadOnly().size();
+        synchronized (mClusterDrawables) {
+            Drawable drawable = mClusterDrawables.get(key);
+            if (drawable == null) {
+                drawable = listener.drawCluster(clusterMarker);
+                mClusterDrawables.put(key, drawable);
+            }
+            return drawable;
+        }
+    }
 
+    /**
+     * Called when a map is scrolled. Clusters are recomputed once the viewport leaves the area
+     * they were computed for.
+     */
+    public void onScroll(ScrollEvent event) {
+        final MapView mapView = event.getSource();
+        if (mIsClusteringEnabled && mapView.getZoomLevel() < mMinZoomForClustering) {
+            requestClusters(mapView, mapView.getZoomLevel());
+        }
     }
 
     /**
@@ -367,14 +940,36 @@ public abstract class ItemizedOverlay extends SafeDrawOverlay implements Overlay
      */
     public void onZoom(ZoomEvent event) {
         if (mIsClusteringEnabled && event.getZoomLevel() < mMinZoomForClustering) {
-            if (mCalculateClusterTask != null && mCalculateClusterTask.getStatus() != AsyncTask.Status.FINISHED) {
-                mCalculateClusterTask.cancel(true);
-            }
-            mCalculateClusterTask = new CalculateClusterTask(event);
-            mCalculateClusterTask.execute();
+            requestClusters(event.getSource(), event.getZoomLevel());
         }
     }
 
+    /**
+     * Starts computing the clusters of the viewport and a margin around it, unless the clusters
+     * of the last request already cover them.
+     */
+    private void requestClusters(final MapView mapView, final float zoom) {
+        final BoundingBox viewport = mapView.getProjection().getBoundingBox();
+        if (mClusteredZoom == (int) zoom && mClusteredItemsVersion == mClusterItemsVersion
+                && (mClusteredArea == null || covers(mClusteredArea, viewport))) {
+            return;
+        }
+        BoundingBox area = null;
+        if (viewport != null && viewport.getLatitudeSpan() > 0 && viewport.getLongitudeSpan() > 0
+                && viewport.getLonWest() < viewport.getLonEast()) {
+            final double latMargin = viewport.getLatitudeSpan() * CLUSTER_MARGIN;
+            final double lonMargin = viewport.getLongitudeSpan() * CLUSTER_MARGIN;
+            area = new BoundingBox(Math.min(90, viewport.getLatNorth() + latMargin),
+                    Math.min(180, viewport.getLonEast() + lonMargin),
+                    Math.max(-90, viewport.getLatSouth() - latMargin),
+                    Math.max(-180, viewport.getLonWest() - lonMargin));
+        }
+        mClusteredArea = area;
+        mClusteredZoom = (int) zoom;
+        mClusteredItemsVersion = mClusterItemsVersion;
+        sClusterExecutor.execute(new ClusterTask(mapView, zoom, area, ++mClusterGeneration));
+    }
+
     /**
      * Called when a map is rotated.
      */
@@ -390,43 +985,97 @@ public abstract class ItemizedOverlay extends SafeDrawOverlay implements Overlay
         return mIsClusteringEnabled;
     }
 
-    private class CalculateClusterTask extends AsyncTask<Void, Void, ArrayList<ClusterMarker>> {
-        private ZoomEvent mZoomEvent;
+    private static boolean covers(final BoundingBox area, final BoundingBox viewport) {
+        return viewport != null
+                && area.getLatNorth() >= viewport.getLatNorth() && area.getLatSouth() <= viewport.getLatSouth()
+                && area.getLonEast() >= viewport.getLonEast() && area.getLonWest() <= viewport.getLonWest();
+    }
 
-        public CalculateClusterTask(ZoomEvent event) {
-            mZoomEvent = event;
-        }
+    /**
+     * Computes the clusters of an area. Clusters with the same markers as one that is shown
+     * already are kept, so that only the ones that changed get a new drawable.
+     */
+    private class ClusterTask implements Runnable {
+        private final MapView mMapView;
+        private final float mZoom;
+        private final BoundingBox mArea;
+        private final int mGeneration;
 
+        ClusterTask(final MapView mapView, final float zoom, final BoundingBox area, final int generation) {
+            mMapView = mapView;
+            mZoom = zoom;
+            mArea = area;
+            mGeneration = generation;
+        }
 
         @Override
-        protected ArrayList<ClusterMarker> doInBackground(final Void... voids) {
-            ArrayList<ClusterMarker> clusterMarkers = new ArrayList<>();
-            Set<? extends Cluster<Marker>> clusters = mAlgorithm.getClusters(mZoomEvent.getZoomLevel());
-            for (Cluster<Marker> cluster : clusters) {
-                Collection<Marker> markers = cluster.getItems();
-                if (markers.size() > 0) {
-                    ClusterMarker clusterMarker;
-
-                    clusterMarker = new ClusterMarker();
-                    clusterMarker.addMarkersToCluster(markers);
-                    clusterMarker.addTo(mZoomEvent.getSource());
-                    clusterMarker.setPoint(cluster.getPosition());
-                    if (mOnDrawClusterListener != null) {
-                        Drawable drawable = mOnDrawClusterListener.drawCluster(clusterMarker);
-                        clusterMarker.setMarker(drawable);
-                    }
+        public void run() {
+            if (mGeneration != mClusterGeneration) {
+                return;
+            }
+            final Set<? extends Cluster<Marker>> clusters = mAlgorithm.getClusters(mZoom, mArea);
 
-                    clusterMarkers.add(clusterMarker);
+            final HashMap<Marker, ClusterMarker> previous = new HashMap<>();
+            final ArrayList<ClusterMarker> current = mInternalClusterList;
+            if (current != null) {
+                for (ClusterMarker clusterMarker : current) {
+                    for (Marker marker : clusterMarker.getMarkersReadOnly()) {
+                        previous.put(marker, clusterMarker);
+                    }
+                }
+            }
 
+            // Only the diff is computed here: cluster markers may be drawn while this runs, so
+            // they are moved and new ones are created on the UI thread.
+            final ArrayList<ClusterMarker> kept = new ArrayList<>();
+            final ArrayList<LatLng> keptPositions = new ArrayList<>();
+            final ArrayList<Cluster<Marker>> added = new ArrayList<>();
+            for (Cluster<Marker> cluster : clusters) {
+                if (mGeneration != mClusterGeneration) {
+                    return;
+                }
+                Collection<Marker> markers = cluster.getItems();
+                if (markers.isEmpty()) {
+                    continue;
+                }
+                final ClusterMarker clusterMarker = previous.get(markers.iterator().next());
+                if (clusterMarker != null && clusterMarker.hasSameMarkers(markers)) {
+                    kept.add(clusterMarker);
+                    keptPositions.add(cluster.getPosition());
+                } else {
+                    added.add(cluster);
                 }
             }
-            return clusterMarkers;
-        }
 
-        @Override
-        protected void onPostExecute(final ArrayList<ClusterMarker> clusterList) {
-            mInternalClusterList = clusterList;
-            mZoomEvent.getSource().invalidate();
+            mMapView.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (mGeneration != mClusterGeneration) {
+                        return;
+                    }
+                    final ArrayList<ClusterMarker> clusterMarkers =
+                            new ArrayList<>(kept.size() + added.size());
+                    for (int i = 0; i < kept.size(); i++) {
+                        final ClusterMarker clusterMarker = kept.get(i);
+                        if (!keptPositions.get(i).equals(clusterMarker.getPoint())) {
+                            clusterMarker.setPoint(keptPositions.get(i));
+                        }
+                        clusterMarkers.add(clusterMarker);
+                    }
+                    for (Cluster<Marker> cluster : added) {
+                        final ClusterMarker clusterMarker = new ClusterMarker();
+                        clusterMarker.addMarkersToCluster(cluster.getItems());
+                        clusterMarker.addTo(mMapView);
+                        clusterMarker.setPoint(cluster.getPosition());
+                        if (mOnDrawClusterListener != null) {
+                            clusterMarker.setMarker(getClusterDrawable(clusterMarker));
+                        }
+                        clusterMarkers.add(clusterMarker);
+                    }
+                    mInternalClusterList = clusterMarkers;
+                    mMapView.invalidate();
+                }
+            });
         }
     }
 }
@@ -29,6 +29,11 @@ public class MapEventsOverlay extends Overlay {
         setOverlayIndex(MAPEVENTSOVERLAY_INDEX);
     }
 
+    @Override
+    protected boolean drawsShadow() {
+        return false;
+    }
+
     @Override
     protected void draw(Canvas c, MapView osmv, boolean shadow) {
         //Nothing to draw
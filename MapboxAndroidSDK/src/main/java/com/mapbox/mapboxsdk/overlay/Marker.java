@@ -1,6 +1,7 @@
 package com.mapbox.mapboxsdk.overlay;
 
 import android.content.Context;
+import android.content.res.Resources;
 import android.graphics.BitmapFactory;
 import android.graphics.Point;
 import android.graphics.PointF;
@@ -18,6 +19,8 @@ import com.mapbox.mapboxsdk.views.MapView;
 import com.mapbox.mapboxsdk.views.util.Projection;
 import com.mapbox.mapboxsdk.views.util.constants.MapViewConstants;
 
+import java.util.HashMap;
+
 /**
  * Immutable class describing a LatLng with a Title and a Description.
  */
@@ -29,11 +32,42 @@ public class Marker implements MapViewConstants, ClusterItem {
     public static final int ITEM_STATE_PRESSED_MASK = 1;
     public static final int ITEM_STATE_SELECTED_MASK = 2;
 
+    /**
+     * Drawable state sets for every combination of the ITEM_STATE masks, so that setting the
+     * state of a marker while drawing does not allocate.
+     */
+    private static final int[][] STATE_SETS = new int[8][];
+
+    static {
+        for (int bitset = 0; bitset < STATE_SETS.length; bitset++) {
+            final int[] states = new int[3];
+            int index = 0;
+            if ((bitset & ITEM_STATE_PRESSED_MASK) > 0) {
+                states[index++] = android.R.attr.state_pressed;
+            }
+            if ((bitset & ITEM_STATE_SELECTED_MASK) > 0) {
+                states[index++] = android.R.attr.state_selected;
+            }
+            if ((bitset & ITEM_STATE_FOCUSED_MASK) > 0) {
+                states[index++] = android.R.attr.state_focused;
+            }
+            STATE_SETS[bitset] = states;
+        }
+    }
+
+    /**
+     * Default pins by density and resource id. Markers using the same default pin share its
+     * bitmap, so it is only decoded once, but every marker gets a Drawable of its own: bounds,
+     * alpha and state set on one marker don't leak to the others.
+     */
+    private static final HashMap<Long, Drawable.ConstantState> sDefaultPinStates = new HashMap<Long, Drawable.ConstantState>();
+
     private int group = 0;
 
     private final RectF mMyLocationRect = new RectF(0, 0, 0, 0);
     private final RectF mMyLocationPreviousRect = new RectF(0, 0, 0, 0);
     protected final PointF mCurMapCoords = new PointF();
+    private final PointF mScreenCoords = new PointF();
 
     protected Context context;
     private MapView mapView;
@@ -41,7 +75,20 @@ public class Marker implements MapViewConstants, ClusterItem {
     private boolean isUsingMakiIcon = true;
 
     protected String mUid;
+
+    /**
+     * Position of this marker in its parent holder's marker index, -1 if unknown.
+     */
+    int mIndexPosition = -1;
+    private int mCollisionPriority;
     protected LatLng mLatLng;
+    /**
+     * Position set by {@link #movePoint(double, double)}, turned into mLatLng only when it is
+     * asked for, so that moving many markers at once does not allocate.
+     */
+    private double mMovedLatitude;
+    private double mMovedLongitude;
+    private boolean mMoved;
     protected Drawable mMarker;
     protected PointF mAnchor = null;
 
@@ -99,8 +146,18 @@ public class Marker implements MapViewConstants, ClusterItem {
      */
     public Drawable getDefaultPinDrawable() {
         if (mDefaultPinDrawable == null && this.context != null) {
-            BitmapFactory.Options opts = BitmapUtils.getBitmapOptions(context.getResources().getDisplayMetrics());
-            mDefaultPinDrawable = new BitmapDrawable(context.getResources(), BitmapFactory.decodeResource(context.getResources(), mDefaultPinRes, opts));
+            final Resources res = context.getResources();
+            final Long key = ((long) res.getDisplayMetrics().densityDpi << 32) | mDefaultPinRes;
+            Drawable.ConstantState state;
+            synchronized (sDefaultPinStates) {
+                state = sDefaultPinStates.get(key);
+                if (state == null) {
+                    BitmapFactory.Options opts = BitmapUtils.getBitmapOptions(res.getDisplayMetrics());
+                    state = new BitmapDrawable(res, BitmapFactory.decodeResource(res, mDefaultPinRes, opts)).getConstantState();
+                    sDefaultPinStates.put(key, state);
+                }
+            }
+            mDefaultPinDrawable = state.newDrawable(res).mutate();
         }
         return mDefaultPinDrawable;
     }
@@ -169,7 +226,7 @@ public class Marker implements MapViewConstants, ClusterItem {
 
     @Override
     public LatLng getPosition() {
-        return mLatLng;
+        return getPoint();
     }
 
     /**
@@ -188,14 +245,63 @@ public class Marker implements MapViewConstants, ClusterItem {
         return mUid;
     }
 
+    /**
+     * Sets the identifier used to find this marker in
+     * {@link ItemizedOverlay#setItemPositions(String[], double[], double[], int, long)}.
+     */
+    public void setUid(final String uid) {
+        mUid = uid;
+        if (mParentHolder != null) {
+            mParentHolder.onItemUidChanged(this);
+        }
+    }
+
+    public int getCollisionPriority() {
+        return mCollisionPriority;
+    }
+
+    /**
+     * Sets how important this marker is when its overlay hides the markers that would overlap,
+     * see {@link ItemizedOverlay#setCollisionDetectionEnabled(boolean)}. Markers with a higher
+     * priority are placed first, markers of equal priority in the order they are drawn on top.
+     * The default priority is 0.
+     */
+    public void setCollisionPriority(final int priority) {
+        mCollisionPriority = priority;
+        if (mParentHolder != null) {
+            mParentHolder.onItemCollisionChanged(this);
+        }
+    }
+
     public String getTitle() {
         return mTitle;
     }
 
     public LatLng getPoint() {
+        if (mMoved) {
+            mLatLng = new LatLng(mMovedLatitude, mMovedLongitude);
+            mMoved = false;
+        }
         return mLatLng;
     }
 
+    /**
+     * Moves the marker without notifying its parent holder, which moves it in its index itself.
+     */
+    void movePoint(final double latitude, final double longitude) {
+        mMovedLatitude = latitude;
+        mMovedLongitude = longitude;
+        mMoved = true;
+    }
+
+    double getLatitude() {
+        return mMoved ? mMovedLatitude : mLatLng.getLatitude();
+    }
+
+    double getLongitude() {
+        return mMoved ? mMovedLongitude : mLatLng.getLongitude();
+    }
+
     public void setTitle(String aTitle) {
         mTitle = aTitle;
     }
@@ -223,6 +329,10 @@ public class Marker implements MapViewConstants, ClusterItem {
      */
     public void setPoint(LatLng point) {
         mLatLng = point;
+        mMoved = false;
+        if (mParentHolder != null) {
+            mParentHolder.onItemMoved(this);
+        }
         invalidate();
     }
 
@@ -357,6 +467,20 @@ public class Marker implements MapViewConstants, ClusterItem {
         return new Point(0, 0);
     }
 
+    /**
+     * The x coordinate of getAnchor(), without allocating a Point.
+     */
+    int getAnchorX() {
+        return mAnchor == null ? 0 : (int) (-mAnchor.x * getWidth());
+    }
+
+    /**
+     * The y coordinate of getAnchor(), without allocating a Point.
+     */
+    int getAnchorY() {
+        return mAnchor == null ? 0 : (int) (-mAnchor.y * getHeight());
+    }
+
     public Point getAnchor(HotspotPlace place) {
         int markerWidth = getWidth(), markerHeight = getHeight();
         return getHotspot(place, markerWidth, markerHeight);
@@ -368,20 +492,8 @@ public class Marker implements MapViewConstants, ClusterItem {
     }
 
     public static void setState(final Drawable drawable, final int stateBitset) {
-        final int[] states = new int[3];
-        int index = 0;
-        if ((stateBitset & ITEM_STATE_PRESSED_MASK) > 0) {
-            states[index++] = android.R.attr.state_pressed;
-        }
-        if ((stateBitset & ITEM_STATE_SELECTED_MASK) > 0) {
-            states[index++] = android.R.attr.state_selected;
-        }
-        if ((stateBitset & ITEM_STATE_FOCUSED_MASK) > 0) {
-            states[index++] = android.R.attr.state_focused;
-        }
-
         if (drawable != null) {
-            drawable.setState(states);
+            drawable.setState(STATE_SETS[stateBitset & (STATE_SETS.length - 1)]);
         }
     }
 
@@ -438,7 +550,7 @@ public class Marker implements MapViewConstants, ClusterItem {
         if (reuse == null) {
             reuse = new RectF();
         }
-        final PointF position = getPositionOnScreen(projection, null);
+        final PointF position = getPositionOnScreen(projection, mScreenCoords);
         final int w = getWidth();
         final int h = isUsingMakiIcon ? getRealHeight() : getHeight();
         final float left = position.x - mAnchor.x * w;
@@ -453,7 +565,7 @@ public class Marker implements MapViewConstants, ClusterItem {
         if (reuse == null) {
             reuse = new RectF();
         }
-        projection.toMapPixels(mLatLng, mCurMapCoords);
+        projection.toMapPixels(getLatitude(), getLongitude(), mCurMapCoords);
         final int w = getWidth();
         final int h = getHeight();
         final float x = mCurMapCoords.x - mAnchor.x * w;
@@ -554,6 +666,19 @@ public class Marker implements MapViewConstants, ClusterItem {
         return mCurMapCoords;
     }
 
+    /**
+     * Sets the position on the map for the current zoom level without projecting mLatLng again.
+     * Used by ItemizedOverlay, which caches the projected position of its items.
+     */
+    void setPositionOnMap(final float x, final float y) {
+        mCurMapCoords.set(x, y);
+        final int w = getWidth();
+        final int h = getHeight();
+        final float left = x - mAnchor.x * w;
+        final float top = y - mAnchor.y * h;
+        mMyLocationRect.set(left, top, left + w, top + h * 2);
+    }
+
     public void updateDrawingPosition() {
         if (mapView == null) {
             return; //not on map yet
@@ -568,18 +693,24 @@ public class Marker implements MapViewConstants, ClusterItem {
         if (mapView == null) {
             return; //not on map yet
         }
-        // Get new drawing bounds
-        mMyLocationPreviousRect.set(mMyLocationRect);
+        // Get new drawing bounds, merged with the previous ones
+        mMyLocationPreviousRect.setEmpty();
+        includeDrawingBounds(mMyLocationPreviousRect);
+        // Invalidate the bounds, together with anything else that changed before the next frame
+        mapView.postInvalidateMapCoordinates(mMyLocationPreviousRect);
+    }
+
+    /**
+     * Adds the area the marker was last positioned at and the area of its current position, in
+     * map coordinates, to dirty.
+     */
+    void includeDrawingBounds(final RectF dirty) {
+        dirty.union(mMyLocationRect);
         updateDrawingPosition();
-        final RectF newRect = new RectF(mMyLocationRect);
-        // If we had a previous location, merge in those bounds too
-        newRect.union(mMyLocationPreviousRect);
-        // Invalidate the bounds
-        mapView.post(new Runnable() {
-            @Override
-            public void run() {
-                mapView.invalidateMapCoordinates(newRect);
-            }
-        });
+        dirty.union(mMyLocationRect);
+    }
+
+    MapView getMapView() {
+        return mapView;
     }
 }
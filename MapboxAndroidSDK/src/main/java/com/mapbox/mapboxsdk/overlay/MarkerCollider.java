@@ -0,0 +1,127 @@
+package com.mapbox.mapboxsdk.overlay;
+
+import java.util.Arrays;
+
+/**
+ * Greedy placement of marker boxes that must not overlap, used by {@link ItemizedOverlay} to
+ * decide which markers of a dense overlay are drawn.
+ * <p/>
+ * Boxes are offered in order of importance and each one is kept only if it does not overlap a
+ * box kept before. Kept boxes are bucketed into a uniform grid over the area being placed, so
+ * a test only visits the few cells a box covers and placing n boxes costs O(n) rather than
+ * O(n^2). Nothing is allocated once the arrays have grown to the number of boxes placed.
+ */
+class MarkerCollider {
+
+    private static final int MAX_CELLS_PER_SIDE = 128;
+
+    private float mMinX;
+    private float mMinY;
+    private float mCellSize = 1;
+    private int mColumns;
+    private int mRows;
+
+    /**
+     * The first entry of every cell, -1 for none. An entry links a kept box to the next entry
+     * of the same cell.
+     */
+    private int[] mCellHeads = new int[0];
+    private int[] mEntryBoxes = new int[0];
+    private int[] mEntryNext = new int[0];
+    private int mEntryCount;
+
+    /**
+     * left, top, right, bottom of every kept box.
+     */
+    private float[] mBoxes = new float[0];
+    private int mBoxCount;
+
+    /**
+     * Starts a new placement over the given area. Boxes may reach outside of it, they are then
+     * bucketed into the cells on its border.
+     *
+     * @param cellSize the size of the grid cells, about the size of a box
+     */
+    void reset(final float left, final float top, final float right, final float bottom,
+               final float cellSize) {
+        mMinX = left;
+        mMinY = top;
+        mCellSize = Math.max(1, Math.max(cellSize,
+                Math.max(right - left, bottom - top) / MAX_CELLS_PER_SIDE));
+        mColumns = Math.max(1, (int) Math.ceil((right - left) / mCellSize));
+        mRows = Math.max(1, (int) Math.ceil((bottom - top) / mCellSize));
+        final int cells = mColumns * mRows;
+        if (mCellHeads.length < cells) {
+            mCellHeads = new int[cells];
+        }
+        Arrays.fill(mCellHeads, 0, cells, -1);
+        mEntryCount = 0;
+        mBoxCount = 0;
+    }
+
+    /**
+     * Keeps a box if it does not overlap any box kept since the last reset(). Boxes that only
+     * touch do not overlap.
+     *
+     * @return true if the box was kept
+     */
+    boolean place(final float left, final float top, final float right, final float bottom) {
+        final int firstColumn = column(left);
+        final int lastColumn = column(right);
+        final int firstRow = row(top);
+        final int lastRow = row(bottom);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                for (int e = mCellHeads[row * mColumns + column]; e >= 0; e = mEntryNext[e]) {
+                    final int b = mEntryBoxes[e] * 4;
+                    if (left < mBoxes[b + 2] && right > mBoxes[b]
+                            && top < mBoxes[b + 3] && bottom > mBoxes[b + 1]) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        final int box = mBoxCount++;
+        if (mBoxes.length < mBoxCount * 4) {
+            mBoxes = Arrays.copyOf(mBoxes, Math.max(64, mBoxCount * 8));
+        }
+        mBoxes[box * 4] = left;
+        mBoxes[box * 4 + 1] = top;
+        mBoxes[box * 4 + 2] = right;
+        mBoxes[box * 4 + 3] = bottom;
+
+        final int entries = (lastColumn - firstColumn + 1) * (lastRow - firstRow + 1);
+        if (mEntryBoxes.length < mEntryCount + entries) {
+            final int capacity = Math.max(64, (mEntryCount + entries) * 2);
+            mEntryBoxes = Arrays.copyOf(mEntryBoxes, capacity);
+            mEntryNext = Arrays.copyOf(mEntryNext, capacity);
+        }
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                final int cell = row * mColumns + column;
+                final int e = mEntryCount++;
+                mEntryBoxes[e] = box;
+                mEntryNext[e] = mCellHeads[cell];
+                mCellHeads[cell] = e;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of boxes kept since the last reset()
+     */
+    int size() {
+        return mBoxCount;
+    }
+
+    private int column(final float x) {
+        return Math.min(mColumns - 1, Math.max(0, (int) Math.floor((x - mMinX) / mCellSize)));
+    }
+
+    private int row(final float y) {
+        return Math.min(mRows - 1, Math.max(0, (int) Math.floor((y - mMinY) / mCellSize)));
+    }
+}
@@ -0,0 +1,500 @@
+package com.mapbox.mapboxsdk.overlay;
+
+import android.graphics.RectF;
+
+import com.mapbox.mapboxsdk.tileprovider.constants.TileLayerConstants;
+import com.mapbox.mapboxsdk.views.util.Projection;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Spatial index over the markers of an {@link ItemizedOverlay}.
+ * <p/>
+ * Every marker is projected once to pixel coordinates at
+ * {@link TileLayerConstants#MAXIMUM_ZOOMLEVEL}. The map coordinates for the zoom level being
+ * drawn are derived from those with a single shift and are cached until the zoom changes.
+ * Markers are bucketed into a uniform grid sized to the extent of the data, so a viewport query
+ * only visits the cells it covers. Query results are kept in a bitset over the item indices and
+ * are consumed from the highest index down, which is the order ItemizedOverlay draws in.
+ * <p/>
+ * Nothing is allocated per query; the arrays only grow when the item list does. Items appended
+ * to the end of the list, or moved, are updated in place and tested one by one until enough of
+ * them have accumulated for a rebuild of the grid to be worth it. Moves can be interpolated
+ * over time, see advanceAnimations().
+ */
+class MarkerIndex {
+
+    private static final int ITEMS_PER_CELL = 8;
+    private static final int MAX_CELLS_PER_SIDE = 512;
+    private static final int MIN_LOOSE_BEFORE_REBUILD = 64;
+
+    private int mCount;
+
+    /**
+     * Items appended or moved since the last rebuild. Their grid cell, if any, is out of date,
+     * so they are tested one by one.
+     */
+    private boolean[] mLoose = new boolean[0];
+    private int[] mLooseItems = new int[0];
+    private int mLooseCount;
+
+    /**
+     * Running position animations. For every slot: the item, its start and end position
+     * (4 doubles) and its start time and duration (2 longs). mAnimationSlots holds slot + 1 for
+     * every animated item and 0 for the others.
+     */
+    private int mAnimationCount;
+    private int[] mAnimationItems = new int[0];
+    private double[] mAnimationPositions = new double[0];
+    private long[] mAnimationTimes = new long[0];
+    private int[] mAnimationSlots = new int[0];
+
+    /**
+     * x, y pairs at MAXIMUM_ZOOMLEVEL, relative to the top left corner of the world.
+     */
+    private double[] mProjected = new double[0];
+
+    /**
+     * Longitude, latitude pairs handed to the bulk projection, and a single pair for moves.
+     */
+    private double[] mLngLats = new double[0];
+    private final double[] mMoveTarget = new double[2];
+
+    /**
+     * x, y pairs in map coordinates at mCachedZoom, only valid where mStamps matches mStamp.
+     */
+    private float[] mMapCoords = new float[0];
+    private int[] mStamps = new int[0];
+    private int mStamp = 1;
+    private float mCachedZoom = Float.NaN;
+    private double mZoomScale;
+    private double mZoomOffset;
+
+    private double mMinX;
+    private double mMinY;
+    private double mCellSize = 1;
+    private int mColumns;
+    private int mRows;
+    private int[] mCellStart = new int[1];
+    private int[] mCellItems = new int[0];
+
+    private long[] mCandidates = new long[0];
+
+    /**
+     * The largest width or height, in pixels, of any marker seen so far. Queries are padded
+     * by it so that markers anchored just outside of the viewport are still drawn.
+     */
+    private int mMaxExtent;
+
+    /**
+     * Rebuilds the index for the given items. Indices used by every other method refer to
+     * positions in this list.
+     */
+    void rebuild(final List<Marker> items) {
+        final int count = items.size();
+        mCount = count;
+        ensureCapacity(count);
+        if (mCellItems.length < count) {
+            mCellItems = new int[count];
+        }
+        Arrays.fill(mLoose, 0, count, false);
+        mLooseCount = 0;
+        Arrays.fill(mAnimationSlots, 0, count, 0);
+        mAnimationCount = 0;
+        invalidateZoom();
+
+        if (mLngLats.length < count * 2) {
+            mLngLats = new double[count * 2];
+        }
+        for (int i = 0; i < count; i++) {
+            final Marker item = items.get(i);
+            mLngLats[i * 2] = item.getLongitude();
+            mLngLats[i * 2 + 1] = item.getLatitude();
+            mMaxExtent = Math.max(mMaxExtent, Math.max(item.getWidth(), item.getRealHeight()));
+        }
+        Projection.latLongToPixelXYParallel(mLngLats, 2, 0, count, mProjected, 2, 0);
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            final double x = mProjected[i * 2];
+            final double y = mProjected[i * 2 + 1];
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+
+        if (count == 0) {
+            mColumns = 0;
+            mRows = 0;
+            mCellStart = new int[1];
+            return;
+        }
+
+        final int cellsPerSide = Math.max(1, Math.min(MAX_CELLS_PER_SIDE,
+                (int) Math.ceil(Math.sqrt((double) count / ITEMS_PER_CELL))));
+        mMinX = minX;
+        mMinY = minY;
+        mCellSize = Math.max(1, Math.max(maxX - minX, maxY - minY) / cellsPerSide);
+        mColumns = (int) ((maxX - minX) / mCellSize) + 1;
+        mRows = (int) ((maxY - minY) / mCellSize) + 1;
+
+        // Counting sort of the items by cell.
+        final int cells = mColumns * mRows;
+        if (mCellStart.length < cells + 1) {
+            mCellStart = new int[cells + 1];
+        } else {
+            Arrays.fill(mCellStart, 0, cells + 1, 0);
+        }
+        for (int i = 0; i < count; i++) {
+            mCellStart[cellOf(i) + 1]++;
+        }
+        for (int c = 0; c < cells; c++) {
+            mCellStart[c + 1] += mCellStart[c];
+        }
+        for (int i = 0; i < count; i++) {
+            final int cell = cellOf(i);
+            // mCellStart[cell] is used as the insertion cursor and restored below
+            mCellItems[mCellStart[cell]++] = i;
+        }
+        for (int c = cells; c > 0; c--) {
+            mCellStart[c] = mCellStart[c - 1];
+        }
+        mCellStart[0] = 0;
+    }
+
+    /**
+     * Adds an item that was appended to the end of the item list.
+     */
+    void append(final Marker item) {
+        ensureCapacity(mCount + 1);
+        project(mCount, item);
+        mStamps[mCount] = 0;
+        mLoose[mCount] = false;
+        mAnimationSlots[mCount] = 0;
+        markLoose(mCount);
+        mCount++;
+    }
+
+    /**
+     * Moves the item at index to a new position, immediately or, when duration is greater than
+     * 0, by interpolating from its current position over duration milliseconds starting at now.
+     * An item that stays within its grid cell, all along the way since cells are rectangles,
+     * is kept in it; otherwise it is tested one by one until the next rebuild.
+     */
+    void move(final int index, final double latitude, final double longitude, final long now,
+              final long duration) {
+        mMoveTarget[0] = longitude;
+        mMoveTarget[1] = latitude;
+        Projection.latLongToPixelXY(mMoveTarget, 2, 0, 1, mMoveTarget, 2, 0);
+        final double[] projected = mMoveTarget;
+        if (mLoose[index] || cellAt(projected[0], projected[1]) != cellOf(index)) {
+            markLoose(index);
+        }
+        mStamps[index] = 0;
+        int slot = mAnimationSlots[index] - 1;
+        if (duration <= 0) {
+            if (slot >= 0) {
+                removeAnimation(slot);
+            }
+            mProjected[index * 2] = projected[0];
+            mProjected[index * 2 + 1] = projected[1];
+            return;
+        }
+        if (slot < 0) {
+            slot = mAnimationCount++;
+            if (mAnimationItems.length < mAnimationCount) {
+                final int capacity = Math.max(16, mAnimationCount * 2);
+                mAnimationItems = Arrays.copyOf(mAnimationItems, capacity);
+                mAnimationPositions = Arrays.copyOf(mAnimationPositions, capacity * 4);
+                mAnimationTimes = Arrays.copyOf(mAnimationTimes, capacity * 2);
+            }
+            mAnimationItems[slot] = index;
+            mAnimationSlots[index] = slot + 1;
+        }
+        // start from where the item is now, which may be halfway through a previous move
+        mAnimationPositions[slot * 4] = mProjected[index * 2];
+        mAnimationPositions[slot * 4 + 1] = mProjected[index * 2 + 1];
+        mAnimationPositions[slot * 4 + 2] = projected[0];
+        mAnimationPositions[slot * 4 + 3] = projected[1];
+        mAnimationTimes[slot * 2] = now;
+        mAnimationTimes[slot * 2 + 1] = duration;
+    }
+
+    /**
+     * Moves the animated items to their interpolated position at the given time.
+     *
+     * @param dirty set to the area, in map coordinates at the zoom level set by setProjection(),
+     *              that the animated items move within, not padded by the marker size
+     * @return true if any item was animated
+     */
+    boolean advanceAnimations(final long now, final RectF dirty) {
+        if (mAnimationCount == 0) {
+            return false;
+        }
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int slot = mAnimationCount - 1; slot >= 0; slot--) {
+            final int index = mAnimationItems[slot];
+            final double fromX = mAnimationPositions[slot * 4];
+            final double fromY = mAnimationPositions[slot * 4 + 1];
+            final double toX = mAnimationPositions[slot * 4 + 2];
+            final double toY = mAnimationPositions[slot * 4 + 3];
+            minX = Math.min(minX, Math.min(fromX, toX));
+            minY = Math.min(minY, Math.min(fromY, toY));
+            maxX = Math.max(maxX, Math.max(fromX, toX));
+            maxY = Math.max(maxY, Math.max(fromY, toY));
+
+            final double t = Math.min(1, (double) (now - mAnimationTimes[slot * 2]) / mAnimationTimes[slot * 2 + 1]);
+            mProjected[index * 2] = fromX + (toX - fromX) * t;
+            mProjected[index * 2 + 1] = fromY + (toY - fromY) * t;
+            mStamps[index] = 0;
+            if (t >= 1) {
+                removeAnimation(slot);
+            }
+        }
+        dirty.set((float) (minX * mZoomScale + mZoomOffset), (float) (minY * mZoomScale + mZoomOffset),
+                (float) (maxX * mZoomScale + mZoomOffset), (float) (maxY * mZoomScale + mZoomOffset));
+        return true;
+    }
+
+    /**
+     * @return true if advanceAnimations() has items left to move
+     */
+    boolean isAnimating() {
+        return mAnimationCount > 0;
+    }
+
+    private void removeAnimation(final int slot) {
+        mAnimationSlots[mAnimationItems[slot]] = 0;
+        final int last = --mAnimationCount;
+        if (slot != last) {
+            final int moved = mAnimationItems[last];
+            mAnimationItems[slot] = moved;
+            System.arraycopy(mAnimationPositions, last * 4, mAnimationPositions, slot * 4, 4);
+            System.arraycopy(mAnimationTimes, last * 2, mAnimationTimes, slot * 2, 2);
+            mAnimationSlots[moved] = slot + 1;
+        }
+    }
+
+    private void markLoose(final int index) {
+        if (!mLoose[index]) {
+            mLoose[index] = true;
+            if (mLooseItems.length == mLooseCount) {
+                mLooseItems = Arrays.copyOf(mLooseItems, Math.max(16, mLooseCount * 2));
+            }
+            mLooseItems[mLooseCount++] = index;
+        }
+    }
+
+    /**
+     * @return true when so many items were appended or moved since the last rebuild that a
+     * rebuild is cheaper than testing them one by one
+     */
+    boolean needsRebuild() {
+        return mLooseCount > Math.max(MIN_LOOSE_BEFORE_REBUILD, (mCount - mLooseCount) / ITEMS_PER_CELL);
+    }
+
+    private void ensureCapacity(final int count) {
+        if (mProjected.length < count * 2) {
+            final int capacity = Math.max(count, mProjected.length);
+            mProjected = Arrays.copyOf(mProjected, capacity * 2);
+            mMapCoords = Arrays.copyOf(mMapCoords, capacity * 2);
+            mStamps = Arrays.copyOf(mStamps, capacity);
+            mLoose = Arrays.copyOf(mLoose, capacity);
+            mAnimationSlots = Arrays.copyOf(mAnimationSlots, capacity);
+        }
+        if (mCandidates.length < (count >> 6) + 1) {
+            mCandidates = Arrays.copyOf(mCandidates, Math.max((count >> 6) + 1, mCandidates.length * 2));
+        }
+    }
+
+    private void project(final int index, final Marker item) {
+        mProjected[index * 2] = item.getLongitude();
+        mProjected[index * 2 + 1] = item.getLatitude();
+        Projection.latLongToPixelXY(mProjected, 2, index, index + 1, mProjected, 2, index);
+        mMaxExtent = Math.max(mMaxExtent, Math.max(item.getWidth(), item.getRealHeight()));
+    }
+
+    private int cellOf(final int index) {
+        final int column = (int) ((mProjected[index * 2] - mMinX) / mCellSize);
+        final int row = (int) ((mProjected[index * 2 + 1] - mMinY) / mCellSize);
+        return row * mColumns + column;
+    }
+
+    /**
+     * @return the grid cell containing the projected position, -1 if it is outside of the grid
+     */
+    private int cellAt(final double x, final double y) {
+        final double column = (x - mMinX) / mCellSize;
+        final double row = (y - mMinY) / mCellSize;
+        if (!(column >= 0 && column < mColumns && row >= 0 && row < mRows)) {
+            return -1;
+        }
+        return (int) row * mColumns + (int) column;
+    }
+
+    int size() {
+        return mCount;
+    }
+
+    int getMaxExtent() {
+        return mMaxExtent;
+    }
+
+    /**
+     * Grows the padding used for queries, for marker images that were loaded after the last
+     * rebuild.
+     */
+    void includeExtent(final int width, final int height) {
+        if (width > mMaxExtent) {
+            mMaxExtent = width;
+        }
+        if (height > mMaxExtent) {
+            mMaxExtent = height;
+        }
+    }
+
+    private void invalidateZoom() {
+        mCachedZoom = Float.NaN;
+        mStamp++;
+    }
+
+    /**
+     * Switches the cached map coordinates to the zoom level of the given projection.
+     */
+    void setProjection(final Projection projection) {
+        final float zoom = projection.getZoomLevel();
+        if (zoom != mCachedZoom) {
+            mCachedZoom = zoom;
+            mZoomScale = 1 / Math.pow(2, TileLayerConstants.MAXIMUM_ZOOMLEVEL - zoom);
+            mZoomOffset = -projection.getHalfWorldSize();
+            mStamp++;
+        }
+    }
+
+    private void ensureMapCoords(final int index) {
+        if (mStamps[index] != mStamp) {
+            mStamps[index] = mStamp;
+            mMapCoords[index * 2] = (float) (mProjected[index * 2] * mZoomScale + mZoomOffset);
+            mMapCoords[index * 2 + 1] = (float) (mProjected[index * 2 + 1] * mZoomScale + mZoomOffset);
+        }
+    }
+
+    /**
+     * @return the x map coordinate of the item at the zoom level set by setProjection()
+     */
+    float getMapX(final int index) {
+        ensureMapCoords(index);
+        return mMapCoords[index * 2];
+    }
+
+    /**
+     * @return the y map coordinate of the item at the zoom level set by setProjection()
+     */
+    float getMapY(final int index) {
+        ensureMapCoords(index);
+        return mMapCoords[index * 2 + 1];
+    }
+
+    /**
+     * Marks every item whose position lies within the given rectangle, in map coordinates at
+     * the zoom level set by setProjection(), as a candidate. Candidates are then consumed with
+     * previousCandidate() or nextCandidate(), until they return -1 or until clearCandidates() is
+     * called, before the next query.
+     */
+    void query(final RectF mapRect) {
+        if (mCount == 0) {
+            return;
+        }
+        final double minX = (mapRect.left - mZoomOffset) / mZoomScale;
+        final double minY = (mapRect.top - mZoomOffset) / mZoomScale;
+        final double maxX = (mapRect.right - mZoomOffset) / mZoomScale;
+        final double maxY = (mapRect.bottom - mZoomOffset) / mZoomScale;
+
+        final int firstColumn = Math.max(0, (int) Math.floor((minX - mMinX) / mCellSize));
+        final int lastColumn = Math.min(mColumns - 1, (int) Math.floor((maxX - mMinX) / mCellSize));
+        final int firstRow = Math.max(0, (int) Math.floor((minY - mMinY) / mCellSize));
+        final int lastRow = Math.min(mRows - 1, (int) Math.floor((maxY - mMinY) / mCellSize));
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                final int cell = row * mColumns + column;
+                for (int k = mCellStart[cell], end = mCellStart[cell + 1]; k < end; k++) {
+                    final int index = mCellItems[k];
+                    final double x = mProjected[index * 2];
+                    final double y = mProjected[index * 2 + 1];
+                    if (!mLoose[index] && x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                        mCandidates[index >> 6] |= 1L << index;
+                    }
+                }
+            }
+        }
+        for (int k = 0; k < mLooseCount; k++) {
+            final int index = mLooseItems[k];
+            final double x = mProjected[index * 2];
+            final double y = mProjected[index * 2 + 1];
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                mCandidates[index >> 6] |= 1L << index;
+            }
+        }
+    }
+
+    /**
+     * Returns the lowest candidate index that is not less than from, and clears it.
+     *
+     * @return the index, or -1 if there are no candidates left
+     */
+    int nextCandidate(final int from) {
+        if (from >= mCount) {
+            return -1;
+        }
+        int word = from >> 6;
+        long bits = mCandidates[word] & (-1L << (from & 63));
+        final int words = (mCount + 63) >> 6;
+        while (bits == 0) {
+            if (++word >= words) {
+                return -1;
+            }
+            bits = mCandidates[word];
+        }
+        final int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+        mCandidates[word] &= ~(1L << index);
+        return index;
+    }
+
+    /**
+     * Drops the candidates that were not consumed.
+     */
+    void clearCandidates() {
+        Arrays.fill(mCandidates, 0L);
+    }
+
+    /**
+     * Returns the highest candidate index that is not greater than from, and clears it.
+     *
+     * @return the index, or -1 if there are no candidates left
+     */
+    int previousCandidate(final int from) {
+        if (from < 0) {
+            return -1;
+        }
+        int word = from >> 6;
+        long bits = mCandidates[word] & (-1L >>> (63 - (from & 63)));
+        while (bits == 0) {
+            if (--word < 0) {
+                return -1;
+            }
+            bits = mCandidates[word];
+        }
+        final int index = (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+        mCandidates[word] &= ~(1L << index);
+        return index;
+    }
+}
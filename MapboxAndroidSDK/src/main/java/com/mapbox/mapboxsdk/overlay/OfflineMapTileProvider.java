@@ -8,7 +8,6 @@ import com.mapbox.mapboxsdk.exceptions.OfflineDatabaseException;
 import com.mapbox.mapboxsdk.offline.OfflineMapDatabase;
 import com.mapbox.mapboxsdk.tileprovider.MapTile;
 import com.mapbox.mapboxsdk.tileprovider.MapTileLayerBase;
-import com.mapbox.mapboxsdk.util.MapboxUtils;
 import java.io.ByteArrayInputStream;
 
 import uk.co.senab.bitmapcache.CacheableBitmapDrawable;
@@ -32,9 +31,7 @@ public class OfflineMapTileProvider extends MapTileLayerBase implements MapboxCo
                 return cacheable;
             }
 
-            // Build URL to match url in database
-            String url = MapboxUtils.getMapTileURL(context, offlineMapDatabase.getMapID(), pTile.getZ(), pTile.getX(), pTile.getY(), offlineMapDatabase.getImageQuality());
-            byte[] data = offlineMapDatabase.dataForURL(url);
+            byte[] data = offlineMapDatabase.dataForTile(pTile.getZ(), pTile.getX(), pTile.getY());
 
             if (data == null || data.length == 0) {
                 // No data found, just return null so that default gray screen is displayed.
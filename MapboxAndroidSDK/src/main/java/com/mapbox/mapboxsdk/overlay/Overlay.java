@@ -31,6 +31,9 @@ public abstract class Overlay {
     protected float mScale;
     private static final Rect mRect = new Rect();
     private boolean mEnabled = true;
+    private boolean mLayerCacheEnabled;
+    private volatile int mLayerVersion;
+    private OverlayLayer mLayer;
     private int mOverlayIndex = 3;
 
     public static final int MAPEVENTSOVERLAY_INDEX = 0;
@@ -91,6 +94,61 @@ public abstract class Overlay {
         return this.mEnabled;
     }
 
+    /**
+     * Sets whether the overlay is drawn into an offscreen layer that is reused for as long as
+     * the viewport and the overlay stay the same, so that the overlay is not drawn again when
+     * only another overlay changed. Worth it for overlays that are expensive to draw and
+     * seldom change, such as long paths. An overlay drawn through a layer must call
+     * {@link #invalidateLayer()} whenever what it draws changes. Off by default.
+     */
+    public void setLayerCacheEnabled(final boolean enabled) {
+        mLayerCacheEnabled = enabled;
+    }
+
+    public boolean isLayerCacheEnabled() {
+        return mLayerCacheEnabled;
+    }
+
+    /**
+     * Marks the layer of this overlay as out of date, it is drawn again on the next frame.
+     * May be called from any thread. Does nothing if the layer cache is not enabled.
+     */
+    public void invalidateLayer() {
+        mLayerVersion++;
+    }
+
+    int getLayerVersion() {
+        return mLayerVersion;
+    }
+
+    /**
+     * @return the layer of this overlay, created on first use
+     */
+    OverlayLayer getLayer() {
+        if (mLayer == null) {
+            mLayer = new OverlayLayer();
+        }
+        return mLayer;
+    }
+
+    /**
+     * Frees the memory held by the layer of this overlay, if any.
+     */
+    void releaseLayer() {
+        if (mLayer != null) {
+            mLayer.release();
+            mLayer = null;
+        }
+    }
+
+    /**
+     * @return true if draw() draws something with shadow=true. Overlays that draw no shadow
+     * should return false, the shadow pass is skipped for them. True by default.
+     */
+    protected boolean drawsShadow() {
+        return true;
+    }
+
     /**
      * Since the menu-chain will pass through several independent Overlays, menu IDs cannot be
      * fixed
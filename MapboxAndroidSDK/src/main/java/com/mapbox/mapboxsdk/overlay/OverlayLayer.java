@@ -0,0 +1,128 @@
+package com.mapbox.mapboxsdk.overlay;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.util.Log;
+
+import com.mapbox.mapboxsdk.views.MapView;
+
+/**
+ * The offscreen layer of an overlay, see {@link Overlay#setLayerCacheEnabled(boolean)}. Holds
+ * the overlay as drawn for a viewport, made of the zoom level, the scroll, the size and the
+ * transform of the map view, and the layer version of the overlay.
+ * <p/>
+ * The layer is only drawn once the viewport stayed the same for two frames in a row, so that
+ * while the map moves the overlay is drawn directly instead of drawn twice every frame.
+ * <p/>
+ * Must only be used from the UI thread.
+ */
+final class OverlayLayer {
+
+    private static final String TAG = "OverlayLayer";
+
+    private Bitmap mBitmap;
+    private final Canvas mCanvas = new Canvas();
+
+    // the viewport of the last frame
+    private float mZoomLevel = Float.NaN;
+    private int mScrollX;
+    private int mScrollY;
+    private int mWidth;
+    private int mHeight;
+    private final Matrix mTransform = new Matrix();
+    private final Matrix mInverse = new Matrix();
+    private boolean mInvertible;
+
+    // whether mBitmap holds the overlay as drawn for the viewport of the last frame
+    private boolean mValid;
+    private int mVersion;
+
+    /**
+     * Draws the overlay through the layer, drawing the layer again if it is out of date.
+     */
+    void draw(final Canvas c, final MapView mapView, final Overlay overlay) {
+        final float zoomLevel = mapView.getProjection().getZoomLevel();
+        final int scrollX = mapView.getScrollX();
+        final int scrollY = mapView.getScrollY();
+        final int width = mapView.getWidth();
+        final int height = mapView.getHeight();
+        final Matrix transform = mapView.getOverlayTransformMatrix();
+
+        if (zoomLevel != mZoomLevel || scrollX != mScrollX || scrollY != mScrollY
+                || width != mWidth || height != mHeight || !transform.equals(mTransform)) {
+            mZoomLevel = zoomLevel;
+            mScrollX = scrollX;
+            mScrollY = scrollY;
+            mWidth = width;
+            mHeight = height;
+            mTransform.set(transform);
+            mInvertible = transform.invert(mInverse);
+            mValid = false;
+            drawOverlay(c, mapView, overlay);
+            return;
+        }
+
+        final int version = overlay.getLayerVersion();
+        if (!mValid || version != mVersion) {
+            if (!mInvertible || !drawLayer(mapView, overlay)) {
+                drawOverlay(c, mapView, overlay);
+                return;
+            }
+            mValid = true;
+            mVersion = version;
+        }
+
+        c.save();
+        c.concat(mInverse);
+        c.drawBitmap(mBitmap, scrollX, scrollY, null);
+        c.restore();
+    }
+
+    /**
+     * Draws the overlay into mBitmap, through the same transform the map view applies.
+     *
+     * @return false if there is not enough memory for the bitmap
+     */
+    private boolean drawLayer(final MapView mapView, final Overlay overlay) {
+        if (mWidth <= 0 || mHeight <= 0) {
+            return false;
+        }
+        if (mBitmap == null || mBitmap.getWidth() != mWidth || mBitmap.getHeight() != mHeight) {
+            release();
+            try {
+                mBitmap = Bitmap.createBitmap(mWidth, mHeight, Bitmap.Config.ARGB_8888);
+            } catch (final OutOfMemoryError e) {
+                Log.e(TAG, "OutOfMemoryError creating overlay layer: " + e.toString());
+                return false;
+            }
+            mCanvas.setBitmap(mBitmap);
+        } else {
+            mBitmap.eraseColor(0);
+        }
+        mCanvas.save();
+        mCanvas.translate(-mScrollX, -mScrollY);
+        mCanvas.concat(mTransform);
+        drawOverlay(mCanvas, mapView, overlay);
+        mCanvas.restore();
+        return true;
+    }
+
+    private static void drawOverlay(final Canvas c, final MapView mapView, final Overlay overlay) {
+        if (overlay.drawsShadow()) {
+            overlay.draw(c, mapView, true);
+        }
+        overlay.draw(c, mapView, false);
+    }
+
+    /**
+     * Frees the bitmap, the layer is drawn again on next use.
+     */
+    void release() {
+        if (mBitmap != null) {
+            mBitmap.recycle();
+            mBitmap = null;
+        }
+        mValid = false;
+    }
+}
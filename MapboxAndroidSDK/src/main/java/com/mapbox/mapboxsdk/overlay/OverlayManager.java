@@ -6,6 +6,7 @@ import android.view.KeyEvent;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.MotionEvent;
+import com.mapbox.mapboxsdk.metrics.MapMetrics;
 import com.mapbox.mapboxsdk.overlay.Overlay.Snappable;
 import com.mapbox.mapboxsdk.views.MapView;
 import java.util.AbstractList;
@@ -52,7 +53,9 @@ public class OverlayManager extends AbstractList<Overlay> {
     @Override
     public Overlay remove(final int pIndex) {
         try {
-            return mOverlayList.remove(pIndex);
+            final Overlay overlay = mOverlayList.remove(pIndex);
+            overlay.releaseLayer();
+            return overlay;
         } finally {
             sortOverlays();
         }
@@ -65,6 +68,9 @@ public class OverlayManager extends AbstractList<Overlay> {
             if (pElement instanceof SafeDrawOverlay) {
                 ((SafeDrawOverlay) pElement).setUseSafeCanvas(this.isUsingSafeCanvas());
             }
+            if (overlay != pElement) {
+                overlay.releaseLayer();
+            }
             return overlay;
         } finally {
             sortOverlays();
@@ -147,22 +153,44 @@ public class OverlayManager extends AbstractList<Overlay> {
         };
     }
 
+    /**
+     * Draws the tiles overlay, then the enabled overlays in order. The shadow pass is skipped
+     * for overlays that draw no shadow, and overlays with a layer cache are drawn through their
+     * layer, see {@link Overlay#setLayerCacheEnabled(boolean)}.
+     */
     public void draw(final Canvas c, final MapView pMapView) {
+        final long frameStart = MapMetrics.start();
         if (mTilesOverlay != null && mTilesOverlay.isEnabled()) {
-            mTilesOverlay.draw(c, pMapView, true);
-        }
-
-        if (mTilesOverlay != null && mTilesOverlay.isEnabled()) {
+            if (mTilesOverlay.drawsShadow()) {
+                mTilesOverlay.draw(c, pMapView, true);
+            }
             mTilesOverlay.draw(c, pMapView, false);
+            if (frameStart != 0) {
+                MapMetrics.overlayDrawTime(mTilesOverlay).recordSince(frameStart);
+            }
         }
 
         for (final Overlay overlay : mOverlayList) {
+            if (!overlay.isEnabled() || !overlay.isLayerCacheEnabled()) {
+                overlay.releaseLayer();
+            }
             if (overlay.isEnabled()) {
-                overlay.draw(c, pMapView, true);
-                overlay.draw(c, pMapView, false);
+                final long start = MapMetrics.start();
+                if (overlay.isLayerCacheEnabled()) {
+                    overlay.getLayer().draw(c, pMapView, overlay);
+                } else {
+                    if (overlay.drawsShadow()) {
+                        overlay.draw(c, pMapView, true);
+                    }
+                    overlay.draw(c, pMapView, false);
+                }
+                if (start != 0) {
+                    MapMetrics.overlayDrawTime(overlay).recordSince(start);
+                }
             }
         }
 
+        MapMetrics.FRAME_DRAW.recordSince(frameStart);
     }
 
     public void onDetach(final MapView pMapView) {
@@ -172,6 +200,7 @@ public class OverlayManager extends AbstractList<Overlay> {
 
         for (final Overlay overlay : this.overlaysReversed()) {
             overlay.onDetach(pMapView);
+            overlay.releaseLayer();
         }
     }
 
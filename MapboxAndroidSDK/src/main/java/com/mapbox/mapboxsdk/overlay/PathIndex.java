@@ -0,0 +1,219 @@
+package com.mapbox.mapboxsdk.overlay;
+
+import android.graphics.Rect;
+
+import com.mapbox.mapboxsdk.geometry.PackedCoordinates;
+import com.mapbox.mapboxsdk.tileprovider.constants.TileLayerConstants;
+
+import java.util.Arrays;
+
+/**
+ * Simplification levels and a chunk index over the points of a {@link PathOverlay}.
+ * <p/>
+ * The points are in pixels at {@link TileLayerConstants#MAXIMUM_ZOOMLEVEL}. A single
+ * Douglas-Peucker pass gives every point the largest tolerance at which it is still kept, so
+ * the points of level k, simplified with a tolerance of 2^k pixels at the maximum zoom level,
+ * are simply those with an importance of at least 2^k. Level k therefore loses less than a
+ * pixel at zoom level MAXIMUM_ZOOMLEVEL - k. Levels are materialized on first use.
+ * <p/>
+ * The kept points of a level are split into runs of {@link #CHUNK_SIZE} segments with their
+ * bounding boxes, so drawing only visits the runs that intersect the viewport. Consecutive runs
+ * share their boundary point.
+ * <p/>
+ * An index covers the points the path had when it was built. Points appended after that are
+ * not simplified, they form a tail that is drawn as is until it grows large enough for a
+ * rebuild to be worth it. The simplification pass only reads the points it covers, so it can
+ * run on another thread while points are appended; the levels are built by the thread that
+ * draws.
+ */
+class PathIndex {
+
+    static final int CHUNK_SIZE = 64;
+    private static final int MIN_TAIL_BEFORE_REBUILD = 4 * CHUNK_SIZE;
+
+    /**
+     * Number of points covered by the index, the tail starts after them.
+     */
+    private final int mSize;
+    private final float[] mImportance;
+    private final Level[] mLevels = new Level[TileLayerConstants.MAXIMUM_ZOOMLEVEL + 1];
+
+    private PathIndex(final int size, final float[] importance) {
+        mSize = size;
+        mImportance = importance;
+    }
+
+    static class Level {
+        /**
+         * The kept points, null if all points of the index are kept.
+         */
+        int[] indices;
+        int count;
+        /**
+         * minX, minY, maxX, maxY of every chunk.
+         */
+        double[] chunkBounds;
+        int chunkCount;
+
+        int getPoint(final int i) {
+            return indices == null ? i : indices[i];
+        }
+
+        int getChunkStart(final int chunk) {
+            return chunk * CHUNK_SIZE;
+        }
+
+        /**
+         * @return the last kept point of the chunk, inclusive
+         */
+        int getChunkEnd(final int chunk) {
+            return Math.min((chunk + 1) * CHUNK_SIZE, count - 1);
+        }
+
+        boolean chunkIntersects(final int chunk, final Rect area) {
+            final int b = chunk * 4;
+            return chunkBounds[b] <= area.right && chunkBounds[b + 2] >= area.left
+                    && chunkBounds[b + 1] <= area.bottom && chunkBounds[b + 3] >= area.top;
+        }
+    }
+
+    /**
+     * @return the number of points covered by the index
+     */
+    int size() {
+        return mSize;
+    }
+
+    /**
+     * @param index the current index of the path, null if it has none
+     * @param size  the number of points of the path
+     * @return true if the tail of the index has grown large enough for a rebuild
+     */
+    static boolean needsRebuild(final PathIndex index, final int size) {
+        final int indexed = index == null ? 0 : index.mSize;
+        return size - indexed >= Math.max(MIN_TAIL_BEFORE_REBUILD, indexed / 4);
+    }
+
+    /**
+     * @param points    the coordinates of the path, the same ones the index was built from
+     * @param zoomLevel the zoom level being drawn
+     * @return the level that loses less than a screen pixel at this zoom level
+     */
+    Level getLevel(final PackedCoordinates points, final float zoomLevel) {
+        final int k = Math.max(0, Math.min(mLevels.length - 1,
+                (int) Math.floor(TileLayerConstants.MAXIMUM_ZOOMLEVEL - zoomLevel)));
+        if (mLevels[k] == null) {
+            mLevels[k] = buildLevel(points.getCoordinates(), k);
+        }
+        return mLevels[k];
+    }
+
+    /**
+     * Runs the simplification pass over the first points of a path. Only reads points[0] to
+     * points[size * 2 - 1].
+     */
+    static PathIndex build(final double[] points, final int size) {
+        final float[] importance = new float[size];
+        final PathIndex index = new PathIndex(size, importance);
+        if (size == 0) {
+            return index;
+        }
+        importance[0] = Float.MAX_VALUE;
+        importance[size - 1] = Float.MAX_VALUE;
+        if (size < 3) {
+            return index;
+        }
+
+        // iterative Douglas-Peucker, pushing (first, last) pairs
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = size - 1;
+        while (top > 0) {
+            final int last = stack[--top];
+            final int first = stack[--top];
+            if (last - first < 2) {
+                continue;
+            }
+            final double ax = points[first * 2];
+            final double ay = points[first * 2 + 1];
+            final double dx = points[last * 2] - ax;
+            final double dy = points[last * 2 + 1] - ay;
+            final double lengthSquared = dx * dx + dy * dy;
+
+            int farthest = first + 1;
+            double maxDistanceSquared = -1;
+            for (int i = first + 1; i < last; i++) {
+                double px = points[i * 2] - ax;
+                double py = points[i * 2 + 1] - ay;
+                if (lengthSquared > 0) {
+                    final double t = Math.max(0, Math.min(1, (px * dx + py * dy) / lengthSquared));
+                    px -= t * dx;
+                    py -= t * dy;
+                }
+                final double distanceSquared = px * px + py * py;
+                if (distanceSquared > maxDistanceSquared) {
+                    maxDistanceSquared = distanceSquared;
+                    farthest = i;
+                }
+            }
+
+            // a point never outranks the ones that split its parent segment, so the levels nest
+            final float parent = Math.min(importance[first], importance[last]);
+            importance[farthest] = Math.min(parent, (float) Math.sqrt(maxDistanceSquared));
+
+            if (top + 4 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            stack[top++] = first;
+            stack[top++] = farthest;
+            stack[top++] = farthest;
+            stack[top++] = last;
+        }
+        return index;
+    }
+
+    private Level buildLevel(final double[] points, final int k) {
+        final Level level = new Level();
+        if (k == 0) {
+            level.count = mSize;
+        } else {
+            final float tolerance = 1 << k;
+            int count = 0;
+            for (int i = 0; i < mSize; i++) {
+                if (mImportance[i] >= tolerance) {
+                    count++;
+                }
+            }
+            level.indices = new int[count];
+            for (int i = 0, j = 0; i < mSize; i++) {
+                if (mImportance[i] >= tolerance) {
+                    level.indices[j++] = i;
+                }
+            }
+            level.count = count;
+        }
+
+        level.chunkCount = level.count < 2 ? 0 : (level.count - 2) / CHUNK_SIZE + 1;
+        level.chunkBounds = new double[level.chunkCount * 4];
+        for (int chunk = 0; chunk < level.chunkCount; chunk++) {
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (int i = level.getChunkStart(chunk), end = level.getChunkEnd(chunk); i <= end; i++) {
+                final int p = level.getPoint(i) * 2;
+                minX = Math.min(minX, points[p]);
+                minY = Math.min(minY, points[p + 1]);
+                maxX = Math.max(maxX, points[p]);
+                maxY = Math.max(maxY, points[p + 1]);
+            }
+            final int b = chunk * 4;
+            level.chunkBounds[b] = minX;
+            level.chunkBounds[b + 1] = minY;
+            level.chunkBounds[b + 2] = maxX;
+            level.chunkBounds[b + 3] = maxY;
+        }
+        return level;
+    }
+}
@@ -4,13 +4,15 @@ import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Path;
-import android.graphics.PointF;
 import android.graphics.Rect;
 import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.geometry.PackedCoordinates;
+import com.mapbox.mapboxsdk.tileprovider.modules.ConfigurablePriorityThreadFactory;
 import com.mapbox.mapboxsdk.views.MapView;
 import com.mapbox.mapboxsdk.views.util.Projection;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * @author Viesturs Zarins
@@ -24,13 +26,7 @@ public class PathOverlay extends Overlay {
     /**
      * Stores points, converted to the map projection.
      */
-    private ArrayList<PointF> mPoints;
-
-    /**
-     * Number of points that have precomputed values.
-     */
-    private int mPointsPrecomputed;
-
+    private PackedCoordinates mPoints;
 
     private boolean mOptimizePath = true;
 
@@ -40,11 +36,41 @@ public class PathOverlay extends Overlay {
     protected Paint mPaint = new Paint();
     private final Path mPath = new Path();
 
-    private final PointF mTempPoint1 = new PointF();
-    private final PointF mTempPoint2 = new PointF();
+    private final double[] mLngLat = new double[2];
+    private final double[] mTransform = new double[3];
+    private final Rect mClipBounds = new Rect();
 
-    // bounding rectangle for the current line segment.
-    private final Rect mLineBounds = new Rect();
+    /**
+     * Simplification levels and chunk bounds, so that draw() only visits the visible parts of
+     * the path at the detail the zoom level needs. Null until the first one has been built.
+     */
+    private PathIndex mIndex;
+    private int mModCount;
+
+    // Indexes are built away from draw(), which uses the previous one until the new one is in
+    private static final ExecutorService sIndexExecutor = Executors.newSingleThreadExecutor(
+            new ConfigurablePriorityThreadFactory(Thread.MIN_PRIORITY, "PathIndexThread"));
+    // Bumped per request, only the result of the latest one is used. An index is being built
+    // while mIndexDelivered lags behind mIndexRequest.
+    private int mIndexRequest;
+    private int mIndexDelivered;
+    // Bumped when points are removed, an index built from the old points is then dropped
+    private int mIndexGeneration;
+
+    // mPath is kept between frames. It covers mPathArea, built at mPathScale with mPathOffsetX/Y.
+    private final Rect mPathArea = new Rect();
+    private double mPathScale;
+    private double mPathOffsetX;
+    private double mPathOffsetY;
+    private int mPathModCount = -1;
+    private PathIndex mPathIndex;
+    private boolean mPathOptimized;
+    private boolean mPathNeedsDrawing;
+
+    // state of the path while it is built
+    private boolean mPathStarted;
+    private float mPathX;
+    private float mPathY;
 
     public PathOverlay() {
         super();
@@ -66,18 +92,26 @@ public class PathOverlay extends Overlay {
         setOverlayIndex(PATHOVERLAY_INDEX);
     }
 
+    /**
+     * @return the paint of the path. Call {@link #invalidateLayer()} after changing it if the
+     * layer cache is enabled.
+     */
     public Paint getPaint() {
         return mPaint;
     }
 
     public PathOverlay setPaint(final Paint pPaint) {
         mPaint = pPaint;
+        invalidateLayer();
         return this;
     }
 
     public void clearPath() {
-        this.mPoints = new ArrayList<PointF>();
-        this.mPointsPrecomputed = 0;
+        this.mPoints = new PackedCoordinates(2);
+        this.mIndex = null;
+        this.mIndexGeneration++;
+        this.mModCount++;
+        invalidateLayer();
     }
 
     public void addPoint(final LatLng aPoint) {
@@ -85,32 +119,95 @@ public class PathOverlay extends Overlay {
     }
 
     public void addPoint(final double aLatitude, final double aLongitude) {
-        mPoints.add(new PointF((float) aLatitude, (float) aLongitude));
+        mLngLat[0] = aLongitude;
+        mLngLat[1] = aLatitude;
+        mPoints.addProjected(mLngLat, 2, 0, 1);
+        mModCount++;
+        invalidateLayer();
     }
 
     public void addPoints(final LatLng... aPoints) {
+        mPoints.ensureCapacity(mPoints.size() + aPoints.length);
         for (final LatLng point : aPoints) {
             addPoint(point);
         }
     }
 
     public void addPoints(final List<LatLng> aPoints) {
+        mPoints.ensureCapacity(mPoints.size() + aPoints.size());
         for (final LatLng point : aPoints) {
             addPoint(point);
         }
     }
 
+    /**
+     * Adds all points of a sequence of longitude, latitude coordinates.
+     */
+    public void addPoints(final PackedCoordinates lngLats) {
+        lngLats.projectToPixels(0, mPoints);
+        mModCount++;
+        invalidateLayer();
+    }
+
+    /**
+     * Adds points from a flat array of longitude, latitude pairs, the order GeoJSON uses.
+     *
+     * @param lngLats the coordinates of the points
+     * @param start   the index of the first point to add
+     * @param end     the index after the last point to add
+     * @param reverse true to add the points from last to first
+     */
+    public void addLngLatPoints(final double[] lngLats, final int start, final int end, final boolean reverse) {
+        if (reverse) {
+            mPoints.ensureCapacity(mPoints.size() + end - start);
+            for (int i = end - 1; i >= start; i--) {
+                mPoints.addProjected(lngLats, 2, i, i + 1);
+            }
+        } else {
+            mPoints.addProjected(lngLats, 2, start, end);
+        }
+        mModCount++;
+        invalidateLayer();
+    }
+
     public void removeAllPoints() {
         mPoints.clear();
+        mIndex = null;
+        mIndexGeneration++;
+        mModCount++;
+        invalidateLayer();
     }
 
     public int getNumberOfPoints() {
         return this.mPoints.size();
     }
 
+    /**
+     * @return the points of the path, converted to the map projection. Must not be modified.
+     */
+    public PackedCoordinates getPoints() {
+        return mPoints;
+    }
+
+    /**
+     * An index still being built may never be delivered once the map is detached, so the next
+     * draw requests a new one and the result of the pending one is dropped.
+     */
+    @Override
+    public void onDetach(final MapView mapView) {
+        mIndexDelivered = ++mIndexRequest;
+    }
+
+    @Override
+    protected boolean drawsShadow() {
+        return false;
+    }
+
     /**
      * This method draws the line. Note - highly optimized to handle long paths, proceed with care.
-     * Should be fine up to 10K points.
+     * Only the chunks of the path that intersect the viewport are visited, at a simplification
+     * level that loses less than a pixel, and the resulting Path is reused as long as the zoom
+     * level does not change and the viewport stays within the area it was built for.
      */
     @Override
     protected void draw(final Canvas canvas, final MapView mapView, final boolean shadow) {
@@ -123,79 +220,148 @@ public class PathOverlay extends Overlay {
         }
 
         final Projection pj = mapView.getProjection();
+        pj.getMapPixelsTransform(mTransform);
+        final double scale = mTransform[0];
+        final double offsetX = mTransform[1];
+        final double offsetY = mTransform[2];
 
-        // precompute new points to the intermediate projection.
-        for (; this.mPointsPrecomputed < size; this.mPointsPrecomputed++) {
-            final PointF pt = this.mPoints.get(this.mPointsPrecomputed);
-            pj.toMapPixelsProjected((double) pt.x, (double) pt.y, pt);
-        }
+        // clipping rectangle in the intermediate projection, to avoid performing projection.
+        final Rect clipBounds = pj.fromPixelsToProjected(pj.getScreenRect(), mClipBounds);
 
-        PointF screenPoint0 = null; // points on screen
-        PointF screenPoint1;
-        PointF projectedPoint0; // points from the points list
-        PointF projectedPoint1;
+        if (mIndexDelivered == mIndexRequest && PathIndex.needsRebuild(mIndex, size)) {
+            requestIndex(mapView, size);
+        }
 
-        // clipping rectangle in the intermediate projection, to avoid performing projection.
-        final Rect clipBounds = pj.fromPixelsToProjected(pj.getScreenRect());
+        if (mPathModCount != mModCount || mPathIndex != mIndex || mPathScale != scale
+                || mPathOptimized != mOptimizePath
+                || (mOptimizePath && !mPathArea.contains(clipBounds))) {
+            // build for half a screen more on every side, so that panning can reuse the path
+            mPathArea.set(clipBounds);
+            mPathArea.inset(-clipBounds.width() / 2, -clipBounds.height() / 2);
+            buildPath(mIndex == null ? null : mIndex.getLevel(mPoints, pj.getZoomLevel()),
+                    scale, offsetX, offsetY);
+            mPathIndex = mIndex;
+            mPathScale = scale;
+            mPathOffsetX = offsetX;
+            mPathOffsetY = offsetY;
+            mPathModCount = mModCount;
+            mPathOptimized = mOptimizePath;
+        }
 
-        mPath.rewind();
-        boolean needsDrawing = !mOptimizePath;
-        projectedPoint0 = this.mPoints.get(size - 1);
-        mLineBounds.set((int) projectedPoint0.x, (int) projectedPoint0.y, (int) projectedPoint0.x,
-                (int) projectedPoint0.y);
-
-        for (int i = size - 2; i >= 0; i--) {
-            // compute next points
-            projectedPoint1 = this.mPoints.get(i);
-
-            //mLineBounds needs to be computed
-            mLineBounds.union((int) projectedPoint1.x, (int) projectedPoint1.y);
-
-            if (mOptimizePath && !Rect.intersects(clipBounds, mLineBounds)) {
-                // skip this line, move to next point
-                projectedPoint0 = projectedPoint1;
-                mLineBounds.set((int) projectedPoint0.x, (int) projectedPoint0.y, (int) projectedPoint0.x,
-                        (int) projectedPoint0.y);
-                screenPoint0 = null;
-                continue;
+        if (mPathNeedsDrawing) {
+            final float realWidth = this.mPaint.getStrokeWidth();
+            this.mPaint.setStrokeWidth(realWidth / mapView.getScale());
+            final float dx = (float) (offsetX - mPathOffsetX);
+            final float dy = (float) (offsetY - mPathOffsetY);
+            if (dx != 0 || dy != 0) {
+                canvas.save();
+                canvas.translate(dx, dy);
+                canvas.drawPath(mPath, this.mPaint);
+                canvas.restore();
+            } else {
+                canvas.drawPath(mPath, this.mPaint);
             }
+            this.mPaint.setStrokeWidth(realWidth);
+        }
+    }
 
-            // the starting point may be not calculated, because previous segment was out of clip
-            // bounds
-            if (screenPoint0 == null) {
-                screenPoint0 = pj.toMapPixelsTranslated(projectedPoint0, this.mTempPoint1);
-                mPath.moveTo(screenPoint0.x, screenPoint0.y);
+    /**
+     * Builds the index of the first points of the path on the index thread. The points it
+     * reads are never written while they are covered by the path, appending only writes after
+     * them and removing points makes the result be dropped.
+     */
+    private void requestIndex(final MapView mapView, final int size) {
+        final int request = ++mIndexRequest;
+        final double[] points = mPoints.getCoordinates();
+        final int generation = mIndexGeneration;
+        sIndexExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final PathIndex index = PathIndex.build(points, size);
+                mapView.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (request != mIndexRequest) {
+                            return;
+                        }
+                        mIndexDelivered = request;
+                        if (generation == mIndexGeneration) {
+                            mIndex = index;
+                        }
+                        // a dropped index is requested again by the next draw
+                        invalidateLayer();
+                        mapView.invalidate();
+                    }
+                });
             }
+        });
+    }
 
-            screenPoint1 = pj.toMapPixelsTranslated(projectedPoint1, this.mTempPoint2);
+    /**
+     * Rebuilds mPath from the chunks of the level that intersect mPathArea, followed by the
+     * points that are not indexed yet.
+     *
+     * @param level the level to draw, null if the path has no index yet
+     */
+    private void buildPath(final PathIndex.Level level, final double scale, final double offsetX,
+                           final double offsetY) {
+        final double[] points = mPoints.getCoordinates();
+        mPath.rewind();
+        mPathStarted = false;
+        mPathNeedsDrawing = false;
 
-            // skip this point, too close to previous point
-            if (Math.abs(screenPoint1.x - screenPoint0.x) + Math.abs(
-                    screenPoint1.y - screenPoint0.y) <= 1) {
+        final int chunkCount = level == null ? 0 : level.chunkCount;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            if (mOptimizePath && !level.chunkIntersects(chunk, mPathArea)) {
+                mPathStarted = false;
                 continue;
             }
-
-            mPath.lineTo(screenPoint1.x, screenPoint1.y);
-            // update starting point to next position
-            projectedPoint0 = projectedPoint1;
-            screenPoint0.x = screenPoint1.x;
-            screenPoint0.y = screenPoint1.y;
-            if (mOptimizePath) {
-                needsDrawing = true;
-                mLineBounds.set((int) projectedPoint0.x, (int) projectedPoint0.y, (int) projectedPoint0.x,
-                        (int) projectedPoint0.y);
+            // a chunk starts on the last point of the previous one
+            int i = mPathStarted ? level.getChunkStart(chunk) + 1 : level.getChunkStart(chunk);
+            for (final int end = level.getChunkEnd(chunk); i <= end; i++) {
+                final int p = level.getPoint(i) * 2;
+                addPathPoint(points[p] * scale + offsetX, points[p + 1] * scale + offsetY);
             }
         }
-        if (!mOptimizePath) {
-            needsDrawing = Rect.intersects(clipBounds, mLineBounds);
+
+        // the tail, appended since the index was built, starts on its last point
+        final int size = mPoints.size();
+        for (int i = Math.max(mIndex == null ? 0 : mIndex.size(), 1); i < size; i++) {
+            final int p0 = (i - 1) * 2;
+            final int p1 = i * 2;
+            if (mOptimizePath
+                    && (Math.max(points[p0], points[p1]) < mPathArea.left
+                    || Math.min(points[p0], points[p1]) > mPathArea.right
+                    || Math.max(points[p0 + 1], points[p1 + 1]) < mPathArea.top
+                    || Math.min(points[p0 + 1], points[p1 + 1]) > mPathArea.bottom)) {
+                mPathStarted = false;
+                continue;
+            }
+            if (!mPathStarted) {
+                addPathPoint(points[p0] * scale + offsetX, points[p0 + 1] * scale + offsetY);
+            }
+            addPathPoint(points[p1] * scale + offsetX, points[p1 + 1] * scale + offsetY);
         }
+    }
 
-        if (needsDrawing) {
-            final float realWidth = this.mPaint.getStrokeWidth();
-            this.mPaint.setStrokeWidth(realWidth / mapView.getScale());
-            canvas.drawPath(mPath, this.mPaint);
-            this.mPaint.setStrokeWidth(realWidth);
+    private void addPathPoint(final double x, final double y) {
+        final float screenX = (float) x;
+        final float screenY = (float) y;
+        if (!mPathStarted) {
+            mPath.moveTo(screenX, screenY);
+            mPathX = screenX;
+            mPathY = screenY;
+            mPathStarted = true;
+            return;
+        }
+        // skip this point, too close to previous point
+        if (Math.abs(screenX - mPathX) + Math.abs(screenY - mPathY) <= 1) {
+            return;
         }
+        mPath.lineTo(screenX, screenY);
+        mPathX = screenX;
+        mPathY = screenY;
+        mPathNeedsDrawing = true;
     }
 
     /**
@@ -204,5 +370,6 @@ public class PathOverlay extends Overlay {
      */
     public void setOptimizePath(final boolean value) {
         mOptimizePath = value;
+        invalidateLayer();
     }
 }
\ No newline at end of file
@@ -4,14 +4,15 @@ import android.graphics.Bitmap;
 import android.graphics.BitmapShader;
 import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.Point;
 import android.graphics.Rect;
 import android.graphics.Shader;
-import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.util.Log;
+import com.mapbox.mapboxsdk.metrics.MapMetrics;
 import com.mapbox.mapboxsdk.tileprovider.MapTile;
 import com.mapbox.mapboxsdk.tileprovider.MapTileLayerBase;
 import com.mapbox.mapboxsdk.util.GeometryMath;
@@ -21,8 +22,8 @@ import com.mapbox.mapboxsdk.views.MapView;
 import com.mapbox.mapboxsdk.views.safecanvas.ISafeCanvas;
 import com.mapbox.mapboxsdk.views.safecanvas.SafePaint;
 import com.mapbox.mapboxsdk.views.util.Projection;
-import java.util.HashMap;
 import uk.co.senab.bitmapcache.CacheableBitmapDrawable;
+import uk.co.senab.bitmapcache.FrameClock;
 
 /**
  * These objects are the principle consumer of map tiles.
@@ -49,10 +50,21 @@ public class TilesOverlay extends SafeDrawOverlay {
     protected Paint mLoadingPaint = null;
     private final Rect mTileRect = new Rect();
     private final Rect mViewPort = new Rect();
+    private final float[] mViewPortCorners = new float[8];
+    private final Matrix mViewPortMatrix = new Matrix();
     private final Rect mClipRect = new Rect();
     float mCurrentZoomFactor = 1;
-    private float mRescaleZoomDiffMax = 4;
+
+    /* to draw a tile that is not loaded from the tiles around it in the memory cache */
+    private static final int MAX_ANCESTOR_ZOOM_DIFF = 4;
+    private static final int MAX_DESCENDANT_ZOOM_DIFF = 2;
+    private final Rect mFallbackSrcRect = new Rect();
+    private final Rect mFallbackDestRect = new Rect();
+    private final Paint mFallbackPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect mPrefetchViewPort = new Rect();
     private boolean isAnimating = false;
+    // the frame clock of the map view being drawn, the tiles drawn are marked with it
+    private FrameClock mFrameClock;
     private boolean mOptionsMenuEnabled = true;
 
     private int mWorldSize_2;
@@ -121,6 +133,11 @@ public class TilesOverlay extends SafeDrawOverlay {
         mTileProvider.setUseDataConnection(aMode);
     }
 
+    @Override
+    protected boolean drawsShadow() {
+        return false;
+    }
+
     @Override
     protected void drawSafe(final ISafeCanvas c, final MapView mapView, final boolean shadow) {
 
@@ -129,6 +146,7 @@ public class TilesOverlay extends SafeDrawOverlay {
         }
         //Commented for now. It needs heavy testing to see if we actually need it
         isAnimating = mapView.isAnimating();
+        mFrameClock = mapView.getFrameClock();
 
         // Calculate the half-world size
         final Projection pj = mapView.getProjection();
@@ -138,6 +156,7 @@ public class TilesOverlay extends SafeDrawOverlay {
         final float zoomLevel = pj.getZoomLevel();
         mWorldSize_2 = pj.getHalfWorldSize();
         GeometryMath.viewPortRectForTileDrawing(pj, mViewPort);
+        getViewPortCorners(mapView, zoomLevel, mViewPortCorners);
 
         int tileSize = Projection.getTileSize();
         // Draw the tiles!
@@ -145,7 +164,7 @@ public class TilesOverlay extends SafeDrawOverlay {
             if (mDrawLoadingTile) {
                 drawLoadingTile(c.getSafeCanvas(), mapView, zoomLevel, mClipRect);
             }
-            drawTiles(c.getSafeCanvas(), zoomLevel, tileSize, mViewPort, mClipRect);
+            drawTiles(c.getSafeCanvas(), zoomLevel, tileSize, mViewPort, mViewPortCorners, mClipRect);
         }
 
         if (UtilConstants.DEBUGMODE && mapView.getScrollableAreaLimit() != null) {
@@ -160,6 +179,37 @@ public class TilesOverlay extends SafeDrawOverlay {
         }
     }
 
+    /**
+     * Finds the corners of the part of the map the view shows, through the rotation and the
+     * pinch scale the map view draws the overlays with, in pixels at the zoom level of the
+     * tiles from the top left of the world.
+     */
+    private void getViewPortCorners(final MapView mapView, final float zoomLevel, final float[] out) {
+        if (!mapView.getOverlayTransformMatrix().invert(mViewPortMatrix)) {
+            out[0] = out[6] = mViewPort.left;
+            out[1] = out[3] = mViewPort.top;
+            out[2] = out[4] = mViewPort.right;
+            out[5] = out[7] = mViewPort.bottom;
+            return;
+        }
+        final float left = mapView.getScrollX();
+        final float top = mapView.getScrollY();
+        final float right = left + mapView.getWidth();
+        final float bottom = top + mapView.getHeight();
+        out[0] = out[6] = left;
+        out[1] = out[3] = top;
+        out[2] = out[4] = right;
+        out[5] = out[7] = bottom;
+        mViewPortMatrix.mapPoints(out);
+
+        // when using float zoom, tiles are those of the floored zoom level
+        final int roundWorldSize_2 = Projection.mapSize((float) Math.floor(zoomLevel)) >> 1;
+        final float scale = (float) roundWorldSize_2 / (Projection.mapSize(zoomLevel) >> 1);
+        for (int i = 0; i < 8; i++) {
+            out[i] = out[i] * scale + roundWorldSize_2;
+        }
+    }
+
     /**
      * Draw a loading tile image to make in-progress tiles easier to deal with.
      *
@@ -184,8 +234,26 @@ public class TilesOverlay extends SafeDrawOverlay {
      */
     public void drawTiles(final Canvas c, final float zoomLevel, final int tileSizePx,
                           final Rect viewPort, final Rect pClipRect) {
+        mViewPortCorners[0] = mViewPortCorners[6] = viewPort.left;
+        mViewPortCorners[1] = mViewPortCorners[3] = viewPort.top;
+        mViewPortCorners[2] = mViewPortCorners[4] = viewPort.right;
+        mViewPortCorners[5] = mViewPortCorners[7] = viewPort.bottom;
+        drawTiles(c, zoomLevel, tileSizePx, viewPort, mViewPortCorners, pClipRect);
+    }
 
-        mNuberOfTiles = mTileLooper.loop(c, mTileProvider.getCacheKey(), zoomLevel, tileSizePx, viewPort, pClipRect);
+    /**
+     * Draws the tiles intersecting a viewport that may be rotated, and prefetches the ring of
+     * tiles around it at low priority.
+     *
+     * @param viewPort        the bounding box of the viewport
+     * @param viewPortCorners the corners of the viewport, see
+     *                        {@link TileLooper#loop(Canvas, String, float, int, float[], Rect)}
+     */
+    public void drawTiles(final Canvas c, final float zoomLevel, final int tileSizePx,
+                          final Rect viewPort, final float[] viewPortCorners, final Rect pClipRect) {
+
+        mNuberOfTiles = mTileLooper.loop(c, mTileProvider.getCacheKey(), zoomLevel, tileSizePx,
+                viewPortCorners, pClipRect);
 
         // draw a cross at center in debug mode
         if (UtilConstants.DEBUGMODE) {
@@ -199,7 +267,7 @@ public class TilesOverlay extends SafeDrawOverlay {
         }
     }
 
-    private final TileLooper mTileLooper = new TileLooper() {
+    private final TileLooper mTileLooper = new TileLooper(true) {
         @Override
         public void initializeLoop(final float pZoomLevel, final int pTileSizePx) {
 
@@ -225,17 +293,21 @@ public class TilesOverlay extends SafeDrawOverlay {
             }
             pTile.setTileRect(mTileRect);
             Drawable drawable = mTileProvider.getMapTile(pTile, !isAnimating);
-            boolean isReusable = drawable instanceof CacheableBitmapDrawable;
+            if (drawable instanceof CacheableBitmapDrawable
+                    && !((CacheableBitmapDrawable) drawable).markUsed(mFrameClock)) {
+                // recycled or reused since it was looked up
+                drawable = null;
+            }
 
             if (drawable != null) {
-                if (isReusable) {
-                    mBeingUsedDrawables.add((CacheableBitmapDrawable) drawable);
-                }
                 drawable.setBounds(mTileRect);
                 drawable.draw(pCanvas);
+                MapMetrics.tileDrawn(pTile);
             } else {
+                MapMetrics.tileMissing(pTile);
                 mTileProvider.memoryCacheNeedsMoreMemory(mNuberOfTiles);
                 //Log.w(TAG, "tile should have been drawn to canvas, but it was null.  tile = '" + pTile + "'");
+                drawFallback(pCanvas, pCacheKey, pTile, mTileRect);
             }
 
             if (UtilConstants.DEBUGMODE) {
@@ -244,6 +316,133 @@ public class TilesOverlay extends SafeDrawOverlay {
                 canvas.drawRect(mTileRect, getDebugPaint());
             }
         }
+
+        /**
+         * The tiles around the viewport are not drawn, only loaded ahead of being scrolled into
+         * view.
+         */
+        @Override
+        public void handlePrefetchTile(final String pCacheKey, final MapTile pTile) {
+            mTileProvider.prefetchMapTile(pTile);
+        }
+
+        /**
+         * Draws a tile that is still loading from the tiles covering it in the memory cache:
+         * the nearest loaded ancestor, scaled up, and then any loaded descendants on top of it.
+         * Nothing is requested and no bitmap is created.
+         */
+        private void drawFallback(final Canvas pCanvas, final String pCacheKey, final MapTile pTile,
+                                  final Rect pTileRect) {
+            final int zoom = pTile.getZ();
+            boolean covered = false;
+            for (int diff = 1; diff <= MAX_ANCESTOR_ZOOM_DIFF && diff <= zoom && !covered; diff++) {
+                final CacheableBitmapDrawable ancestor = getLoadedTile(
+                        pCacheKey, zoom - diff, pTile.getX() >> diff, pTile.getY() >> diff);
+                if (ancestor != null) {
+                    // the part of the ancestor that covers this tile
+                    final Bitmap bitmap = ancestor.getBitmap();
+                    final int mask = (1 << diff) - 1;
+                    final int width = bitmap.getWidth() >> diff;
+                    final int height = bitmap.getHeight() >> diff;
+                    final int left = (pTile.getX() & mask) * width;
+                    final int top = (pTile.getY() & mask) * height;
+                    mFallbackSrcRect.set(left, top, left + width, top + height);
+                    pCanvas.drawBitmap(bitmap, mFallbackSrcRect, pTileRect, mFallbackPaint);
+                    covered = true;
+                }
+            }
+            if (zoom < getMaximumZoomLevel()) {
+                drawDescendants(pCanvas, pCacheKey, zoom + 1, pTile.getX() << 1, pTile.getY() << 1,
+                        pTileRect.left, pTileRect.top, pTileRect.width() / 2f, 1, covered);
+            }
+        }
+
+        /**
+         * Draws the 4 tiles at zoom that share the parent whose top left child is x, y, and
+         * looks deeper for those that are not loaded if nothing else covers them.
+         */
+        private void drawDescendants(final Canvas pCanvas, final String pCacheKey, final int zoom,
+                                     final int x, final int y, final float left, final float top,
+                                     final float size, final int depth, final boolean covered) {
+            for (int i = 0; i < 4; i++) {
+                final int dx = i & 1;
+                final int dy = i >> 1;
+                final float childLeft = left + dx * size;
+                final float childTop = top + dy * size;
+                final CacheableBitmapDrawable child = getLoadedTile(pCacheKey, zoom, x + dx, y + dy);
+                if (child != null) {
+                    mFallbackDestRect.set(Math.round(childLeft), Math.round(childTop),
+                            Math.round(childLeft + size), Math.round(childTop + size));
+                    pCanvas.drawBitmap(child.getBitmap(), null, mFallbackDestRect, mFallbackPaint);
+                } else if (!covered && depth < MAX_DESCENDANT_ZOOM_DIFF && zoom < getMaximumZoomLevel()) {
+                    drawDescendants(pCanvas, pCacheKey, zoom + 1, (x + dx) << 1, (y + dy) << 1,
+                            childLeft, childTop, size / 2f, depth + 1, false);
+                }
+            }
+        }
+
+        /**
+         * @return the tile if its bitmap is in the memory cache, marked as being used in this
+         * frame. Looked up by key, as many tiles are probed on every frame.
+         */
+        private CacheableBitmapDrawable getLoadedTile(final String pCacheKey, final int pZ,
+                                                      final int pX, final int pY) {
+            final CacheableBitmapDrawable drawable = mTileProvider.getMapTileFromMemory(pCacheKey, pZ, pX, pY);
+            if (drawable == null || !drawable.isBitmapValid() || !drawable.markUsed(mFrameClock)) {
+                return null;
+            }
+            return drawable;
+        }
+    };
+
+    /**
+     * Requests, at low priority, the tiles of a viewport the map is about to show, such as at the
+     * end of a fling or a zoom animation, and a ring of tiles around it. They are loaded once the
+     * visible tiles are, and move ahead of the other prefetched tiles when they become visible.
+     *
+     * @param pZoomLevel the zoom level the map will be at
+     * @param pCenterX   the x coordinate the map will be centered on, in map coordinates at
+     *                   that zoom level
+     * @param pCenterY   the y coordinate the map will be centered on
+     * @param pWidth     the width of the viewport in pixels
+     * @param pHeight    the height of the viewport in pixels
+     */
+    public void prefetchTiles(final float pZoomLevel, final float pCenterX, final float pCenterY,
+                              final int pWidth, final int pHeight) {
+        final int tileSize = Projection.getTileSize();
+        if (tileSize <= 0 || mTileProvider.hasNoSource()) {
+            return;
+        }
+        final float zoomLevel = Math.max(getMinimumZoomLevel(), Math.min(getMaximumZoomLevel(), pZoomLevel));
+        final int tileZoom = (int) Math.floor(zoomLevel);
+        // tiles are looked up in pixels at the zoom level of the tiles, from the top left corner
+        final double scale = GeometryMath.rightShift(1.0, pZoomLevel - tileZoom);
+        final int worldSize2 = Projection.mapSize(tileZoom) >> 1;
+        final double centerX = pCenterX * scale + worldSize2;
+        final double centerY = pCenterY * scale + worldSize2;
+        final double width2 = pWidth * scale / 2;
+        final double height2 = pHeight * scale / 2;
+        mPrefetchViewPort.set((int) (centerX - width2), (int) (centerY - height2),
+                (int) (centerX + width2), (int) (centerY + height2));
+        // the looper adds a ring of one tile around the viewport, prefetched like the others
+        mPrefetchLooper.loop(null, mTileProvider.getCacheKey(), tileZoom, tileSize, mPrefetchViewPort, null);
+    }
+
+    private final TileLooper mPrefetchLooper = new TileLooper(true) {
+        @Override
+        public void initializeLoop(final float pZoomLevel, final int pTileSizePx) {
+        }
+
+        @Override
+        public void handleTile(final Canvas pCanvas, final String pCacheKey, final int pTileSizePx,
+                               final MapTile pTile, final int pX, final int pY, final Rect pClipRect) {
+            mTileProvider.prefetchMapTile(pTile);
+        }
+
+        @Override
+        public void handlePrefetchTile(final String pCacheKey, final MapTile pTile) {
+            mTileProvider.prefetchMapTile(pTile);
+        }
     };
 
     public int getLoadingBackgroundColor() {
@@ -325,212 +524,16 @@ public class TilesOverlay extends SafeDrawOverlay {
     }
 
     /**
-     * Recreate the cache using scaled versions of the tiles currently in it
+     * Used to recreate the cache from scaled versions of the tiles currently in it.
      *
      * @param pNewZoomLevel the zoom level that we need now
      * @param pOldZoomLevel the previous zoom level that we should get the tiles to rescale
      * @param projection    the projection to compute view port
+     * @deprecated tiles that are not loaded yet are now drawn from their loaded ancestors or
+     * descendants while drawing, nothing needs to be rescaled.
      */
+    @Deprecated
     public void rescaleCache(final float pNewZoomLevel, final float pOldZoomLevel,
                              final Projection projection) {
-
-        if (mTileProvider.hasNoSource() || Math.floor(pNewZoomLevel) == Math.floor(pOldZoomLevel) || projection == null || Math.abs(pOldZoomLevel - pNewZoomLevel) > mRescaleZoomDiffMax) {
-            return;
-        }
-
-        final long startMs = System.currentTimeMillis();
-
-        if (UtilConstants.DEBUGMODE) {
-            Log.d(TAG, "rescale tile cache from " + pOldZoomLevel + " to " + pNewZoomLevel);
-        }
-
-        final int tileSize = Projection.getTileSize();
-        final Rect viewPort =
-                GeometryMath.viewPortRectForTileDrawing(pNewZoomLevel, projection, null);
-
-        final ScaleTileLooper tileLooper =
-                pNewZoomLevel > pOldZoomLevel ? new ZoomInTileLooper(pOldZoomLevel)
-                        : new ZoomOutTileLooper(pOldZoomLevel);
-        tileLooper.loop(null, mTileProvider.getCacheKey(), pNewZoomLevel, tileSize, viewPort, null);
-
-        final long endMs = System.currentTimeMillis();
-        if (UtilConstants.DEBUGMODE) {
-            Log.d(TAG, "Finished rescale in " + (endMs - startMs) + "ms");
-        }
-    }
-
-    private abstract class ScaleTileLooper extends TileLooper {
-
-        /**
-         * new (scaled) tiles to add to cache
-         * NB first generate all and then put all in cache,
-         * otherwise the ones we need will be pushed out
-         */
-        protected final HashMap<MapTile, Bitmap> mNewTiles;
-
-        protected final float mOldZoomLevel;
-        protected final int mOldZoomRound;
-        protected final int mOldTileUpperBound;
-        protected float mDiff;
-        protected int mTileSize_2;
-        protected Rect mSrcRect;
-        protected Rect mDestRect;
-        protected Paint mDebugPaint;
-
-        public ScaleTileLooper(final float pOldZoomLevel) {
-            mOldZoomLevel = pOldZoomLevel;
-            mOldZoomRound = (int) Math.floor(mOldZoomLevel);
-            mOldTileUpperBound = 1 << mOldZoomRound;
-            mNewTiles = new HashMap<MapTile, Bitmap>();
-            mSrcRect = new Rect();
-            mDestRect = new Rect();
-            mDebugPaint = new Paint();
-        }
-
-        @Override
-        public void initializeLoop(final float pZoomLevel, final int pTileSizePx) {
-            mDiff = (float) Math.abs(Math.floor(pZoomLevel) - Math.floor(mOldZoomLevel));
-            mTileSize_2 = (int) GeometryMath.rightShift(pTileSizePx, mDiff);
-        }
-
-        @Override
-        public void handleTile(final Canvas pCanvas, final String pCacheKey, final int pTileSizePx,
-                               final MapTile pTile, final int pX, final int pY, final Rect pClipRect) {
-
-            // Get tile from cache.
-            // If it's found then no need to created scaled version.
-            // If not found (null) them we've initiated a new request for it,
-            // and now we'll create a scaled version until the request completes.
-            final Drawable requestedTile = mTileProvider.getMapTile(pTile, !isAnimating);
-            if (requestedTile == null) {
-                try {
-                    handleScaleTile(pCacheKey, pTileSizePx, pTile, pX, pY);
-                } catch (final OutOfMemoryError e) {
-                    Log.e(TAG, "OutOfMemoryError rescaling cache");
-                }
-            }
-        }
-
-        @Override
-        public void finalizeLoop() {
-            super.finalizeLoop();
-            // now add the new ones, pushing out the old ones
-            while (!mNewTiles.isEmpty()) {
-
-                final MapTile tile = mNewTiles.keySet().iterator().next();
-                final Bitmap bitmap = mNewTiles.remove(tile);
-                mTileProvider.putExpiredTileIntoCache(tile, bitmap);
-            }
-        }
-
-        protected abstract void handleScaleTile(final String pCacheKey, final int pTileSizePx,
-                                                final MapTile pTile, final int pX, final int pY);
-    }
-
-    private class ZoomInTileLooper extends ScaleTileLooper {
-        public ZoomInTileLooper(final float pOldZoomLevel) {
-            super(pOldZoomLevel);
-        }
-
-        @Override
-        public void handleScaleTile(final String pCacheKey, final int pTileSizePx,
-                                    final MapTile pTile, final int pX, final int pY) {
-            int oldTileX = GeometryMath.mod((int) GeometryMath.rightShift(pX, mDiff), mOldTileUpperBound);
-            int oldTileY = GeometryMath.mod((int) GeometryMath.rightShift(pY, mDiff), mOldTileUpperBound);
-
-            // get the correct fraction of the tile from cache and scale up
-            final MapTile oldTile = new MapTile(pCacheKey,
-                    mOldZoomRound, oldTileX, oldTileY);
-            final Drawable oldDrawable = mTileProvider.getMapTileFromMemory(oldTile);
-
-            if (oldDrawable instanceof BitmapDrawable) {
-                final boolean isReusable = oldDrawable instanceof CacheableBitmapDrawable;
-                if (isReusable) {
-                    ((CacheableBitmapDrawable) oldDrawable).setBeingUsed(true);
-                    mBeingUsedDrawables.add((CacheableBitmapDrawable) oldDrawable);
-                }
-
-                final Bitmap oldBitmap = ((BitmapDrawable) oldDrawable).getBitmap();
-                if (oldBitmap != null) {
-                    final int xx = (pX % (int) GeometryMath.leftShift(1, mDiff)) * mTileSize_2;
-                    final int yy = (pY % (int) GeometryMath.leftShift(1, mDiff)) * mTileSize_2;
-                    mSrcRect.set(xx, yy, xx + mTileSize_2, yy + mTileSize_2);
-                    mDestRect.set(0, 0, pTileSizePx, pTileSizePx);
-
-                    // Try to get a bitmap from the pool, otherwise allocate a new one
-                    Bitmap bitmap = mTileProvider.getBitmapFromRemoved(pTileSizePx, pTileSizePx);
-
-                    if (bitmap == null) {
-                        bitmap = Bitmap.createBitmap(pTileSizePx, pTileSizePx, Bitmap.Config.ARGB_8888);
-                    }
-                    final Canvas canvas = new Canvas(bitmap);
-                    canvas.drawBitmap(oldBitmap, mSrcRect, mDestRect, null);
-                    mNewTiles.put(pTile, bitmap);
-                }
-            }
-        }
-    }
-
-    private class ZoomOutTileLooper extends ScaleTileLooper {
-        private static final int MAX_ZOOM_OUT_DIFF = 8;
-
-        public ZoomOutTileLooper(final float pOldZoomLevel) {
-            super(pOldZoomLevel);
-        }
-
-        @Override
-        protected void handleScaleTile(final String pCacheKey, final int pTileSizePx,
-                                       final MapTile pTile, final int pX, final int pY) {
-
-            if (mDiff >= MAX_ZOOM_OUT_DIFF) {
-                return;
-            }
-
-            // get many tiles from cache and make one tile from them
-            final int xx = (int) GeometryMath.leftShift(pX, mDiff);
-            final int yy = (int) GeometryMath.leftShift(pY, mDiff);
-            final int numTiles = (int) GeometryMath.leftShift(1, mDiff);
-
-            int oldTileX, oldTileY;
-            Bitmap bitmap = null;
-            Canvas canvas = null;
-            for (int x = 0; x < numTiles; x++) {
-                for (int y = 0; y < numTiles; y++) {
-                    oldTileY = GeometryMath.mod(yy + y, mOldTileUpperBound);
-                    oldTileX = GeometryMath.mod(xx + x, mOldTileUpperBound);
-                    final MapTile oldTile = new MapTile(pCacheKey,
-                            mOldZoomRound, oldTileX, oldTileY);
-                    Drawable oldDrawable = mTileProvider.getMapTileFromMemory(oldTile);
-
-                    if (oldDrawable instanceof BitmapDrawable) {
-                        final boolean isReusable = oldDrawable instanceof CacheableBitmapDrawable;
-                        if (isReusable) {
-                            ((CacheableBitmapDrawable) oldDrawable).setBeingUsed(true);
-                            mBeingUsedDrawables.add((CacheableBitmapDrawable) oldDrawable);
-                        }
-                        final Bitmap oldBitmap = ((BitmapDrawable) oldDrawable).getBitmap();
-                        if (oldBitmap != null) {
-                            if (bitmap == null) {
-                                // Try to get a bitmap from the pool, otherwise allocate a new one
-                                bitmap = mTileProvider.getBitmapFromRemoved(pTileSizePx,
-                                        pTileSizePx);
-                                if (bitmap == null) {
-                                    bitmap = Bitmap.createBitmap(pTileSizePx, pTileSizePx,
-                                            Bitmap.Config.ARGB_8888);
-                                }
-                                canvas = new Canvas(bitmap);
-                            }
-                            mDestRect.set(x * mTileSize_2, y * mTileSize_2, (x + 1) * mTileSize_2,
-                                    (y + 1) * mTileSize_2);
-                            canvas.drawBitmap(oldBitmap, null, mDestRect, null);
-                        }
-                    }
-                }
-            }
-
-            if (bitmap != null) {
-                mNewTiles.put(pTile, bitmap);
-            }
-        }
     }
 }
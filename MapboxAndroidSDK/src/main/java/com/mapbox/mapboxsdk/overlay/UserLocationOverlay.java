@@ -63,6 +63,10 @@ public class UserLocationOverlay extends SafeDrawOverlay implements Snappable, M
     // to avoid allocations during onDraw
     private final RectF mMyLocationRect = new RectF();
     private final RectF mMyLocationPreviousRect = new RectF();
+    private final Rect mMapBounds = new Rect();
+    private final Rect mDrawingRect = new Rect();
+    private final RectF mDrawingBounds = new RectF();
+    private final PointF mPositionOnScreen = new PointF();
 
     private Bitmap mPersonBitmap;
     private Bitmap mDirectionArrowBitmap;
@@ -156,11 +160,11 @@ public class UserLocationOverlay extends SafeDrawOverlay implements Snappable, M
 
     protected void drawMyLocation(final ISafeCanvas canvas, final MapView mapView, final Location lastFix) {
 
-        final Rect mapBounds = new Rect(0, 0, mapView.getMeasuredWidth(), mapView.getMeasuredHeight());
+        mMapBounds.set(0, 0, mapView.getMeasuredWidth(), mapView.getMeasuredHeight());
         final Projection projection = mapView.getProjection();
-        Rect rect = new Rect();
-        getDrawingBounds(projection, lastFix, null).round(rect);
-        if (!Rect.intersects(mapBounds, rect)) {
+        getDrawingBounds(getPositionOnScreen(projection, mPositionOnScreen), lastFix, mDrawingBounds)
+                .round(mDrawingRect);
+        if (!Rect.intersects(mMapBounds, mDrawingRect)) {
             //dont draw item if offscreen
             return;
         }
@@ -284,6 +288,11 @@ public class UserLocationOverlay extends SafeDrawOverlay implements Snappable, M
         return reuse;
     }
 
+    @Override
+    protected boolean drawsShadow() {
+        return false;
+    }
+
     @Override
     protected void drawSafe(ISafeCanvas canvas, MapView mapView, boolean shadow) {
         if (shadow) {
@@ -391,16 +400,10 @@ public class UserLocationOverlay extends SafeDrawOverlay implements Snappable, M
         // Get new drawing bounds
         mMyLocationPreviousRect.set(mMyLocationRect);
         updateDrawingPositionRect();
-        final RectF newRect = new RectF(mMyLocationRect);
         // If we had a previous location, merge in those bounds too
-        newRect.union(mMyLocationPreviousRect);
-        // Invalidate the bounds
-        mMapView.post(new Runnable() {
-            @Override
-            public void run() {
-                mMapView.invalidateMapCoordinates(newRect);
-            }
-        });
+        mMyLocationPreviousRect.union(mMyLocationRect);
+        // Invalidate the bounds on the next frame, merged with any other pending change
+        mMapView.postInvalidateMapCoordinates(mMyLocationPreviousRect);
     }
 
     public void onLocationChanged(Location location, GpsLocationProvider source) {
@@ -28,6 +28,13 @@ public interface IMapTileProviderCallback {
     void mapTileRequestExpiredTile(MapTileRequestState aState,
             final CacheableBitmapDrawable aDrawable);
 
+    /**
+     * A prefetch request was dropped before it was loaded, to make room for newer ones.
+     *
+     * @param aState a state object
+     */
+    void mapTileRequestDropped(MapTileRequestState aState);
+
     /**
      * Returns true if the network connection should be used, false if not.
      *
@@ -47,6 +47,15 @@ public class MapTile implements GeoConstants, MapboxConstants, TileLayerConstant
         this.code = ((17 * (37 + z)) * (37 * x)) * (37 + y);
     }
 
+    /**
+     * Appends the cache key a MapTile(aCacheKey, az, ax, ay) would have, without creating the
+     * tile.
+     */
+    public static StringBuilder appendCacheKey(final StringBuilder out, final String aCacheKey,
+                                               final int az, final int ax, final int ay) {
+        return out.append(aCacheKey).append('/').append(az).append('/').append(ax).append('/').append(ay);
+    }
+
     public int getZ() {
         return z;
     }
@@ -10,6 +10,7 @@ import android.os.Environment;
 import android.util.Log;
 
 import com.mapbox.mapboxsdk.tileprovider.constants.TileLayerConstants;
+import com.mapbox.mapboxsdk.tileprovider.vector.VectorTileCache;
 import com.mapbox.mapboxsdk.util.BitmapUtils;
 
 import java.io.File;
@@ -25,12 +26,16 @@ import uk.co.senab.bitmapcache.CacheableBitmapDrawable;
 public class MapTileCache implements TileLayerConstants {
 
     protected static BitmapLruCache sCachedTiles = null;
+    protected static UTFGridCache sCachedGrids = null;
+    protected static VectorTileCache sCachedVectorTiles = null;
+    protected static volatile TileMetadataCache sTileMetadata = null;
     private Context context;
     static final String TAG = "MapTileCache";
     private static final String DISK_CACHE_SUBDIR = "mapbox_tiles_cache";
     private int mMaximumCacheSize;
 
     private boolean mDiskCacheEnabled = false;
+    private final StringBuilder mKeyBuilder = new StringBuilder();
 
     public MapTileCache(final Context aContext) {
         this(aContext, CACHE_MAPTILEDISKSIZE_DEFAULT);
@@ -70,6 +75,99 @@ public class MapTileCache implements TileLayerConstants {
         return sCachedTiles;
     }
 
+    /**
+     * Get the cache of the UTFGrids that are loaded along with the tiles, creating it first
+     * if there isn't one yet.
+     *
+     * @return UTFGridCache the cache
+     */
+    public UTFGridCache getGridCache() {
+        synchronized (MapTileCache.class) {
+            if (sCachedGrids == null) {
+                sCachedGrids = new UTFGridCache(context);
+            }
+            return sCachedGrids;
+        }
+    }
+
+    /**
+     * Get the cache of the vector tiles that tiles are drawn from, creating it first if there
+     * isn't one yet.
+     *
+     * @return VectorTileCache the cache
+     */
+    public VectorTileCache getVectorTileCache() {
+        synchronized (MapTileCache.class) {
+            if (sCachedVectorTiles == null) {
+                sCachedVectorTiles = new VectorTileCache(context);
+            }
+            return sCachedVectorTiles;
+        }
+    }
+
+    /**
+     * Get the cache of the metadata of the downloaded tiles, creating it first if there isn't
+     * one yet. The metadata is only kept on disk when the tiles are. Once created, the cache
+     * is returned without taking a lock.
+     *
+     * @return TileMetadataCache the cache
+     */
+    public TileMetadataCache getTileMetadataCache() {
+        TileMetadataCache cache = sTileMetadata;
+        if (cache != null) {
+            return cache;
+        }
+        synchronized (MapTileCache.class) {
+            if (sTileMetadata == null) {
+                sTileMetadata = new TileMetadataCache(mDiskCacheEnabled
+                        ? getDiskCacheDir(context, TileMetadataCache.DISK_CACHE_SUBDIR) : null,
+                        TileMetadataCache.DEFAULT_MEMORY_CACHE_COUNT,
+                        TileMetadataCache.DEFAULT_DISK_CACHE_SIZE);
+            }
+            return sTileMetadata;
+        }
+    }
+
+    /**
+     * @return the metadata of a downloaded tile, from memory or disk, null if it is unknown
+     */
+    public TileMetadata getTileMetadata(final MapTile aTile) {
+        return getTileMetadataCache().get(getCacheKey(aTile));
+    }
+
+    /**
+     * Stores the metadata of a tile, and stamps the drawable of the tile in memory with when it
+     * goes stale.
+     */
+    public void putTileMetadata(final MapTile aTile, final TileMetadata metadata) {
+        final String key = getCacheKey(aTile);
+        getTileMetadataCache().put(key, metadata);
+        final CacheableBitmapDrawable drawable = getCache().getFromMemoryCache(key);
+        if (drawable != null) {
+            drawable.setStaleTime(metadata.getStaleTime());
+        }
+    }
+
+    /**
+     * Tells whether a tile is shown past its max age. The stale time is stamped on the drawable
+     * the first time it is asked for, from the metadata in memory, and then read without a lock,
+     * so this is cheap enough to call for every tile drawn.
+     *
+     * @param aTile    the tile
+     * @param drawable the drawable of the tile, from memory
+     * @return true if the tile should be revalidated
+     */
+    public boolean isTileStale(final MapTile aTile, final CacheableBitmapDrawable drawable) {
+        long staleTime = drawable.getStaleTime();
+        if (staleTime == CacheableBitmapDrawable.STALE_TIME_UNKNOWN) {
+            final TileMetadata metadata = getTileMetadataCache().getFromMemory(getCacheKey(aTile));
+            drawable.setStaleTimeIfUnknown(
+                    metadata != null ? metadata.getStaleTime() : Long.MAX_VALUE);
+            staleTime = drawable.getStaleTime();
+        }
+        return System.currentTimeMillis() > staleTime;
+    }
+
     /**
      * Computes a prefixed key for a tile.
      *
@@ -93,6 +191,20 @@ public class MapTileCache implements TileLayerConstants {
         return getCache().getFromMemoryCache(getCacheKey(aTile));
     }
 
+    /**
+     * Same as getMapTileFromMemory(new MapTile(cacheKey, z, x, y)) without creating the tile,
+     * for looking up many tiles on every frame.
+     */
+    public CacheableBitmapDrawable getMapTileFromMemory(final String cacheKey, final int z,
+                                                        final int x, final int y) {
+        final String key;
+        synchronized (mKeyBuilder) {
+            mKeyBuilder.setLength(0);
+            key = MapTile.appendCacheKey(mKeyBuilder, cacheKey, z, x, y).toString();
+        }
+        return getCache().getFromMemoryCache(key);
+    }
+
     public CacheableBitmapDrawable getMapTileFromDisk(final MapTile aTile) {
         return getCache().getFromDiskCache(getCacheKey(aTile), null);
     }
@@ -169,6 +281,7 @@ public class MapTileCache implements TileLayerConstants {
 
     public void removeTile(final MapTile aTile) {
         getCache().remove(getCacheKey(aTile));
+        getTileMetadataCache().remove(getCacheKey(aTile));
     }
 
     public void removeTileFromMemory(final MapTile aTile) {
@@ -178,10 +291,18 @@ public class MapTileCache implements TileLayerConstants {
 
     public void purgeMemoryCache() {
         getCache().purgeMemoryCache();
+        getGridCache().clearMemory();
+        getTileMetadataCache().clearMemory();
+        synchronized (MapTileCache.class) {
+            if (sCachedVectorTiles != null) {
+                sCachedVectorTiles.clearMemory();
+            }
+        }
     }
 
     public void purgeDiskCache() {
         getCache().purgeDiskCache();
+        getTileMetadataCache().clear();
     }
 
     public CacheableBitmapDrawable createCacheableBitmapDrawable(Bitmap bitmap, MapTile aTile) {
@@ -223,6 +344,9 @@ public class MapTileCache implements TileLayerConstants {
         if (mDiskCacheEnabled != enabled) {
             mDiskCacheEnabled = enabled;
             sCachedTiles = null;
+            synchronized (MapTileCache.class) {
+                sTileMetadata = null;
+            }
         }
     }
 
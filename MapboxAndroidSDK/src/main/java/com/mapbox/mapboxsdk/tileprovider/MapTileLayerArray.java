@@ -2,8 +2,10 @@ package com.mapbox.mapboxsdk.tileprovider;
 
 import android.content.Context;
 import android.graphics.drawable.Drawable;
+import com.mapbox.mapboxsdk.api.ILatLng;
 import com.mapbox.mapboxsdk.geometry.BoundingBox;
 import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.metrics.MapMetrics;
 import com.mapbox.mapboxsdk.tileprovider.modules.MapTileModuleLayerBase;
 import com.mapbox.mapboxsdk.tileprovider.modules.NetworkAvailabilityCheck;
 import com.mapbox.mapboxsdk.tileprovider.tilesource.ITileLayer;
@@ -12,6 +14,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import org.json.JSONObject;
 import uk.co.senab.bitmapcache.CacheableBitmapDrawable;
 
 /**
@@ -122,14 +125,34 @@ public class MapTileLayerArray extends MapTileLayerBase {
         CacheableBitmapDrawable tileDrawable = mTileCache.getMapTileFromMemory(pTile);
 
         if (tileDrawable != null && tileDrawable.isBitmapValid() && !BitmapUtils.isCacheDrawableExpired(tileDrawable)) {
-            tileDrawable.setBeingUsed(true);
 //            Log.d(TAG, "Found tile(" + pTile.getCacheKey() + ") in memory, so returning for drawing.");
+            MapMetrics.MEMORY_HITS.increment();
+            if (allowRemote && mTileCache.isTileStale(pTile, tileDrawable)) {
+                // shown as is while it is checked in the background
+                revalidateMapTile(pTile);
+            }
             return tileDrawable;
-        } else if (allowRemote) {
+        }
+        MapMetrics.MEMORY_MISSES.increment();
+        if (allowRemote) {
 //            Log.d(TAG, "Tile not found in memory so will load from remote.");
             boolean alreadyInProgress = false;
+            MapTileRequestState prefetched = null;
             synchronized (mWorking) {
-                alreadyInProgress = mWorking.containsKey(pTile);
+                final MapTileRequestState working = mWorking.get(pTile);
+                alreadyInProgress = working != null;
+                if (working != null && working.isPrefetch()) {
+                    prefetched = working;
+                }
+            }
+
+            if (prefetched != null) {
+                // the tile was prefetched and is now needed
+                prefetched.setPrefetch(false);
+                final MapTileModuleLayerBase provider = prefetched.getCurrentProvider();
+                if (provider != null) {
+                    provider.promoteMapTile(prefetched);
+                }
             }
 
             if (!alreadyInProgress) {
@@ -169,6 +192,77 @@ public class MapTileLayerArray extends MapTileLayerBase {
         return null;
     }
 
+    /**
+     * Requests a tile at low priority if it is neither in memory nor already requested.
+     */
+    @Override
+    public void prefetchMapTile(final MapTile pTile) {
+        if (hasNoSource() || tileUnavailable(pTile)) {
+            return;
+        }
+        final CacheableBitmapDrawable tileDrawable = mTileCache.getMapTileFromMemory(pTile);
+        if (tileDrawable != null && tileDrawable.isBitmapValid()
+                && !BitmapUtils.isCacheDrawableExpired(tileDrawable)) {
+            return;
+        }
+
+        final MapTileRequestState state;
+        synchronized (mTileProviderList) {
+            final MapTileModuleLayerBase[] providerArray = new MapTileModuleLayerBase[mTileProviderList.size()];
+            state = new MapTileRequestState(pTile, mTileProviderList.toArray(providerArray), this);
+        }
+        state.setPrefetch(true);
+
+        synchronized (mWorking) {
+            if (mWorking.containsKey(pTile)) {
+                return;
+            }
+            mWorking.put(pTile, state);
+        }
+
+        final MapTileModuleLayerBase provider = findNextAppropriateProvider(state);
+        if (provider != null) {
+            loadMapTileAsync(provider, state);
+        } else {
+            mapTileRequestFailed(state);
+        }
+    }
+
+    /**
+     * Hands a tile shown past its max age to the providers that download tiles.
+     */
+    private void revalidateMapTile(final MapTile pTile) {
+        if (!useDataConnection() || !networkAvailable()) {
+            return;
+        }
+        synchronized (mTileProviderList) {
+            for (final MapTileModuleLayerBase provider : mTileProviderList) {
+                if (provider.getUsesDataConnection()) {
+                    provider.revalidateMapTile(pTile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands the request to a provider, at low priority if it is a prefetch.
+     */
+    private void loadMapTileAsync(final MapTileModuleLayerBase provider, final MapTileRequestState aState) {
+        if (aState.isPrefetch()) {
+            provider.prefetchMapTileAsync(aState);
+        } else {
+            provider.loadMapTileAsync(aState);
+        }
+    }
+
+    @Override
+    public void mapTileRequestDropped(final MapTileRequestState aState) {
+        synchronized (mWorking) {
+            mWorking.remove(aState.getMapTile());
+        }
+        super.mapTileRequestDropped(aState);
+    }
+
     @Override
     public void mapTileRequestCompleted(final MapTileRequestState aState,
                                         final Drawable aDrawable) {
@@ -182,7 +276,7 @@ public class MapTileLayerArray extends MapTileLayerBase {
     public void mapTileRequestFailed(final MapTileRequestState aState) {
         final MapTileModuleLayerBase nextProvider = findNextAppropriateProvider(aState);
         if (nextProvider != null) {
-            nextProvider.loadMapTileAsync(aState);
+            loadMapTileAsync(nextProvider, aState);
         } else {
             synchronized (mWorking) {
                 mWorking.remove(aState.getMapTile());
@@ -204,7 +298,7 @@ public class MapTileLayerArray extends MapTileLayerBase {
         // Continue through the provider chain
         final MapTileModuleLayerBase nextProvider = findNextAppropriateProvider(aState);
         if (nextProvider != null) {
-            nextProvider.loadMapTileAsync(aState);
+            loadMapTileAsync(nextProvider, aState);
         } else {
             synchronized (mWorking) {
                 mWorking.remove(aState.getMapTile());
@@ -287,6 +381,23 @@ public class MapTileLayerArray extends MapTileLayerBase {
         }
     }
 
+    /**
+     * Looks up the feature in the grids of the tile sources, in the order they are asked for
+     * tiles.
+     */
+    @Override
+    public JSONObject getUTFGridData(final ILatLng position, final float zoomLevel) {
+        synchronized (mTileProviderList) {
+            for (final MapTileModuleLayerBase tileProvider : mTileProviderList) {
+                final JSONObject data = getUTFGridData(tileProvider.getTileSource(), position, zoomLevel);
+                if (data != null) {
+                    return data;
+                }
+            }
+        }
+        return null;
+    }
+
     @Override
     public BoundingBox getBoundingBox() {
         BoundingBox result = null;
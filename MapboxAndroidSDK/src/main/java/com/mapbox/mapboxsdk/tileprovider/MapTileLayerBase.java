@@ -9,11 +9,14 @@ import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
 import android.util.Log;
+import com.mapbox.mapboxsdk.api.ILatLng;
 import com.mapbox.mapboxsdk.geometry.BoundingBox;
 import com.mapbox.mapboxsdk.geometry.LatLng;
 import com.mapbox.mapboxsdk.tileprovider.constants.TileLayerConstants;
 import com.mapbox.mapboxsdk.tileprovider.tilesource.ITileLayer;
+import com.mapbox.mapboxsdk.tileprovider.tilesource.WebSourceTileLayer;
 import com.mapbox.mapboxsdk.util.BitmapUtils;
+import org.json.JSONObject;
 import uk.co.senab.bitmapcache.CacheableBitmapDrawable;
 
 /**
@@ -136,6 +139,31 @@ public abstract class MapTileLayerBase implements IMapTileProviderCallback, Tile
         return mCacheKey;
     }
 
+    /**
+     * Looks up the feature at a position in the UTFGrids loaded along with the tiles. Only
+     * grids in memory are used, without disk or network access, so it is safe on the UI thread.
+     *
+     * @param position  the position, such as the one of a tap
+     * @param zoomLevel the zoom level the map is at
+     * @return the data of the feature, null if there is none or its grid is not loaded
+     */
+    public JSONObject getUTFGridData(final ILatLng position, final float zoomLevel) {
+        return getUTFGridData(mTileSource, position, zoomLevel);
+    }
+
+    protected JSONObject getUTFGridData(final ITileLayer tileSource, final ILatLng position,
+                                        final float zoomLevel) {
+        if (!(tileSource instanceof WebSourceTileLayer)
+                || !((WebSourceTileLayer) tileSource).hasGrids()) {
+            return null;
+        }
+        // tiles, and their grids with them, are loaded at the zoom level rounded down
+        final float zoom = Math.max(tileSource.getMinimumZoomLevel(),
+                Math.min(tileSource.getMaximumZoomLevel(), zoomLevel));
+        return mTileCache.getGridCache().getData(tileSource.getCacheKey(), position,
+                (int) Math.floor(zoom));
+    }
+
     /**
      * Creates a {@link MapTileCache} to be used to cache tiles in memory.
      */
@@ -221,6 +249,29 @@ public abstract class MapTileLayerBase implements IMapTileProviderCallback, Tile
         }
     }
 
+    /**
+     * Called by implementation class methods indicating that a prefetch request was dropped
+     * before it was loaded. Nothing is sent, the tile was not visible.
+     *
+     * @param pState the map tile request state object
+     */
+    @Override
+    public void mapTileRequestDropped(final MapTileRequestState pState) {
+        if (DEBUG_TILE_PROVIDERS) {
+            Log.d(TAG, "MapTileLayerBase.mapTileRequestDropped(): " + pState.getMapTile());
+        }
+    }
+
+    /**
+     * Requests a tile that is likely to become visible soon, such as at the end of a fling or
+     * zoom animation. It is loaded after the tiles requested by getMapTile(), and is moved
+     * ahead of them once getMapTile() asks for it. Does nothing by default.
+     *
+     * @param pTile the tile to load
+     */
+    public void prefetchMapTile(final MapTile pTile) {
+    }
+
     private void putTileIntoCacheInternal(final MapTile pTile, final Drawable pDrawable) {
         mTileCache.putTile(pTile, pDrawable);
     }
@@ -306,6 +357,13 @@ public abstract class MapTileLayerBase implements IMapTileProviderCallback, Tile
         return (mTileCache != null) ? mTileCache.getMapTileFromMemory(pTile) : null;
     }
 
+    /**
+     * @see MapTileCache#getMapTileFromMemory(String, int, int, int)
+     */
+    public CacheableBitmapDrawable getMapTileFromMemory(String cacheKey, int z, int x, int y) {
+        return (mTileCache != null) ? mTileCache.getMapTileFromMemory(cacheKey, z, x, y) : null;
+    }
+
     public CacheableBitmapDrawable createCacheableBitmapDrawable(Bitmap bitmap, MapTile aTile) {
         return (mTileCache != null) ? mTileCache.createCacheableBitmapDrawable(bitmap, aTile)
                 : null;
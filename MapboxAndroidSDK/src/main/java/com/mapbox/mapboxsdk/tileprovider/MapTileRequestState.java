@@ -15,6 +15,7 @@ public class MapTileRequestState {
     private final MapTile mMapTile;
     private final IMapTileProviderCallback mCallback;
     private MapTileModuleLayerBase mCurrentProvider;
+    private volatile boolean mPrefetch;
 
     /**
      * Initialize a new state to keep track of a map tile
@@ -51,4 +52,25 @@ public class MapTileRequestState {
         mCurrentProvider = mProviderQueue.poll();
         return mCurrentProvider;
     }
+
+    /**
+     * Get the provider currently handling the request
+     *
+     * @return the last provider returned by getNextProvider()
+     */
+    public MapTileModuleLayerBase getCurrentProvider() {
+        return mCurrentProvider;
+    }
+
+    /**
+     * @return true if the tile was requested ahead of being visible, and is loaded after the
+     * tiles that are
+     */
+    public boolean isPrefetch() {
+        return mPrefetch;
+    }
+
+    public void setPrefetch(final boolean prefetch) {
+        mPrefetch = prefetch;
+    }
 }
@@ -0,0 +1,163 @@
+package com.mapbox.mapboxsdk.tileprovider;
+
+import android.text.TextUtils;
+
+import java.net.HttpURLConnection;
+import java.util.Locale;
+
+/**
+ * What the server said about a downloaded tile: when it was fetched, for how long it may be
+ * shown without checking it again and the validators to check it with. Immutable.
+ */
+public class TileMetadata {
+
+    /**
+     * The max age of tiles whose server gave no expiry. They are never revalidated.
+     */
+    public static final long NO_MAX_AGE = -1;
+
+    private final long mFetchTime;
+    private final long mMaxAge;
+    private final String mETag;
+    private final String mLastModified;
+
+    /**
+     * @param fetchTime    when the tile was fetched or last revalidated, in milliseconds since
+     *                     the epoch
+     * @param maxAge       how long after fetchTime the tile is fresh, in milliseconds, or
+     *                     {@link #NO_MAX_AGE}
+     * @param eTag         the ETag of the tile, null if there is none
+     * @param lastModified the Last-Modified date of the tile, as served, null if there is none
+     */
+    public TileMetadata(final long fetchTime, final long maxAge, final String eTag,
+                        final String lastModified) {
+        mFetchTime = fetchTime;
+        mMaxAge = maxAge;
+        mETag = eTag;
+        mLastModified = lastModified;
+    }
+
+    /**
+     * Reads the metadata of a tile from the headers of the response that served it. The max
+     * age comes from Cache-Control, "no-cache" making the tile stale at once, or else from
+     * Expires.
+     *
+     * @param connection the connection, once its response has been received
+     * @param now        the current time, in milliseconds since the epoch
+     */
+    public static TileMetadata fromResponse(final HttpURLConnection connection, final long now) {
+        return new TileMetadata(now, getMaxAge(connection, NO_MAX_AGE),
+                connection.getHeaderField("ETag"), connection.getHeaderField("Last-Modified"));
+    }
+
+    /**
+     * @return the metadata of this tile after the server answered a conditional request with
+     * 304 Not Modified. Headers missing from that answer keep their previous value.
+     */
+    public TileMetadata revalidated(final HttpURLConnection connection, final long now) {
+        final String eTag = connection.getHeaderField("ETag");
+        final String lastModified = connection.getHeaderField("Last-Modified");
+        return new TileMetadata(now, getMaxAge(connection, mMaxAge),
+                eTag != null ? eTag : mETag, lastModified != null ? lastModified : mLastModified);
+    }
+
+    private static long getMaxAge(final HttpURLConnection connection, final long defaultMaxAge) {
+        final String cacheControl = connection.getHeaderField("Cache-Control");
+        if (cacheControl != null) {
+            for (String directive : cacheControl.split(",")) {
+                directive = directive.trim().toLowerCase(Locale.US);
+                if (directive.equals("no-cache")) {
+                    return 0;
+                }
+                if (directive.startsWith("max-age=")) {
+                    try {
+                        return Math.max(0, Long.parseLong(directive.substring(8).trim()) * 1000);
+                    } catch (NumberFormatException e) {
+                        // a malformed max-age is ignored
+                    }
+                }
+            }
+        }
+        final long expiration = connection.getExpiration();
+        if (expiration > 0) {
+            final long date = connection.getDate();
+            return Math.max(0, expiration - (date > 0 ? date : System.currentTimeMillis()));
+        }
+        return defaultMaxAge;
+    }
+
+    /**
+     * Makes a request conditional on the tile having changed since it was fetched.
+     */
+    public void addConditions(final HttpURLConnection connection) {
+        if (mETag != null) {
+            connection.setRequestProperty("If-None-Match", mETag);
+        }
+        if (mLastModified != null) {
+            connection.setRequestProperty("If-Modified-Since", mLastModified);
+        }
+    }
+
+    public long getFetchTime() {
+        return mFetchTime;
+    }
+
+    public long getMaxAge() {
+        return mMaxAge;
+    }
+
+    public String getETag() {
+        return mETag;
+    }
+
+    public String getLastModified() {
+        return mLastModified;
+    }
+
+    /**
+     * @return when the tile becomes older than its max age, in milliseconds since the epoch,
+     * Long.MAX_VALUE if it never does
+     */
+    public long getStaleTime() {
+        return mMaxAge == NO_MAX_AGE ? Long.MAX_VALUE : mFetchTime + mMaxAge;
+    }
+
+    /**
+     * @param now the current time, in milliseconds since the epoch
+     * @return true if the tile is older than its max age
+     */
+    public boolean isStale(final long now) {
+        return mMaxAge != NO_MAX_AGE && now - mFetchTime > mMaxAge;
+    }
+
+    /**
+     * @return the metadata as a single line of text, see {@link #decode(String)}
+     */
+    public String encode() {
+        return mFetchTime + "\t" + mMaxAge + "\t" + (mETag != null ? mETag : "") + "\t"
+                + (mLastModified != null ? mLastModified : "");
+    }
+
+    /**
+     * @return the metadata encoded by {@link #encode()}, null if the text is not such metadata
+     */
+    public static TileMetadata decode(final String text) {
+        final String[] fields = text.split("\t", -1);
+        if (fields.length != 4) {
+            return null;
+        }
+        try {
+            return new TileMetadata(Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+                    TextUtils.isEmpty(fields[2]) ? null : fields[2],
+                    TextUtils.isEmpty(fields[3]) ? null : fields[3]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TileMetadata [fetched=" + mFetchTime + ", maxAge=" + mMaxAge + ", eTag=" + mETag
+                + ", lastModified=" + mLastModified + "]";
+    }
+}
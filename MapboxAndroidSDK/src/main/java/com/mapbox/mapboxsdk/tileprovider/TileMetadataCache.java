@@ -0,0 +1,135 @@
+package com.mapbox.mapboxsdk.tileprovider;
+
+import android.support.v4.util.LruCache;
+import android.util.Log;
+
+import com.jakewharton.disklrucache.DiskLruCache;
+import com.mapbox.mapboxsdk.tileprovider.util.LazyDiskCache;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The {@link TileMetadata} of the downloaded tiles, keyed by the same cache key as their
+ * bitmaps. The bitmap cache only stores the bitmaps, so the metadata is kept in a memory cache
+ * bounded by count and in a disk cache of its own next to the tile cache.
+ * <p/>
+ * The tiles shown ask for their metadata on every frame, through {@link #getFromMemory(String)}
+ * which never touches the disk. The metadata of a tile is read from disk when the tile is.
+ */
+public class TileMetadataCache {
+
+    private static final String TAG = "TileMetadataCache";
+    public static final String DISK_CACHE_SUBDIR = "mapbox_tile_metadata_cache";
+    public static final int DEFAULT_MEMORY_CACHE_COUNT = 1024;
+    public static final long DEFAULT_DISK_CACHE_SIZE = 4 * 1024 * 1024;
+
+    private final LruCache<String, TileMetadata> mMemoryCache;
+    private final LazyDiskCache mDiskCache;
+
+    /**
+     * @param diskCacheDir   the directory of the disk cache, null for no disk cache
+     * @param memoryMaxCount the number of tiles whose metadata is kept in memory
+     * @param diskMaxSize    the size of the disk cache, in bytes
+     */
+    public TileMetadataCache(final File diskCacheDir, final int memoryMaxCount,
+                             final long diskMaxSize) {
+        mDiskCache = new LazyDiskCache(diskCacheDir, diskMaxSize, "tile metadata");
+        mMemoryCache = new LruCache<String, TileMetadata>(memoryMaxCount);
+    }
+
+    /**
+     * @return the metadata if it is in memory, null otherwise. Does not touch the disk.
+     */
+    public TileMetadata getFromMemory(final String key) {
+        return mMemoryCache.get(key);
+    }
+
+    /**
+     * @return the metadata from memory, or from the disk cache, null if it is in neither
+     */
+    public TileMetadata get(final String key) {
+        TileMetadata metadata = mMemoryCache.get(key);
+        if (metadata != null) {
+            return metadata;
+        }
+        final DiskLruCache diskCache = mDiskCache.get();
+        if (diskCache == null) {
+            return null;
+        }
+        DiskLruCache.Snapshot snapshot = null;
+        try {
+            snapshot = diskCache.get(LazyDiskCache.getKey(key));
+            if (snapshot == null) {
+                return null;
+            }
+            metadata = TileMetadata.decode(snapshot.getString(0));
+            if (metadata != null) {
+                mMemoryCache.put(key, metadata);
+            }
+            return metadata;
+        } catch (IOException e) {
+            Log.w(TAG, "Error reading tile metadata " + key + " from disk: " + e);
+        } finally {
+            if (snapshot != null) {
+                snapshot.close();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores the metadata of a tile in memory and on disk.
+     */
+    public void put(final String key, final TileMetadata metadata) {
+        mMemoryCache.put(key, metadata);
+        final DiskLruCache diskCache = mDiskCache.get();
+        if (diskCache != null) {
+            DiskLruCache.Editor editor = null;
+            try {
+                editor = diskCache.edit(LazyDiskCache.getKey(key));
+                if (editor != null) {
+                    editor.set(0, metadata.encode());
+                    editor.commit();
+                }
+            } catch (IOException e) {
+                Log.w(TAG, "Error writing tile metadata " + key + " to disk: " + e);
+            } finally {
+                if (editor != null) {
+                    editor.abortUnlessCommitted();
+                }
+            }
+        }
+    }
+
+    public void remove(final String key) {
+        mMemoryCache.remove(key);
+        final DiskLruCache diskCache = mDiskCache.get();
+        if (diskCache != null) {
+            try {
+                diskCache.remove(LazyDiskCache.getKey(key));
+            } catch (IOException e) {
+                Log.w(TAG, "Error removing tile metadata " + key + " from disk: " + e);
+            }
+        }
+    }
+
+    /**
+     * Empties the memory cache, the disk cache is kept.
+     */
+    public void clearMemory() {
+        mMemoryCache.evictAll();
+    }
+
+    /**
+     * Empties the memory and the disk cache.
+     */
+    public void clear() {
+        mMemoryCache.evictAll();
+        try {
+            mDiskCache.delete();
+        } catch (IOException e) {
+            Log.w(TAG, "Error deleting tile metadata disk cache: " + e);
+        }
+    }
+}
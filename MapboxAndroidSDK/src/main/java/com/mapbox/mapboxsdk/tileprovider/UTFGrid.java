@@ -0,0 +1,127 @@
+package com.mapbox.mapboxsdk.tileprovider;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * A decoded <a href="https://github.com/mapbox/utfgrid-spec">UTFGrid</a>: the feature under
+ * every cell of a tile. Cells hold indexes into the key table in a single short array, and the
+ * data of every key is resolved once, so a lookup is two array reads.
+ */
+public class UTFGrid {
+
+    private final int mSize;
+    private final short[] mCells;
+    private final String[] mKeys;
+    private final JSONObject[] mData;
+    private final int mMemorySize;
+
+    private UTFGrid(final int size, final short[] cells, final String[] keys,
+                    final JSONObject[] data, final int memorySize) {
+        mSize = size;
+        mCells = cells;
+        mKeys = keys;
+        mData = data;
+        mMemorySize = memorySize;
+    }
+
+    /**
+     * @param json the grid as served, optionally wrapped in a JSONP callback
+     * @return the decoded grid
+     * @throws JSONException if this is not a square UTFGrid
+     */
+    public static UTFGrid decode(String json) throws JSONException {
+        json = json.trim();
+        final int open = json.indexOf('(');
+        if (!json.startsWith("{") && open >= 0 && json.lastIndexOf(')') > open) {
+            json = json.substring(open + 1, json.lastIndexOf(')'));
+        }
+        final JSONObject object = new JSONObject(json);
+        final JSONArray grid = object.getJSONArray("grid");
+        final JSONArray keyArray = object.getJSONArray("keys");
+        final JSONObject dataObject = object.optJSONObject("data");
+
+        final int size = grid.length();
+        final short[] cells = new short[size * size];
+        for (int row = 0; row < size; row++) {
+            final String line = grid.getString(row);
+            if (line.length() != size) {
+                throw new JSONException("UTFGrid row " + row + " has " + line.length()
+                        + " cells instead of " + size);
+            }
+            for (int column = 0; column < size; column++) {
+                final int id = decodeId(line.charAt(column));
+                if (id < 0 || id >= keyArray.length() || id > Short.MAX_VALUE) {
+                    throw new JSONException("UTFGrid cell refers to missing key " + id);
+                }
+                cells[row * size + column] = (short) id;
+            }
+        }
+
+        final String[] keys = new String[keyArray.length()];
+        final JSONObject[] data = new JSONObject[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = keyArray.getString(i);
+            if (dataObject != null && keys[i].length() > 0) {
+                data[i] = dataObject.optJSONObject(keys[i]);
+            }
+        }
+        return new UTFGrid(size, cells, keys, data, cells.length * 2 + json.length() * 2);
+    }
+
+    /**
+     * Decodes a cell, the spec skips '"' and '\' and starts at ' '.
+     */
+    static int decodeId(final char c) {
+        int id = c;
+        if (id >= 93) {
+            id--;
+        }
+        if (id >= 35) {
+            id--;
+        }
+        return id - 32;
+    }
+
+    /**
+     * @return the number of cells along each side of the tile
+     */
+    public int getSize() {
+        return mSize;
+    }
+
+    /**
+     * @param x the horizontal position in the tile, from 0 at its left to 1 at its right
+     * @param y the vertical position in the tile, from 0 at its top to 1 at its bottom
+     * @return the key of the feature at this position, null if there is none
+     */
+    public String getKey(final double x, final double y) {
+        final int id = getId(x, y);
+        return id < 0 || mKeys[id].length() == 0 ? null : mKeys[id];
+    }
+
+    /**
+     * @param x the horizontal position in the tile, from 0 at its left to 1 at its right
+     * @param y the vertical position in the tile, from 0 at its top to 1 at its bottom
+     * @return the data of the feature at this position, null if there is none
+     */
+    public JSONObject getData(final double x, final double y) {
+        final int id = getId(x, y);
+        return id < 0 ? null : mData[id];
+    }
+
+    private int getId(final double x, final double y) {
+        if (mSize == 0 || x < 0 || y < 0 || x >= 1 || y >= 1) {
+            return -1;
+        }
+        return mCells[(int) (y * mSize) * mSize + (int) (x * mSize)];
+    }
+
+    /**
+     * @return an estimate of the memory held by this grid, in bytes
+     */
+    int getMemorySize() {
+        return mMemorySize;
+    }
+}
@@ -0,0 +1,178 @@
+package com.mapbox.mapboxsdk.tileprovider;
+
+import android.content.Context;
+import android.graphics.PointF;
+import android.support.v4.util.LruCache;
+import android.util.Log;
+
+import com.jakewharton.disklrucache.DiskLruCache;
+import com.mapbox.mapboxsdk.api.ILatLng;
+import com.mapbox.mapboxsdk.tileprovider.util.LazyDiskCache;
+import com.mapbox.mapboxsdk.views.util.Projection;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The UTFGrids of the tiles, decoded in a memory cache bounded by size, and as downloaded in a
+ * disk cache of their own. Grids are keyed by the cache key of their layer and the tile,
+ * see {@link #getKey(String, MapTile)}.
+ */
+public class UTFGridCache {
+
+    private static final String TAG = "UTFGridCache";
+    private static final String DISK_CACHE_SUBDIR = "mapbox_utfgrid_cache";
+    public static final int DEFAULT_MEMORY_CACHE_SIZE = 2 * 1024 * 1024;
+    public static final long DEFAULT_DISK_CACHE_SIZE = 8 * 1024 * 1024;
+
+    private final LruCache<String, UTFGrid> mMemoryCache;
+    private final LazyDiskCache mDiskCache;
+
+    public UTFGridCache(final Context context) {
+        this(MapTileCache.getDiskCacheDir(context, DISK_CACHE_SUBDIR), DEFAULT_MEMORY_CACHE_SIZE,
+                DEFAULT_DISK_CACHE_SIZE);
+    }
+
+    /**
+     * @param diskCacheDir  the directory of the disk cache, null for no disk cache
+     * @param memoryMaxSize the size of the memory cache, in bytes
+     * @param diskMaxSize   the size of the disk cache, in bytes
+     */
+    public UTFGridCache(final File diskCacheDir, final int memoryMaxSize, final long diskMaxSize) {
+        mDiskCache = new LazyDiskCache(diskCacheDir, diskMaxSize, "UTFGrid");
+        mMemoryCache = new LruCache<String, UTFGrid>(memoryMaxSize) {
+            @Override
+            protected int sizeOf(final String key, final UTFGrid value) {
+                return value.getMemorySize();
+            }
+        };
+    }
+
+    /**
+     * @param layerCacheKey the cache key of the layer serving the grid
+     * @param tile          the tile
+     * @return the key of the grid of this tile
+     */
+    public static String getKey(final String layerCacheKey, final MapTile tile) {
+        return layerCacheKey + "/" + tile;
+    }
+
+    /**
+     * @return the grid if it is decoded in memory, null otherwise. Does not touch the disk.
+     */
+    public UTFGrid getFromMemory(final String key) {
+        return mMemoryCache.get(key);
+    }
+
+    /**
+     * Reads and decodes the grid from the disk cache if it is not in memory, so only call it off
+     * the UI thread.
+     *
+     * @return the grid from memory, or decoded from the disk cache, null if it is in neither
+     */
+    public UTFGrid get(final String key) {
+        UTFGrid grid = mMemoryCache.get(key);
+        if (grid != null) {
+            return grid;
+        }
+        final DiskLruCache diskCache = mDiskCache.get();
+        if (diskCache == null) {
+            return null;
+        }
+        DiskLruCache.Snapshot snapshot = null;
+        try {
+            snapshot = diskCache.get(LazyDiskCache.getKey(key));
+            if (snapshot == null) {
+                return null;
+            }
+            grid = UTFGrid.decode(snapshot.getString(0));
+            mMemoryCache.put(key, grid);
+            return grid;
+        } catch (IOException e) {
+            Log.w(TAG, "Error reading UTFGrid " + key + " from disk: " + e);
+        } catch (JSONException e) {
+            Log.w(TAG, "Dropping corrupt UTFGrid " + key + ": " + e);
+            remove(key);
+        } finally {
+            if (snapshot != null) {
+                snapshot.close();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decodes a downloaded grid and stores it in memory and on disk.
+     *
+     * @param json the grid as served
+     * @return the decoded grid
+     * @throws JSONException if the grid cannot be decoded, nothing is stored then
+     */
+    public UTFGrid put(final String key, final String json) throws JSONException {
+        final UTFGrid grid = UTFGrid.decode(json);
+        mMemoryCache.put(key, grid);
+        final DiskLruCache diskCache = mDiskCache.get();
+        if (diskCache != null) {
+            DiskLruCache.Editor editor = null;
+            try {
+                editor = diskCache.edit(LazyDiskCache.getKey(key));
+                if (editor != null) {
+                    editor.set(0, json);
+                    editor.commit();
+                }
+            } catch (IOException e) {
+                Log.w(TAG, "Error writing UTFGrid " + key + " to disk: " + e);
+            } finally {
+                if (editor != null) {
+                    editor.abortUnlessCommitted();
+                }
+            }
+        }
+        return grid;
+    }
+
+    public void remove(final String key) {
+        mMemoryCache.remove(key);
+        final DiskLruCache diskCache = mDiskCache.get();
+        if (diskCache != null) {
+            try {
+                diskCache.remove(LazyDiskCache.getKey(key));
+            } catch (IOException e) {
+                Log.w(TAG, "Error removing UTFGrid " + key + " from disk: " + e);
+            }
+        }
+    }
+
+    /**
+     * Empties the memory cache, the disk cache is kept.
+     */
+    public void clearMemory() {
+        mMemoryCache.evictAll();
+    }
+
+    /**
+     * Looks up the feature at a position in the grid of the tile containing it. Only the memory
+     * cache is used, so that this can answer a tap on the UI thread; the grids of the tiles being
+     * loaded are brought into memory by the tile loaders.
+     *
+     * @param layerCacheKey the cache key of the layer serving the grids
+     * @param position      the position to look up
+     * @param zoom          the zoom level of the grid
+     * @return the data of the feature, null if there is none or the grid is not in memory
+     */
+    public JSONObject getData(final String layerCacheKey, final ILatLng position, final int zoom) {
+        final PointF pixel = Projection.latLongToPixelXY(position.getLatitude(),
+                position.getLongitude(), zoom, null);
+        final float tileSize = Projection.getTileSize();
+        final int tileX = (int) (pixel.x / tileSize);
+        final int tileY = (int) (pixel.y / tileSize);
+        final UTFGrid grid = getFromMemory(layerCacheKey + "/" + zoom + "/" + tileX + "/" + tileY);
+        if (grid == null) {
+            return null;
+        }
+        return grid.getData(pixel.x / tileSize - tileX, pixel.y / tileSize - tileY);
+    }
+}
@@ -1,19 +1,27 @@
 package com.mapbox.mapboxsdk.tileprovider.modules;
 
 import android.graphics.drawable.Drawable;
+import android.support.v4.util.LruCache;
 import android.util.Log;
 import com.mapbox.mapboxsdk.geometry.BoundingBox;
 import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.metrics.MapMetrics;
 import com.mapbox.mapboxsdk.tileprovider.MapTile;
 import com.mapbox.mapboxsdk.tileprovider.MapTileCache;
 import com.mapbox.mapboxsdk.tileprovider.MapTileRequestState;
+import com.mapbox.mapboxsdk.tileprovider.TileMetadata;
 import com.mapbox.mapboxsdk.tileprovider.tilesource.ITileLayer;
 import com.mapbox.mapboxsdk.tileprovider.tilesource.MBTilesLayer;
 import com.mapbox.mapboxsdk.tileprovider.tilesource.TileLayer;
+import com.mapbox.mapboxsdk.tileprovider.tilesource.WebSourceTileLayer;
 import com.mapbox.mapboxsdk.util.AppUtils;
 import com.mapbox.mapboxsdk.views.MapView;
 import com.mapbox.mapboxsdk.views.util.TileLoadedListener;
 import com.mapbox.mapboxsdk.views.util.TilesLoadedListener;
+import java.util.HashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
 import uk.co.senab.bitmapcache.CacheableBitmapDrawable;
 
@@ -23,6 +31,11 @@ import uk.co.senab.bitmapcache.CacheableBitmapDrawable;
 public class MapTileDownloader extends MapTileModuleLayerBase {
     private static final String TAG = "MapTileDownloader";
 
+    /**
+     * How long a tile that could not be revalidated is shown before it is tried again.
+     */
+    private static final long REVALIDATION_RETRY_INTERVAL = 60 * 1000;
+
     private final AtomicReference<TileLayer> mTileSource = new AtomicReference<>();
     private final AtomicReference<MapTileCache> mTileCache = new AtomicReference<>();
 
@@ -30,6 +43,17 @@ public class MapTileDownloader extends MapTileModuleLayerBase {
     private MapView mMapView;
     private boolean mUseDataConnection;
     boolean hdpi;
+    private final float mDensity;
+
+    private final ExecutorService mRevalidationExecutor = Executors.newSingleThreadExecutor(
+            new ConfigurablePriorityThreadFactory(Thread.MIN_PRIORITY, "revalidator"));
+    private final HashSet<MapTile> mRevalidating = new HashSet<>();
+    private final LruCache<MapTile, Long> mRevalidationAttempts =
+            new LruCache<>(TILE_DOWNLOAD_MAXIMUM_QUEUE_SIZE * 8);
+
+    private final ExecutorService mGridExecutor = Executors.newSingleThreadExecutor(
+            new ConfigurablePriorityThreadFactory(Thread.MIN_PRIORITY, "UTFGridLoader"));
+    private final HashSet<MapTile> mGridLoading = new HashSet<>();
 
     public MapTileDownloader(final ITileLayer pTileSource, final MapTileCache pTileCache,
                              final NetworkAvailabilityCheck pNetworkAvailabilityCheck, final MapView mapView) {
@@ -42,6 +66,7 @@ public class MapTileDownloader extends MapTileModuleLayerBase {
         mTileCache.set(pTileCache);
 
         hdpi = AppUtils.isRunningOn2xOrGreaterScreen(mapView.getContext());
+        mDensity = mapView.getContext().getResources().getDisplayMetrics().density;
         Log.d(TAG, String.format("Going to use @2x tiles? '%b'", hdpi));
 
         mNetworkAvailabilityCheck = pNetworkAvailabilityCheck;
@@ -56,6 +81,13 @@ public class MapTileDownloader extends MapTileModuleLayerBase {
         return mTileCache.get();
     }
 
+    /**
+     * @return the scale from density independent pixels to the pixels of the screen
+     */
+    public float getDisplayDensity() {
+        return mDensity;
+    }
+
     public boolean isNetworkAvailable() {
         return (mNetworkAvailabilityCheck == null
                 || mNetworkAvailabilityCheck.getNetworkAvailable());
@@ -146,6 +178,67 @@ public class MapTileDownloader extends MapTileModuleLayerBase {
         return (tileLayer != null) ? tileLayer.getCacheKey() : "";
     }
 
+    /**
+     * Queues a conditional request for a tile shown past its max age, on a single low priority
+     * thread so that revalidation never competes with the tiles being loaded. A tile is only
+     * queued once at a time, and not again within {@link #REVALIDATION_RETRY_INTERVAL} of its
+     * last attempt.
+     */
+    @Override
+    public void revalidateMapTile(final MapTile pTile) {
+        if (!(mTileSource.get() instanceof WebSourceTileLayer) || !isNetworkAvailable()) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        synchronized (mRevalidating) {
+            final Long lastAttempt = mRevalidationAttempts.get(pTile);
+            if (mRevalidating.size() >= TILE_DOWNLOAD_MAXIMUM_QUEUE_SIZE
+                    || mRevalidating.contains(pTile)
+                    || (lastAttempt != null && now - lastAttempt < REVALIDATION_RETRY_INTERVAL)) {
+                return;
+            }
+            mRevalidating.add(pTile);
+            mRevalidationAttempts.put(pTile, now);
+        }
+        try {
+            mRevalidationExecutor.execute(new TileRevalidator(pTile));
+        } catch (final RejectedExecutionException e) {
+            synchronized (mRevalidating) {
+                mRevalidating.remove(pTile);
+            }
+        }
+    }
+
+    /**
+     * Queues the loading of the UTFGrid of a tile on a single low priority thread of its own, so
+     * that grids never hold up the tile loaders. A tile is only queued once at a time.
+     */
+    private void loadGrid(final WebSourceTileLayer tileLayer, final MapTile pTile) {
+        if (!tileLayer.hasGrids()) {
+            return;
+        }
+        synchronized (mGridLoading) {
+            if (mGridLoading.size() >= TILE_DOWNLOAD_MAXIMUM_QUEUE_SIZE
+                    || !mGridLoading.add(pTile)) {
+                return;
+            }
+        }
+        try {
+            mGridExecutor.execute(new GridLoader(tileLayer, pTile));
+        } catch (final RejectedExecutionException e) {
+            synchronized (mGridLoading) {
+                mGridLoading.remove(pTile);
+            }
+        }
+    }
+
+    @Override
+    public void detach() {
+        super.detach();
+        mRevalidationExecutor.shutdownNow();
+        mGridExecutor.shutdownNow();
+    }
+
     protected class TileLoader extends MapTileModuleLayerBase.TileLoader {
 
         @Override
@@ -154,8 +247,15 @@ public class MapTileDownloader extends MapTileModuleLayerBase {
 //            Log.d(TAG, "loadTile() with tile = '" + tile + "'");
             if (mTileCache != null && mTileCache.get().containsTileInDiskCache(tile)) {
 //                Log.d(TAG, "tile found in Disk Cache, so returning it. tile = '" + tile + "'");
+                MapMetrics.DISK_HITS.increment();
+                // stale tiles are shown while they are revalidated
+                final TileMetadata metadata = mTileCache.get().getTileMetadata(tile);
+                if (metadata != null && metadata.isStale(System.currentTimeMillis())) {
+                    revalidateMapTile(tile);
+                }
                 return mTileCache.get().getMapTileFromDisk(tile);
             }
+            MapMetrics.DISK_MISSES.increment();
             TileLayer tileLayer = mTileSource.get();
             Drawable result =
                     (tileLayer != null) ? tileLayer.getDrawableFromTile(MapTileDownloader.this,
@@ -163,6 +263,70 @@ public class MapTileDownloader extends MapTileModuleLayerBase {
 //            Log.d(TAG, "tileLayer.getDrawable() returning result = '" + result + "'");
             return result;
         }
+
+        /**
+         * Once the tile has been handed over, queues the loading of its UTFGrid, so that taps
+         * on the tile can be answered from the cache.
+         */
+        @Override
+        protected void tileLoaded(final MapTileRequestState pState, final Drawable pDrawable) {
+            super.tileLoaded(pState, pDrawable);
+            final TileLayer tileLayer = mTileSource.get();
+            if (tileLayer instanceof WebSourceTileLayer) {
+                loadGrid((WebSourceTileLayer) tileLayer, pState.getMapTile());
+            }
+        }
+    }
+
+    /**
+     * Revalidates a tile, and draws the map again if the tile changed.
+     */
+    private class TileRevalidator implements Runnable {
+        private final MapTile mTile;
+
+        TileRevalidator(final MapTile tile) {
+            mTile = tile;
+        }
+
+        @Override
+        public void run() {
+            try {
+                final TileLayer tileLayer = mTileSource.get();
+                if (tileLayer instanceof WebSourceTileLayer && isNetworkAvailable()
+                        && ((WebSourceTileLayer) tileLayer).revalidateTile(MapTileDownloader.this,
+                        mTile, hdpi)) {
+                    mMapView.postInvalidate();
+                }
+            } finally {
+                synchronized (mRevalidating) {
+                    mRevalidating.remove(mTile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads the UTFGrid of a tile into the grid cache.
+     */
+    private class GridLoader implements Runnable {
+        private final WebSourceTileLayer mTileLayer;
+        private final MapTile mTile;
+
+        GridLoader(final WebSourceTileLayer tileLayer, final MapTile tile) {
+            mTileLayer = tileLayer;
+            mTile = tile;
+        }
+
+        @Override
+        public void run() {
+            try {
+                mTileLayer.loadGridForTile(MapTileDownloader.this, mTile);
+            } finally {
+                synchronized (mGridLoading) {
+                    mGridLoading.remove(mTile);
+                }
+            }
+        }
     }
 
     private CacheableBitmapDrawable onTileLoaded(CacheableBitmapDrawable pDrawable) {
@@ -5,6 +5,8 @@ import android.os.Process;
 import android.util.Log;
 import com.mapbox.mapboxsdk.geometry.BoundingBox;
 import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.metrics.Gauge;
+import com.mapbox.mapboxsdk.metrics.MapMetrics;
 import com.mapbox.mapboxsdk.tileprovider.MapTile;
 import com.mapbox.mapboxsdk.tileprovider.MapTileRequestState;
 import com.mapbox.mapboxsdk.tileprovider.constants.TileLayerConstants;
@@ -116,11 +118,23 @@ public abstract class MapTileModuleLayerBase implements TileLayerConstants {
     protected final Object mQueueLockObject = new Object();
     protected final HashMap<MapTile, MapTileRequestState> mWorking;
     protected final LinkedHashMap<MapTile, MapTileRequestState> mPending;
+    /**
+     * Prefetch requests, only taken once mPending is empty. The oldest are dropped when it
+     * holds more than the pending queue size.
+     */
+    protected final LinkedHashMap<MapTile, MapTileRequestState> mPrefetchPending;
+
+    private Gauge mPendingGauge;
+    private Gauge mPrefetchGauge;
+    private Gauge mWorkingGauge;
 
     public MapTileRequestState popFirstPending() {
         for (MapTile tile : mPending.keySet()) {
             return mPending.remove(tile);
         }
+        for (MapTile tile : mPrefetchPending.keySet()) {
+            return mPrefetchPending.remove(tile);
+        }
         return null;
     }
 
@@ -154,6 +168,22 @@ public abstract class MapTileModuleLayerBase implements TileLayerConstants {
                         return false;
                     }
                 };
+        mPrefetchPending =
+                new LinkedHashMap<MapTile, MapTileRequestState>(pPendingQueueSize + 2, 0.1f, true) {
+
+                    private static final long serialVersionUID = -2140425137480153245L;
+
+                    @Override
+                    protected boolean removeEldestEntry(
+                            final Map.Entry<MapTile, MapTileRequestState> pEldest) {
+                        if (size() > pPendingQueueSize) {
+                            final MapTileRequestState state = pEldest.getValue();
+                            remove(pEldest.getKey());
+                            state.getCallback().mapTileRequestDropped(state);
+                        }
+                        return false;
+                    }
+                };
     }
 
     /**
@@ -171,7 +201,9 @@ public abstract class MapTileModuleLayerBase implements TileLayerConstants {
 */
             // this will put the tile in the queue, or move it to the front of
             // the queue if it's already present
+            mPrefetchPending.remove(pState.getMapTile());
             mPending.put(pState.getMapTile(), pState);
+            updateQueueMetrics();
         }
 
         try {
@@ -182,13 +214,74 @@ public abstract class MapTileModuleLayerBase implements TileLayerConstants {
     }
 
     /**
-     * Clears both pending and working queues.
+     * Queues a tile that is not visible yet, to be loaded once no visible tile is pending.
+     */
+    public void prefetchMapTileAsync(final MapTileRequestState pState) {
+        synchronized (mQueueLockObject) {
+            if (mPending.containsKey(pState.getMapTile())) {
+                return;
+            }
+            mPrefetchPending.put(pState.getMapTile(), pState);
+            updateQueueMetrics();
+        }
+
+        try {
+            mExecutor.execute(getTileLoader());
+        } catch (final RejectedExecutionException e) {
+            Log.w(TAG, "RejectedExecutionException", e);
+        }
+    }
+
+    /**
+     * Moves a prefetched tile that has become visible ahead of the other prefetched tiles, to
+     * the queue of visible tiles. Does nothing if it is already being loaded.
+     */
+    public void promoteMapTile(final MapTileRequestState pState) {
+        synchronized (mQueueLockObject) {
+            if (mPrefetchPending.remove(pState.getMapTile()) == null) {
+                return;
+            }
+            mPending.put(pState.getMapTile(), pState);
+            updateQueueMetrics();
+        }
+    }
+
+    /**
+     * Asks for a cached tile that is shown past its max age to be checked against its source,
+     * in the background. The cached tile keeps being shown meanwhile and is replaced if it
+     * changed. Does nothing for providers that do not download tiles.
+     */
+    public void revalidateMapTile(final MapTile pTile) {
+    }
+
+    /**
+     * Clears the pending, prefetch and working queues.
      */
     protected void clearQueue() {
         synchronized (mQueueLockObject) {
             mPending.clear();
+            mPrefetchPending.clear();
             mWorking.clear();
+            updateQueueMetrics();
+        }
+    }
+
+    /**
+     * Publishes the lengths of the queues to the metrics. Must be called holding
+     * mQueueLockObject.
+     */
+    private void updateQueueMetrics() {
+        if (!MapMetrics.isEnabled()) {
+            return;
+        }
+        if (mPendingGauge == null) {
+            mPendingGauge = MapMetrics.gauge(MapMetrics.TILES_QUEUE_PENDING_PREFIX + getName());
+            mPrefetchGauge = MapMetrics.gauge(MapMetrics.TILES_QUEUE_PREFETCH_PREFIX + getName());
+            mWorkingGauge = MapMetrics.gauge(MapMetrics.TILES_QUEUE_WORKING_PREFIX + getName());
         }
+        mPendingGauge.set(mPending.size());
+        mPrefetchGauge.set(mPrefetchPending.size());
+        mWorkingGauge.set(mWorking.size());
     }
 
     /**
@@ -211,7 +304,9 @@ public abstract class MapTileModuleLayerBase implements TileLayerConstants {
                         + mapTile);
             }
             mPending.remove(mapTile);
+            mPrefetchPending.remove(mapTile);
             mWorking.remove(mapTile);
+            updateQueueMetrics();
         }
     }
 
@@ -249,6 +344,7 @@ public abstract class MapTileModuleLayerBase implements TileLayerConstants {
                 MapTileRequestState state = popFirstPending();
                 if (state != null) {
                     mWorking.put(state.getMapTile(), state);
+                    updateQueueMetrics();
                     if (DEBUG_TILE_PROVIDERS) {
                         Log.d(TAG, "TileLoader.nextTile() on provider: "
                                 + getName()
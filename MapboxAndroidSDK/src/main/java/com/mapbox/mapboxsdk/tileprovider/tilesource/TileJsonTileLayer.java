@@ -56,6 +56,10 @@ public class TileJsonTileLayer extends WebSourceTileLayer {
                     Log.e(TAG, "Couldn't set tile url", e);
                 }
             }
+            JSONArray grids = this.tileJSON.optJSONArray("grids");
+            if (grids != null && grids.length() > 0) {
+                setGridURL(grids.optString(0, null));
+            }
             mMinimumZoomLevel = getJSONFloat(this.tileJSON, "minzoom");
             mMaximumZoomLevel = getJSONFloat(this.tileJSON, "maxzoom");
             mName = this.tileJSON.optString("name");
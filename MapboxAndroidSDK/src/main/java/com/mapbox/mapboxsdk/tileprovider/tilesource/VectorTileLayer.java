@@ -0,0 +1,152 @@
+package com.mapbox.mapboxsdk.tileprovider.tilesource;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.text.TextUtils;
+import android.util.Log;
+
+import com.mapbox.mapboxsdk.metrics.MapMetrics;
+import com.mapbox.mapboxsdk.tileprovider.MapTile;
+import com.mapbox.mapboxsdk.tileprovider.modules.MapTileDownloader;
+import com.mapbox.mapboxsdk.tileprovider.util.StreamUtils;
+import com.mapbox.mapboxsdk.tileprovider.vector.VectorTile;
+import com.mapbox.mapboxsdk.tileprovider.vector.VectorTileCache;
+import com.mapbox.mapboxsdk.tileprovider.vector.VectorTileRenderer;
+import com.mapbox.mapboxsdk.tileprovider.vector.VectorTileStyle;
+import com.mapbox.mapboxsdk.util.NetworkUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import uk.co.senab.bitmapcache.CacheableBitmapDrawable;
+
+/**
+ * An implementation of {@link TileLayer} that downloads
+ * <a href="https://github.com/mapbox/vector-tile-spec">Mapbox Vector Tiles</a> and draws them
+ * with a {@link VectorTileStyle}.
+ * <p/>
+ * Tiles are drawn on the tile download threads, at the size of the tiles on screen, into the
+ * bitmap cache like any other tile. The vector tiles are kept in a cache of their own, so that
+ * a new style only draws them again. Above the deepest zoom level of the source, see
+ * {@link #setSourceMaximumZoomLevel(int)}, tiles are drawn from a part of the tile at that zoom
+ * level instead of being stretched.
+ */
+public class VectorTileLayer extends WebSourceTileLayer {
+    private static final String TAG = "VectorTileLayer";
+
+    private volatile VectorTileStyle mStyle = VectorTileStyle.createDefault();
+    private volatile int mSourceMaximumZoomLevel = -1;
+
+    public VectorTileLayer(final String pId, final String url) {
+        this(pId, url, false);
+    }
+
+    public VectorTileLayer(final String pId, final String url, final boolean enableSSL) {
+        super(pId, url, enableSSL);
+    }
+
+    /**
+     * Sets the style tiles are drawn with. Tiles already drawn stay cached under the previous
+     * style, invalidate the map view to draw the new one.
+     */
+    public VectorTileLayer setStyle(final VectorTileStyle style) {
+        mStyle = style;
+        return this;
+    }
+
+    public VectorTileStyle getStyle() {
+        return mStyle;
+    }
+
+    /**
+     * Sets the deepest zoom level the source serves tiles for. Deeper tiles, up to the maximum
+     * zoom level of the layer, are drawn from the part of the tile at this zoom level that
+     * covers them.
+     *
+     * @param zoomLevel the zoom level, -1 to request every tile from the source
+     */
+    public VectorTileLayer setSourceMaximumZoomLevel(final int zoomLevel) {
+        mSourceMaximumZoomLevel = zoomLevel;
+        return this;
+    }
+
+    public int getSourceMaximumZoomLevel() {
+        return mSourceMaximumZoomLevel;
+    }
+
+    /**
+     * Tiles drawn with different styles are cached apart.
+     */
+    @Override
+    public String getCacheKey() {
+        return mCacheKey + "@" + mStyle.getName();
+    }
+
+    @Override
+    public CacheableBitmapDrawable getDrawableFromTile(final MapTileDownloader downloader,
+            final MapTile aTile, boolean hdpi) {
+        final int sourceMaximumZoomLevel = mSourceMaximumZoomLevel;
+        final int overzoom = sourceMaximumZoomLevel >= 0 && aTile.getZ() > sourceMaximumZoomLevel
+                ? aTile.getZ() - sourceMaximumZoomLevel : 0;
+        final VectorTile vectorTile = getVectorTile(downloader, new MapTile(mCacheKey,
+                aTile.getZ() - overzoom, aTile.getX() >> overzoom, aTile.getY() >> overzoom));
+        if (vectorTile == null) {
+            return null;
+        }
+
+        final int size = getTileSizePixels();
+        final Bitmap bitmap;
+        try {
+            bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        } catch (final OutOfMemoryError e) {
+            Log.e(TAG, "OutOfMemoryError drawing vector tile " + aTile + ": " + e.toString());
+            return null;
+        }
+        final int mask = (1 << overzoom) - 1;
+        new VectorTileRenderer(downloader.getDisplayDensity()).render(new Canvas(bitmap),
+                vectorTile, mStyle, size, aTile.getZ(), overzoom, aTile.getX() & mask,
+                aTile.getY() & mask);
+        return downloader.getCache().putTileBitmap(aTile, bitmap);
+    }
+
+    /**
+     * @return the vector tile from the cache, or downloaded if the network is available
+     */
+    private VectorTile getVectorTile(final MapTileDownloader downloader, final MapTile sourceTile) {
+        final String key = VectorTileCache.getKey(mCacheKey, sourceTile.getZ(), sourceTile.getX(),
+                sourceTile.getY());
+        return downloader.getCache().getVectorTileCache().get(key, new VectorTileCache.Source() {
+            @Override
+            public byte[] load() throws IOException {
+                if (!downloader.isNetworkAvailable()) {
+                    return null;
+                }
+                return download(getTileURL(sourceTile, false));
+            }
+        });
+    }
+
+    private byte[] download(final String url) throws IOException {
+        if (TextUtils.isEmpty(url)) {
+            return null;
+        }
+        final long start = MapMetrics.start();
+        InputStream in = null;
+        try {
+            final HttpURLConnection connection = NetworkUtils.getHttpURLConnection(new URL(url));
+            in = connection.getInputStream();
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            StreamUtils.copy(in, out);
+            MapMetrics.DOWNLOAD_TIME.recordSince(start);
+            return out.toByteArray();
+        } catch (final IOException e) {
+            MapMetrics.DOWNLOAD_FAILURES.increment();
+            throw e;
+        } finally {
+            StreamUtils.closeStream(in);
+        }
+    }
+}
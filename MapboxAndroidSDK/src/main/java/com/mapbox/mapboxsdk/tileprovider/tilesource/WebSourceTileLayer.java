@@ -8,14 +8,24 @@ import android.text.TextUtils;
 import android.util.Log;
 
 import com.mapbox.mapboxsdk.constants.MapboxConstants;
+import com.mapbox.mapboxsdk.metrics.MapMetrics;
 import com.mapbox.mapboxsdk.tileprovider.MapTile;
 import com.mapbox.mapboxsdk.tileprovider.MapTileCache;
+import com.mapbox.mapboxsdk.tileprovider.TileMetadata;
+import com.mapbox.mapboxsdk.tileprovider.UTFGridCache;
 import com.mapbox.mapboxsdk.tileprovider.modules.MapTileDownloader;
+import com.mapbox.mapboxsdk.tileprovider.util.StreamUtils;
+import com.mapbox.mapboxsdk.util.DataLoadingUtils;
 import com.mapbox.mapboxsdk.util.NetworkUtils;
 import com.mapbox.mapboxsdk.views.util.TileLoadedListener;
 import com.mapbox.mapboxsdk.views.util.TilesLoadedListener;
+import org.json.JSONException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.Charset;
 import java.util.concurrent.atomic.AtomicInteger;
 import uk.co.senab.bitmapcache.CacheableBitmapDrawable;
 
@@ -28,6 +38,7 @@ public class WebSourceTileLayer extends TileLayer implements MapboxConstants {
     // Tracks the number of threads active in the getBitmapFromURL method.
     private AtomicInteger activeThreads = new AtomicInteger(0);
     protected boolean mEnableSSL = false;
+    protected String mGridUrl;
 
     public WebSourceTileLayer(final String pId, final String url) {
         this(pId, url, false);
@@ -84,6 +95,36 @@ public class WebSourceTileLayer extends TileLayer implements MapboxConstants {
         return parseUrlForTile(mUrl, aTile, hdpi);
     }
 
+    /**
+     * Sets the URL template of the UTFGrids of this layer, with the same placeholders as the
+     * tile URL. The grids are then downloaded along with the tiles.
+     *
+     * @param aUrl the URL template, null if the layer has no interactivity
+     * @return this layer
+     */
+    public TileLayer setGridURL(final String aUrl) {
+        mGridUrl = aUrl;
+        return this;
+    }
+
+    /**
+     * @return true if UTFGrids are downloaded along with the tiles of this layer
+     */
+    public boolean hasGrids() {
+        return !TextUtils.isEmpty(mGridUrl);
+    }
+
+    /**
+     * Get the URL of the UTFGrid of a tile.
+     *
+     * @param aTile a map tile
+     * @return the URL, null if the layer has no interactivity
+     */
+    public String getGridURL(final MapTile aTile) {
+        final String gridUrl = mGridUrl;
+        return TextUtils.isEmpty(gridUrl) ? null : parseUrlForTile(gridUrl, aTile, false);
+    }
+
     protected String parseUrlForTile(String url, final MapTile aTile, boolean hdpi) {
         return url.replace("{z}", String.valueOf(aTile.getZ()))
                 .replace("{x}", String.valueOf(aTile.getX()))
@@ -111,7 +152,6 @@ public class WebSourceTileLayer extends TileLayer implements MapboxConstants {
             }
 
             String[] urls = getTileURLs(aTile, tempHDPI);
-            CacheableBitmapDrawable result = null;
             Bitmap resultBitmap = null;
             MapTileCache cache = downloader.getCache();
 
@@ -120,7 +160,8 @@ public class WebSourceTileLayer extends TileLayer implements MapboxConstants {
                     listener.onTilesLoadStarted();
                 }
                 for (final String url : urls) {
-                    Bitmap bitmap = getBitmapFromURL(aTile, url, cache);
+                    // a tile composited from several sources has no single metadata
+                    Bitmap bitmap = getBitmapFromURL(aTile, url, cache, urls.length == 1);
                     if (bitmap == null) {
                         continue;
                     }
@@ -138,37 +179,142 @@ public class WebSourceTileLayer extends TileLayer implements MapboxConstants {
                 }
             }
 
-            TileLoadedListener listener2 = downloader.getTileLoadedListener();
-            if (listener2 != null) {
-                //create the CacheableBitmapDrawable object from the bitmap
-                result = cache.createCacheableBitmapDrawable(resultBitmap, aTile);
+            return cacheTileBitmap(downloader, aTile, resultBitmap);
+        }
+        return null;
+    }
 
-                //pass it to onTileLoaded callback for customization, and return the customized CacheableBitmapDrawable object
-                result = listener2.onTileLoaded(result);
+    /**
+     * Puts a downloaded tile into the cache, once customized by the
+     * {@link TileLoadedListener} of the downloader if it has one.
+     *
+     * @return the cached tile, null if there is none
+     */
+    private CacheableBitmapDrawable cacheTileBitmap(final MapTileDownloader downloader,
+            final MapTile aTile, final Bitmap resultBitmap) {
+        final MapTileCache cache = downloader.getCache();
+        CacheableBitmapDrawable result = null;
+        TileLoadedListener listener2 = downloader.getTileLoadedListener();
+        if (listener2 != null) {
+            //create the CacheableBitmapDrawable object from the bitmap
+            result = cache.createCacheableBitmapDrawable(resultBitmap, aTile);
 
-                //null pointer checking
-                if (result != null) {
-                    int resultWidth = result.getIntrinsicWidth();
-                    int resultHeight = result.getIntrinsicHeight();
+            //pass it to onTileLoaded callback for customization, and return the customized CacheableBitmapDrawable object
+            result = listener2.onTileLoaded(result);
 
-                    //convert the drawable updated in onTileLoaded callback to a bitmap
-                    Bitmap bitmapToCache = Bitmap.createBitmap(resultWidth, resultHeight, Bitmap.Config.ARGB_8888);
-                    Canvas canvas = new Canvas(bitmapToCache);
-                    result.setBounds(0, 0, resultWidth, resultHeight);
-                    result.draw(canvas);
+            //null pointer checking
+            if (result != null) {
+                int resultWidth = result.getIntrinsicWidth();
+                int resultHeight = result.getIntrinsicHeight();
 
-                    cache.putTileBitmap(aTile, bitmapToCache);
-                }
-            } else {
-                if (resultBitmap != null) {
-                    //get drawable by putting it into cache (memory and disk)
-                    result = cache.putTileBitmap(aTile, resultBitmap);
-                }
+                //convert the drawable updated in onTileLoaded callback to a bitmap
+                Bitmap bitmapToCache = Bitmap.createBitmap(resultWidth, resultHeight, Bitmap.Config.ARGB_8888);
+                Canvas canvas = new Canvas(bitmapToCache);
+                result.setBounds(0, 0, resultWidth, resultHeight);
+                result.draw(canvas);
+
+                cache.putTileBitmap(aTile, bitmapToCache);
             }
+        } else {
+            if (resultBitmap != null) {
+                //get drawable by putting it into cache (memory and disk)
+                result = cache.putTileBitmap(aTile, resultBitmap);
+            }
+        }
+        return result;
+    }
 
-            return result;
+    /**
+     * Checks a cached tile that is past its max age against the server, with a request
+     * conditional on its ETag or Last-Modified date. When the server answers that the tile did
+     * not change only its metadata is renewed, otherwise the new tile replaces the cached one.
+     * Tiles without metadata, such as those composited from several sources, are left alone.
+     *
+     * @param downloader the downloader the tile was loaded by
+     * @param aTile      the tile
+     * @param hdpi       whether the tile is at 2x or retina size
+     * @return true if the cached tile was replaced and has to be drawn again
+     */
+    public boolean revalidateTile(final MapTileDownloader downloader, final MapTile aTile,
+            final boolean hdpi) {
+        final MapTileCache cache = downloader.getCache();
+        final TileMetadata metadata = cache.getTileMetadata(aTile);
+        final String[] urls = getTileURLs(aTile, hdpi && !(this instanceof MapboxTileLayer));
+        if (metadata == null || urls == null || urls.length != 1) {
+            return false;
+        }
+
+        final long start = MapMetrics.start();
+        InputStream in = null;
+        try {
+            HttpURLConnection connection = NetworkUtils.getHttpURLConnection(new URL(urls[0]));
+            metadata.addConditions(connection);
+            final int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                cache.putTileMetadata(aTile,
+                        metadata.revalidated(connection, System.currentTimeMillis()));
+                return false;
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                MapMetrics.DOWNLOAD_FAILURES.increment();
+                Log.w(TAG, "Error revalidating MapTile: " + urls[0] + ": HTTP " + status);
+                return false;
+            }
+            in = connection.getInputStream();
+            final Bitmap bitmap = BitmapFactory.decodeStream(in);
+            if (bitmap == null) {
+                MapMetrics.DOWNLOAD_FAILURES.increment();
+                return false;
+            }
+            MapMetrics.DOWNLOAD_TIME.recordSince(start);
+            cache.putTileMetadata(aTile,
+                    TileMetadata.fromResponse(connection, System.currentTimeMillis()));
+            return cacheTileBitmap(downloader, aTile, bitmap) != null;
+        } catch (final IOException e) {
+            MapMetrics.DOWNLOAD_FAILURES.increment();
+            Log.w(TAG, "Error revalidating MapTile: " + urls[0] + ": " + e);
+        } finally {
+            StreamUtils.closeStream(in);
+        }
+        return false;
+    }
+
+    /**
+     * Downloads and caches the UTFGrid of a tile, unless the layer has no interactivity. A grid
+     * already on disk is decoded into memory instead, where taps are looked up. Failures are
+     * logged and do not affect the tile.
+     *
+     * @param downloader the downloader loading the tile
+     * @param aTile      the tile
+     */
+    public void loadGridForTile(final MapTileDownloader downloader, final MapTile aTile) {
+        final String url = getGridURL(aTile);
+        if (url == null) {
+            return;
+        }
+        final UTFGridCache gridCache = downloader.getCache().getGridCache();
+        final String key = UTFGridCache.getKey(getCacheKey(), aTile);
+        if (gridCache.get(key) != null || !downloader.isNetworkAvailable()) {
+            return;
+        }
+        InputStream in = null;
+        try {
+            HttpURLConnection connection = NetworkUtils.getHttpURLConnection(new URL(url));
+            final int status = connection.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                Log.w(TAG, "Error downloading UTFGrid: " + url + ": HTTP " + status);
+                return;
+            }
+            in = connection.getInputStream();
+            gridCache.put(key, DataLoadingUtils.readAll(
+                    new InputStreamReader(in, Charset.forName("UTF-8"))));
+        } catch (final IOException e) {
+            Log.w(TAG, "Error downloading UTFGrid: " + url + ": " + e);
+        } catch (final JSONException e) {
+            Log.w(TAG, "Dropping invalid UTFGrid: " + url + ": " + e);
+        } finally {
+            StreamUtils.closeStream(in);
         }
-        return null;
     }
 
     /**
@@ -181,6 +327,15 @@ public class WebSourceTileLayer extends TileLayer implements MapboxConstants {
      * @return the tile if valid, otherwise null
      */
     public Bitmap getBitmapFromURL(MapTile mapTile, final String url, final MapTileCache aCache) {
+        return getBitmapFromURL(mapTile, url, aCache, true);
+    }
+
+    /**
+     * @param recordMetadata true to keep the expiry and validators of the response as the
+     *                       {@link TileMetadata} of the tile
+     */
+    private Bitmap getBitmapFromURL(final MapTile mapTile, final String url,
+            final MapTileCache aCache, final boolean recordMetadata) {
         // We track the active threads here, every exit point should decrement this value.
         activeThreads.incrementAndGet();
 
@@ -189,14 +344,23 @@ public class WebSourceTileLayer extends TileLayer implements MapboxConstants {
             return null;
         }
 
+        final long start = MapMetrics.start();
         try {
             HttpURLConnection connection = NetworkUtils.getHttpURLConnection(new URL(url));
             Bitmap bitmap = BitmapFactory.decodeStream(connection.getInputStream());
             if (bitmap != null) {
+                MapMetrics.DOWNLOAD_TIME.recordSince(start);
                 aCache.putTileInMemoryCache(mapTile, bitmap);
+                if (recordMetadata) {
+                    aCache.putTileMetadata(mapTile,
+                            TileMetadata.fromResponse(connection, System.currentTimeMillis()));
+                }
+            } else {
+                MapMetrics.DOWNLOAD_FAILURES.increment();
             }
             return bitmap;
         } catch (final Throwable e) {
+            MapMetrics.DOWNLOAD_FAILURES.increment();
             Log.e(TAG, "Error downloading MapTile: " + url + ":" + e);
         } finally {
             activeThreads.decrementAndGet();
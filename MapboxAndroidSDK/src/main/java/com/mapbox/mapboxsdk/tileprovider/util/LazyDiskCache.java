@@ -0,0 +1,79 @@
+package com.mapbox.mapboxsdk.tileprovider.util;
+
+import android.util.Log;
+
+import com.jakewharton.disklrucache.DiskLruCache;
+
+import java.io.File;
+import java.io.IOException;
+
+import uk.co.senab.bitmapcache.Md5;
+
+/**
+ * A {@link DiskLruCache} of one string or stream per entry, opened on first use so that
+ * creating the cache that owns it never touches the disk. Shared by the caches that keep the
+ * data downloaded along with the tiles in directories of their own.
+ */
+public class LazyDiskCache {
+
+    private static final String TAG = "LazyDiskCache";
+
+    private final File mDirectory;
+    private final long mMaxSize;
+    private final String mName;
+    private DiskLruCache mDiskCache;
+    private boolean mOpened;
+
+    /**
+     * @param directory the directory of the cache, null for no disk cache
+     * @param maxSize   the size of the cache, in bytes
+     * @param name      what the cache holds, for the logs
+     */
+    public LazyDiskCache(final File directory, final long maxSize, final String name) {
+        mDirectory = directory;
+        mMaxSize = maxSize;
+        mName = name;
+    }
+
+    /**
+     * DiskLruCache keys are limited to [a-z0-9_-]{1,64}.
+     *
+     * @return the key of an entry in the disk cache
+     */
+    public static String getKey(final String key) {
+        return Md5.encode(key);
+    }
+
+    /**
+     * @return the cache, opened on the first call, null if there is no directory or it could
+     * not be opened
+     */
+    public synchronized DiskLruCache get() {
+        if (!mOpened) {
+            mOpened = true;
+            if (mDirectory != null && (mDirectory.isDirectory() || mDirectory.mkdirs())) {
+                try {
+                    mDiskCache = DiskLruCache.open(mDirectory, 1, 1, mMaxSize);
+                } catch (IOException e) {
+                    Log.e(TAG, "Can't open " + mName + " disk cache in " + mDirectory, e);
+                }
+            }
+        }
+        return mDiskCache;
+    }
+
+    /**
+     * Deletes the cache if it was opened, it is opened again, empty, on the next call to
+     * {@link #get()}.
+     */
+    public synchronized void delete() throws IOException {
+        if (mDiskCache != null) {
+            try {
+                mDiskCache.delete();
+            } finally {
+                mDiskCache = null;
+                mOpened = false;
+            }
+        }
+    }
+}
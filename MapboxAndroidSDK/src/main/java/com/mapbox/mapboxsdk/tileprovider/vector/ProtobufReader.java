@@ -0,0 +1,153 @@
+package com.mapbox.mapboxsdk.tileprovider.vector;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * Reads the fields of a protocol buffer message in a byte array, as much of the wire format
+ * as vector tiles use. Nested messages are read by readers over the same array.
+ */
+final class ProtobufReader {
+
+    static final int WIRE_VARINT = 0;
+    static final int WIRE_FIXED64 = 1;
+    static final int WIRE_LENGTH_DELIMITED = 2;
+    static final int WIRE_FIXED32 = 5;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final byte[] mData;
+    private final int mEnd;
+    private int mPosition;
+    private int mField;
+    private int mWireType;
+
+    ProtobufReader(final byte[] data) {
+        this(data, 0, data.length);
+    }
+
+    ProtobufReader(final byte[] data, final int start, final int end) {
+        mData = data;
+        mPosition = start;
+        mEnd = end;
+    }
+
+    /**
+     * Reads the key of the next field.
+     *
+     * @return false at the end of the message
+     */
+    boolean next() throws IOException {
+        if (mPosition >= mEnd) {
+            return false;
+        }
+        final long key = readVarint();
+        mField = (int) (key >>> 3);
+        mWireType = (int) (key & 7);
+        return true;
+    }
+
+    int getField() {
+        return mField;
+    }
+
+    int getWireType() {
+        return mWireType;
+    }
+
+    int getPosition() {
+        return mPosition;
+    }
+
+    long readVarint() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (mPosition >= mEnd) {
+                throw new IOException("Truncated varint");
+            }
+            final byte b = mData[mPosition++];
+            result |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static long decodeZigZag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    int readFixed32() throws IOException {
+        require(4);
+        final int result = (mData[mPosition] & 0xff)
+                | (mData[mPosition + 1] & 0xff) << 8
+                | (mData[mPosition + 2] & 0xff) << 16
+                | (mData[mPosition + 3] & 0xff) << 24;
+        mPosition += 4;
+        return result;
+    }
+
+    long readFixed64() throws IOException {
+        final long low = readFixed32() & 0xffffffffL;
+        final long high = readFixed32() & 0xffffffffL;
+        return low | high << 32;
+    }
+
+    /**
+     * Reads the length of a length delimited field, the reader is then at its first byte.
+     *
+     * @return the position after the field
+     */
+    int readLength() throws IOException {
+        final long length = readVarint();
+        if (length < 0 || length > mEnd - mPosition) {
+            throw new IOException("Truncated field " + mField);
+        }
+        return mPosition + (int) length;
+    }
+
+    ProtobufReader readMessage() throws IOException {
+        final int end = readLength();
+        final ProtobufReader message = new ProtobufReader(mData, mPosition, end);
+        mPosition = end;
+        return message;
+    }
+
+    String readString() throws IOException {
+        final int end = readLength();
+        final String result = new String(mData, mPosition, end - mPosition, UTF_8);
+        mPosition = end;
+        return result;
+    }
+
+    /**
+     * Skips the value of the current field.
+     */
+    void skip() throws IOException {
+        switch (mWireType) {
+            case WIRE_VARINT:
+                readVarint();
+                break;
+            case WIRE_FIXED64:
+                require(8);
+                mPosition += 8;
+                break;
+            case WIRE_LENGTH_DELIMITED:
+                mPosition = readLength();
+                break;
+            case WIRE_FIXED32:
+                require(4);
+                mPosition += 4;
+                break;
+            default:
+                throw new IOException("Unsupported wire type " + mWireType + " of field " + mField);
+        }
+    }
+
+    private void require(final int bytes) throws IOException {
+        if (mEnd - mPosition < bytes) {
+            throw new IOException("Truncated field " + mField);
+        }
+    }
+}
@@ -0,0 +1,457 @@
+package com.mapbox.mapboxsdk.tileprovider.vector;
+
+import com.mapbox.mapboxsdk.tileprovider.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A decoded <a href="https://github.com/mapbox/vector-tile-spec">Mapbox Vector Tile</a>.
+ * <p/>
+ * The geometry of all the features of a layer is held in a few int arrays: the points of all
+ * the parts, one part per MoveTo, as x, y pairs in tile coordinates, the index of the first
+ * point of every part, and the index of the first part of every feature. Properties are
+ * indexes into the key and value tables of the layer.
+ */
+public class VectorTile {
+
+    public static final int TYPE_UNKNOWN = 0;
+    public static final int TYPE_POINT = 1;
+    public static final int TYPE_LINESTRING = 2;
+    public static final int TYPE_POLYGON = 3;
+
+    private static final int DEFAULT_EXTENT = 4096;
+    private static final int COMMAND_MOVE_TO = 1;
+    private static final int COMMAND_LINE_TO = 2;
+    private static final int COMMAND_CLOSE_PATH = 7;
+
+    private final Layer[] mLayers;
+    private final int mMemorySize;
+
+    private VectorTile(final Layer[] layers) {
+        mLayers = layers;
+        int memorySize = 0;
+        for (Layer layer : layers) {
+            memorySize += layer.getMemorySize();
+        }
+        mMemorySize = memorySize;
+    }
+
+    /**
+     * @param data the tile as served, optionally gzipped
+     * @return the decoded tile
+     * @throws IOException if this is not a vector tile
+     */
+    public static VectorTile decode(byte[] data) throws IOException {
+        if (data.length > 2 && (data[0] & 0xff) == 0x1f && (data[1] & 0xff) == 0x8b) {
+            data = gunzip(data);
+        }
+        final List<Layer> layers = new ArrayList<>();
+        final ProtobufReader reader = new ProtobufReader(data);
+        while (reader.next()) {
+            if (reader.getField() == 3 && reader.getWireType() == ProtobufReader.WIRE_LENGTH_DELIMITED) {
+                layers.add(Layer.decode(reader.readMessage()));
+            } else {
+                reader.skip();
+            }
+        }
+        return new VectorTile(layers.toArray(new Layer[layers.size()]));
+    }
+
+    private static byte[] gunzip(final byte[] data) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+        InputStream in = null;
+        try {
+            in = new GZIPInputStream(new ByteArrayInputStream(data));
+            StreamUtils.copy(in, out);
+        } finally {
+            StreamUtils.closeStream(in);
+        }
+        return out.toByteArray();
+    }
+
+    public int getLayerCount() {
+        return mLayers.length;
+    }
+
+    public Layer getLayer(final int index) {
+        return mLayers[index];
+    }
+
+    /**
+     * @return the layer with this name, null if there is none
+     */
+    public Layer getLayer(final String name) {
+        for (Layer layer : mLayers) {
+            if (layer.mName.equals(name)) {
+                return layer;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return an estimate of the memory held by this tile, in bytes
+     */
+    int getMemorySize() {
+        return mMemorySize;
+    }
+
+    /**
+     * A layer of a tile, its features and their geometry.
+     */
+    public static final class Layer {
+        private final String mName;
+        private final int mExtent;
+        private final String[] mKeys;
+        private final Object[] mValues;
+        private final int mFeatureCount;
+        private final long[] mIds;
+        private final byte[] mTypes;
+        // tags of feature f are mTags[mTagStart[f]] to mTags[mTagStart[f + 1]], key and value
+        // index pairs
+        private final int[] mTagStart;
+        private final int[] mTags;
+        // parts of feature f are mFeatureParts[f] to mFeatureParts[f + 1], points of part p are
+        // mPartStart[p] to mPartStart[p + 1]
+        private final int[] mFeatureParts;
+        private final int[] mPartStart;
+        private final int[] mPoints;
+
+        private Layer(final String name, final int extent, final String[] keys,
+                      final Object[] values, final int featureCount, final long[] ids,
+                      final byte[] types, final int[] tagStart, final int[] tags,
+                      final int[] featureParts, final int[] partStart, final int[] points) {
+            mName = name;
+            mExtent = extent;
+            mKeys = keys;
+            mValues = values;
+            mFeatureCount = featureCount;
+            mIds = ids;
+            mTypes = types;
+            mTagStart = tagStart;
+            mTags = tags;
+            mFeatureParts = featureParts;
+            mPartStart = partStart;
+            mPoints = points;
+        }
+
+        static Layer decode(final ProtobufReader reader) throws IOException {
+            String name = null;
+            int extent = DEFAULT_EXTENT;
+            final List<String> keys = new ArrayList<>();
+            final List<Object> values = new ArrayList<>();
+            final Builder builder = new Builder();
+            while (reader.next()) {
+                switch (reader.getField()) {
+                    case 1:
+                        name = reader.readString();
+                        break;
+                    case 2:
+                        builder.addFeature(reader.readMessage());
+                        break;
+                    case 3:
+                        keys.add(reader.readString());
+                        break;
+                    case 4:
+                        values.add(decodeValue(reader.readMessage()));
+                        break;
+                    case 5:
+                        extent = (int) reader.readVarint();
+                        break;
+                    default:
+                        reader.skip();
+                        break;
+                }
+            }
+            if (name == null) {
+                throw new IOException("Vector tile layer without a name");
+            }
+            if (extent <= 0) {
+                throw new IOException("Vector tile layer " + name + " has extent " + extent);
+            }
+            final String[] keyArray = keys.toArray(new String[keys.size()]);
+            final Object[] valueArray = values.toArray();
+            for (int i = 0; i < builder.mTags.size(); i++) {
+                final int limit = (i & 1) == 0 ? keyArray.length : valueArray.length;
+                if (builder.mTags.get(i) < 0 || builder.mTags.get(i) >= limit) {
+                    throw new IOException("Vector tile layer " + name + " has a tag out of range");
+                }
+            }
+            return builder.build(name, extent, keyArray, valueArray);
+        }
+
+        private static Object decodeValue(final ProtobufReader reader) throws IOException {
+            Object value = null;
+            while (reader.next()) {
+                switch (reader.getField()) {
+                    case 1:
+                        value = reader.readString();
+                        break;
+                    case 2:
+                        value = (double) Float.intBitsToFloat(reader.readFixed32());
+                        break;
+                    case 3:
+                        value = Double.longBitsToDouble(reader.readFixed64());
+                        break;
+                    case 4:
+                    case 5:
+                        value = reader.readVarint();
+                        break;
+                    case 6:
+                        value = ProtobufReader.decodeZigZag(reader.readVarint());
+                        break;
+                    case 7:
+                        value = reader.readVarint() != 0;
+                        break;
+                    default:
+                        reader.skip();
+                        break;
+                }
+            }
+            return value;
+        }
+
+        public String getName() {
+            return mName;
+        }
+
+        /**
+         * @return the size of the tile in the coordinates of the points
+         */
+        public int getExtent() {
+            return mExtent;
+        }
+
+        public int getFeatureCount() {
+            return mFeatureCount;
+        }
+
+        public long getFeatureId(final int feature) {
+            return mIds[feature];
+        }
+
+        /**
+         * @return one of {@link #TYPE_POINT}, {@link #TYPE_LINESTRING}, {@link #TYPE_POLYGON} or
+         * {@link #TYPE_UNKNOWN}
+         */
+        public int getFeatureType(final int feature) {
+            return mTypes[feature];
+        }
+
+        /**
+         * @return the index of the key in the key table of the layer, -1 if no feature has it
+         */
+        public int indexOfKey(final String key) {
+            for (int i = 0; i < mKeys.length; i++) {
+                if (mKeys[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @param keyIndex an index returned by {@link #indexOfKey(String)}
+         * @return the value of the property of the feature, a String, Double, Long or Boolean,
+         * null if the feature does not have it
+         */
+        public Object getFeatureValue(final int feature, final int keyIndex) {
+            for (int i = mTagStart[feature]; i < mTagStart[feature + 1]; i += 2) {
+                if (mTags[i] == keyIndex) {
+                    return mValues[mTags[i + 1]];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return the value of the property of the feature, null if it does not have it
+         */
+        public Object getFeatureProperty(final int feature, final String key) {
+            final int keyIndex = indexOfKey(key);
+            return keyIndex < 0 ? null : getFeatureValue(feature, keyIndex);
+        }
+
+        /**
+         * @return the index of the first part of the feature
+         */
+        public int getFirstPart(final int feature) {
+            return mFeatureParts[feature];
+        }
+
+        /**
+         * @return the index after the last part of the feature
+         */
+        public int getPartEnd(final int feature) {
+            return mFeatureParts[feature + 1];
+        }
+
+        /**
+         * @return the index of the first point of the part
+         */
+        public int getFirstPoint(final int part) {
+            return mPartStart[part];
+        }
+
+        /**
+         * @return the index after the last point of the part
+         */
+        public int getPointEnd(final int part) {
+            return mPartStart[part + 1];
+        }
+
+        public int getX(final int point) {
+            return mPoints[point * 2];
+        }
+
+        public int getY(final int point) {
+            return mPoints[point * 2 + 1];
+        }
+
+        int getMemorySize() {
+            int size = (mIds.length * 8) + mTypes.length
+                    + (mTagStart.length + mTags.length + mFeatureParts.length + mPartStart.length
+                    + mPoints.length) * 4;
+            for (String key : mKeys) {
+                size += key.length() * 2;
+            }
+            for (Object value : mValues) {
+                size += value instanceof String ? ((String) value).length() * 2 : 16;
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Accumulates the features of a layer as they are decoded.
+     */
+    private static final class Builder {
+        long[] mIds = new long[16];
+        byte[] mTypes = new byte[16];
+        int mFeatureCount;
+        final IntList mTagStart = new IntList();
+        final IntList mTags = new IntList();
+        final IntList mFeatureParts = new IntList();
+        final IntList mPartStart = new IntList();
+        final IntList mPoints = new IntList();
+
+        void addFeature(final ProtobufReader reader) throws IOException {
+            long id = 0;
+            int type = TYPE_UNKNOWN;
+            mTagStart.add(mTags.size());
+            mFeatureParts.add(mPartStart.size());
+            while (reader.next()) {
+                switch (reader.getField()) {
+                    case 1:
+                        id = reader.readVarint();
+                        break;
+                    case 2:
+                        if (reader.getWireType() == ProtobufReader.WIRE_LENGTH_DELIMITED) {
+                            final int end = reader.readLength();
+                            while (reader.getPosition() < end) {
+                                mTags.add((int) reader.readVarint());
+                            }
+                        } else {
+                            mTags.add((int) reader.readVarint());
+                        }
+                        break;
+                    case 3:
+                        type = (int) reader.readVarint();
+                        break;
+                    case 4:
+                        addGeometry(reader);
+                        break;
+                    default:
+                        reader.skip();
+                        break;
+                }
+            }
+            if (((mTags.size() - mTagStart.get(mFeatureCount)) & 1) != 0) {
+                throw new IOException("Vector tile feature with an odd number of tags");
+            }
+            if (type < TYPE_UNKNOWN || type > TYPE_POLYGON) {
+                type = TYPE_UNKNOWN;
+            }
+            if (mFeatureCount == mIds.length) {
+                mIds = Arrays.copyOf(mIds, mFeatureCount * 2);
+                mTypes = Arrays.copyOf(mTypes, mFeatureCount * 2);
+            }
+            mIds[mFeatureCount] = id;
+            mTypes[mFeatureCount] = (byte) type;
+            mFeatureCount++;
+        }
+
+        private void addGeometry(final ProtobufReader reader) throws IOException {
+            final int end = reader.readLength();
+            int x = 0;
+            int y = 0;
+            while (reader.getPosition() < end) {
+                final int command = (int) reader.readVarint();
+                final int id = command & 7;
+                final int count = command >>> 3;
+                if (id == COMMAND_CLOSE_PATH) {
+                    continue;
+                }
+                if (id != COMMAND_MOVE_TO && id != COMMAND_LINE_TO) {
+                    throw new IOException("Unknown vector tile geometry command " + id);
+                }
+                for (int i = 0; i < count; i++) {
+                    x += (int) ProtobufReader.decodeZigZag(reader.readVarint());
+                    y += (int) ProtobufReader.decodeZigZag(reader.readVarint());
+                    if (id == COMMAND_MOVE_TO) {
+                        mPartStart.add(mPoints.size() / 2);
+                    } else if (mPartStart.size() == mFeatureParts.get(mFeatureCount)) {
+                        throw new IOException("Vector tile geometry starts with LineTo");
+                    }
+                    mPoints.add(x);
+                    mPoints.add(y);
+                }
+            }
+        }
+
+        Layer build(final String name, final int extent, final String[] keys,
+                    final Object[] values) {
+            mTagStart.add(mTags.size());
+            mFeatureParts.add(mPartStart.size());
+            mPartStart.add(mPoints.size() / 2);
+            return new Layer(name, extent, keys, values, mFeatureCount,
+                    Arrays.copyOf(mIds, mFeatureCount), Arrays.copyOf(mTypes, mFeatureCount),
+                    mTagStart.toArray(), mTags.toArray(), mFeatureParts.toArray(),
+                    mPartStart.toArray(), mPoints.toArray());
+        }
+    }
+
+    /**
+     * A growable array of ints.
+     */
+    private static final class IntList {
+        private int[] mValues = new int[64];
+        private int mSize;
+
+        void add(final int value) {
+            if (mSize == mValues.length) {
+                mValues = Arrays.copyOf(mValues, mSize * 2);
+            }
+            mValues[mSize++] = value;
+        }
+
+        int get(final int index) {
+            return mValues[index];
+        }
+
+        int size() {
+            return mSize;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(mValues, mSize);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.mapbox.mapboxsdk.tileprovider.vector;
+
+import android.content.Context;
+import android.support.v4.util.LruCache;
+import android.util.Log;
+
+import com.jakewharton.disklrucache.DiskLruCache;
+import com.mapbox.mapboxsdk.tileprovider.MapTileCache;
+import com.mapbox.mapboxsdk.tileprovider.util.LazyDiskCache;
+import com.mapbox.mapboxsdk.tileprovider.util.StreamUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The vector tiles, decoded in a memory cache bounded by size, and as downloaded in a disk
+ * cache of their own. Downloaded tiles are kept independently of the style they are drawn
+ * with, so restyling a map does not download anything.
+ */
+public class VectorTileCache {
+
+    private static final String TAG = "VectorTileCache";
+    private static final String DISK_CACHE_SUBDIR = "mapbox_vector_tile_cache";
+    public static final int DEFAULT_MEMORY_CACHE_SIZE = 4 * 1024 * 1024;
+    public static final long DEFAULT_DISK_CACHE_SIZE = 32 * 1024 * 1024;
+
+    /**
+     * Loads a vector tile that is not cached.
+     */
+    public interface Source {
+        /**
+         * @return the tile as served, null if it is not available
+         */
+        byte[] load() throws IOException;
+    }
+
+    private final LruCache<String, VectorTile> mMemoryCache;
+    private final LazyDiskCache mDiskCache;
+    private final Map<String, Object> mLoadLocks = new HashMap<>();
+
+    public VectorTileCache(final Context context) {
+        this(MapTileCache.getDiskCacheDir(context, DISK_CACHE_SUBDIR), DEFAULT_MEMORY_CACHE_SIZE,
+                DEFAULT_DISK_CACHE_SIZE);
+    }
+
+    /**
+     * @param diskCacheDir  the directory of the disk cache, null for no disk cache
+     * @param memoryMaxSize the size of the memory cache, in bytes
+     * @param diskMaxSize   the size of the disk cache, in bytes
+     */
+    public VectorTileCache(final File diskCacheDir, final int memoryMaxSize, final long diskMaxSize) {
+        mDiskCache = new LazyDiskCache(diskCacheDir, diskMaxSize, "vector tile");
+        mMemoryCache = new LruCache<String, VectorTile>(memoryMaxSize) {
+            @Override
+            protected int sizeOf(final String key, final VectorTile value) {
+                return value.getMemorySize();
+            }
+        };
+    }
+
+    /**
+     * @param layerCacheKey the cache key of the layer serving the tile
+     * @return the key of the vector tile
+     */
+    public static String getKey(final String layerCacheKey, final int z, final int x, final int y) {
+        return layerCacheKey + "/" + z + "/" + x + "/" + y;
+    }
+
+    /**
+     * @return the tile from memory, or decoded from the disk cache, null if it is in neither
+     */
+    public VectorTile get(final String key) {
+        VectorTile tile = mMemoryCache.get(key);
+        if (tile != null) {
+            return tile;
+        }
+        final DiskLruCache diskCache = mDiskCache.get();
+        if (diskCache == null) {
+            return null;
+        }
+        DiskLruCache.Snapshot snapshot = null;
+        try {
+            snapshot = diskCache.get(LazyDiskCache.getKey(key));
+            if (snapshot == null) {
+                return null;
+            }
+            tile = VectorTile.decode(readAll(snapshot.getInputStream(0)));
+            mMemoryCache.put(key, tile);
+            return tile;
+        } catch (IOException e) {
+            Log.w(TAG, "Dropping unreadable vector tile " + key + ": " + e);
+            remove(key);
+        } finally {
+            if (snapshot != null) {
+                snapshot.close();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets a tile from the cache, or loads and stores it. Threads asking for the same tile at
+     * the same time, such as for the overzoomed tiles it covers, share a single load.
+     *
+     * @return the tile, null if it could not be loaded
+     */
+    public VectorTile get(final String key, final Source source) {
+        VectorTile tile = mMemoryCache.get(key);
+        if (tile != null) {
+            return tile;
+        }
+        Object lock;
+        synchronized (mLoadLocks) {
+            lock = mLoadLocks.get(key);
+            if (lock == null) {
+                lock = new Object();
+                mLoadLocks.put(key, lock);
+            }
+        }
+        try {
+            synchronized (lock) {
+                tile = get(key);
+                if (tile == null) {
+                    final byte[] data = source.load();
+                    if (data != null) {
+                        tile = put(key, data);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Error loading vector tile " + key + ": " + e);
+        } finally {
+            synchronized (mLoadLocks) {
+                // a newer loader may have put a lock of its own since
+                if (mLoadLocks.get(key) == lock) {
+                    mLoadLocks.remove(key);
+                }
+            }
+        }
+        return tile;
+    }
+
+    /**
+     * Decodes a downloaded tile and stores it in memory and on disk.
+     *
+     * @param data the tile as served
+     * @return the decoded tile
+     * @throws IOException if the tile cannot be decoded, nothing is stored then
+     */
+    public VectorTile put(final String key, final byte[] data) throws IOException {
+        final VectorTile tile = VectorTile.decode(data);
+        mMemoryCache.put(key, tile);
+        final DiskLruCache diskCache = mDiskCache.get();
+        if (diskCache != null) {
+            DiskLruCache.Editor editor = null;
+            OutputStream out = null;
+            try {
+                editor = diskCache.edit(LazyDiskCache.getKey(key));
+                if (editor != null) {
+                    out = editor.newOutputStream(0);
+                    out.write(data);
+                    out.close();
+                    out = null;
+                    editor.commit();
+                }
+            } catch (IOException e) {
+                Log.w(TAG, "Error writing vector tile " + key + " to disk: " + e);
+            } finally {
+                StreamUtils.closeStream(out);
+                if (editor != null) {
+                    editor.abortUnlessCommitted();
+                }
+            }
+        }
+        return tile;
+    }
+
+    public void remove(final String key) {
+        mMemoryCache.remove(key);
+        final DiskLruCache diskCache = mDiskCache.get();
+        if (diskCache != null) {
+            try {
+                diskCache.remove(LazyDiskCache.getKey(key));
+            } catch (IOException e) {
+                Log.w(TAG, "Error removing vector tile " + key + " from disk: " + e);
+            }
+        }
+    }
+
+    /**
+     * Empties the memory cache, the disk cache is kept.
+     */
+    public void clearMemory() {
+        mMemoryCache.evictAll();
+    }
+
+    private static byte[] readAll(final InputStream in) throws IOException {
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            StreamUtils.copy(in, out);
+            return out.toByteArray();
+        } finally {
+            StreamUtils.closeStream(in);
+        }
+    }
+}
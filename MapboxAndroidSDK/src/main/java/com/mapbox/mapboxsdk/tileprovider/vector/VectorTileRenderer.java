@@ -0,0 +1,177 @@
+package com.mapbox.mapboxsdk.tileprovider.vector;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+/**
+ * Draws vector tiles with a style. A renderer keeps its paints and path between tiles, so it
+ * must only be used by one thread at a time.
+ */
+public class VectorTileRenderer {
+
+    private final float mDensity;
+    private final Paint mFillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mLinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Path mPath = new Path();
+
+    // the bounds of mPath, in pixels
+    private float mPathLeft;
+    private float mPathTop;
+    private float mPathRight;
+    private float mPathBottom;
+
+    /**
+     * @param density the scale from density independent pixels to the pixels of the tiles
+     */
+    public VectorTileRenderer(final float density) {
+        mDensity = density;
+        mFillPaint.setStyle(Paint.Style.FILL);
+        mLinePaint.setStyle(Paint.Style.STROKE);
+        mLinePaint.setStrokeCap(Paint.Cap.ROUND);
+        mLinePaint.setStrokeJoin(Paint.Join.ROUND);
+    }
+
+    /**
+     * Draws a tile, or for overzoom a part of it, on a square canvas.
+     *
+     * @param canvas    the canvas to draw on, from 0, 0 to size, size
+     * @param tile      the vector tile
+     * @param style     the style to draw with
+     * @param size      the size of the drawn tile in pixels
+     * @param zoomLevel the zoom level of the drawn tile, the style rules are filtered with it
+     * @param overzoom  how many zoom levels the drawn tile is below the vector tile, 0 to draw
+     *                  the whole vector tile
+     * @param offsetX   the column of the drawn tile among the tiles covering the vector tile at
+     *                  its zoom level, from 0 to 2^overzoom - 1
+     * @param offsetY   the row of the drawn tile
+     */
+    public void render(final Canvas canvas, final VectorTile tile, final VectorTileStyle style,
+                       final int size, final int zoomLevel, final int overzoom,
+                       final int offsetX, final int offsetY) {
+        if (Color.alpha(style.getBackgroundColor()) != 0) {
+            canvas.drawColor(style.getBackgroundColor());
+        }
+        final float tileSize = (float) size * (1 << overzoom);
+        final float dx = -(float) offsetX * size;
+        final float dy = -(float) offsetY * size;
+
+        for (VectorTileStyle.Rule rule : style.getRules()) {
+            mFillPaint.setColor(rule.getFillColor());
+            mLinePaint.setColor(rule.getLineColor());
+            mLinePaint.setStrokeWidth(rule.getLineWidth() * mDensity);
+            final boolean fill = Color.alpha(rule.getFillColor()) != 0;
+            final boolean stroke = Color.alpha(rule.getLineColor()) != 0 && rule.getLineWidth() > 0;
+            final float radius = rule.getPointRadius() * mDensity;
+            // how far outside the tile a feature can still be seen
+            final float margin = Math.max(stroke ? rule.getLineWidth() * mDensity : 0, radius);
+
+            for (int l = 0; l < tile.getLayerCount(); l++) {
+                final VectorTile.Layer layer = tile.getLayer(l);
+                if (!rule.appliesTo(layer.getName(), zoomLevel)) {
+                    continue;
+                }
+                int keyIndex = -1;
+                if (rule.getFilterKey() != null) {
+                    keyIndex = layer.indexOfKey(rule.getFilterKey());
+                    if (keyIndex < 0) {
+                        continue;
+                    }
+                }
+                final float scale = tileSize / layer.getExtent();
+                for (int f = 0; f < layer.getFeatureCount(); f++) {
+                    if (keyIndex >= 0) {
+                        final Object value = layer.getFeatureValue(f, keyIndex);
+                        if (value == null || !rule.getFilterValue().equals(String.valueOf(value))) {
+                            continue;
+                        }
+                    }
+                    switch (layer.getFeatureType(f)) {
+                        case VectorTile.TYPE_POLYGON:
+                            if ((fill || stroke) && buildPath(layer, f, scale, dx, dy, true)
+                                    && isVisible(size, margin)) {
+                                if (fill) {
+                                    canvas.drawPath(mPath, mFillPaint);
+                                }
+                                if (stroke) {
+                                    canvas.drawPath(mPath, mLinePaint);
+                                }
+                            }
+                            break;
+                        case VectorTile.TYPE_LINESTRING:
+                            if (stroke && buildPath(layer, f, scale, dx, dy, false)
+                                    && isVisible(size, margin)) {
+                                canvas.drawPath(mPath, mLinePaint);
+                            }
+                            break;
+                        case VectorTile.TYPE_POINT:
+                            if (fill && radius > 0) {
+                                drawPoints(canvas, layer, f, scale, dx, dy, size, radius);
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds mPath from the parts of a feature, in pixels.
+     *
+     * @return false if the feature has no geometry
+     */
+    private boolean buildPath(final VectorTile.Layer layer, final int feature, final float scale,
+                              final float dx, final float dy, final boolean close) {
+        mPath.rewind();
+        mPathLeft = mPathTop = Float.MAX_VALUE;
+        mPathRight = mPathBottom = -Float.MAX_VALUE;
+        boolean empty = true;
+        for (int part = layer.getFirstPart(feature); part < layer.getPartEnd(feature); part++) {
+            final int first = layer.getFirstPoint(part);
+            final int end = layer.getPointEnd(part);
+            if (end - first < 2) {
+                continue;
+            }
+            for (int point = first; point < end; point++) {
+                final float x = layer.getX(point) * scale + dx;
+                final float y = layer.getY(point) * scale + dy;
+                if (point == first) {
+                    mPath.moveTo(x, y);
+                } else {
+                    mPath.lineTo(x, y);
+                }
+                mPathLeft = Math.min(mPathLeft, x);
+                mPathTop = Math.min(mPathTop, y);
+                mPathRight = Math.max(mPathRight, x);
+                mPathBottom = Math.max(mPathBottom, y);
+            }
+            if (close) {
+                mPath.close();
+            }
+            empty = false;
+        }
+        return !empty;
+    }
+
+    private boolean isVisible(final int size, final float margin) {
+        return mPathRight >= -margin && mPathBottom >= -margin
+                && mPathLeft <= size + margin && mPathTop <= size + margin;
+    }
+
+    private void drawPoints(final Canvas canvas, final VectorTile.Layer layer, final int feature,
+                            final float scale, final float dx, final float dy, final int size,
+                            final float radius) {
+        for (int part = layer.getFirstPart(feature); part < layer.getPartEnd(feature); part++) {
+            for (int point = layer.getFirstPoint(part); point < layer.getPointEnd(part); point++) {
+                final float x = layer.getX(point) * scale + dx;
+                final float y = layer.getY(point) * scale + dy;
+                if (x >= -radius && y >= -radius && x <= size + radius && y <= size + radius) {
+                    canvas.drawCircle(x, y, radius, mFillPaint);
+                }
+            }
+        }
+    }
+}
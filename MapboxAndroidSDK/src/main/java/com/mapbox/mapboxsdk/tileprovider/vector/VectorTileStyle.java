@@ -0,0 +1,167 @@
+package com.mapbox.mapboxsdk.tileprovider.vector;
+
+import android.graphics.Color;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * How the features of vector tiles are drawn: a background color and a list of rules, drawn in
+ * order. Every rule draws the features of a layer, or of all layers, that match its filter:
+ * polygons are filled and outlined, lines are stroked and points are drawn as circles.
+ * <p/>
+ * Tiles drawn with a style are cached under its name, so a style must not be changed once it
+ * is used. To restyle a map, set a style with another name, the vector tiles are drawn again
+ * from the cache without being downloaded again.
+ */
+public class VectorTileStyle {
+
+    private final String mName;
+    private int mBackgroundColor = Color.TRANSPARENT;
+    private final List<Rule> mRules = new ArrayList<>();
+
+    /**
+     * @param name the name of the style, part of the cache key of the tiles drawn with it
+     */
+    public VectorTileStyle(final String name) {
+        mName = name;
+    }
+
+    /**
+     * @return a style drawing every feature of every layer in shades of grey
+     */
+    public static VectorTileStyle createDefault() {
+        final VectorTileStyle style = new VectorTileStyle("default");
+        style.setBackgroundColor(Color.rgb(242, 239, 233));
+        style.addRule(null)
+                .setFillColor(Color.argb(64, 128, 128, 128))
+                .setLineColor(Color.rgb(128, 128, 128))
+                .setLineWidth(1)
+                .setPointRadius(2);
+        return style;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public int getBackgroundColor() {
+        return mBackgroundColor;
+    }
+
+    public VectorTileStyle setBackgroundColor(final int color) {
+        mBackgroundColor = color;
+        return this;
+    }
+
+    /**
+     * Adds a rule drawn after the rules added before.
+     *
+     * @param layerName the layer the rule draws, null for all layers
+     * @return the rule, to be configured
+     */
+    public Rule addRule(final String layerName) {
+        final Rule rule = new Rule(layerName);
+        mRules.add(rule);
+        return rule;
+    }
+
+    public List<Rule> getRules() {
+        return Collections.unmodifiableList(mRules);
+    }
+
+    /**
+     * How the features of a layer that match a filter are drawn. Sizes are in density
+     * independent pixels, a color that is fully transparent or a size of 0 draws nothing.
+     */
+    public static class Rule {
+        private final String mLayerName;
+        private String mFilterKey;
+        private String mFilterValue;
+        private float mMinimumZoomLevel = 0;
+        private float mMaximumZoomLevel = Float.MAX_VALUE;
+        private int mFillColor = Color.TRANSPARENT;
+        private int mLineColor = Color.TRANSPARENT;
+        private float mLineWidth;
+        private float mPointRadius;
+
+        Rule(final String layerName) {
+            mLayerName = layerName;
+        }
+
+        /**
+         * Only draws the features whose property has a value, compared as a string.
+         */
+        public Rule where(final String key, final String value) {
+            mFilterKey = key;
+            mFilterValue = value;
+            return this;
+        }
+
+        /**
+         * Only draws the features in tiles from a zoom level to another, both included.
+         */
+        public Rule setZoomRange(final float minimumZoomLevel, final float maximumZoomLevel) {
+            mMinimumZoomLevel = minimumZoomLevel;
+            mMaximumZoomLevel = maximumZoomLevel;
+            return this;
+        }
+
+        public Rule setFillColor(final int color) {
+            mFillColor = color;
+            return this;
+        }
+
+        public Rule setLineColor(final int color) {
+            mLineColor = color;
+            return this;
+        }
+
+        public Rule setLineWidth(final float width) {
+            mLineWidth = width;
+            return this;
+        }
+
+        public Rule setPointRadius(final float radius) {
+            mPointRadius = radius;
+            return this;
+        }
+
+        public String getLayerName() {
+            return mLayerName;
+        }
+
+        public String getFilterKey() {
+            return mFilterKey;
+        }
+
+        public String getFilterValue() {
+            return mFilterValue;
+        }
+
+        public int getFillColor() {
+            return mFillColor;
+        }
+
+        public int getLineColor() {
+            return mLineColor;
+        }
+
+        public float getLineWidth() {
+            return mLineWidth;
+        }
+
+        public float getPointRadius() {
+            return mPointRadius;
+        }
+
+        /**
+         * @return true if the rule draws this layer in tiles at this zoom level
+         */
+        public boolean appliesTo(final String layerName, final int zoomLevel) {
+            return (mLayerName == null || mLayerName.equals(layerName))
+                    && zoomLevel >= mMinimumZoomLevel && zoomLevel <= mMaximumZoomLevel;
+        }
+    }
+}
@@ -94,11 +94,71 @@ public class DataLoadingUtils {
         return parsed;
     }
 
+    /**
+     * Load GeoJSON from URL (in synchronous manner) one feature at a time, without keeping the
+     * whole document in memory.
+     * @param url URL of GeoJSON data
+     * @param markerIcon Optional Icon to use for markers
+     * @param handler Receives the Mapbox SDK UI Objects of every feature as soon as it has been read
+     * @return The number of features read
+     * @throws IOException
+     * @throws JSONException
+     */
+    public static int streamGeoJSONFromUrl(final String url, final Icon markerIcon, final GeoJSONStreamReader.FeatureHandler handler) throws IOException, JSONException {
+        if (TextUtils.isEmpty(url)) {
+            throw new NullPointerException("No GeoJSON URL passed in.");
+        }
+
+        if (UtilConstants.DEBUGMODE) {
+            Log.d(DataLoadingUtils.class.getCanonicalName(), "Mapbox SDK streaming GeoJSON URL: " + url);
+        }
+
+        InputStream is;
+        if (url.toLowerCase(Locale.US).indexOf("http") == 0) {
+            is = NetworkUtils.getHttpURLConnection(new URL(url)).getInputStream();
+        } else {
+            is = new URL(url).openStream();
+        }
+        return streamGeoJSON(is, markerIcon, handler);
+    }
+
+    /**
+     * Load GeoJSON from assets (in synchronous manner) one feature at a time, without keeping
+     * the whole document in memory.
+     * @param context Application's Context
+     * @param fileName Name of file in assets directory
+     * @param markerIcon Optional Icon to use for markers
+     * @param handler Receives the Mapbox SDK UI Objects of every feature as soon as it has been read
+     * @return The number of features read
+     * @throws IOException
+     * @throws JSONException
+     */
+    public static int streamGeoJSONFromAssets(final Context context, final String fileName, final Icon markerIcon, final GeoJSONStreamReader.FeatureHandler handler) throws IOException, JSONException {
+        if (TextUtils.isEmpty(fileName)) {
+            throw new NullPointerException("No GeoJSON File Name passed in.");
+        }
+        return streamGeoJSON(context.getAssets().open(fileName), markerIcon, handler);
+    }
+
+    private static int streamGeoJSON(final InputStream is, final Icon markerIcon, final GeoJSONStreamReader.FeatureHandler handler) throws IOException, JSONException {
+        Reader rd = new InputStreamReader(is, Charset.forName("UTF-8"));
+        try {
+            int count = new GeoJSONStreamReader(rd).read(markerIcon, handler);
+            if (UtilConstants.DEBUGMODE) {
+                Log.d(DataLoadingUtils.class.getCanonicalName(), "Streamed GeoJSON with " + count + " features.");
+            }
+            return count;
+        } finally {
+            rd.close();
+        }
+    }
+
     public static String readAll(Reader rd) throws IOException {
         StringBuilder sb = new StringBuilder();
-        int cp;
-        while ((cp = rd.read()) != -1) {
-            sb.append((char) cp);
+        char[] buffer = new char[8192];
+        int count;
+        while ((count = rd.read(buffer)) != -1) {
+            sb.append(buffer, 0, count);
         }
         return sb.toString();
     }
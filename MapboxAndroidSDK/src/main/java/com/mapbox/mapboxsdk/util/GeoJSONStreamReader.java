@@ -0,0 +1,569 @@
+package com.mapbox.mapboxsdk.util;
+
+import android.graphics.Paint;
+
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.overlay.Icon;
+import com.mapbox.mapboxsdk.overlay.Marker;
+import com.mapbox.mapboxsdk.overlay.PathOverlay;
+
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Reads GeoJSON one feature at a time and turns every feature into Markers and PathOverlays
+ * as soon as it has been read, the same way DataLoadingUtils.createUIObjectsFromGeoJSONObjects()
+ * does. Only the coordinates of the current feature are kept, in flat arrays that are reused
+ * from feature to feature, so files of any size can be loaded.
+ *
+ * Accepts a FeatureCollection, a single Feature or a bare geometry. GeometryCollections are
+ * skipped.
+ */
+public class GeoJSONStreamReader {
+
+    /**
+     * Receives the objects of each feature, on the thread that reads the GeoJSON.
+     */
+    public interface FeatureHandler {
+        void onMarker(Marker marker);
+
+        void onPath(PathOverlay path);
+    }
+
+    private static final int EOF = -1;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader mReader;
+    private final char[] mBuffer = new char[BUFFER_SIZE];
+    private int mPos;
+    private int mLimit;
+    private final StringBuilder mString = new StringBuilder();
+
+    // the feature being read
+    private String mGeometryType;
+    private String mTitle;
+    private String mDescription;
+    private double[] mCoordinates = new double[256];
+    private int mPointCount;
+    private int[] mPartEnds = new int[16];
+    private int mPartCount;
+    private int[] mPolygonEnds = new int[16];
+    private int mPolygonCount;
+    private int mFeatureCount;
+
+    public GeoJSONStreamReader(final Reader reader) {
+        mReader = reader;
+    }
+
+    /**
+     * Reads the whole document.
+     *
+     * @param markerIcon optional icon of the markers
+     * @param handler    receives the objects of every feature
+     * @return the number of features read
+     */
+    public int read(final Icon markerIcon, final FeatureHandler handler) throws IOException, JSONException {
+        mFeatureCount = 0;
+        beginObject();
+        resetFeature();
+        String type = null;
+        while (hasNext()) {
+            final String name = nextString();
+            if ("type".equals(name)) {
+                type = nextLiteral();
+            } else if ("features".equals(name) && peek() == '[') {
+                beginArray();
+                while (hasNext()) {
+                    readFeature(markerIcon, handler);
+                }
+                endArray();
+            } else if (!readFeatureMember(name)) {
+                skipValue();
+            }
+        }
+        endObject();
+        if (type != null && !"FeatureCollection".equals(type)) {
+            // a single feature, or a geometry on its own
+            if (!"Feature".equals(type)) {
+                mGeometryType = type;
+            }
+            emitFeature(markerIcon, handler);
+        }
+        return mFeatureCount;
+    }
+
+    private void readFeature(final Icon markerIcon, final FeatureHandler handler) throws IOException, JSONException {
+        resetFeature();
+        beginObject();
+        while (hasNext()) {
+            if (!readFeatureMember(nextString())) {
+                skipValue();
+            }
+        }
+        endObject();
+        emitFeature(markerIcon, handler);
+    }
+
+    private void resetFeature() {
+        mGeometryType = null;
+        mTitle = "";
+        mDescription = "";
+        mPointCount = 0;
+        mPartCount = 0;
+        mPolygonCount = 0;
+    }
+
+    /**
+     * Reads the value of a member of a Feature, or of a geometry read on its own.
+     *
+     * @return false if the member is of no interest and its value has not been read
+     */
+    private boolean readFeatureMember(final String name) throws IOException, JSONException {
+        if ("geometry".equals(name)) {
+            if (peek() != '{') {
+                return false;
+            }
+            beginObject();
+            while (hasNext()) {
+                final String member = nextString();
+                if ("type".equals(member)) {
+                    mGeometryType = nextLiteral();
+                } else if ("coordinates".equals(member)) {
+                    readCoordinates();
+                } else {
+                    skipValue();
+                }
+            }
+            endObject();
+        } else if ("coordinates".equals(name)) {
+            readCoordinates();
+        } else if ("properties".equals(name)) {
+            if (peek() != '{') {
+                return false;
+            }
+            beginObject();
+            while (hasNext()) {
+                final String member = nextString();
+                if ("title".equals(member)) {
+                    mTitle = nextLiteral();
+                } else if ("description".equals(member)) {
+                    mDescription = nextLiteral();
+                } else {
+                    skipValue();
+                }
+            }
+            endObject();
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reads a coordinates member of any depth into mCoordinates, recording where its lines and
+     * rings (parts) and its polygons end.
+     *
+     * @return the depth of the value, 0 for a position, 1 for a list of positions and so on
+     */
+    private int readCoordinates() throws IOException, JSONException {
+        if (peek() != '[') {
+            skipValue();
+            return -1;
+        }
+        beginArray();
+        if (peek() != '[') {
+            // a position, everything after longitude and latitude is ignored
+            int axis = 0;
+            while (hasNext()) {
+                final double value = nextDouble();
+                if (axis < 2) {
+                    ensureCoordinateCapacity(mPointCount + 1);
+                    mCoordinates[mPointCount * 2 + axis] = value;
+                }
+                axis++;
+            }
+            endArray();
+            if (axis >= 2) {
+                mPointCount++;
+            }
+            return 0;
+        }
+        int depth = 1;
+        while (hasNext()) {
+            depth = readCoordinates() + 1;
+        }
+        endArray();
+        if (depth == 1) {
+            if (mPartCount == mPartEnds.length) {
+                mPartEnds = Arrays.copyOf(mPartEnds, mPartCount * 2);
+            }
+            mPartEnds[mPartCount++] = mPointCount;
+        } else if (depth == 2) {
+            if (mPolygonCount == mPolygonEnds.length) {
+                mPolygonEnds = Arrays.copyOf(mPolygonEnds, mPolygonCount * 2);
+            }
+            mPolygonEnds[mPolygonCount++] = mPartCount;
+        }
+        return depth;
+    }
+
+    private void ensureCoordinateCapacity(final int points) {
+        if (points * 2 > mCoordinates.length) {
+            mCoordinates = Arrays.copyOf(mCoordinates, Math.max(points * 2, mCoordinates.length * 2));
+        }
+    }
+
+    private void emitFeature(final Icon markerIcon, final FeatureHandler handler) {
+        final String type = mGeometryType;
+        if (type == null) {
+            return;
+        }
+        mFeatureCount++;
+        if ("Point".equals(type) || "MultiPoint".equals(type)) {
+            for (int i = 0; i < mPointCount; i++) {
+                final Marker marker = new Marker(mTitle, mDescription,
+                        new LatLng(mCoordinates[i * 2 + 1], mCoordinates[i * 2]));
+                if (markerIcon != null) {
+                    marker.setIcon(markerIcon);
+                }
+                handler.onMarker(marker);
+            }
+        } else if ("LineString".equals(type) || "MultiLineString".equals(type)) {
+            int start = 0;
+            for (int part = 0; part < mPartCount; part++) {
+                final PathOverlay path = new PathOverlay();
+                path.addLngLatPoints(mCoordinates, start, mPartEnds[part], false);
+                handler.onPath(path);
+                start = mPartEnds[part];
+            }
+        } else if ("Polygon".equals(type) || "MultiPolygon".equals(type)) {
+            final PathOverlay path = new PathOverlay();
+            path.getPaint().setStyle(Paint.Style.FILL);
+            int polygon = 0;
+            int ringInPolygon = 0;
+            int start = 0;
+            for (int part = 0; part < mPartCount; part++) {
+                if (polygon < mPolygonCount && part == mPolygonEnds[polygon]) {
+                    polygon++;
+                    ringInPolygon = 0;
+                }
+                final int end = mPartEnds[part];
+                // we re-wind inner rings of GeoJSON polygons in order
+                // to render them as transparent in the canvas layer.
+                // first ring should have windingOrder = true,
+                // all others should have winding order == false
+                final boolean clockwise = windingOrder(mCoordinates, start, end);
+                path.addLngLatPoints(mCoordinates, start, end, ringInPolygon == 0 ? clockwise : !clockwise);
+                ringInPolygon++;
+                start = end;
+            }
+            handler.onPath(path);
+        } else {
+            mFeatureCount--;
+        }
+    }
+
+    private static boolean windingOrder(final double[] lngLats, final int start, final int end) {
+        float area = 0;
+        if (end - start > 2) {
+            for (int i = start; i < end - 1; i++) {
+                area += Math.toRadians(lngLats[(i + 1) * 2] - lngLats[i * 2])
+                        * (2 + Math.sin(Math.toRadians(lngLats[i * 2 + 1])) + Math.sin(Math.toRadians(lngLats[(i + 1) * 2 + 1])));
+            }
+        }
+        return area > 0;
+    }
+
+    //
+    // A minimal pull tokenizer. android.util.JsonReader needs API level 11.
+    //
+
+    /**
+     * @return false if there is nothing left to read
+     */
+    private boolean fill() throws IOException {
+        if (mPos < mLimit) {
+            return true;
+        }
+        mLimit = mReader.read(mBuffer, 0, mBuffer.length);
+        mPos = 0;
+        if (mLimit <= 0) {
+            mLimit = 0;
+            return false;
+        }
+        return true;
+    }
+
+    private int read() throws IOException {
+        return fill() ? mBuffer[mPos++] : EOF;
+    }
+
+    /**
+     * @return the first character of the next token without consuming it. Separators between
+     * values and names are skipped.
+     */
+    private int peek() throws IOException {
+        while (true) {
+            if (!fill()) {
+                return EOF;
+            }
+            final char c = mBuffer[mPos];
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == ',' || c == ':') {
+                mPos++;
+            } else {
+                return c;
+            }
+        }
+    }
+
+    private void expect(final char expected) throws IOException, JSONException {
+        final int c = peek();
+        if (c != expected) {
+            throw syntaxError("Expected '" + expected + "'");
+        }
+        mPos++;
+    }
+
+    private void beginObject() throws IOException, JSONException {
+        expect('{');
+    }
+
+    private void endObject() throws IOException, JSONException {
+        expect('}');
+    }
+
+    private void beginArray() throws IOException, JSONException {
+        expect('[');
+    }
+
+    private void endArray() throws IOException, JSONException {
+        expect(']');
+    }
+
+    private boolean hasNext() throws IOException, JSONException {
+        final int c = peek();
+        if (c == EOF) {
+            throw syntaxError("Unexpected end of input");
+        }
+        return c != '}' && c != ']';
+    }
+
+    private String nextString() throws IOException, JSONException {
+        expect('"');
+        mString.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                return mString.toString();
+            } else if (c == '\\') {
+                c = read();
+                switch (c) {
+                    case 'b':
+                        mString.append('\b');
+                        break;
+                    case 'f':
+                        mString.append('\f');
+                        break;
+                    case 'n':
+                        mString.append('\n');
+                        break;
+                    case 'r':
+                        mString.append('\r');
+                        break;
+                    case 't':
+                        mString.append('\t');
+                        break;
+                    case 'u':
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            final int digit = Character.digit(read(), 16);
+                            if (digit < 0) {
+                                throw syntaxError("Invalid escape sequence");
+                            }
+                            code = code * 16 + digit;
+                        }
+                        mString.append((char) code);
+                        break;
+                    case EOF:
+                        throw syntaxError("Unterminated string");
+                    default:
+                        mString.append((char) c);
+                        break;
+                }
+            } else if (c == EOF) {
+                throw syntaxError("Unterminated string");
+            } else {
+                mString.append((char) c);
+            }
+        }
+    }
+
+    /**
+     * Reads a number, true, false or null. The text is left in mString.
+     */
+    private void readLiteral() throws IOException, JSONException {
+        peek();
+        mString.setLength(0);
+        while (fill()) {
+            final char c = mBuffer[mPos];
+            if (c == ',' || c == '}' || c == ']' || c == ':' || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                break;
+            }
+            mString.append(c);
+            mPos++;
+        }
+        if (mString.length() == 0) {
+            throw syntaxError("Expected a value");
+        }
+    }
+
+    /**
+     * @return a string, number or boolean value as text, the empty string for anything else
+     */
+    private String nextLiteral() throws IOException, JSONException {
+        final int c = peek();
+        if (c == '"') {
+            return nextString();
+        } else if (c == '{' || c == '[') {
+            skipValue();
+            return "";
+        }
+        readLiteral();
+        return "null".contentEquals(mString) ? "" : mString.toString();
+    }
+
+    private double nextDouble() throws IOException, JSONException {
+        readLiteral();
+        final double value = parseDouble(mString);
+        if (Double.isNaN(value)) {
+            try {
+                return Double.parseDouble(mString.toString());
+            } catch (NumberFormatException e) {
+                throw syntaxError("Expected a number but was " + mString);
+            }
+        }
+        return value;
+    }
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Parses the common case of a number with at most 15 significant digits and a small
+     * exponent without creating a String. Both the digits and the power of ten are exact in a
+     * double, so the one division or multiplication rounds correctly, as Double.parseDouble()
+     * would.
+     *
+     * @return the value, or NaN if the number has to be parsed by Double.parseDouble()
+     */
+    static double parseDouble(final CharSequence text) {
+        final int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+        for (; i < length; i++) {
+            final char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                anyDigit = true;
+                if (digits > 0 || c != '0') {
+                    if (++digits > 15) {
+                        return Double.NaN;
+                    }
+                    mantissa = mantissa * 10 + (c - '0');
+                }
+            } else if (c == '.') {
+                for (i++; i < length; i++) {
+                    final char d = text.charAt(i);
+                    if (d < '0' || d > '9') {
+                        break;
+                    }
+                    anyDigit = true;
+                    if (digits > 0 || d != '0') {
+                        if (++digits > 15) {
+                            return Double.NaN;
+                        }
+                        mantissa = mantissa * 10 + (d - '0');
+                    }
+                    exponent--;
+                }
+                break;
+            } else {
+                break;
+            }
+        }
+        if (!anyDigit) {
+            return Double.NaN;
+        }
+        if (i < length) {
+            final char e = text.charAt(i);
+            if (e != 'e' && e != 'E') {
+                return Double.NaN;
+            }
+            i++;
+            boolean negativeExponent = false;
+            if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                negativeExponent = text.charAt(i) == '-';
+                i++;
+            }
+            if (i == length || length - i > 3) {
+                return Double.NaN;
+            }
+            int value = 0;
+            for (; i < length; i++) {
+                final char d = text.charAt(i);
+                if (d < '0' || d > '9') {
+                    return Double.NaN;
+                }
+                value = value * 10 + (d - '0');
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+        double result = mantissa;
+        if (exponent < 0) {
+            if (-exponent >= POWERS_OF_TEN.length) {
+                return Double.NaN;
+            }
+            result /= POWERS_OF_TEN[-exponent];
+        } else if (exponent > 0) {
+            if (exponent >= POWERS_OF_TEN.length) {
+                return Double.NaN;
+            }
+            result *= POWERS_OF_TEN[exponent];
+        }
+        return negative ? -result : result;
+    }
+
+    private void skipValue() throws IOException, JSONException {
+        final int c = peek();
+        if (c == '{' || c == '[') {
+            mPos++;
+            while (hasNext()) {
+                if (c == '{') {
+                    nextString();
+                }
+                skipValue();
+            }
+            mPos++;
+        } else if (c == '"') {
+            nextString();
+        } else {
+            readLiteral();
+        }
+    }
+
+    private JSONException syntaxError(final String message) {
+        return new JSONException(message + " after feature " + mFeatureCount);
+    }
+}
@@ -3,53 +3,208 @@ package com.mapbox.mapboxsdk.util;
 import android.graphics.Canvas;
 import android.graphics.Point;
 import android.graphics.Rect;
-import android.os.Handler;
 import com.mapbox.mapboxsdk.tileprovider.MapTile;
-import com.mapbox.mapboxsdk.views.util.Projection;
-import java.util.ArrayList;
-import java.util.List;
-import uk.co.senab.bitmapcache.CacheableBitmapDrawable;
 
 /**
  * A class that will loop around all the map tiles in the given viewport.
+ * <p/>
+ * The viewport is a convex quadrilateral, so that the tiles of a rotated map are culled against
+ * what is actually visible rather than against its bounding box. A looper created with a
+ * prefetch ring also hands the ring of tiles around the viewport to
+ * {@link #handlePrefetchTile(String, MapTile)}.
  */
 public abstract class TileLooper {
 
     protected final Point mUpperLeft = new Point();
     protected final Point mLowerRight = new Point();
     protected final Point center = new Point();
-    protected List<CacheableBitmapDrawable> mBeingUsedDrawables =
-            new ArrayList<CacheableBitmapDrawable>();
 
+    private final boolean mPrefetchRing;
+    private final float[] mRectCorners = new float[8];
+    private final float[] mSpan = new float[2];
+    // the first and last visible tile of every row, from the row above the viewport to the
+    // row below it. Rows the viewport does not cross have first > last.
+    private int[] mRowFirst = new int[0];
+    private int[] mRowLast = new int[0];
+
+    public TileLooper() {
+        this(false);
+    }
+
+    /**
+     * @param prefetchRing true to call {@link #handlePrefetchTile(String, MapTile)} for the
+     *                     tiles around the viewport
+     */
+    public TileLooper(final boolean prefetchRing) {
+        mPrefetchRing = prefetchRing;
+    }
+
+    /**
+     * Loops over the tiles intersecting an axis aligned viewport.
+     */
     public final int loop(final Canvas pCanvas, final String pCacheKey, final float pZoomLevel,
             final int pTileSizePx, final Rect pViewPort, final Rect pClipRect) {
-        // Calculate the amount of tiles needed for each side around the center one.
-        Projection.pixelXYToTileXY(pViewPort.left, pViewPort.top, mUpperLeft);
-        mUpperLeft.offset(-1, -1);
-
-        Projection.pixelXYToTileXY(pViewPort.right, pViewPort.bottom, mLowerRight);
-        mLowerRight.offset(1, 1);
+        mRectCorners[0] = pViewPort.left;
+        mRectCorners[1] = pViewPort.top;
+        mRectCorners[2] = pViewPort.right;
+        mRectCorners[3] = pViewPort.top;
+        mRectCorners[4] = pViewPort.right;
+        mRectCorners[5] = pViewPort.bottom;
+        mRectCorners[6] = pViewPort.left;
+        mRectCorners[7] = pViewPort.bottom;
+        return loop(pCanvas, pCacheKey, pZoomLevel, pTileSizePx, mRectCorners, pClipRect);
+    }
 
+    /**
+     * Loops over the tiles intersecting a viewport.
+     *
+     * @param pViewPortCorners the 4 corners of the viewport, in order around it, as x, y pairs in
+     *                         pixels at the zoom level of the tiles from the top left of the
+     *                         world. The viewport must be convex.
+     * @return the number of tiles looped over, including the prefetch ring
+     */
+    public final int loop(final Canvas pCanvas, final String pCacheKey, final float pZoomLevel,
+            final int pTileSizePx, final float[] pViewPortCorners, final Rect pClipRect) {
+        float minY = Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        float minX = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        for (int i = 0; i < 8; i += 2) {
+            minX = Math.min(minX, pViewPortCorners[i]);
+            maxX = Math.max(maxX, pViewPortCorners[i]);
+            minY = Math.min(minY, pViewPortCorners[i + 1]);
+            maxY = Math.max(maxY, pViewPortCorners[i + 1]);
+        }
+        mUpperLeft.set(firstTile(minX, pTileSizePx), firstTile(minY, pTileSizePx));
+        mLowerRight.set(lastTile(maxX, pTileSizePx), lastTile(maxY, pTileSizePx));
         center.set((mUpperLeft.x + mLowerRight.x) / 2, (mUpperLeft.y + mLowerRight.y) / 2);
 
+        // spans of the visible tiles, with an empty row on either side for the prefetch ring
+        final int top = mUpperLeft.y - 1;
+        final int rows = mLowerRight.y - mUpperLeft.y + 3;
+        if (mRowFirst.length < rows) {
+            mRowFirst = new int[rows];
+            mRowLast = new int[rows];
+        }
+        mRowFirst[0] = mRowFirst[rows - 1] = Integer.MAX_VALUE;
+        mRowLast[0] = mRowLast[rows - 1] = Integer.MIN_VALUE;
+        for (int row = 1; row < rows - 1; row++) {
+            final float bandTop = Math.max(minY, (top + row) * (float) pTileSizePx);
+            final float bandBottom = Math.min(maxY, (top + row + 1) * (float) pTileSizePx);
+            if (!spanInBand(pViewPortCorners, bandTop, bandBottom, mSpan)) {
+                mRowFirst[row] = Integer.MAX_VALUE;
+                mRowLast[row] = Integer.MIN_VALUE;
+                continue;
+            }
+            mRowFirst[row] = firstTile(mSpan[0], pTileSizePx);
+            mRowLast[row] = Math.max(mRowFirst[row], lastTile(mSpan[1], pTileSizePx));
+        }
+
         final int roundedZoom = (int) Math.floor(pZoomLevel);
         final int mapTileUpperBound = 1 << roundedZoom;
         initializeLoop(pZoomLevel, pTileSizePx);
 
-        int tileX, tileY;
-
-        for (int y = mUpperLeft.y; y <= mLowerRight.y; y++) {
-            for (int x = mUpperLeft.x; x <= mLowerRight.x; x++) {
-                tileY = GeometryMath.mod(y, mapTileUpperBound);
-                tileX = GeometryMath.mod(x, mapTileUpperBound);
-                final MapTile tile = new MapTile(pCacheKey, roundedZoom, tileX, tileY);
+        int count = 0;
+        for (int row = 1; row < rows - 1; row++) {
+            final int y = top + row;
+            for (int x = mRowFirst[row]; x <= mRowLast[row]; x++) {
+                final MapTile tile = new MapTile(pCacheKey, roundedZoom,
+                        GeometryMath.mod(x, mapTileUpperBound), GeometryMath.mod(y, mapTileUpperBound));
                 handleTile(pCanvas, pCacheKey, pTileSizePx, tile, x, y, pClipRect);
+                count++;
+            }
+        }
+
+        if (mPrefetchRing) {
+            for (int row = 0; row < rows; row++) {
+                // every tile next to a visible tile of this row or of the rows around it
+                int first = mRowFirst[row];
+                int last = mRowLast[row];
+                if (row > 0) {
+                    first = Math.min(first, mRowFirst[row - 1]);
+                    last = Math.max(last, mRowLast[row - 1]);
+                }
+                if (row < rows - 1) {
+                    first = Math.min(first, mRowFirst[row + 1]);
+                    last = Math.max(last, mRowLast[row + 1]);
+                }
+                if (first > last) {
+                    continue;
+                }
+                final int y = top + row;
+                for (int x = first - 1; x <= last + 1; x++) {
+                    if (x >= mRowFirst[row] && x <= mRowLast[row]) {
+                        continue;
+                    }
+                    handlePrefetchTile(pCacheKey, new MapTile(pCacheKey, roundedZoom,
+                            GeometryMath.mod(x, mapTileUpperBound), GeometryMath.mod(y, mapTileUpperBound)));
+                    count++;
+                }
             }
         }
         finalizeLoop();
 
         /* return number of tiles looped */
-        return  (mLowerRight.y - mUpperLeft.y) * (mLowerRight.x - mUpperLeft.x);
+        return count;
+    }
+
+    /**
+     * Finds the horizontal extent of the part of a convex polygon between two horizontal lines.
+     *
+     * @param out receives the leftmost and the rightmost x
+     * @return false if the polygon does not reach between the lines
+     */
+    private static boolean spanInBand(final float[] corners, final float bandTop,
+            final float bandBottom, final float[] out) {
+        if (bandTop > bandBottom) {
+            return false;
+        }
+        float left = Float.MAX_VALUE;
+        float right = -Float.MAX_VALUE;
+        for (int i = 0; i < 8; i += 2) {
+            final float x0 = corners[i];
+            final float y0 = corners[i + 1];
+            final float x1 = corners[(i + 2) % 8];
+            final float y1 = corners[(i + 3) % 8];
+            final float edgeTop = Math.max(bandTop, Math.min(y0, y1));
+            final float edgeBottom = Math.min(bandBottom, Math.max(y0, y1));
+            if (edgeTop > edgeBottom) {
+                continue;
+            }
+            final float xTop;
+            final float xBottom;
+            if (y0 == y1) {
+                xTop = x0;
+                xBottom = x1;
+            } else {
+                final float slope = (x1 - x0) / (y1 - y0);
+                xTop = x0 + (edgeTop - y0) * slope;
+                xBottom = x0 + (edgeBottom - y0) * slope;
+            }
+            left = Math.min(left, Math.min(xTop, xBottom));
+            right = Math.max(right, Math.max(xTop, xBottom));
+        }
+        if (left > right) {
+            return false;
+        }
+        out[0] = left;
+        out[1] = right;
+        return true;
+    }
+
+    /**
+     * @return the tile containing a coordinate
+     */
+    private static int firstTile(final float coordinate, final int tileSize) {
+        return (int) Math.floor(coordinate / tileSize);
+    }
+
+    /**
+     * @return the tile containing a coordinate that ends a range, so that a range ending on the
+     * edge of a tile does not include the next one
+     */
+    private static int lastTile(final float coordinate, final int tileSize) {
+        return (int) Math.ceil(coordinate / tileSize) - 1;
     }
 
     public abstract void initializeLoop(float pZoomLevel, int pTileSizePx);
@@ -57,16 +212,16 @@ public abstract class TileLooper {
     public abstract void handleTile(Canvas pCanvas, final String pCacheKey, int pTileSizePx,
             MapTile pTile, int pX, int pY, final Rect pClipRect);
 
+    /**
+     * Called after the visible tiles for the tiles around them, if the looper was created with a
+     * prefetch ring. By default does nothing.
+     */
+    public void handlePrefetchTile(final String pCacheKey, final MapTile pTile) {
+    }
+
+    /**
+     * Called once every tile has been handled. By default does nothing.
+     */
     public void finalizeLoop() {
-        //we delay just to make sure drawable bitmaps are not reused while being drawn.
-        (new Handler()).postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                for (CacheableBitmapDrawable drawable : mBeingUsedDrawables) {
-                    drawable.setBeingUsed(false);
-                }
-                mBeingUsedDrawables.clear();
-            }
-        }, 1);
     }
 }
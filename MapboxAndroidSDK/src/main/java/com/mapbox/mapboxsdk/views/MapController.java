@@ -246,6 +246,16 @@ public class MapController implements MapViewConstants {
         float factor = (float) Math.pow(2, targetZoom - currentZoom);
         propertiesList.add(PropertyValuesHolder.ofFloat("scale", 1.0f, factor));
 
+        // tiles are not requested during the animation, get the ones it ends on. Map
+        // coordinates are relative to the center of the world, so they scale with the zoom.
+        if (zoomAndMove) {
+            mMapView.prefetchTiles(targetZoom, p.x * factor, p.y * factor);
+        } else {
+            // zooming keeps p in place on the screen
+            mMapView.prefetchTiles(targetZoom, p.x * factor + dCurrentScroll.x - p.x,
+                    p.y * factor + dCurrentScroll.y - p.y);
+        }
+
         if (zoomAndMove) {
             PointEvaluator evaluator = new PointEvaluator();
             propertiesList.add(PropertyValuesHolder.ofObject("scrollPoint", evaluator, p));
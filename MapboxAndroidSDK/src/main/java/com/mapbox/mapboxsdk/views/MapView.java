@@ -11,6 +11,7 @@ import android.graphics.RectF;
 import android.location.Location;
 import android.os.Build;
 import android.os.Handler;
+import android.support.v4.view.ViewCompat;
 import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.util.Log;
@@ -27,11 +28,15 @@ import com.cocoahero.android.geojson.FeatureCollection;
 import com.mapbox.mapboxsdk.R;
 import com.mapbox.mapboxsdk.api.ILatLng;
 import com.mapbox.mapboxsdk.constants.MapboxConstants;
+import com.mapbox.mapboxsdk.events.MapEventDispatcher;
 import com.mapbox.mapboxsdk.events.MapListener;
-import com.mapbox.mapboxsdk.events.ScrollEvent;
 import com.mapbox.mapboxsdk.events.ZoomEvent;
 import com.mapbox.mapboxsdk.geometry.BoundingBox;
 import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.metrics.MapMetrics;
+import com.mapbox.mapboxsdk.metrics.MetricsListener;
+import com.mapbox.mapboxsdk.metrics.MetricsReporter;
+import com.mapbox.mapboxsdk.metrics.MetricsSnapshot;
 import com.mapbox.mapboxsdk.overlay.ClusterMarker;
 import com.mapbox.mapboxsdk.overlay.GeoJSONPainter;
 import com.mapbox.mapboxsdk.overlay.GpsLocationProvider;
@@ -63,6 +68,7 @@ import com.mapbox.mapboxsdk.views.util.constants.MapViewConstants;
 import com.mapbox.mapboxsdk.views.util.constants.MapViewLayouts;
 
 import org.json.JSONException;
+import org.json.JSONObject;
 
 import java.io.IOException;
 import java.lang.reflect.Method;
@@ -71,6 +77,8 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import uk.co.senab.bitmapcache.FrameClock;
+
 /**
  * The MapView class manages all of the content and
  * state of a single map, including layers, markers,
@@ -119,6 +127,8 @@ public class MapView extends ViewGroup implements MapViewConstants, MapEventsRec
     private final OverlayManager mOverlayManager;
 
     private Projection mProjection;
+    // true when mProjection no longer matches the state of the map
+    private boolean mProjectionDirty = true;
     private boolean mLayedOut;
 
     private final TilesOverlay mTilesOverlay;
@@ -144,13 +154,35 @@ public class MapView extends ViewGroup implements MapViewConstants, MapEventsRec
     protected float mMultiTouchScale = 1.0f;
     protected PointF mMultiTouchScalePoint = new PointF();
     protected Matrix mInvTransformMatrix = new Matrix();
+    private final Matrix mOverlayTransformMatrix = new Matrix();
 
     protected List<MapListener> mListeners = new ArrayList<>();
+    private final MapEventDispatcher mEventDispatcher = new MapEventDispatcher(this);
+    private final MetricsReporter mMetricsReporter = new MetricsReporter(this);
+    private final FrameClock mFrameClock = new FrameClock();
 
     private float mapOrientation = 0;
     private final float[] mRotatePoints = new float[2];
     private final Rect mInvalidateRect = new Rect();
 
+    /**
+     * Dirty area, in map coordinates, collected by postInvalidateMapCoordinates() until the next
+     * animation frame. Guarded by itself.
+     */
+    private final RectF mPendingInvalidateRect = new RectF();
+    private final RectF mPostedInvalidateRect = new RectF();
+    private boolean mInvalidatePosted;
+    private final Runnable mPendingInvalidateRunnable = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (mPendingInvalidateRect) {
+                mPostedInvalidateRect.set(mPendingInvalidateRect);
+                mInvalidatePosted = false;
+            }
+            invalidateMapCoordinates(mPostedInvalidateRect);
+        }
+    };
+
     protected BoundingBox mScrollableAreaBoundingBox = null;
     protected RectF mScrollableAreaLimit = null;
     private boolean mConstraintRegionFit;
@@ -263,12 +295,14 @@ public class MapView extends ViewGroup implements MapViewConstants, MapEventsRec
     }
 
     /**
-     * Add a new MapListener that observes changes in this map.
+     * Add a new MapListener that observes changes in this map. Events are coalesced and
+     * delivered at most once per frame, a {@link com.mapbox.mapboxsdk.events.ThrottledMapListener}
+     * can ask for less.
      *
      * @param listener
      */
     public void addListener(final MapListener listener) {
-        if (!mListeners.contains(listener)) {
+        if (mEventDispatcher.addListener(listener)) {
             mListeners.add(listener);
         }
     }
@@ -279,11 +313,48 @@ public class MapView extends ViewGroup implements MapViewConstants, MapEventsRec
      * @param listener
      */
     public void removeListener(MapListener listener) {
-        if (mListeners.contains(listener)) {
+        if (mEventDispatcher.removeListener(listener)) {
             mListeners.remove(listener);
         }
     }
 
+    /**
+     * Start or stop recording the metrics of the frame and tile pipelines: cache hit rates,
+     * tile queue lengths, download times, draw times per overlay and tile time to first pixel.
+     * Metrics are shared by all the maps of the application and cost next to nothing while
+     * disabled, which is the default.
+     *
+     * @param enabled true to record metrics
+     */
+    public void setMetricsEnabled(final boolean enabled) {
+        MapMetrics.setEnabled(enabled);
+    }
+
+    public boolean isMetricsEnabled() {
+        return MapMetrics.isEnabled();
+    }
+
+    /**
+     * @return the metrics recorded so far, see {@link #setMetricsEnabled(boolean)}
+     */
+    public MetricsSnapshot getMetricsSnapshot() {
+        return MapMetrics.snapshot();
+    }
+
+    /**
+     * Add a listener receiving the metrics every second on the UI thread, while metrics are
+     * enabled and this map is attached to a window.
+     *
+     * @param listener
+     */
+    public void addMetricsListener(final MetricsListener listener) {
+        mMetricsReporter.addListener(listener);
+    }
+
+    public void removeMetricsListener(final MetricsListener listener) {
+        mMetricsReporter.removeListener(listener);
+    }
+
     /**
      * Add an overlay to this map. If the overlay is already included,
      * does nothing. After adding the overlay, invalidates the map to
@@ -619,12 +690,7 @@ public class MapView extends ViewGroup implements MapViewConstants, MapEventsRec
     }
 
     public void recomputeCluster() {
-        if (mListeners.size() > 0) {
-            final ZoomEvent event = new ZoomEvent(this, mZoomLevel, false);
-            for (MapListener listener : mListeners) {
-                listener.onZoom(event);
-            }
-        }
+        mEventDispatcher.postZoom(mZoomLevel, false);
     }
 
     /**
@@ -672,6 +738,27 @@ public class MapView extends ViewGroup implements MapViewConstants, MapEventsRec
         return mTilesOverlay;
     }
 
+    /**
+     * Prefetches the tiles the map will show when centered on the given point at the given zoom
+     * level, see {@link TilesOverlay#prefetchTiles(float, float, float, int, int)}.
+     *
+     * @param zoomLevel the zoom level the map will be at
+     * @param centerX   the x the map will scroll to, in map coordinates at that zoom level
+     * @param centerY   the y the map will scroll to
+     */
+    void prefetchTiles(final float zoomLevel, final float centerX, final float centerY) {
+        if (!isLayedOut()) {
+            return;
+        }
+        int width = getMeasuredWidth();
+        int height = getMeasuredHeight();
+        if (mapOrientation % 180 != 0) {
+            // the viewport of a rotated map covers more of the map
+            width = height = (int) Math.ceil(Math.hypot(width, height));
+        }
+        mTilesOverlay.prefetchTiles(zoomLevel, centerX, centerY, width, height);
+    }
+
     /**
      * You can add/remove/reorder your Overlays using the List of {@link Overlay}. The first (index
      * 0) Overlay gets drawn first, the one with the highest as the last one.
@@ -688,6 +775,18 @@ public class MapView extends ViewGroup implements MapViewConstants, MapEventsRec
         return mTileProvider;
     }
 
+    /**
+     * Looks up the UTFGrid feature at a position, such as the one passed to
+     * {@link MapViewListener#onTapMap(MapView, ILatLng)}. Grids are downloaded along with the
+     * tiles of layers whose TileJSON lists them, a lookup never waits for the network.
+     *
+     * @param position the position to look up
+     * @return the data of the feature, null if there is none or its grid is not loaded yet
+     */
+    public JSONObject getUTFGridData(final ILatLng position) {
+        return mTileProvider.getUTFGridData(position, getZoomLevel());
+    }
+
     /**
      * Returns the map's scroller
      */
@@ -756,7 +855,10 @@ public class MapView extends ViewGroup implements MapViewConstants, MapEventsRec
     public Projection getProjection() {
         if (mProjection == null) {
             mProjection = new Projection(this);
+        } else if (mProjectionDirty) {
+            mProjection.update(this);
         }
+        mProjectionDirty = false;
         return mProjection;
     }
 
@@ -811,6 +913,14 @@ public class MapView extends ViewGroup implements MapViewConstants, MapEventsRec
         return mInvTransformMatrix;
     }
 
+    /**
+     * @return the transform applied on top of the scroll of the view to the canvas overlays
+     * draw on, as of the frame being drawn. Must not be modified.
+     */
+    public final Matrix getOverlayTransformMatrix() {
+        return mOverlayTransformMatrix;
+    }
+
 
     private void snapItems() {
         // snap for all snappables
@@ -882,20 +992,13 @@ public class MapView extends ViewGroup implements MapViewConstants, MapEventsRec
         }
 
 
-        mProjection = new Projection(this);
+        mProjectionDirty = true;
         // snap for all snappables
         snapItems();
 
-        if (isLayedOut()) {
-            getMapOverlay().rescaleCache(newZoomLevel, curZoomLevel, getProjection());
-        }
-
         // do callback on listener
-        if (newZoomLevel != curZoomLevel && mListeners.size() > 0) {
-            final ZoomEvent event = new ZoomEvent(this, newZoomLevel, mController.currentlyInUserAction());
-            for (MapListener listener : mListeners) {
-                listener.onZoom(event);
-            }
+        if (newZoomLevel != curZoomLevel) {
+            mEventDispatcher.postZoom(newZoomLevel, mController.currentlyInUserAction());
         }
 
         // Allows any views fixed to a Location in the MapView to adjust
@@ -1169,8 +1272,11 @@ public class MapView extends ViewGroup implements MapViewConstants, MapEventsRec
      */
     public void setMapOrientation(float degrees) {
         this.mapOrientation = degrees % 360.0f;
-        this.mProjection = null;
+        this.mProjectionDirty = true;
         this.invalidate();
+
+        // do callback on listener
+        mEventDispatcher.postRotate(mapOrientation, mController.currentlyInUserAction());
     }
 
     /**
@@ -1380,6 +1486,25 @@ public class MapView extends ViewGroup implements MapViewConstants, MapEventsRec
         super.invalidate(mInvalidateRect);
     }
 
+    /**
+     * Invalidates the given area, in map coordinates, on the next animation frame. Every area
+     * posted before that frame is merged into a single invalidate, so that many markers moving
+     * at once do not flood the UI thread. May be called from any thread.
+     *
+     * @param dirty the area to redraw, copied before returning
+     */
+    public void postInvalidateMapCoordinates(final RectF dirty) {
+        synchronized (mPendingInvalidateRect) {
+            if (mInvalidatePosted) {
+                mPendingInvalidateRect.union(dirty);
+                return;
+            }
+            mPendingInvalidateRect.set(dirty);
+            mInvalidatePosted = true;
+        }
+        ViewCompat.postOnAnimation(this, mPendingInvalidateRunnable);
+    }
+
     /**
      * Returns a set of layout parameters with a width of
      * {@link android.view.ViewGroup.LayoutParams#WRAP_CONTENT}, a height of
@@ -1495,7 +1620,7 @@ public class MapView extends ViewGroup implements MapViewConstants, MapEventsRec
     protected void onSizeChanged(int w, int h, int oldw, int oldh) {
         super.onSizeChanged(w, h, oldw, oldh);
         if (w != 0 && h != 0) {
-            mProjection = null;
+            mProjectionDirty = true;
             if (!mLayedOut) {
                 mLayedOut = true;
                 //first layout: if some actions were triggered before, they were enqueued
@@ -1804,17 +1929,12 @@ public class MapView extends ViewGroup implements MapViewConstants, MapEventsRec
 
         // make sure the next time someone wants the projection it is the
         // correct one!
-        mProjection = null;
+        mProjectionDirty = true;
 
         super.scrollTo(intX, intY);
 
         // do callback on listener
-        if (mListeners.size() > 0) {
-            final ScrollEvent event = new ScrollEvent(this, intX, intY, mController.currentlyInUserAction());
-            for (MapListener listener : mListeners) {
-                listener.onScroll(event);
-            }
-        }
+        mEventDispatcher.postScroll(intX, intY, mController.currentlyInUserAction());
     }
 
     @Override
@@ -1827,32 +1947,54 @@ public class MapView extends ViewGroup implements MapViewConstants, MapEventsRec
     protected void onDraw(final Canvas c) {
         super.onDraw(c);
 
-        mProjection = updateProjection();
+        updateProjection();
 
         // Save the current canvas matrix
         c.save();
 
-        c.translate(getWidth() / 2, getHeight() / 2);
-        c.scale(mMultiTouchScale, mMultiTouchScale, mMultiTouchScalePoint.x,
-                mMultiTouchScalePoint.y);
+        mOverlayTransformMatrix.setTranslate(getWidth() / 2, getHeight() / 2);
+        mOverlayTransformMatrix.preScale(mMultiTouchScale, mMultiTouchScale,
+                mMultiTouchScalePoint.x, mMultiTouchScalePoint.y);
 
         // rotate Canvas
-        c.rotate(mapOrientation, mProjection.getScreenRect().exactCenterX(),
+        mOverlayTransformMatrix.preRotate(mapOrientation, mProjection.getScreenRect().exactCenterX(),
                 mProjection.getScreenRect().exactCenterY());
+        c.concat(mOverlayTransformMatrix);
 
         // Draw all Overlays.
         this.getOverlayManager().draw(c, this);
 
         c.restore();
+
+        if (isDisplayFrame(c)) {
+            mFrameClock.endFrame();
+        }
     }
 
     /**
-     * Private Helper Method for onDraw().
-     *
-     * @return New Projection object
+     * @return true if the canvas draws a frame of the window, false if it draws a snapshot of
+     * the view, such as its drawing cache, while the window is hardware accelerated
      */
-    private Projection updateProjection() {
-        return new Projection(this);
+    private boolean isDisplayFrame(final Canvas c) {
+        return Build.VERSION.SDK_INT < Build.VERSION_CODES.HONEYCOMB
+                || c.isHardwareAccelerated() || !isHardwareAccelerated();
+    }
+
+    /**
+     * Returns the clock of the frames this view displays. The tiles drawn are marked with it,
+     * so that their bitmaps are not recycled while a frame may still draw them.
+     */
+    public FrameClock getFrameClock() {
+        return mFrameClock;
+    }
+
+    /**
+     * Private Helper Method for onDraw(). Brings the projection up to date in place, so that
+     * drawing a frame does not allocate one.
+     */
+    private void updateProjection() {
+        mProjectionDirty = true;
+        getProjection();
     }
 
     /**
@@ -1981,7 +2123,7 @@ public class MapView extends ViewGroup implements MapViewConstants, MapEventsRec
                 final Projection projection = getProjection();
                 final float accuracyInPixels = pos.getAccuracy() / (float) projection.groundResolution(
                         pos.getLatitude());
-                final PointF point = projection.toMapPixels(pos.getLatitude(), pos.getLongitude(), null);
+                final PointF point = projection.toMapPixels(pos.getLatitude(), pos.getLongitude(), mPoint);
                 return projection.getScreenRect().intersects((int) (point.x - accuracyInPixels),
                         (int) (point.y - accuracyInPixels),
                         (int) (point.x + accuracyInPixels),
@@ -2000,9 +2142,17 @@ public class MapView extends ViewGroup implements MapViewConstants, MapEventsRec
         }
     }
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mMetricsReporter.start();
+    }
+
     @Override
     protected void onDetachedFromWindow() {
+        mMetricsReporter.stop();
         this.onDetach();
+        mFrameClock.releaseAll();
         super.onDetachedFromWindow();
     }
 
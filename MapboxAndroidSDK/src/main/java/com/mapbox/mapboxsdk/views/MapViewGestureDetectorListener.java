@@ -48,6 +48,9 @@ public class MapViewGestureDetectorListener extends SimpleOnGestureListener {
         this.mapView.mIsFlinging = true;
         this.mapView.mScroller.fling(this.mapView.getScrollX(), this.mapView.getScrollY(),
                 (int) -velocityX, (int) -velocityY, -worldSize, worldSize, -worldSize, worldSize);
+        // tiles are not requested while flinging, get the ones where the fling ends
+        this.mapView.prefetchTiles(this.mapView.getZoomLevel(false),
+                this.mapView.mScroller.getFinalX(), this.mapView.mScroller.getFinalY());
         return true;
     }
 
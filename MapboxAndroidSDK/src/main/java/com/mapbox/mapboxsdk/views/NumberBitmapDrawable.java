@@ -13,6 +13,9 @@ import android.util.TypedValue;
  */
 public class NumberBitmapDrawable extends BitmapDrawable {
     protected int mCount;
+    // the text of mCount, kept so that drawing does not allocate a string every frame
+    private String mCountText;
+    private int mCountTextValue;
     protected Paint mPaint;
     private static final int TEXT_SIZE = 16;
 
@@ -23,13 +26,20 @@ public class NumberBitmapDrawable extends BitmapDrawable {
     public NumberBitmapDrawable(final Resources res, final Bitmap bitmap, final int count) {
         super(res, bitmap);
         mCount = count;
+        setTextPaint(createTextPaint(res));
+    }
+
+    /**
+     * @return a new instance of the paint the count is drawn with by default
+     */
+    public static Paint createTextPaint(final Resources res) {
         Paint paint = new Paint();
         paint.setColor(Color.WHITE);
         paint.setAntiAlias(true);
         paint.setDither(true);
         paint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, TEXT_SIZE, res.getDisplayMetrics()));
         paint.setTextAlign(Paint.Align.CENTER);
-        setTextPaint(paint);
+        return paint;
     }
 
     @Override
@@ -39,7 +49,11 @@ public class NumberBitmapDrawable extends BitmapDrawable {
     }
 
     protected void drawText(Canvas canvas) {
-        canvas.drawText(String.valueOf(mCount), getBounds().centerX(), getBounds().centerY() + mPaint.descent(), mPaint);
+        if (mCountText == null || mCountTextValue != mCount) {
+            mCountText = String.valueOf(mCount);
+            mCountTextValue = mCount;
+        }
+        canvas.drawText(mCountText, getBounds().centerX(), getBounds().centerY() + mPaint.descent(), mPaint);
     }
 
     public void setCount(final int count) {
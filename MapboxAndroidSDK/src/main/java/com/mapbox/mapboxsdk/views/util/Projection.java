@@ -2,7 +2,9 @@
  * A Projection serves to translate between the coordinate system of x/y on-screen pixel
  * coordinates and that of latitude/longitude points on the surface of the earth. You obtain a
  * Projection from MapView.getProjection(). You should not hold on to this object for more than
- * one draw, since the projection of the map could change. <br />
+ * one draw, since the projection of the map could change: the MapView updates its Projection
+ * in place, once per frame, instead of allocating a new one. The rectangles it returns are
+ * updated along with it. <br />
  * <br />
  * <I>Screen coordinates</I> are in the coordinate system of the screen's Canvas. The origin is
  * in the center of the plane. <I>Screen coordinates</I> are appropriate for using to draw to
@@ -32,35 +34,62 @@ import com.mapbox.mapboxsdk.geometry.BoundingBox;
 import com.mapbox.mapboxsdk.constants.GeoConstants;
 import com.mapbox.mapboxsdk.geometry.LatLng;
 import com.mapbox.mapboxsdk.tileprovider.constants.TileLayerConstants;
+import com.mapbox.mapboxsdk.tileprovider.modules.ConfigurablePriorityThreadFactory;
 import com.mapbox.mapboxsdk.util.GeometryMath;
 import com.mapbox.mapboxsdk.views.MapView;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 public class Projection implements GeoConstants {
     private MapView mapView = null;
     private int viewWidth2;
     private int viewHeight2;
     private int worldSize2;
-    private final int offsetX;
-    private final int offsetY;
-    private final int centerX;
-    private final int centerY;
+    private int offsetX;
+    private int offsetY;
+    private int centerX;
+    private int centerY;
     private BoundingBox mBoundingBoxProjection;
-    private final float mZoomLevelProjection;
-    private final Rect mScreenRectProjection;
-    private final RectF mTransformedScreenRectProjection;
-    private final Rect mIntrinsicScreenRectProjection;
-    private final float mMapOrientation;
+    private float mZoomLevelProjection;
+    private final Rect mScreenRectProjection = new Rect();
+    private final RectF mTransformedScreenRectProjection = new RectF();
+    private final Rect mIntrinsicScreenRectProjection = new Rect();
+    private float mMapOrientation;
     private final Matrix mRotateMatrix = new Matrix();
+    // x * mMapPixelScale is the map coordinate, at this zoom level, of the intermediate x
+    private double mMapPixelScale;
+    private double mOrientationSin;
+    private double mOrientationCos;
     protected static int mTileSize = 256;
 
+    /**
+     * The number of points from which latLongToPixelXYParallel() splits the work.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+    private static ExecutorService sProjectionExecutor;
+
     public Projection(final MapView mv) {
         super();
+        update(mv);
+    }
+
+    /**
+     * Takes the current state of the map view, so that one Projection can serve every frame.
+     *
+     * @param mv the map to project for
+     */
+    public void update(final MapView mv) {
         this.mapView = mv;
 
         viewWidth2 = mapView.getMeasuredWidth() >> 1;
         viewHeight2 = mapView.getMeasuredHeight() >> 1;
         mZoomLevelProjection = mapView.getZoomLevel(false);
         worldSize2 = mapSize(mZoomLevelProjection) >> 1;
+        mMapPixelScale = 1 / Math.pow(2, TileLayerConstants.MAXIMUM_ZOOMLEVEL - mZoomLevelProjection);
+        mBoundingBoxProjection = null;
 
         offsetX = -worldSize2;
         offsetY = -worldSize2;
@@ -68,22 +97,24 @@ public class Projection implements GeoConstants {
         centerX = mv.getScrollX();
         centerY = mv.getScrollY();
 
-        //TODO: optimize because right now each line re-compute the previous value
-        mIntrinsicScreenRectProjection = mapView.getIntrinsicScreenRect(null);
-        if (mapView.getMapOrientation() % 180 != 0) {
+        mMapOrientation = mapView.getMapOrientation();
+        mapView.getIntrinsicScreenRect(mIntrinsicScreenRectProjection);
+        if (mMapOrientation % 180 != 0) {
             // Since the canvas is shifted by getWidth/2, we can just return our
             // natural scrollX/Y
             // value since that is the same as the shifted center.
             PointF scrollPoint = mapView.getScrollPoint();
-            mScreenRectProjection = GeometryMath.getBoundingBoxForRotatedRectangle(mIntrinsicScreenRectProjection,
-                    scrollPoint.x, scrollPoint.y, this.getMapOrientation(), null);
+            GeometryMath.getBoundingBoxForRotatedRectangle(mIntrinsicScreenRectProjection,
+                    scrollPoint.x, scrollPoint.y, mMapOrientation, mScreenRectProjection);
         } else {
-            mScreenRectProjection = mIntrinsicScreenRectProjection;
+            mScreenRectProjection.set(mIntrinsicScreenRectProjection);
         }
-        mTransformedScreenRectProjection = new RectF(mScreenRectProjection);
+        mTransformedScreenRectProjection.set(mScreenRectProjection);
         mapView.getInversedTransformMatrix().mapRect(mTransformedScreenRectProjection);
-        mMapOrientation = mapView.getMapOrientation();
         mRotateMatrix.setRotate(-mMapOrientation, viewWidth2, viewHeight2);
+        final double orientation = Math.toRadians(mMapOrientation);
+        mOrientationSin = Math.sin(orientation);
+        mOrientationCos = Math.cos(orientation);
     }
 
     public float getZoomLevel() {
@@ -94,6 +125,13 @@ public class Projection implements GeoConstants {
         return worldSize2;
     }
 
+    /**
+     * @return the width and height of the whole map, in pixels, at this zoom level
+     */
+    public int getWorldSize() {
+        return worldSize2 << 1;
+    }
+
     public BoundingBox getBoundingBox() {
         if (mBoundingBoxProjection == null) {
             mBoundingBoxProjection = mapView.getBoundingBoxInternal();
@@ -277,19 +315,80 @@ public class Projection implements GeoConstants {
             out = new PointF();
         }
 
-        final float zoomDifference = TileLayerConstants.MAXIMUM_ZOOMLEVEL - getZoomLevel();
-        out.set((int) (GeometryMath.rightShift(in.x, zoomDifference) + offsetX),
-                (int) (GeometryMath.rightShift(in.y, zoomDifference) + offsetY));
+        out.set((int) (in.x * mMapPixelScale + offsetX), (int) (in.y * mMapPixelScale + offsetY));
         return out;
     }
 
     public double[] toMapPixelsTranslated(final double[] in, final double[] out) {
-        final float zoomDifference = TileLayerConstants.MAXIMUM_ZOOMLEVEL - getZoomLevel();
-        out[0] = GeometryMath.rightShift(in[0], zoomDifference) + offsetX;
-        out[1] = GeometryMath.rightShift(in[1], zoomDifference) + offsetY;
+        out[0] = in[0] * mMapPixelScale + offsetX;
+        out[1] = in[1] * mMapPixelScale + offsetY;
+        return out;
+    }
+
+    /**
+     * Gets the transform that toMapPixelsTranslated() applies, so that many points can be
+     * translated without calling it for each of them: x * scale + offsetX is the translated x
+     * of an intermediate x, before it is rounded, and the same goes for y.
+     *
+     * @param out receives scale, offsetX and offsetY
+     * @return out
+     */
+    public double[] getMapPixelsTransform(final double[] out) {
+        out[0] = mMapPixelScale;
+        out[1] = offsetX;
+        out[2] = offsetY;
         return out;
     }
 
+    /**
+     * Converts many longitude, latitude points to their <I>Map coordinates</I> in pixels for the
+     * current zoom, without allocating.
+     *
+     * @param lngLats  longitude, latitude pairs, one point every inStride values
+     * @param inStride the number of values per input point
+     * @param start    the first point to convert
+     * @param end      the point after the last one to convert
+     * @param out      receives x, y pairs, the first one at outStart * 2
+     * @param outStart the point of out to write the first result to
+     */
+    public void toMapPixels(final double[] lngLats, final int inStride, final int start, final int end,
+            final double[] out, final int outStart) {
+        latLongToPixelXY(lngLats, inStride, start, end, out, 2, outStart);
+        for (int o = outStart * 2, last = (outStart + end - start) * 2; o < last; o += 2) {
+            out[o] = out[o] * mMapPixelScale + offsetX;
+            out[o + 1] = out[o + 1] * mMapPixelScale + offsetY;
+        }
+    }
+
+    /**
+     * Converts many points from <I>Map coordinates</I> to <I>screen coordinates</I>, the batch
+     * version of toPixels(PointF, PointF) that also applies the map orientation like
+     * toPixels(ILatLng, PointF) does. in and out may be the same array.
+     *
+     * @param in       x, y pairs in map coordinates
+     * @param inStart  the first point to convert
+     * @param count    the number of points to convert
+     * @param out      receives x, y pairs in screen coordinates
+     * @param outStart the point of out to write the first result to
+     */
+    public void toPixels(final double[] in, final int inStart, final int count, final float[] out,
+            final int outStart) {
+        final double centerX = mIntrinsicScreenRectProjection.exactCenterX();
+        final double centerY = mIntrinsicScreenRectProjection.exactCenterY();
+        final boolean rotated = mMapOrientation % 360 != 0;
+        for (int i = inStart * 2, o = outStart * 2, last = (inStart + count) * 2; i < last; i += 2, o += 2) {
+            double x = in[i] - centerX;
+            double y = in[i + 1] - centerY;
+            if (rotated) {
+                final double rotatedX = x * mOrientationCos - y * mOrientationSin;
+                y = x * mOrientationSin + y * mOrientationCos;
+                x = rotatedX;
+            }
+            out[o] = (float) (x + viewWidth2);
+            out[o + 1] = (float) (y + viewHeight2);
+        }
+    }
+
     /**
      * Translates a rectangle from <I>screen coordinates</I> to <I>intermediate coordinates</I>.
      *
@@ -297,7 +396,18 @@ public class Projection implements GeoConstants {
      * @return a rectangle in </I>intermediate coordindates</I>.
      */
     public Rect fromPixelsToProjected(final Rect in) {
-        final Rect result = new Rect();
+        return fromPixelsToProjected(in, null);
+    }
+
+    /**
+     * Translates a rectangle from <I>screen coordinates</I> to <I>intermediate coordinates</I>.
+     *
+     * @param in the rectangle in <I>screen coordinates</I>
+     * @param reuse just pass null if you do not have a Rect to be 'recycled'.
+     * @return a rectangle in </I>intermediate coordindates</I>.
+     */
+    public Rect fromPixelsToProjected(final Rect in, final Rect reuse) {
+        final Rect result = GeometryMath.reusable(reuse);
 
         final float zoomDifference = TileLayerConstants.MAXIMUM_ZOOMLEVEL - getZoomLevel();
 
@@ -426,6 +536,100 @@ public class Projection implements GeoConstants {
         return out;
     }
 
+    /**
+     * Projects many points at once, see latLongToPixelXY(double, double). Coordinates in range
+     * take a single pass of straight-line arithmetic, one sine and one logarithm per point.
+     *
+     * @param lngLats   longitude, latitude pairs, one point every inStride values
+     * @param inStride  the number of values per input point
+     * @param start     the first point to project
+     * @param end       the point after the last one to project
+     * @param out       receives the pixel coordinates at the maximum zoom level
+     * @param outStride the number of values per output point
+     * @param outStart  the point of out to write the first result to
+     */
+    public static void latLongToPixelXY(final double[] lngLats, final int inStride, final int start,
+            final int end, final double[] out, final int outStride, final int outStart) {
+        final double mapSize = mapSize(TileLayerConstants.MAXIMUM_ZOOMLEVEL);
+        final double maxPixel = mapSize - 1;
+        final double xScale = mapSize / 360;
+        final double yScale = mapSize / (4 * Math.PI);
+        final double yOffset = mapSize / 2;
+        final double toRadians = Math.PI / 180;
+        for (int i = start * inStride, last = end * inStride, o = outStart * outStride; i < last;
+                i += inStride, o += outStride) {
+            double longitude = lngLats[i];
+            double latitude = lngLats[i + 1];
+            if (longitude < MIN_LONGITUDE || longitude > MAX_LONGITUDE) {
+                longitude = wrap(longitude, -180, 180, 360);
+            }
+            if (latitude < MIN_LATITUDE || latitude > MAX_LATITUDE) {
+                latitude = clip(wrap(latitude, -90, 90, 180), MIN_LATITUDE, MAX_LATITUDE);
+            }
+
+            final double sinLatitude = Math.sin(latitude * toRadians);
+            final double x = (longitude + 180) * xScale;
+            final double y = yOffset - Math.log((1 + sinLatitude) / (1 - sinLatitude)) * yScale;
+            out[o] = x < 0 ? 0 : (x > maxPixel ? maxPixel : x);
+            out[o + 1] = y < 0 ? 0 : (y > maxPixel ? maxPixel : y);
+        }
+    }
+
+    /**
+     * Same as latLongToPixelXY(double[], int, int, int, double[], int, int), split over the
+     * available processors when there are at least {@link #PARALLEL_THRESHOLD} points. The
+     * calling thread projects one of the parts and returns once all of them are done.
+     */
+    public static void latLongToPixelXYParallel(final double[] lngLats, final int inStride,
+            final int start, final int end, final double[] out, final int outStride, final int outStart) {
+        final int count = end - start;
+        final int parts = Math.min(PROCESSORS, count / (PARALLEL_THRESHOLD / 2));
+        if (count < PARALLEL_THRESHOLD || parts < 2) {
+            latLongToPixelXY(lngLats, inStride, start, end, out, outStride, outStart);
+            return;
+        }
+
+        final CountDownLatch done = new CountDownLatch(parts - 1);
+        final int partSize = (count + parts - 1) / parts;
+        for (int part = 1; part < parts; part++) {
+            final int partStart = start + part * partSize;
+            final int partEnd = Math.min(end, partStart + partSize);
+            getProjectionExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        latLongToPixelXY(lngLats, inStride, partStart, partEnd, out, outStride,
+                                outStart + partStart - start);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+        }
+        latLongToPixelXY(lngLats, inStride, start, start + partSize, out, outStride, outStart);
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                done.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static synchronized ExecutorService getProjectionExecutor() {
+        if (sProjectionExecutor == null) {
+            sProjectionExecutor = Executors.newFixedThreadPool(PROCESSORS - 1,
+                    new ConfigurablePriorityThreadFactory(Thread.NORM_PRIORITY, "ProjectionThread"));
+        }
+        return sProjectionExecutor;
+    }
+
     /**
      * Converts a pixel from pixel XY coordinates at a specified level of detail into
      * latitude/longitude WGS-84 coordinates (in degrees).
@@ -139,23 +139,24 @@ public class OSMMap implements MapViewListener, MapListener {
 
     @Override
     public void onScroll(ScrollEvent event) {
-        BoundingBox bbox = mapView.getBoundingBox();
-        if (bbox != null) {
-            osmOverlay.updateBoundingBox(bbox);
-        }
+        updateBoundingBox(event.getBoundingBox());
     }
 
     @Override
     public void onZoom(ZoomEvent event) {
-        BoundingBox bbox = mapView.getBoundingBox();
-        if (bbox != null) {
-            osmOverlay.updateBoundingBox(bbox);
-        }
+        updateBoundingBox(event.getBoundingBox());
     }
 
     @Override
     public void onRotate(RotateEvent event) {
-        BoundingBox bbox = mapView.getBoundingBox();
+        updateBoundingBox(event.getBoundingBox());
+    }
+
+    /**
+     * Shared by the MapListener methods, which the MapView calls at most once per frame. The
+     * bounding box comes from the event, so this works on any delivery thread.
+     */
+    private void updateBoundingBox(BoundingBox bbox) {
         if (bbox != null) {
             osmOverlay.updateBoundingBox(bbox);
         }
@@ -27,6 +27,12 @@ public class JTSModel {
     private GeometryFactory geometryFactory;
     private STRtree rtree;
 
+    /**
+     * Indexes of data sets restored from an OSMSnapshot. These are queried
+     * in place and their elements only get a JTS geometry once they are hit.
+     */
+    private ArrayList<OSMPackedRTree> packedRTrees;
+
     public JTSModel(OSMDataSet ds) {
         this();
         addOSMDataSet(ds);
@@ -36,6 +42,7 @@ public class JTSModel {
         geometryFactory = new GeometryFactory();
         rtree = new STRtree();
         dataSets = new ArrayList<>();
+        packedRTrees = new ArrayList<>();
     }
 
     public void addOSMDataSet(OSMDataSet ds) {
@@ -45,6 +52,15 @@ public class JTSModel {
         addOSMStandaloneNodes(ds);
     }
 
+    /**
+     * Adds a data set restored from an OSMSnapshot along with its packed R-tree.
+     * No geometries are constructed up front.
+     */
+    void addOSMDataSet(OSMDataSet ds, OSMPackedRTree packedRTree) {
+        dataSets.add(ds);
+        packedRTrees.add(packedRTree);
+    }
+
     public Envelope createTapEnvelope(ILatLng latLng, float zoom) {
         return createTapEnvelope(latLng.getLatitude(), latLng.getLongitude(), zoom);
     }
@@ -56,6 +72,13 @@ public class JTSModel {
 
     public List<OSMElement> queryFromEnvelope(Envelope envelope) {
         List<OSMElement> results = rtree.query(envelope);
+        if (packedRTrees.isEmpty()) {
+            return results;
+        }
+        // the STRtree hands back a fresh list, so it is safe to append to it
+        for (OSMPackedRTree packedRTree : packedRTrees) {
+            packedRTree.query(envelope, results);
+        }
         return results;
     }
 
@@ -65,27 +88,26 @@ public class JTSModel {
         Coordinate coord = new Coordinate(lng, lat);
         Envelope envelope = createTapEnvelope(coord, lat, lng, zoom);
 
-        List results = rtree.query(envelope);
+        List<OSMElement> results = queryFromEnvelope(envelope);
 
         int len = results.size();
         if (len == 0) {
             return null;
         }
         if (len == 1) {
-            return (OSMElement) results.get(0);
+            return results.get(0);
         }
 
         Point clickPoint = geometryFactory.createPoint(coord);
         OSMElement closestElement = null;
         double closestDist = Double.POSITIVE_INFINITY; // should be replaced in first for loop iteration
-        for (Object res : results) {
-            OSMElement el = (OSMElement) res;
+        for (OSMElement el : results) {
             if (closestElement == null) {
                 closestElement = el;
-                closestDist = el.getJTSGeom().distance(clickPoint);
+                closestDist = geometryFor(el).distance(clickPoint);
                 continue;
             }
-            Geometry geom = el.getJTSGeom();
+            Geometry geom = geometryFor(el);
             double dist = geom.distance(clickPoint);
 
             if (dist > closestDist) {
@@ -140,12 +162,50 @@ public class JTSModel {
         return el2;
     }
 
+    /**
+     * Elements restored from a snapshot have no geometry until they are
+     * first needed, so it is built here on demand.
+     */
+    private Geometry geometryFor(OSMElement el) {
+        Geometry geom = el.getJTSGeom();
+        if (geom != null) {
+            return geom;
+        }
+        if (el instanceof OSMWay) {
+            OSMWay w = (OSMWay) el;
+            if (w.isClosed()) {
+                geom = createPolygon(w);
+            } else {
+                geom = createLineString(w);
+            }
+        } else {
+            geom = createPoint((OSMNode) el);
+        }
+        el.setJTSGeom(geom);
+        return geom;
+    }
+
+    private Polygon createPolygon(OSMWay closedWay) {
+        List<OSMNode> nodes = closedWay.getNodes();
+        Coordinate[] coords = coordArrayFromNodeList(nodes);
+        return geometryFactory.createPolygon(coords);
+    }
+
+    private LineString createLineString(OSMWay openWay) {
+        List<OSMNode> nodes = openWay.getNodes();
+        Coordinate[] coords = coordArrayFromNodeList(nodes);
+        return geometryFactory.createLineString(coords);
+    }
+
+    private Point createPoint(OSMNode n) {
+        Coordinate coord = new Coordinate(n.getLng(), n.getLat());
+        return geometryFactory.createPoint(coord);
+    }
+
     private void addOSMClosedWays(OSMDataSet ds) {
         List<OSMWay> closedWays = ds.getClosedWays();
         for (OSMWay closedWay : closedWays) {
-            List<OSMNode> nodes = closedWay.getNodes();
-            Coordinate[] coords = coordArrayFromNodeList(nodes);
-            Polygon poly = geometryFactory.createPolygon(coords);
+            Polygon poly = createPolygon(closedWay);
             closedWay.setJTSGeom(poly);
             Envelope envelope = poly.getEnvelopeInternal();
             rtree.insert(envelope, closedWay);
@@ -155,9 +215,7 @@ public class JTSModel {
     private void addOSMOpenWays(OSMDataSet ds) {
         List<OSMWay> openWays = ds.getOpenWays();
         for (OSMWay w : openWays) {
-            List<OSMNode> nodes = w.getNodes();
-            Coordinate[] coords = coordArrayFromNodeList(nodes);
-            LineString line = geometryFactory.createLineString(coords);
+            LineString line = createLineString(w);
             w.setJTSGeom(line);
             Envelope envelope = line.getEnvelopeInternal();
             rtree.insert(envelope, w);
@@ -179,10 +237,7 @@ public class JTSModel {
     private void addOSMStandaloneNodes(OSMDataSet ds) {
         List<OSMNode> standaloneNodes = ds.getStandaloneNodes();
         for (OSMNode n : standaloneNodes) {
-            double lat = n.getLat();
-            double lng = n.getLng();
-            Coordinate coord = new Coordinate(lng, lat);
-            Point point = geometryFactory.createPoint(coord);
+            Point point = createPoint(n);
             n.setJTSGeom(point);
             Envelope envelope = point.getEnvelopeInternal();
             rtree.insert(envelope, n);
@@ -106,6 +106,49 @@ public class OSMDataSet {
         return r;
     }
 
+    /**
+     * Restores a node from an OSMSnapshot. The snapshot already knows
+     * whether the node is standalone, so no post-processing is needed.
+     */
+    void restoreNode(OSMNode n, boolean standalone) {
+        nodes.put(n.getId(), n);
+        if (standalone) {
+            standaloneNodes.add(n);
+        }
+    }
+
+    /**
+     * Restores a way from an OSMSnapshot. Its nodes must already be linked.
+     */
+    void restoreWay(OSMWay w) {
+        ways.put(w.getId(), w);
+        for (OSMNode n : w.getNodes()) {
+            wayNodeIds.add(n.getId());
+        }
+        wayNodeIds.addAll(w.getUnlinkedNodeRefs());
+        if (w.isClosed()) {
+            closedWays.add(w);
+        } else {
+            openWays.add(w);
+        }
+    }
+
+    /**
+     * Restores a relation from an OSMSnapshot. Call linkRelations once
+     * every element has been restored.
+     */
+    void restoreRelation(OSMRelation r) {
+        relations.put(r.getId(), r);
+    }
+
+    void linkRelations() {
+        Set<Long> relationKeys = relations.keySet();
+        for (Long key : relationKeys) {
+            OSMRelation r = relations.get(key);
+            r.link(nodes, ways, relations);
+        }
+    }
+
     /**
      * Should only be called by the parser.
      */
@@ -143,11 +186,7 @@ public class OSMDataSet {
             }
         }
 
-        Set<Long> relationKeys = relations.keySet();
-        for (Long key : relationKeys) {
-            OSMRelation r = relations.get(key);
-            r.link(nodes, ways, relations);
-        }
+        linkRelations();
     }
 
     public int getNodeCount() {
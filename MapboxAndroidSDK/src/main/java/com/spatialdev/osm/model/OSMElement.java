@@ -92,6 +92,25 @@ public abstract class OSMElement {
         user = userStr;
     }
 
+    /**
+     * Used when restoring an element from an OSMSnapshot, where the
+     * attributes are already decoded.
+     */
+    protected OSMElement(long id,
+                         long version,
+                         String timestamp,
+                         long changeset,
+                         long uid,
+                         String user) {
+
+        this.id = id;
+        this.version = version;
+        this.timestamp = timestamp;
+        this.changeset = changeset;
+        this.uid = uid;
+        this.user = user;
+    }
+
     void xml(XmlSerializer xmlSerializer) throws IOException {
         // set the tags for the element (all element types can have tags)
         Set<String> tagKeys = tags.keySet();
@@ -163,6 +182,30 @@ public abstract class OSMElement {
         return id;
     }
 
+    long getVersion() {
+        return version;
+    }
+
+    String getTimestamp() {
+        return timestamp;
+    }
+
+    long getChangeset() {
+        return changeset;
+    }
+
+    long getUid() {
+        return uid;
+    }
+
+    String getUser() {
+        return user;
+    }
+
+    Map<String, String> getOriginalTags() {
+        return originalTags;
+    }
+
     public Map<String, String> getTags() {
         return tags;
     }
@@ -34,6 +34,21 @@ public class OSMNode extends OSMElement {
         lng = Double.valueOf(lonStr);
     }
 
+    OSMNode(long id,
+            double lat,
+            double lng,
+            long version,
+            String timestamp,
+            long changeset,
+            long uid,
+            String user) {
+
+        super(id, version, timestamp, changeset, uid, user);
+
+        this.lat = lat;
+        this.lng = lng;
+    }
+
     public LatLng getLatLng() {
         return new LatLng(lat, lng);
     }
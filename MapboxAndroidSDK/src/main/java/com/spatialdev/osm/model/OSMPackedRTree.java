@@ -0,0 +1,227 @@
+package com.spatialdev.osm.model;
+
+import com.vividsolutions.jts.geom.Envelope;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A static R-tree packed into flat arrays so that it can be written to an
+ * OSMSnapshot and queried straight out of the mapped file.
+ *
+ * Items are ordered Sort-Tile-Recursive style (the same packing JTS uses for
+ * STRtree) and every level is stored after the one below it. A node is its
+ * bounding box (minX, minY, maxX, maxY as doubles) plus one int. For items
+ * that int is a reference into the snapshot's element table, for inner nodes
+ * it is the position of the node's first child.
+ */
+class OSMPackedRTree {
+
+    static final int NODE_SIZE = 16;
+
+    private static final int BOX_BYTES = 32;
+
+    private final ByteBuffer buffer;
+    private final int boxesOffset;
+    private final int indicesOffset;
+    private final int numItems;
+    private final int[] levelBounds;
+
+    /**
+     * The elements that item references resolve to.
+     */
+    private final OSMElement[] elements;
+
+    /**
+     * Wraps a tree previously written by write(), starting at the buffer's
+     * current position. The position is moved past the tree.
+     */
+    OSMPackedRTree(ByteBuffer buffer, OSMElement[] elements) {
+        this.buffer = buffer;
+        this.elements = elements;
+        numItems = buffer.getInt();
+        int levelCount = buffer.getInt();
+        levelBounds = new int[levelCount];
+        for (int i = 0; i < levelCount; ++i) {
+            levelBounds[i] = buffer.getInt();
+        }
+        int numNodes = levelCount == 0 ? 0 : levelBounds[levelCount - 1];
+        boxesOffset = buffer.position();
+        indicesOffset = boxesOffset + numNodes * BOX_BYTES;
+        buffer.position(indicesOffset + numNodes * 4);
+    }
+
+    public int getItemCount() {
+        return numItems;
+    }
+
+    /**
+     * Appends every element whose bounding box intersects the envelope.
+     * Only the box and index slots are read, nothing is decoded.
+     */
+    void query(Envelope envelope, List<OSMElement> results) {
+        if (numItems == 0) {
+            return;
+        }
+        double minX = envelope.getMinX();
+        double minY = envelope.getMinY();
+        double maxX = envelope.getMaxX();
+        double maxY = envelope.getMaxY();
+
+        int[] stack = new int[NODE_SIZE * levelBounds.length];
+        int stackSize = 0;
+        int nodeIndex = levelBounds[levelBounds.length - 1] - 1;
+
+        while (true) {
+            int end = Math.min(nodeIndex + NODE_SIZE, upperBound(nodeIndex));
+            for (int pos = nodeIndex; pos < end; ++pos) {
+                int box = boxesOffset + pos * BOX_BYTES;
+                if (maxX < buffer.getDouble(box)
+                        || maxY < buffer.getDouble(box + 8)
+                        || minX > buffer.getDouble(box + 16)
+                        || minY > buffer.getDouble(box + 24)) {
+                    continue;
+                }
+                int index = buffer.getInt(indicesOffset + pos * 4);
+                if (nodeIndex < numItems) {
+                    results.add(elements[index]);
+                } else {
+                    if (stackSize == stack.length) {
+                        stack = Arrays.copyOf(stack, stackSize * 2);
+                    }
+                    stack[stackSize++] = index;
+                }
+            }
+            if (stackSize == 0) {
+                return;
+            }
+            nodeIndex = stack[--stackSize];
+        }
+    }
+
+    /**
+     * The end of the level that the node at nodeIndex lives in.
+     */
+    private int upperBound(int nodeIndex) {
+        for (int bound : levelBounds) {
+            if (bound > nodeIndex) {
+                return bound;
+            }
+        }
+        return levelBounds[levelBounds.length - 1];
+    }
+
+    /**
+     * Packs the given boxes and writes the tree.
+     *
+     * @param boxes   minX, minY, maxX, maxY of every item, 4 doubles per item
+     * @param refs    the element reference of every item
+     * @param out     where the packed tree is written
+     */
+    static void write(final double[] boxes, int[] refs, DataOutputStream out) throws IOException {
+        final int numItems = refs.length;
+
+        // Count the nodes of every level above the items.
+        int numNodes = numItems;
+        int levelCount = numItems == 0 ? 0 : 1;
+        int n = numItems;
+        while (n > 1) {
+            n = (n + NODE_SIZE - 1) / NODE_SIZE;
+            numNodes += n;
+            ++levelCount;
+        }
+
+        Integer[] order = strOrder(boxes, numItems);
+
+        double[] nodeBoxes = new double[numNodes * 4];
+        int[] indices = new int[numNodes];
+        int[] levelBounds = new int[levelCount];
+
+        for (int i = 0; i < numItems; ++i) {
+            int item = order[i];
+            System.arraycopy(boxes, item * 4, nodeBoxes, i * 4, 4);
+            indices[i] = refs[item];
+        }
+
+        int level = 0;
+        int levelStart = 0;
+        int pos = numItems;
+        if (levelCount > 0) {
+            levelBounds[level++] = numItems;
+        }
+        while (level < levelCount) {
+            int levelEnd = pos;
+            for (int child = levelStart; child < levelEnd; child += NODE_SIZE) {
+                int last = Math.min(child + NODE_SIZE, levelEnd);
+                double minX = Double.POSITIVE_INFINITY;
+                double minY = Double.POSITIVE_INFINITY;
+                double maxX = Double.NEGATIVE_INFINITY;
+                double maxY = Double.NEGATIVE_INFINITY;
+                for (int c = child; c < last; ++c) {
+                    minX = Math.min(minX, nodeBoxes[c * 4]);
+                    minY = Math.min(minY, nodeBoxes[c * 4 + 1]);
+                    maxX = Math.max(maxX, nodeBoxes[c * 4 + 2]);
+                    maxY = Math.max(maxY, nodeBoxes[c * 4 + 3]);
+                }
+                nodeBoxes[pos * 4] = minX;
+                nodeBoxes[pos * 4 + 1] = minY;
+                nodeBoxes[pos * 4 + 2] = maxX;
+                nodeBoxes[pos * 4 + 3] = maxY;
+                indices[pos] = child;
+                ++pos;
+            }
+            levelStart = levelEnd;
+            levelBounds[level++] = pos;
+        }
+
+        out.writeInt(numItems);
+        out.writeInt(levelCount);
+        for (int bound : levelBounds) {
+            out.writeInt(bound);
+        }
+        for (double d : nodeBoxes) {
+            out.writeDouble(d);
+        }
+        for (int index : indices) {
+            out.writeInt(index);
+        }
+    }
+
+    /**
+     * Sort-Tile-Recursive ordering: sort by x into vertical slices,
+     * then sort every slice by y.
+     */
+    private static Integer[] strOrder(final double[] boxes, int numItems) {
+        Integer[] order = new Integer[numItems];
+        for (int i = 0; i < numItems; ++i) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Double.compare(boxes[a * 4] + boxes[a * 4 + 2], boxes[b * 4] + boxes[b * 4 + 2]);
+            }
+        });
+
+        int leafCount = (numItems + NODE_SIZE - 1) / NODE_SIZE;
+        int sliceCount = (int) Math.ceil(Math.sqrt(leafCount));
+        if (sliceCount == 0) {
+            return order;
+        }
+        int sliceCapacity = ((leafCount + sliceCount - 1) / sliceCount) * NODE_SIZE;
+        Comparator<Integer> byY = new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Double.compare(boxes[a * 4 + 1] + boxes[a * 4 + 3], boxes[b * 4 + 1] + boxes[b * 4 + 3]);
+            }
+        };
+        for (int start = 0; start < numItems; start += sliceCapacity) {
+            Arrays.sort(order, start, Math.min(start + sliceCapacity, numItems), byY);
+        }
+        return order;
+    }
+}
@@ -7,6 +7,7 @@ package com.spatialdev.osm.model;
 import org.xmlpull.v1.XmlSerializer;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -14,7 +15,7 @@ import java.util.Map;
 public class OSMRelation extends OSMElement {
 
     // These are the members that refer to another OSM Element.
-    private class RelationMember {
+    static class RelationMember {
         public Long ref;
         public String type;
         public String role;
@@ -47,6 +48,16 @@ public class OSMRelation extends OSMElement {
         super(idStr, versionStr, timestampStr, changesetStr, uidStr, userStr);
     }
 
+    OSMRelation(long id,
+                long version,
+                String timestamp,
+                long changeset,
+                long uid,
+                String user) {
+
+        super(id, version, timestamp, changeset, uid, user);
+    }
+
     @Override
     void xml(XmlSerializer xmlSerializer) throws IOException {
         xmlSerializer.startTag(null, "relation");
@@ -93,6 +104,17 @@ public class OSMRelation extends OSMElement {
         relationMembers.add(new RelationMember(id, "relation", role));
     }
 
+    /**
+     * All members in the order they are written to XML: nodes, ways, relations.
+     */
+    List<RelationMember> getMembers() {
+        List<RelationMember> members = new ArrayList<>(nodeMembers.size() + wayMembers.size() + relationMembers.size());
+        members.addAll(nodeMembers);
+        members.addAll(wayMembers);
+        members.addAll(relationMembers);
+        return members;
+    }
+
     int link(Map<Long, OSMNode> nodes, Map<Long, OSMWay> ways, Map<Long, OSMRelation> relations) {
         int unlinkedNodes = linkNodes(nodes);
         int unlinkedWays = linkWays(ways);
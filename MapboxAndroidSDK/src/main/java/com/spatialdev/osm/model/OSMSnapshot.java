@@ -0,0 +1,571 @@
+package com.spatialdev.osm.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A compact binary snapshot of an OSMDataSet and its R-tree, so that an OSM XML
+ * file only has to be parsed once. Reloading a snapshot maps the file and reads
+ * already linked elements, with no XML parsing, no postProcessing() and no JTS
+ * geometry construction. The R-tree is queried directly out of the mapped file
+ * and geometries are only built for elements that are actually hit.
+ *
+ * Layout (big endian):
+ *
+ *   header    magic "OSMS", format version, SHA-1 of the source OSM XML
+ *   strings   every timestamp, user, tag key / value, role and note, stored once
+ *   elements  nodes, ways and relations; ids and coordinates are delta encoded
+ *             varints, coordinates in OSM's fixed 1e-7 degree precision
+ *   rtree     the packed R-tree, see OSMPackedRTree
+ *
+ * Snapshots capture the data set as it was parsed. Tag edits made by the
+ * application are not persisted, they are written with OSMXmlWriter.
+ */
+public class OSMSnapshot {
+
+    /**
+     * "OSMS"
+     */
+    private static final int MAGIC = 0x4F534D53;
+
+    /**
+     * Bump this whenever the layout changes. Snapshots of any other version
+     * are treated as stale and get rebuilt.
+     */
+    public static final int VERSION = 2;
+
+    private static final double COORDINATE_SCALE = 1e7;
+
+    private static final String CHARSET = "UTF-8";
+
+    private static final int TYPE_NODE = 0;
+    private static final int TYPE_WAY = 1;
+    private static final int TYPE_RELATION = 2;
+
+    private final OSMDataSet dataSet;
+    private final OSMPackedRTree rtree;
+    private JTSModel jtsModel;
+
+    private OSMSnapshot(OSMDataSet dataSet, OSMPackedRTree rtree) {
+        this.dataSet = dataSet;
+        this.rtree = rtree;
+    }
+
+    public OSMDataSet getDataSet() {
+        return dataSet;
+    }
+
+    /**
+     * A JTSModel that queries the snapshot's packed R-tree in place.
+     */
+    public JTSModel getJTSModel() {
+        if (jtsModel == null) {
+            jtsModel = new JTSModel();
+            jtsModel.addOSMDataSet(dataSet, rtree);
+        }
+        return jtsModel;
+    }
+
+    /**
+     * Loads the snapshot for an OSM XML file, or parses the XML and writes a
+     * snapshot for next time if there is no valid one.
+     *
+     * @param osmFile      the source OSM XML
+     * @param snapshotFile where the snapshot lives
+     * @return the snapshot
+     * @throws IOException if the XML cannot be read or parsed completely, no snapshot is
+     *                     written then
+     */
+    public static OSMSnapshot fromOSMFile(File osmFile, File snapshotFile) throws IOException {
+        byte[] sourceHash = hashFile(osmFile);
+        OSMSnapshot snapshot = load(snapshotFile, sourceHash);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        // a partial parse must not be stored under the hash of the source
+        OSMDataSet ds = OSMXmlParser.parseCompleteFromInputStream(new FileInputStream(osmFile));
+        write(ds, sourceHash, snapshotFile);
+        snapshot = load(snapshotFile, sourceHash);
+        if (snapshot == null) {
+            throw new IOException("Unable to read back OSM snapshot " + snapshotFile);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Maps a snapshot file.
+     *
+     * @param snapshotFile the snapshot
+     * @param sourceHash   SHA-1 of the OSM XML the snapshot must have been made from
+     * @return the snapshot, or null if the file does not exist, was written by
+     * another version, was made from a different source file or is truncated or corrupt
+     * @throws IOException
+     */
+    public static OSMSnapshot load(File snapshotFile, byte[] sourceHash) throws IOException {
+        if (!snapshotFile.exists()) {
+            return null;
+        }
+        FileInputStream in = new FileInputStream(snapshotFile);
+        ByteBuffer buffer;
+        try {
+            FileChannel channel = in.getChannel();
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            in.close();
+        }
+
+        if (buffer.remaining() < 9 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return null;
+        }
+        byte[] hash = new byte[buffer.get() & 0xFF];
+        if (buffer.remaining() < hash.length) {
+            return null;
+        }
+        buffer.get(hash);
+        if (!Arrays.equals(hash, sourceHash)) {
+            return null;
+        }
+        try {
+            return new Reader(buffer).read();
+        } catch (BufferUnderflowException e) {
+            return null;
+        } catch (IndexOutOfBoundsException e) {
+            return null;
+        } catch (NegativeArraySizeException e) {
+            return null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes a snapshot of a parsed data set.
+     *
+     * @param ds           the data set, as returned by OSMXmlParser
+     * @param sourceHash   SHA-1 of the OSM XML the data set was parsed from
+     * @param snapshotFile where to write the snapshot
+     * @throws IOException
+     */
+    public static void write(OSMDataSet ds, byte[] sourceHash, File snapshotFile) throws IOException {
+        // Write to a temp file first so a crash never leaves a truncated snapshot behind.
+        File tmp = new File(snapshotFile.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+        try {
+            new Writer(ds).write(sourceHash, out);
+        } finally {
+            out.close();
+        }
+        if (!tmp.renameTo(snapshotFile)) {
+            tmp.delete();
+            throw new IOException("Unable to move OSM snapshot into place at " + snapshotFile);
+        }
+    }
+
+    /**
+     * SHA-1 of a file, used to check that a snapshot still matches its source.
+     */
+    public static byte[] hashFile(File file) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file));
+        try {
+            return hash(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    public static byte[] hash(InputStream in) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-1 is not available: " + e.getMessage());
+        }
+        byte[] buf = new byte[8192];
+        int read;
+        while ((read = in.read(buf)) != -1) {
+            digest.update(buf, 0, read);
+        }
+        return digest.digest();
+    }
+
+    private static class Writer {
+
+        private final OSMDataSet ds;
+
+        private final Map<String, Integer> stringIndexes = new HashMap<>();
+        private final ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream elements = new ByteArrayOutputStream();
+
+        Writer(OSMDataSet ds) {
+            this.ds = ds;
+        }
+
+        void write(byte[] sourceHash, DataOutputStream out) throws IOException {
+            Map<Long, OSMNode> nodes = ds.getNodes();
+            Map<Long, OSMWay> ways = ds.getWays();
+
+            // Element references used by the R-tree: nodes first, then ways.
+            Map<Long, Integer> nodeIndexes = new HashMap<>(nodes.size() * 2);
+            int i = 0;
+            for (Long id : nodes.keySet()) {
+                nodeIndexes.put(id, i++);
+            }
+
+            OSMMeta meta = ds.getMeta();
+            writeString(meta == null ? null : meta.getOsmBase());
+            List<String> notes = ds.getNotes();
+            writeVarLong(notes.size());
+            for (String note : notes) {
+                writeString(note);
+            }
+
+            List<OSMNode> standalone = ds.getStandaloneNodes();
+            Set<OSMNode> standaloneSet = new HashSet<>(standalone);
+            writeVarLong(nodes.size());
+            long prevId = 0;
+            long prevLat = 0;
+            long prevLng = 0;
+            for (OSMNode n : nodes.values()) {
+                long lat = Math.round(n.getLat() * COORDINATE_SCALE);
+                long lng = Math.round(n.getLng() * COORDINATE_SCALE);
+                writeSignedVarLong(n.getId() - prevId);
+                writeSignedVarLong(lat - prevLat);
+                writeSignedVarLong(lng - prevLng);
+                prevId = n.getId();
+                prevLat = lat;
+                prevLng = lng;
+                writeAttributes(n);
+                elements.write(standaloneSet.contains(n) ? 1 : 0);
+                writeTags(n);
+            }
+
+            writeVarLong(ways.size());
+            prevId = 0;
+            for (OSMWay w : ways.values()) {
+                writeSignedVarLong(w.getId() - prevId);
+                prevId = w.getId();
+                writeAttributes(w);
+                elements.write(w.isClosed() ? 1 : 0);
+                List<OSMNode> wayNodes = w.getNodes();
+                writeVarLong(wayNodes.size());
+                long prevIndex = 0;
+                for (OSMNode n : wayNodes) {
+                    int index = nodeIndexes.get(n.getId());
+                    writeSignedVarLong(index - prevIndex);
+                    prevIndex = index;
+                }
+                List<Long> unlinked = w.getUnlinkedNodeRefs();
+                writeVarLong(unlinked.size());
+                for (Long ref : unlinked) {
+                    writeSignedVarLong(ref);
+                }
+                writeTags(w);
+            }
+
+            Map<Long, OSMRelation> relations = ds.getRelations();
+            writeVarLong(relations.size());
+            prevId = 0;
+            for (OSMRelation r : relations.values()) {
+                writeSignedVarLong(r.getId() - prevId);
+                prevId = r.getId();
+                writeAttributes(r);
+                List<OSMRelation.RelationMember> members = r.getMembers();
+                writeVarLong(members.size());
+                for (OSMRelation.RelationMember mem : members) {
+                    elements.write(memberType(mem.type));
+                    writeSignedVarLong(mem.ref);
+                    writeString(mem.role);
+                }
+                writeTags(r);
+            }
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeByte(sourceHash.length);
+            out.write(sourceHash);
+            out.writeInt(stringIndexes.size());
+            out.writeInt(strings.size());
+            strings.writeTo(out);
+            out.writeInt(elements.size());
+            elements.writeTo(out);
+            writeRTree(nodeIndexes, out);
+        }
+
+        /**
+         * The same elements JTSModel indexes: standalone nodes and all ways. Ways none of
+         * whose nodes were found have no extent and are left out.
+         */
+        private void writeRTree(Map<Long, Integer> nodeIndexes, DataOutputStream out) throws IOException {
+            List<OSMNode> standalone = ds.getStandaloneNodes();
+            Map<Long, OSMWay> ways = ds.getWays();
+            int count = standalone.size() + ways.size();
+            double[] boxes = new double[count * 4];
+            int[] refs = new int[count];
+            int i = 0;
+            for (OSMNode n : standalone) {
+                boxes[i * 4] = n.getLng();
+                boxes[i * 4 + 1] = n.getLat();
+                boxes[i * 4 + 2] = n.getLng();
+                boxes[i * 4 + 3] = n.getLat();
+                refs[i++] = nodeIndexes.get(n.getId());
+            }
+            int wayIndex = nodeIndexes.size();
+            for (OSMWay w : ways.values()) {
+                if (w.getNodes().isEmpty()) {
+                    wayIndex++;
+                    continue;
+                }
+                double minX = Double.POSITIVE_INFINITY;
+                double minY = Double.POSITIVE_INFINITY;
+                double maxX = Double.NEGATIVE_INFINITY;
+                double maxY = Double.NEGATIVE_INFINITY;
+                for (OSMNode n : w.getNodes()) {
+                    minX = Math.min(minX, n.getLng());
+                    minY = Math.min(minY, n.getLat());
+                    maxX = Math.max(maxX, n.getLng());
+                    maxY = Math.max(maxY, n.getLat());
+                }
+                boxes[i * 4] = minX;
+                boxes[i * 4 + 1] = minY;
+                boxes[i * 4 + 2] = maxX;
+                boxes[i * 4 + 3] = maxY;
+                refs[i++] = wayIndex++;
+            }
+            OSMPackedRTree.write(Arrays.copyOf(boxes, i * 4), Arrays.copyOf(refs, i), out);
+        }
+
+        private void writeAttributes(OSMElement el) throws IOException {
+            writeVarLong(el.getVersion());
+            writeVarLong(el.getChangeset());
+            writeVarLong(el.getUid());
+            writeString(el.getTimestamp());
+            writeString(el.getUser());
+        }
+
+        private void writeTags(OSMElement el) throws IOException {
+            Map<String, String> tags = el.getOriginalTags();
+            writeVarLong(tags.size());
+            for (Map.Entry<String, String> tag : tags.entrySet()) {
+                writeString(tag.getKey());
+                writeString(tag.getValue());
+            }
+        }
+
+        /**
+         * Writes the string table index of a string, 0 being null.
+         */
+        private void writeString(String s) throws IOException {
+            if (s == null) {
+                writeVarLong(0);
+                return;
+            }
+            Integer index = stringIndexes.get(s);
+            if (index == null) {
+                index = stringIndexes.size() + 1;
+                stringIndexes.put(s, index);
+                byte[] bytes = s.getBytes(CHARSET);
+                writeVarLong(strings, bytes.length);
+                strings.write(bytes);
+            }
+            writeVarLong(index);
+        }
+
+        private void writeSignedVarLong(long value) {
+            // zig-zag so that small negative deltas stay small
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        private void writeVarLong(long value) {
+            writeVarLong(elements, value);
+        }
+
+        private static void writeVarLong(ByteArrayOutputStream out, long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        private static int memberType(String type) {
+            if ("node".equals(type)) {
+                return TYPE_NODE;
+            }
+            if ("way".equals(type)) {
+                return TYPE_WAY;
+            }
+            return TYPE_RELATION;
+        }
+    }
+
+    private static class Reader {
+
+        private final ByteBuffer buffer;
+        private String[] strings;
+
+        Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        OSMSnapshot read() throws UnsupportedEncodingException {
+            readStrings();
+            buffer.getInt(); // elements length, only needed to skip the section
+
+            OSMDataSet ds = new OSMDataSet();
+            String osmBase = readString();
+            if (osmBase != null) {
+                ds.createMeta(osmBase);
+            }
+            int noteCount = (int) readVarLong();
+            for (int i = 0; i < noteCount; ++i) {
+                ds.createNote(readString());
+            }
+
+            int nodeCount = (int) readVarLong();
+            OSMNode[] nodes = new OSMNode[nodeCount];
+            long id = 0;
+            long lat = 0;
+            long lng = 0;
+            for (int i = 0; i < nodeCount; ++i) {
+                id += readSignedVarLong();
+                lat += readSignedVarLong();
+                lng += readSignedVarLong();
+                long version = readVarLong();
+                long changeset = readVarLong();
+                long uid = readVarLong();
+                String timestamp = readString();
+                String user = readString();
+                OSMNode n = new OSMNode(id, lat / COORDINATE_SCALE, lng / COORDINATE_SCALE,
+                        version, timestamp, changeset, uid, user);
+                boolean standalone = buffer.get() != 0;
+                readTags(n);
+                ds.restoreNode(n, standalone);
+                nodes[i] = n;
+            }
+
+            int wayCount = (int) readVarLong();
+            OSMElement[] elements = new OSMElement[nodeCount + wayCount];
+            System.arraycopy(nodes, 0, elements, 0, nodeCount);
+            id = 0;
+            for (int i = 0; i < wayCount; ++i) {
+                id += readSignedVarLong();
+                long version = readVarLong();
+                long changeset = readVarLong();
+                long uid = readVarLong();
+                String timestamp = readString();
+                String user = readString();
+                boolean closed = buffer.get() != 0;
+                OSMWay w = new OSMWay(id, version, timestamp, changeset, uid, user, closed);
+                int linkedCount = (int) readVarLong();
+                int index = 0;
+                for (int j = 0; j < linkedCount; ++j) {
+                    index += (int) readSignedVarLong();
+                    w.addLinkedNode(nodes[index]);
+                }
+                int unlinkedCount = (int) readVarLong();
+                List<Long> unlinked = w.getUnlinkedNodeRefs();
+                for (int j = 0; j < unlinkedCount; ++j) {
+                    unlinked.add(readSignedVarLong());
+                }
+                readTags(w);
+                ds.restoreWay(w);
+                elements[nodeCount + i] = w;
+            }
+
+            int relationCount = (int) readVarLong();
+            id = 0;
+            for (int i = 0; i < relationCount; ++i) {
+                id += readSignedVarLong();
+                long version = readVarLong();
+                long changeset = readVarLong();
+                long uid = readVarLong();
+                String timestamp = readString();
+                String user = readString();
+                OSMRelation r = new OSMRelation(id, version, timestamp, changeset, uid, user);
+                int memberCount = (int) readVarLong();
+                for (int j = 0; j < memberCount; ++j) {
+                    int type = buffer.get();
+                    long ref = readSignedVarLong();
+                    String role = readString();
+                    if (type == TYPE_NODE) {
+                        r.addNodeRef(ref, role);
+                    } else if (type == TYPE_WAY) {
+                        r.addWayRef(ref, role);
+                    } else {
+                        r.addRelationRef(ref, role);
+                    }
+                }
+                readTags(r);
+                ds.restoreRelation(r);
+            }
+            ds.linkRelations();
+
+            OSMPackedRTree rtree = new OSMPackedRTree(buffer, elements);
+            return new OSMSnapshot(ds, rtree);
+        }
+
+        private void readStrings() throws UnsupportedEncodingException {
+            int count = buffer.getInt();
+            buffer.getInt(); // section length
+            strings = new String[count + 1];
+            byte[] scratch = new byte[64];
+            for (int i = 1; i <= count; ++i) {
+                int len = (int) readVarLong();
+                if (len > scratch.length) {
+                    scratch = new byte[len * 2];
+                }
+                buffer.get(scratch, 0, len);
+                strings[i] = new String(scratch, 0, len, CHARSET);
+            }
+        }
+
+        private void readTags(OSMElement el) {
+            int count = (int) readVarLong();
+            for (int i = 0; i < count; ++i) {
+                String k = readString();
+                String v = readString();
+                el.addParsedTag(k, v);
+            }
+        }
+
+        private String readString() {
+            return strings[(int) readVarLong()];
+        }
+
+        private long readSignedVarLong() {
+            long raw = readVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+    }
+}
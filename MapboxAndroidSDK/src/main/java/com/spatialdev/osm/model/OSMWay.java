@@ -48,6 +48,18 @@ public class OSMWay extends OSMElement {
         super(idStr, versionStr, timestampStr, changesetStr, uidStr, userStr);
     }
 
+    OSMWay(long id,
+           long version,
+           String timestamp,
+           long changeset,
+           long uid,
+           String user,
+           boolean closed) {
+
+        super(id, version, timestamp, changeset, uid, user);
+        this.closed = closed;
+    }
+
     @Override
     void xml(XmlSerializer xmlSerializer) throws IOException {
         xmlSerializer.startTag(null, "way");
@@ -101,6 +113,21 @@ public class OSMWay extends OSMElement {
         return nodeRefs.size();
     }
 
+    /**
+     * Restores an already linked node. Only used by OSMSnapshot, which
+     * persists the nodes in the order linkNodes left them.
+     */
+    void addLinkedNode(OSMNode node) {
+        linkedNodes.add(node);
+    }
+
+    /**
+     * The node references that could not be linked to a node in the data set.
+     */
+    List<Long> getUnlinkedNodeRefs() {
+        return nodeRefs;
+    }
+
     public int getUnlinkedNodesCount() {
         return nodeRefs.size();
     }
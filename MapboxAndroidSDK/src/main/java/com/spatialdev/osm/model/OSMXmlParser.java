@@ -55,6 +55,26 @@ public class OSMXmlParser {
         return osmXmlParser.getDataSet();
     }
 
+    /**
+     * Like parseFromInputStream, but fails instead of returning the part of the data set that
+     * was parsed before an error in the XML.
+     *
+     * @throws IOException if the stream cannot be read or is not well-formed XML
+     */
+    public static OSMDataSet parseCompleteFromInputStream(InputStream in) throws IOException {
+        OSMXmlParser osmXmlParser = new OSMXmlParser();
+        try {
+            osmXmlParser.parse(in);
+        } catch (XmlPullParserException e) {
+            throw new IOException("Malformed OSM XML: " + e.getMessage());
+        } finally {
+            if (in != null) {
+                in.close();
+            }
+        }
+        return osmXmlParser.getDataSet();
+    }
+
     protected OSMXmlParser() {
         ds = new OSMDataSet();
     }
@@ -83,27 +83,30 @@ public class OSMLine extends OSMPath {
      *
      * * * * * * * * * * * * * * *
      * @param path
-     * @param projectedPoint
-     * @param screenPoint
+     * @param points
+     * @param index
+     * @param next
+     * @param screenX
+     * @param screenY
      */
     @Override
-    void clipOrDrawPath(Path path, double[] projectedPoint, double[] nextProjectedPoint, double[] screenPoint) {
+    void clipOrDrawPath(Path path, double[] points, int index, int next, float screenX, float screenY) {
 
-        int projX = (int) projectedPoint[0];
-        int projY = (int) projectedPoint[1];
+        int projX = (int) points[index * 2];
+        int projY = (int) points[index * 2 + 1];
 
         if (viewPortBounds.contains(projX, projY)) {
             if (pathLineToReady) {
-                path.lineTo((float) screenPoint[0], (float) screenPoint[1]);
+                path.lineTo(screenX, screenY);
             } else {
-                path.moveTo((float) screenPoint[0], (float) screenPoint[1]);
+                path.moveTo(screenX, screenY);
                 pathLineToReady = true;
             }
         } else {
 
             // last vertex was in the viewport, we want to make this last one dangle
             if (pathLineToReady) {
-                path.lineTo((float) screenPoint[0], (float) screenPoint[1]);
+                path.lineTo(screenX, screenY);
                 // If we're going back in, we want to move to the vertex...
                 pathLineToReady = false;
                 return;
@@ -115,11 +118,11 @@ public class OSMLine extends OSMPath {
              * the viewport. I'd be fine with drawing everything, but if it's too far out,
              * the android canvas seg faults. (Wishing i could be closer to the metal...)
              */
-            if (nextProjectedPoint != null) {
-                int projXNext = (int) nextProjectedPoint[0];
-                int projYNext = (int) nextProjectedPoint[1];
+            if (next >= 0) {
+                int projXNext = (int) points[next * 2];
+                int projYNext = (int) points[next * 2 + 1];
                 if (viewPortBounds.contains(projXNext, projYNext)) {
-                    path.moveTo((float) screenPoint[0], (float) screenPoint[1]);
+                    path.moveTo(screenX, screenY);
                     pathLineToReady = true;
                 }
             }
@@ -34,7 +34,17 @@ public class OSMOverlay extends Overlay {
         double x2 = bbox.getLonEast();
         double y1 = bbox.getLatSouth();
         double y2 = bbox.getLatNorth();
-        envelope = new Envelope(x1, x2, y1, y2);
+        if (envelope == null) {
+            envelope = new Envelope(x1, x2, y1, y2);
+        } else {
+            envelope.init(x1, x2, y1, y2);
+        }
+        invalidateLayer();
+    }
+
+    @Override
+    protected boolean drawsShadow() {
+        return false;
     }
 
     @Override
@@ -5,6 +5,7 @@ import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.Rect;
 
+import com.mapbox.mapboxsdk.geometry.PackedCoordinates;
 import com.mapbox.mapboxsdk.views.MapView;
 import com.mapbox.mapboxsdk.views.util.Projection;
 import com.spatialdev.osm.model.OSMNode;
@@ -30,15 +31,14 @@ public abstract class OSMPath {
     private float strokeWidth = 10.0f;
 
     /**
-     * This gets reused by Projection#toMapPixelsTranslated so
-     * that the returned Point is not constantly reallocated.
+     * Receives Projection#getMapPixelsTransform on every draw.
      * * *
      */
-    protected final double[] tempPoint = new double[2];
+    private final double[] transform = new double[3];
 
     // These are the points for a path converted to an "intermediate"
-    // pixel space of the entire earth.
-    protected double[][] projectedPoints;
+    // pixel space of the entire earth, x and y of every point in a flat array.
+    protected PackedCoordinates projectedPoints;
 
     protected MapView mapView;
 
@@ -87,11 +87,12 @@ public abstract class OSMPath {
      * @param nodes
      */
     private void projectNodes(List<OSMNode> nodes) {
-        projectedPoints = new double[nodes.size()][2];
-        int i = 0;
+        PackedCoordinates lngLats = new PackedCoordinates(2, nodes.size());
         for (OSMNode n : nodes) {
-            projectedPoints[i++] = Projection.latLongToPixelXY(n.getLat(), n.getLng());
+            lngLats.add(n.getLng(), n.getLat());
         }
+        projectedPoints = new PackedCoordinates(2, nodes.size());
+        lngLats.projectToPixels(0, projectedPoints);
     }
 
     public Paint getPaint() {
@@ -116,7 +117,7 @@ public abstract class OSMPath {
     public abstract void deselect();
 
     public void draw(final Canvas c) {
-        int size = projectedPoints.length;
+        int size = projectedPoints.size();
 
         // nothing to paint
         if (size < 2) {
@@ -126,27 +127,33 @@ public abstract class OSMPath {
         final Projection pj = mapView.getProjection();
         viewPortBounds = pj.fromPixelsToProjected(pj.getScreenRect());
 
-        double[] screenPoint; // points on screen
-        double[] projectedPoint; // points from the points list
+        final double[] points = projectedPoints.getCoordinates();
+        pj.getMapPixelsTransform(transform);
+        final double scale = transform[0];
+        final double offsetX = transform[1];
+        final double offsetY = transform[2];
 
         path.rewind();
 
         // Looping downward is the fastest loop you can do in Dalvik.
-        for (int i = size - 1; i > 0; --i) { // every one but the 0th
-            projectedPoint = projectedPoints[i];
-            screenPoint = pj.toMapPixelsTranslated(projectedPoint, tempPoint);
-            clipOrDrawPath(path, projectedPoint, projectedPoints[i - 1], screenPoint);
+        // The 0th projected point has no next projected point...
+        for (int i = size - 1; i >= 0; --i) {
+            clipOrDrawPath(path, points, i, i - 1,
+                    (float) (points[i * 2] * scale + offsetX), (float) (points[i * 2 + 1] * scale + offsetY));
         }
-        // that 0th projected point has no next projected point...
-        projectedPoint = projectedPoints[0];
-        screenPoint = pj.toMapPixelsTranslated(projectedPoint, tempPoint);
-        clipOrDrawPath(path, projectedPoint, null, screenPoint);
 
         pathLineToReady = false;
         paint.setStrokeWidth(strokeWidth / mapView.getScale());
         c.drawPath(path, paint);
     }
 
-    abstract void clipOrDrawPath(Path path, double[] projectedPoint, double[] nextProjectedPoint, double[] screenPoint1);
+    /**
+     * @param points  the projected points, x and y of every point in a flat array
+     * @param index   the point to draw
+     * @param next    the point that is drawn next, -1 if there is none
+     * @param screenX the point on screen
+     * @param screenY
+     */
+    abstract void clipOrDrawPath(Path path, double[] points, int index, int next, float screenX, float screenY);
 
 }
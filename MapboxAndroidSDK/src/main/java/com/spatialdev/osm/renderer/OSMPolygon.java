@@ -69,16 +69,18 @@ public class OSMPolygon extends OSMPath {
      * This can be problematic for very large polygons.
      * * * * * * * *
      * @param path
-     * @param projectedPoint
-     * @param nextProjectedPoint
-     * @param screenPoint
+     * @param points
+     * @param index
+     * @param next
+     * @param screenX
+     * @param screenY
      */
     @Override
-    void clipOrDrawPath(Path path, double[] projectedPoint, double[] nextProjectedPoint, double[] screenPoint) {
+    void clipOrDrawPath(Path path, double[] points, int index, int next, float screenX, float screenY) {
         if (pathLineToReady) {
-            path.lineTo((float) screenPoint[0], (float) screenPoint[1]);
+            path.lineTo(screenX, screenY);
         } else {
-            path.moveTo((float) screenPoint[0], (float) screenPoint[1]);
+            path.moveTo(screenX, screenY);
             pathLineToReady = true;
         }
     }
@@ -101,11 +101,11 @@ final class BitmapMemoryLruCache extends LruCache<String, CacheableBitmapDrawabl
                 CacheableBitmapDrawable value = it.next().get();
 
                 if (canUseForInBitmap(value)) {
-                    if (canUseForInBitmapForSize(value, width, height) && !value.isBeingDisplayed() && !value.isReferencedByCache()) {
+                    if (canUseForInBitmapForSize(value, width, height) && !value.isBeingDisplayed()
+                            && !value.isReferencedByCache() && value.setReused()) {
                         result = value.getBitmap();
                         SDK12.setHasAlpha(result, true);
                         result.eraseColor(Color.TRANSPARENT);
-                        value.setReused();
                         it.remove();
                         break;
                     }
@@ -24,27 +24,59 @@ import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A BitmapDrawable that knows when its bitmap may be recycled or reused.
+ * <p/>
+ * Views displaying the drawable hold a reference through {@link #setBeingUsed(boolean)}. Code
+ * that draws the drawable on every frame, like the tiles of a map, calls
+ * {@link #markUsed(FrameClock)} instead, which keeps the bitmap alive for the current and the
+ * next frame of that view without a matching release. Both paths are lock-free, the lock is only
+ * taken when the drawable may have to be recycled.
+ */
 public class CacheableBitmapDrawable extends BitmapDrawable {
 
     public static final int SOURCE_UNKNOWN = -1;
     public static final int SOURCE_NEW = 0;
     public static final int SOURCE_INBITMAP = 1;
 
+    /**
+     * Value of {@link #getStaleTime()} until whoever knows where the bitmap came from sets it.
+     */
+    public static final long STALE_TIME_UNKNOWN = Long.MIN_VALUE;
+
     static final String LOG_TAG = "CacheableBitmapDrawable";
 
+    /**
+     * Value of mDisplayingCount once the bitmap has been recycled or handed out for reuse.
+     */
+    private static final int RELEASED = Integer.MIN_VALUE;
+
     // URL Associated with this Bitmap
     private final String mUrl;
 
     private BitmapLruCache.RecyclePolicy mRecyclePolicy;
 
-    // Number of Views currently displaying bitmap
-    private int mDisplayingCount;
+    // Number of Views currently displaying bitmap, RELEASED once recycled or reused
+    private final AtomicInteger mDisplayingCount = new AtomicInteger();
+
+    // Number of frames, over all frame clocks, that drew the drawable and have not ended yet
+    private final AtomicInteger mPinCount = new AtomicInteger();
+
+    // The clock and frame the drawable was last pinned for, only touched by the drawing thread
+    private FrameClock mPinnedClock;
+    private long mPinnedFrame;
 
     // Has it been displayed yet
-    private boolean mHasBeenDisplayed;
+    private volatile boolean mHasBeenDisplayed;
 
     // Number of caches currently referencing the wrapper
-    private int mCacheCount;
+    private final AtomicInteger mCacheCount = new AtomicInteger();
+
+    // Whether the drawable waits for its last pin to be released to be recycled, guarded by this
+    private boolean mReleaseDeferred;
 
     // The CheckStateRunnable currently being delayed
     private Runnable mCheckStateRunnable;
@@ -59,7 +91,10 @@ public class CacheableBitmapDrawable extends BitmapDrawable {
 
     private final int mSource;
 
-    private boolean mReused;
+    private volatile boolean mReused;
+
+    // When the bitmap should be checked against its source again, read on every frame
+    private final AtomicLong mStaleTime = new AtomicLong(STALE_TIME_UNKNOWN);
 
     public CacheableBitmapDrawable(String url, Resources resources, Bitmap bitmap,
             BitmapLruCache.RecyclePolicy recyclePolicy, int source) {
@@ -68,9 +103,7 @@ public class CacheableBitmapDrawable extends BitmapDrawable {
         mMemorySize = null != bitmap ? (bitmap.getRowBytes() * bitmap.getHeight()) : 0;
         mUrl = url;
         mRecyclePolicy = recyclePolicy;
-        mDisplayingCount = 0;
         mHasBeenDisplayed = false;
-        mCacheCount = 0;
         mSource = source;
         mReused = false;
     }
@@ -102,6 +135,26 @@ public class CacheableBitmapDrawable extends BitmapDrawable {
        return mMemorySize;
     }
 
+    /**
+     * @return when the bitmap should be checked against its source again, in milliseconds since
+     * the epoch, Long.MAX_VALUE for never, or {@link #STALE_TIME_UNKNOWN}
+     */
+    public long getStaleTime() {
+        return mStaleTime.get();
+    }
+
+    public void setStaleTime(final long staleTime) {
+        mStaleTime.set(staleTime);
+    }
+
+    /**
+     * Sets the stale time unless it was set already, so that a value read earlier never
+     * replaces one set concurrently by {@link #setStaleTime(long)}.
+     */
+    public void setStaleTimeIfUnknown(final long staleTime) {
+        mStaleTime.compareAndSet(STALE_TIME_UNKNOWN, staleTime);
+    }
+
     /**
      * @return the URL associated with the BitmapDrawable
      */
@@ -122,28 +175,29 @@ public class CacheableBitmapDrawable extends BitmapDrawable {
      *
      * @return true - if the bitmap has not been recycled.
      */
-    public synchronized boolean isBitmapValid() {
+    public boolean isBitmapValid() {
         Bitmap bitmap = getBitmap();
         return !mReused && null != bitmap && !bitmap.isRecycled();
     }
 
-    public synchronized boolean isBitmapMutable() {
+    public boolean isBitmapMutable() {
         Bitmap bitmap = getBitmap();
         return null != bitmap && bitmap.isMutable();
     }
 
     /**
-     * @return true - if the bitmap is currently being displayed by a {@link CacheableImageView}.
+     * @return true - if the bitmap is currently being displayed by a {@link CacheableImageView},
+     * or was marked as used in a frame that has not ended.
      */
-    public synchronized boolean isBeingDisplayed() {
-        return mDisplayingCount > 0;
+    public boolean isBeingDisplayed() {
+        return mDisplayingCount.get() > 0 || isUsedRecently();
     }
 
     /**
      * @return true - if the wrapper is currently referenced by a cache.
      */
-    public synchronized boolean isReferencedByCache() {
-        return mCacheCount > 0;
+    public boolean isReferencedByCache() {
+        return mCacheCount.get() > 0;
     }
 
     /**
@@ -151,14 +205,58 @@ public class CacheableBitmapDrawable extends BitmapDrawable {
      *
      * @param beingUsed - true if being used, false if not.
      */
-    public synchronized void setBeingUsed(boolean beingUsed) {
+    public void setBeingUsed(boolean beingUsed) {
         if (beingUsed) {
-            mDisplayingCount++;
             mHasBeenDisplayed = true;
-        } else {
-            mDisplayingCount--;
+            int count;
+            do {
+                count = mDisplayingCount.get();
+            } while (count >= 0 && !mDisplayingCount.compareAndSet(count, count + 1));
+            return;
+        }
+        int count;
+        do {
+            count = mDisplayingCount.get();
+            if (count <= 0) {
+                return;
+            }
+        } while (!mDisplayingCount.compareAndSet(count, count - 1));
+        if (count == 1) {
+            checkState();
+        }
+    }
+
+    /**
+     * Marks the drawable as being drawn in the current frame of a view. It is neither recycled
+     * nor reused before that frame and the next one of the same clock have ended, no release
+     * call is needed. Must be called on the thread drawing with the clock.
+     *
+     * @param clock the frame clock of the view drawing the drawable
+     * @return false if the bitmap has already been recycled or reused, it must not be drawn
+     */
+    public boolean markUsed(final FrameClock clock) {
+        mHasBeenDisplayed = true;
+        if (mPinnedClock != clock || mPinnedFrame != clock.getFrame()) {
+            mPinnedClock = clock;
+            mPinnedFrame = clock.getFrame();
+            mPinCount.incrementAndGet();
+            clock.pin(this);
+        }
+        // read after the write above, see release()
+        return mDisplayingCount.get() != RELEASED && !mReused;
+    }
+
+    /**
+     * Called by a frame clock once the frames that drew the drawable have ended.
+     */
+    void unpin() {
+        if (mPinCount.decrementAndGet() == 0) {
+            retryDeferredRelease();
         }
-        checkState();
+    }
+
+    private boolean isUsedRecently() {
+        return mPinCount.get() > 0;
     }
 
     /**
@@ -166,32 +264,53 @@ public class CacheableBitmapDrawable extends BitmapDrawable {
      *
      * @param added - true if the wrapper has been added to a cache, false if removed.
      */
-    synchronized void setCached(boolean added) {
+    void setCached(boolean added) {
         if (added) {
-            mCacheCount++;
-        } else {
-            mCacheCount--;
+            mCacheCount.incrementAndGet();
+        } else if (mCacheCount.decrementAndGet() <= 0) {
+            checkState();
         }
-        checkState();
     }
 
     /**
-     * Used to signal to the wrapper that the attached bitmap has been reused.
+     * Claims the attached bitmap for reuse, unless it is in use.
+     *
+     * @return true if the bitmap may be reused
      */
-    synchronized void setReused() {
-        if (mReused == false) {
-            mReused = true;
+    boolean setReused() {
+        if (!release()) {
+            return false;
         }
+        mReused = true;
+        return true;
     }
 
-
     /**
-     * Try to recycle if not referenced by cache or being displayed.
+     * Moves the drawable to the released state if nobody displays it. A drawable can be marked
+     * as used concurrently: markUsed() pins it before reading the count, this method
+     * sets the count before reading the pins, so at least one of them sees the other.
+     *
+     * @return true if the drawable was released and its bitmap may be recycled or reused
      */
-    private void tryRecycle() {
-        checkState(false);
+    private boolean release() {
+        if (!mDisplayingCount.compareAndSet(0, RELEASED)) {
+            return false;
+        }
+        if (isUsedRecently()) {
+            mDisplayingCount.set(0);
+            return false;
+        }
+        return true;
     }
 
+    private synchronized void retryDeferredRelease() {
+        if (mReleaseDeferred) {
+            mReleaseDeferred = false;
+            checkState();
+        }
+    }
+
+
     private void cancelCheckStateCallback() {
         if (null != mCheckStateRunnable) {
             if (Constants.DEBUG) {
@@ -227,7 +346,7 @@ public class CacheableBitmapDrawable extends BitmapDrawable {
         if (Constants.DEBUG) {
             Log.d(LOG_TAG, String.format(
                     "checkState(). Been Displayed: %b, Displaying: %d, Caching: %d, URL: %s",
-                    mHasBeenDisplayed, mDisplayingCount, mCacheCount, mUrl));
+                    mHasBeenDisplayed, mDisplayingCount.get(), mCacheCount.get(), mUrl));
         }
 
         // If the policy doesn't let us recycle, return now
@@ -239,13 +358,29 @@ public class CacheableBitmapDrawable extends BitmapDrawable {
         cancelCheckStateCallback();
 
         // We're not being referenced or used anywhere
-        if (mCacheCount <= 0 && mDisplayingCount <= 0 && (isBitmapValid() || mReused)) {
+        if (mCacheCount.get() <= 0 && mDisplayingCount.get() == 0 && isBitmapValid()) {
 
             /**
              * If we have been displayed or we don't care whether we have
              * been or not, then recycle() now. Otherwise, we retry after a delay.
+             * A drawable drawn in the last frames is retried once they have ended.
              */
             if (mHasBeenDisplayed || ignoreBeenDisplayed) {
+                if (!release()) {
+                    if (mDisplayingCount.get() == 0 && !mReleaseDeferred) {
+                        mReleaseDeferred = true;
+                        if (!isUsedRecently()) {
+                            // the last pin was released before the flag was set
+                            retryDeferredRelease();
+                        }
+                    }
+                    return;
+                }
+                if (mCacheCount.get() > 0) {
+                    // added to a cache again in the meantime
+                    mDisplayingCount.set(0);
+                    return;
+                }
                 if (Constants.DEBUG) {
                     Log.d(LOG_TAG, "Recycling bitmap with url: " + mUrl);
                 }
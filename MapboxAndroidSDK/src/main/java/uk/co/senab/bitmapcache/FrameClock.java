@@ -0,0 +1,53 @@
+package uk.co.senab.bitmapcache;
+
+import java.util.ArrayList;
+
+/**
+ * The frames of a single view drawing {@link CacheableBitmapDrawable}s, see
+ * {@link CacheableBitmapDrawable#markUsed(FrameClock)}.
+ * <p/>
+ * A drawn bitmap may still be referenced by a display list until the next frame of the view has
+ * been drawn, so the drawables marked in a frame are pinned until the frame after it ends. Every
+ * view has a clock of its own and ends its frames once per frame it displays: views drawing
+ * more often, and snapshots of a view, do not shorten the frames of another.
+ * <p/>
+ * A clock is not thread safe, it must be used on the thread that draws the view.
+ */
+public class FrameClock {
+
+    private long mFrame;
+    private ArrayList<CacheableBitmapDrawable> mCurrent = new ArrayList<CacheableBitmapDrawable>();
+    private ArrayList<CacheableBitmapDrawable> mPrevious = new ArrayList<CacheableBitmapDrawable>();
+
+    long getFrame() {
+        return mFrame;
+    }
+
+    void pin(final CacheableBitmapDrawable drawable) {
+        mCurrent.add(drawable);
+    }
+
+    /**
+     * Ends the current frame. The drawables marked in the frame before it may be recycled or
+     * reused from now on.
+     */
+    public void endFrame() {
+        mFrame++;
+        final ArrayList<CacheableBitmapDrawable> previous = mPrevious;
+        mPrevious = mCurrent;
+        mCurrent = previous;
+        for (int i = 0; i < previous.size(); i++) {
+            previous.get(i).unpin();
+        }
+        previous.clear();
+    }
+
+    /**
+     * Releases every drawable marked with this clock, once the view no longer draws, for
+     * example when it is detached from its window.
+     */
+    public void releaseAll() {
+        endFrame();
+        endFrame();
+    }
+}
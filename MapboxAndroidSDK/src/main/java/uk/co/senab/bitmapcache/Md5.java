@@ -18,7 +18,7 @@ package uk.co.senab.bitmapcache;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
-class Md5 {
+public class Md5 {
 
     private static final char[] DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a',
             'b', 'c', 'd', 'e', 'f', 'g', 'h', 'i', 'j', 'k', 'l', 'm', 'n', 'o', 'p', 'q', 'r',
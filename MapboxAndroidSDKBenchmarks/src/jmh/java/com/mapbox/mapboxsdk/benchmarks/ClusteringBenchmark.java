@@ -0,0 +1,44 @@
+package com.mapbox.mapboxsdk.benchmarks;
+
+import com.mapbox.mapboxsdk.clustering.Cluster;
+import com.mapbox.mapboxsdk.clustering.algo.NonHierarchicalDistanceBasedAlgorithm;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clustering all the markers of a map, as done on every zoom level change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ClusteringBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    public int markerCount;
+
+    @Param({"3", "8", "14"})
+    public int zoom;
+
+    private NonHierarchicalDistanceBasedAlgorithm<SyntheticData.Marker> mAlgorithm;
+
+    @Setup
+    public void setUp() {
+        mAlgorithm = new NonHierarchicalDistanceBasedAlgorithm<>();
+        mAlgorithm.addItems(SyntheticData.markers(markerCount, SyntheticData.SEED));
+    }
+
+    @Benchmark
+    public Set<? extends Cluster<SyntheticData.Marker>> getClusters() {
+        return mAlgorithm.getClusters(zoom);
+    }
+}
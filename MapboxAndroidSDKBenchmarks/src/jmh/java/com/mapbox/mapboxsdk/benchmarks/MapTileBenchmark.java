@@ -0,0 +1,76 @@
+package com.mapbox.mapboxsdk.benchmarks;
+
+import com.mapbox.mapboxsdk.tileprovider.MapTile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The tile keys made for every visible tile on every frame, and their lookup in a map of
+ * loaded tiles as the tile cache does it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapTileBenchmark {
+
+    private static final String CACHE_KEY = "mapbox.streets";
+    private static final int ZOOM = 15;
+    private static final int FIRST_X = 17600;
+    private static final int FIRST_Y = 10740;
+
+    /**
+     * Tiles per side of the block of tiles of a frame, 8 * 8 covers a 1080 * 1920 screen.
+     */
+    private static final int SIDE = 8;
+
+    private final Map<MapTile, Object> mLoaded = new HashMap<>();
+
+    @Setup
+    public void setUp() {
+        // Half of the tiles of a frame are loaded, as when panning
+        for (int y = 0; y < SIDE; y++) {
+            for (int x = 0; x < SIDE / 2; x++) {
+                final MapTile tile = new MapTile(CACHE_KEY, ZOOM, FIRST_X + x, FIRST_Y + y);
+                mLoaded.put(tile, tile);
+            }
+        }
+    }
+
+    @Benchmark
+    public void createKeys(final Blackhole blackhole) {
+        for (int y = 0; y < SIDE; y++) {
+            for (int x = 0; x < SIDE; x++) {
+                blackhole.consume(new MapTile(CACHE_KEY, ZOOM, FIRST_X + x, FIRST_Y + y));
+            }
+        }
+    }
+
+    @Benchmark
+    public void createAndLookUpKeys(final Blackhole blackhole) {
+        for (int y = 0; y < SIDE; y++) {
+            for (int x = 0; x < SIDE; x++) {
+                blackhole.consume(mLoaded.get(new MapTile(CACHE_KEY, ZOOM, FIRST_X + x, FIRST_Y + y)));
+            }
+        }
+    }
+
+    @Benchmark
+    public void createCacheKeys(final Blackhole blackhole) {
+        for (int y = 0; y < SIDE; y++) {
+            for (int x = 0; x < SIDE; x++) {
+                blackhole.consume(new MapTile(CACHE_KEY, ZOOM, FIRST_X + x, FIRST_Y + y).getCacheKey());
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.mapbox.mapboxsdk.benchmarks;
+
+import com.spatialdev.osm.model.OSMDataSet;
+import com.spatialdev.osm.model.OSMXmlParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing an OSM XML extract into a data set, from memory so that only parsing is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OSMXmlParserBenchmark {
+
+    @Param({"1000", "20000"})
+    public int nodeCount;
+
+    private byte[] mXml;
+
+    @Setup
+    public void setUp() {
+        mXml = SyntheticData.osmXml(nodeCount, SyntheticData.SEED);
+    }
+
+    @Benchmark
+    public OSMDataSet parse() throws IOException {
+        return OSMXmlParser.parseFromInputStream(new ByteArrayInputStream(mXml));
+    }
+}
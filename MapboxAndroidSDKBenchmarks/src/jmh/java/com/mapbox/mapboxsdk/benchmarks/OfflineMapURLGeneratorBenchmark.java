@@ -0,0 +1,68 @@
+package com.mapbox.mapboxsdk.benchmarks;
+
+import com.mapbox.mapboxsdk.constants.MapboxConstants;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.offline.OfflineMapURLGenerator;
+import com.mapbox.mapboxsdk.util.MapboxUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listing the tile URLs of a city sized offline map, as done when its download starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OfflineMapURLGeneratorBenchmark {
+
+    private static final String MAP_ID = "mapbox.streets";
+    private static final double SPAN = 0.3;
+    private static final int MINIMUM_ZOOM = 10;
+
+    @Param({"14", "16"})
+    public int maximumZoom;
+
+    private double mMinLat;
+    private double mMaxLat;
+    private double mMinLon;
+    private double mMaxLon;
+    private OfflineMapURLGenerator mGenerator;
+
+    @Setup
+    public void setUp() {
+        MapboxUtils.setAccessToken("pk.benchmark");
+        final LatLng center = SyntheticData.berlin();
+        mMinLat = center.getLatitude() - SPAN / 2;
+        mMaxLat = center.getLatitude() + SPAN / 2;
+        mMinLon = center.getLongitude() - SPAN / 2;
+        mMaxLon = center.getLongitude() + SPAN / 2;
+        mGenerator = newGenerator();
+    }
+
+    private OfflineMapURLGenerator newGenerator() {
+        return new OfflineMapURLGenerator(mMinLat, mMaxLat, mMinLon, mMaxLon, MINIMUM_ZOOM, maximumZoom);
+    }
+
+    @Benchmark
+    public OfflineMapURLGenerator create() {
+        return newGenerator();
+    }
+
+    @Benchmark
+    public void generateAllURLs(final Blackhole blackhole) {
+        for (int i = 0, count = mGenerator.getURLCount(); i < count; i++) {
+            blackhole.consume(mGenerator.getURLForIndex(null, MAP_ID,
+                    MapboxConstants.RasterImageQuality.MBXRasterImageQualityPNG256, i));
+        }
+    }
+}
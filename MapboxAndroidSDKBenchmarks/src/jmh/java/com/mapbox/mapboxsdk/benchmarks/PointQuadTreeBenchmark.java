@@ -0,0 +1,88 @@
+package com.mapbox.mapboxsdk.benchmarks;
+
+import com.mapbox.mapboxsdk.clustering.geometry.Bounds;
+import com.mapbox.mapboxsdk.clustering.geometry.Point;
+import com.mapbox.mapboxsdk.clustering.projection.SphericalMercatorProjection;
+import com.mapbox.mapboxsdk.clustering.quadtree.PointQuadTree;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searching the quad tree of the clustering for the points in a screen sized area.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PointQuadTreeBenchmark {
+
+    private static final int QUERIES = 1024;
+    private static final int WIDTH_PX = 1080;
+    private static final int HEIGHT_PX = 1920;
+
+    @Param({"10000", "100000"})
+    public int pointCount;
+
+    /**
+     * The zoom level giving the size of the searched area.
+     */
+    @Param({"6", "12"})
+    public int zoom;
+
+    private PointQuadTree<Item> mTree;
+    private Bounds[] mQueries;
+    private int mNextQuery;
+
+    @Setup
+    public void setUp() {
+        final SphericalMercatorProjection projection = new SphericalMercatorProjection(1);
+        mTree = new PointQuadTree<>(0, 1, 0, 1);
+        final double[] latLngs = SyntheticData.latLngs(pointCount, SyntheticData.SEED);
+        for (int i = 0; i < pointCount; i++) {
+            mTree.add(new Item(projection.toPoint(new LatLng(latLngs[i * 2], latLngs[i * 2 + 1]))));
+        }
+
+        // Areas centered on other points of the same distribution, so most of them hold points
+        final double worldPx = 256.0 * (1 << zoom);
+        final double halfWidth = WIDTH_PX / worldPx / 2;
+        final double halfHeight = HEIGHT_PX / worldPx / 2;
+        final double[] centers = SyntheticData.latLngs(QUERIES, SyntheticData.SEED + 1);
+        mQueries = new Bounds[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            final Point center = projection.toPoint(new LatLng(centers[i * 2], centers[i * 2 + 1]));
+            mQueries[i] = new Bounds(center.x - halfWidth, center.x + halfWidth,
+                    center.y - halfHeight, center.y + halfHeight);
+        }
+        mNextQuery = new Random(SyntheticData.SEED).nextInt(QUERIES);
+    }
+
+    @Benchmark
+    public Collection<Item> search() {
+        mNextQuery = (mNextQuery + 1) % QUERIES;
+        return mTree.search(mQueries[mNextQuery]);
+    }
+
+    private static final class Item implements PointQuadTree.Item {
+        private final Point mPoint;
+
+        Item(final Point point) {
+            mPoint = point;
+        }
+
+        @Override
+        public Point getPoint() {
+            return mPoint;
+        }
+    }
+}
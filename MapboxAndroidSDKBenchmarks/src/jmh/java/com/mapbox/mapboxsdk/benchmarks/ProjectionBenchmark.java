@@ -0,0 +1,60 @@
+package com.mapbox.mapboxsdk.benchmarks;
+
+import android.graphics.PointF;
+
+import com.mapbox.mapboxsdk.views.util.Projection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Projecting the points of overlays to pixels, point by point and with the bulk kernel. Scores
+ * are per point.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProjectionBenchmark {
+
+    private static final int POINTS = 10000;
+    private static final int ZOOM = 14;
+
+    private double[] mLatLngs;
+    private double[] mLngLats;
+    private final double[] mOut = new double[POINTS * 2];
+    private final PointF mReuse = new PointF();
+
+    @Setup
+    public void setUp() {
+        mLatLngs = SyntheticData.latLngs(POINTS, SyntheticData.SEED);
+        mLngLats = new double[POINTS * 2];
+        for (int i = 0; i < POINTS; i++) {
+            mLngLats[i * 2] = mLatLngs[i * 2 + 1];
+            mLngLats[i * 2 + 1] = mLatLngs[i * 2];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public void latLongToPixelXY(final Blackhole blackhole) {
+        for (int i = 0; i < POINTS; i++) {
+            blackhole.consume(Projection.latLongToPixelXY(mLatLngs[i * 2], mLatLngs[i * 2 + 1], ZOOM, mReuse).x);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public double[] latLongToPixelXYBulk() {
+        Projection.latLongToPixelXY(mLngLats, 2, 0, POINTS, mOut, 2, 0);
+        return mOut;
+    }
+}
@@ -0,0 +1,139 @@
+package com.mapbox.mapboxsdk.benchmarks;
+
+import com.mapbox.mapboxsdk.clustering.ClusterItem;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Deterministic datasets shaped like real map content: most points gathered around a few
+ * cities, the rest spread over the inhabited latitudes. Every generator takes its own seed so
+ * that results are comparable between runs.
+ */
+final class SyntheticData {
+
+    static final long SEED = 42;
+
+    /**
+     * Latitude and longitude of the cities points gather around.
+     */
+    private static final double[][] CITIES = {
+            {52.52, 13.40}, {48.86, 2.35}, {40.71, -74.01}, {37.77, -122.42}, {35.68, 139.69},
+            {-33.87, 151.21}, {-23.55, -46.63}, {19.43, -99.13}, {28.61, 77.21}, {30.04, 31.24},
+            {-1.29, 36.82}, {55.76, 37.62},
+    };
+
+    /**
+     * The share of the points gathered around a city.
+     */
+    private static final double CITY_SHARE = 0.8;
+
+    /**
+     * The standard deviation of the distance of a point to its city, in degrees.
+     */
+    private static final double CITY_SPREAD = 0.2;
+
+    private SyntheticData() {
+    }
+
+    static LatLng berlin() {
+        return new LatLng(CITIES[0][0], CITIES[0][1]);
+    }
+
+    /**
+     * @return count latitude, longitude pairs in a single array
+     */
+    static double[] latLngs(final int count, final long seed) {
+        final Random random = new Random(seed);
+        final double[] latLngs = new double[count * 2];
+        for (int i = 0; i < count; i++) {
+            if (random.nextDouble() < CITY_SHARE) {
+                final double[] city = CITIES[random.nextInt(CITIES.length)];
+                latLngs[i * 2] = clamp(city[0] + random.nextGaussian() * CITY_SPREAD, -85, 85);
+                latLngs[i * 2 + 1] = clamp(city[1] + random.nextGaussian() * CITY_SPREAD, -180, 180);
+            } else {
+                latLngs[i * 2] = random.nextDouble() * 120 - 60;
+                latLngs[i * 2 + 1] = random.nextDouble() * 360 - 180;
+            }
+        }
+        return latLngs;
+    }
+
+    static List<Marker> markers(final int count, final long seed) {
+        final double[] latLngs = latLngs(count, seed);
+        final List<Marker> markers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            markers.add(new Marker(new LatLng(latLngs[i * 2], latLngs[i * 2 + 1])));
+        }
+        return markers;
+    }
+
+    /**
+     * An OSM XML extract like the ones the OSM editing overlay loads: tagged and untagged
+     * nodes, ways of 10 nodes each and relations grouping ways.
+     *
+     * @return the document, UTF-8 encoded
+     */
+    static byte[] osmXml(final int nodeCount, final long seed) {
+        final Random random = new Random(seed);
+        final double[] latLngs = latLngs(nodeCount, seed);
+        final StringBuilder xml = new StringBuilder(nodeCount * 200);
+        xml.append("<?xml version='1.0' encoding='UTF-8'?>\n");
+        xml.append("<osm version=\"0.6\" generator=\"benchmark\">\n");
+        xml.append("  <note>Synthetic data</note>\n");
+        xml.append("  <meta osm_base=\"2015-06-01T00:00:00Z\"/>\n");
+        for (int i = 0; i < nodeCount; i++) {
+            xml.append(String.format(Locale.US, "  <node id=\"%d\" lat=\"%.7f\" lon=\"%.7f\" version=\"%d\" "
+                            + "timestamp=\"2015-05-0%dT12:00:00Z\" changeset=\"%d\" uid=\"%d\" user=\"mapper%d\"",
+                    i + 1, latLngs[i * 2], latLngs[i * 2 + 1], 1 + random.nextInt(5), 1 + random.nextInt(9),
+                    30000000 + random.nextInt(1000), random.nextInt(500), random.nextInt(500)));
+            if (random.nextInt(5) == 0) {
+                xml.append(">\n    <tag k=\"amenity\" v=\"cafe\"/>\n    <tag k=\"name\" v=\"Node ")
+                        .append(i + 1).append("\"/>\n  </node>\n");
+            } else {
+                xml.append("/>\n");
+            }
+        }
+        final int wayCount = nodeCount / 10;
+        for (int i = 0; i < wayCount; i++) {
+            xml.append("  <way id=\"").append(i + 1).append("\" version=\"1\" timestamp=\"2015-05-01T12:00:00Z\" ")
+                    .append("changeset=\"30000000\" uid=\"1\" user=\"mapper1\">\n");
+            for (int n = 0; n < 10; n++) {
+                xml.append("    <nd ref=\"").append(i * 10 + n + 1).append("\"/>\n");
+            }
+            xml.append("    <tag k=\"highway\" v=\"residential\"/>\n    <tag k=\"name\" v=\"Way ")
+                    .append(i + 1).append("\"/>\n  </way>\n");
+        }
+        for (int i = 0; i < wayCount / 10; i++) {
+            xml.append("  <relation id=\"").append(i + 1).append("\" version=\"1\" timestamp=\"2015-05-01T12:00:00Z\" ")
+                    .append("changeset=\"30000000\" uid=\"1\" user=\"mapper1\">\n");
+            for (int w = 0; w < 10; w++) {
+                xml.append("    <member type=\"way\" ref=\"").append(i * 10 + w + 1).append("\" role=\"outer\"/>\n");
+            }
+            xml.append("    <tag k=\"type\" v=\"multipolygon\"/>\n  </relation>\n");
+        }
+        xml.append("</osm>\n");
+        return xml.toString().getBytes(Charset.forName("UTF-8"));
+    }
+
+    private static double clamp(final double value, final double min, final double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    static final class Marker implements ClusterItem {
+        private final LatLng mPosition;
+
+        Marker(final LatLng position) {
+            mPosition = position;
+        }
+
+        @Override
+        public LatLng getPosition() {
+            return mPosition;
+        }
+    }
+}
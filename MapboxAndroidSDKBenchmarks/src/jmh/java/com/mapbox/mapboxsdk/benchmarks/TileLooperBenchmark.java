@@ -0,0 +1,87 @@
+package com.mapbox.mapboxsdk.benchmarks;
+
+import android.graphics.Canvas;
+import android.graphics.PointF;
+import android.graphics.Rect;
+
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.tileprovider.MapTile;
+import com.mapbox.mapboxsdk.util.TileLooper;
+import com.mapbox.mapboxsdk.views.util.Projection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One pass of the tiles overlay over the tiles of a frame, without drawing them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TileLooperBenchmark {
+
+    private static final String CACHE_KEY = "mapbox.streets";
+    private static final int TILE_SIZE = 256;
+
+    /**
+     * The size of the screen, in pixels.
+     */
+    @Param({"1080x1920", "2560x1600"})
+    public String viewport;
+
+    @Param({"3.5", "14.5"})
+    public float zoom;
+
+    private final Rect mViewPort = new Rect();
+    private BlackholeLooper mLooper;
+
+    @Setup
+    public void setUp() {
+        final int separator = viewport.indexOf('x');
+        final int width = Integer.parseInt(viewport.substring(0, separator));
+        final int height = Integer.parseInt(viewport.substring(separator + 1));
+        final LatLng center = SyntheticData.berlin();
+        final PointF centerPixel = Projection.latLongToPixelXY(center.getLatitude(),
+                center.getLongitude(), (int) zoom, null);
+        final int left = (int) centerPixel.x - width / 2;
+        final int top = (int) centerPixel.y - height / 2;
+        mViewPort.set(left, top, left + width, top + height);
+        mLooper = new BlackholeLooper();
+    }
+
+    @Benchmark
+    public int loop(final Blackhole blackhole) {
+        mLooper.mBlackhole = blackhole;
+        return mLooper.loop(null, CACHE_KEY, zoom, TILE_SIZE, mViewPort, mViewPort);
+    }
+
+    private static final class BlackholeLooper extends TileLooper {
+        Blackhole mBlackhole;
+
+        @Override
+        public void initializeLoop(final float pZoomLevel, final int pTileSizePx) {
+        }
+
+        @Override
+        public void handleTile(final Canvas pCanvas, final String pCacheKey, final int pTileSizePx,
+                final MapTile pTile, final int pX, final int pY, final Rect pClipRect) {
+            mBlackhole.consume(pTile);
+        }
+
+        /**
+         * Ending a frame releases drawables through the main Looper, which doesn't exist here.
+         */
+        @Override
+        public void finalizeLoop() {
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package android.graphics;
+
+/**
+ * JVM implementation of the framework class, for the parts the benchmarked code uses.
+ */
+public class Point {
+    public int x;
+    public int y;
+
+    public Point() {
+    }
+
+    public Point(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public void set(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public final void offset(int dx, int dy) {
+        x += dx;
+        y += dy;
+    }
+}
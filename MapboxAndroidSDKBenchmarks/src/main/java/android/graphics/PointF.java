@@ -0,0 +1,22 @@
+package android.graphics;
+
+/**
+ * JVM implementation of the framework class, for the parts the benchmarked code uses.
+ */
+public class PointF {
+    public float x;
+    public float y;
+
+    public PointF() {
+    }
+
+    public PointF(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public final void set(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+}
@@ -0,0 +1,14 @@
+package android.text;
+
+/**
+ * JVM implementation of the framework class, for the parts the benchmarked code uses.
+ */
+public class TextUtils {
+
+    private TextUtils() {
+    }
+
+    public static boolean isEmpty(CharSequence str) {
+        return str == null || str.length() == 0;
+    }
+}
@@ -0,0 +1,26 @@
+package android.util;
+
+import org.kxml2.io.KXmlParser;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+/**
+ * JVM implementation of the framework class, for the parts the benchmarked code uses. Returns
+ * the KXmlParser the platform uses, other XmlPullParsers are stricter with the OSM parser.
+ */
+public class Xml {
+
+    private Xml() {
+    }
+
+    public static XmlPullParser newPullParser() {
+        try {
+            KXmlParser parser = new KXmlParser();
+            parser.setFeature(XmlPullParser.FEATURE_PROCESS_DOCDECL, true);
+            parser.setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, true);
+            return parser;
+        } catch (XmlPullParserException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -13,6 +13,7 @@ import com.mapbox.mapboxsdk.overlay.Marker;
 import com.mapbox.mapboxsdk.util.MapboxUtils;
 import com.mapbox.mapboxsdk.views.MapView;
 import com.mapbox.mapboxsdk.views.MapViewListener;
+import org.json.JSONObject;
 
 public class TapForUTFGridTestFragment extends Fragment {
 
@@ -41,8 +42,9 @@ public class TapForUTFGridTestFragment extends Fragment {
             public void onTapMap(MapView pMapView, ILatLng pPosition) {
                 String coords = String.format("Zoom = %f, Lat = %f, Lon = %f", pMapView.getZoomLevel(), pPosition.getLatitude(), pPosition.getLongitude());
                 String utfGrid = MapboxUtils.getUTFGridString(pPosition, Float.valueOf(pMapView.getZoomLevel()).intValue());
-                Log.i("TapForUTFGridTestFragment", String.format("coords = '%s', UTFGrid = '%s'", coords, utfGrid));
-                Toast.makeText(getActivity(), coords + " == " + utfGrid, Toast.LENGTH_LONG).show();
+                JSONObject data = pMapView.getUTFGridData(pPosition);
+                Log.i("TapForUTFGridTestFragment", String.format("coords = '%s', UTFGrid = '%s', data = '%s'", coords, utfGrid, data));
+                Toast.makeText(getActivity(), coords + " == " + utfGrid + (data != null ? "\n" + data : ""), Toast.LENGTH_LONG).show();
             }
 
             @Override